@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+#
+# Runs the JMH benchmarks and compares their scores with a stored baseline.
+#
+# Usage: scripts/benchmark.sh [--save-baseline] [JMH options...]
+#   --save-baseline  store the results as the new baseline instead of comparing
+#   JMH options      passed to JMH, e.g. "BookSerializationBenchmark" or "-p copies=10000"
+#
+# Environment:
+#   BENCHMARK_BASELINE   baseline file (default: benchmarks/baseline.json)
+#   BENCHMARK_THRESHOLD  slowdown in percent reported as a regression (default: 10)
+#
+# All benchmarks report average time per operation, so a higher score is slower.
+# Exits with status 1 when any benchmark regressed beyond the threshold. Requires jq.
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+baseline="${BENCHMARK_BASELINE:-benchmarks/baseline.json}"
+threshold="${BENCHMARK_THRESHOLD:-10}"
+result="target/jmh-result.json"
+
+save=false
+if [[ "${1:-}" == "--save-baseline" ]]; then
+    save=true
+    shift
+fi
+
+mvn -B -q -Pbenchmark test-compile exec:exec -Djmh.result="$result" -Djmh.args="$*"
+
+if $save; then
+    mkdir -p "$(dirname "$baseline")"
+    cp "$result" "$baseline"
+    echo "Saved $result as baseline $baseline"
+    exit 0
+fi
+
+if [[ ! -f "$baseline" ]]; then
+    echo "No baseline at $baseline; run with --save-baseline to create one"
+    exit 0
+fi
+
+report=$(jq -r -n --slurpfile base "$baseline" --slurpfile current "$result" --argjson threshold "$threshold" '
+    def id: .benchmark + ((.params // {}) | to_entries | map(" \(.key)=\(.value)") | join(""));
+    ($base[0] | map({key: id, value: .primaryMetric}) | from_entries) as $before
+    | $current[0][]
+    | id as $id
+    | .primaryMetric as $after
+    | $before[$id] as $old
+    | if $old == null then
+        "\($id)\tnew\t\($after.score * 100 | round / 100) \($after.scoreUnit)"
+      else
+        (($after.score - $old.score) / $old.score * 100) as $change
+        | "\($id)\t\($old.score * 100 | round / 100) -> \($after.score * 100 | round / 100) \($after.scoreUnit)\t\($change * 10 | round / 10)%"
+          + (if $change > $threshold then "\tREGRESSION" else "" end)
+      end')
+
+awk -F '\t' '{ printf "%-72s %-36s %-8s %s\n", $1, $2, $3, $4 }' <<< "$report"
+if grep -q REGRESSION <<< "$report"; then
+    exit 1
+fi
@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+#
+# Compares platform and virtual request threads on the borrow and return endpoints.
+# Starts the application on H2 once per mode, runs the load test against it with a
+# borrow/return mix, and prints both reports. Results are written to
+# target/loadtest-platform.json and target/loadtest-virtual.json.
+#
+# Usage: scripts/compare-threading.sh [load test options...]
+#   e.g. scripts/compare-threading.sh --rps=1000 --duration=60s
+#
+# Requires JDK 21.
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+port=8084
+quiet="-Dspring.jpa.show-sql=false -Dlogging.level.com.terran.library=WARN -Dlogging.level.org.hibernate.SQL=WARN"
+quiet="$quiet -Dlogging.level.org.hibernate.type.descriptor.sql=WARN -Dlogging.level.org.springframework.transaction=WARN"
+quiet="$quiet -Dlogging.level.org.springframework.orm.jpa=WARN"
+
+mvn -B -q -Ploadtest test-compile
+
+stop_app() {
+    pkill -f com.terran.library.TerranLibraryApplication || true
+    while curl -sf "http://localhost:$port/actuator/health/liveness" > /dev/null; do
+        sleep 1
+    done
+}
+trap stop_app EXIT
+
+for mode in platform virtual; do
+    virtual=false
+    if [[ "$mode" == "virtual" ]]; then
+        virtual=true
+    fi
+    echo "=== $mode threads ==="
+    mvn -B -q -Ploadtest spring-boot:run -Dspring-boot.run.profiles=test -Dspring-boot.run.useTestClasspath=true \
+        -Dspring-boot.run.additional-classpath-elements=target/test-classes \
+        -Dspring-boot.run.jvmArguments="$quiet -Dspring.threads.virtual.enabled=$virtual" \
+        > "target/app-$mode.log" 2>&1 &
+    until curl -sf "http://localhost:$port/actuator/health/liveness" > /dev/null; do
+        sleep 1
+    done
+    mvn -B -q -Ploadtest exec:java \
+        -Dloadtest.args="--mix=0,50,50,0 --output=target/loadtest-$mode.json $*"
+    stop_app
+done
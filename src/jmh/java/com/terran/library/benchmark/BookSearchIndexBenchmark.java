@@ -0,0 +1,96 @@
+package com.terran.library.benchmark;
+
+import com.terran.library.service.BookSearchIndex;
+import com.terran.library.service.BookSearchQuery;
+import com.terran.library.service.BookSearchResult;
+import com.terran.library.service.CatalogRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks searches and availability updates of the in-memory search index, without the application.
+ * Copies are spread over titles of {@link LibraryState#COPIES_PER_TITLE} copies each, with three-word titles
+ * and two-word authors drawn from a fixed vocabulary, and one copy in five borrowed.
+ *
+ * @author Derry Terran
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchIndexBenchmark {
+
+    private static final int VOCABULARY = 5000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int copies;
+
+    private BookSearchIndex index;
+    private String[] words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = new Random(42);
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = String.format("word%04d", i);
+        }
+        index = new BookSearchIndex();
+        for (int copy = 0; copy < copies; copy++) {
+            var title = copy / LibraryState.COPIES_PER_TITLE;
+            var titleRandom = new Random(title);
+            var text = words[titleRandom.nextInt(VOCABULARY)] + " " + words[titleRandom.nextInt(VOCABULARY)]
+                    + " " + words[titleRandom.nextInt(VOCABULARY)];
+            var author = words[titleRandom.nextInt(VOCABULARY)] + " " + words[titleRandom.nextInt(VOCABULARY)];
+            var borrowerId = random.nextInt(5) == 0 ? 1L : null;
+            index.add(new CatalogRow((long) copy, LibraryState.isbn(title), text, author, borrowerId));
+        }
+    }
+
+    @Benchmark
+    public List<BookSearchResult> searchOneWord() {
+        return index.search(query(randomWord()));
+    }
+
+    @Benchmark
+    public List<BookSearchResult> searchTwoWords() {
+        return index.search(query(randomWord() + " " + randomWord()));
+    }
+
+    @Benchmark
+    public List<BookSearchResult> searchPrefix() {
+        // The first six characters of a word are shared by a hundred words
+        return index.search(query(randomWord().substring(0, 6)));
+    }
+
+    @Benchmark
+    public boolean borrowAndReturn() {
+        var bookId = ThreadLocalRandom.current().nextLong(copies);
+        return index.setAvailable(bookId, false) && index.setAvailable(bookId, true);
+    }
+
+    private String randomWord() {
+        return words[ThreadLocalRandom.current().nextInt(VOCABULARY)];
+    }
+
+    private static BookSearchQuery query(String text) {
+        return BookSearchQuery.of(text, 0, 20, 20, 100);
+    }
+}
@@ -0,0 +1,62 @@
+package com.terran.library.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Jackson serialization of a borrowed book with its nested borrower, using an
+ * object mapper built with the same defaults as the one Spring MVC uses for responses.
+ * 
+ * @author Derry Terran
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Book book;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        Borrower borrower = new Borrower();
+        borrower.setId(42L);
+        borrower.setName("Benchmark Borrower");
+        borrower.setEmail("borrower@benchmark.example.com");
+
+        book = LibraryState.newCopy(1);
+        book.setId(1L);
+        book.setBorrower(borrower);
+        book.setUpdatedAt(Instant.parse("2024-01-01T10:00:00Z"));
+    }
+
+    @Benchmark
+    public byte[] serializeBookWithBorrower() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(book);
+    }
+}
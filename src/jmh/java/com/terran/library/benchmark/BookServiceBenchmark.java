@@ -0,0 +1,57 @@
+package com.terran.library.benchmark;
+
+import com.terran.library.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the book service hot paths through the Spring proxies, so transactions, caches and
+ * metrics are included, against H2 seeded with each size of {@link LibraryState}. Each size runs
+ * with and without the caches: with them, random lookups over a small catalog are mostly cache
+ * hits, so the uncached runs are the ones measuring the queries.
+ * Registration adds copies to existing titles, so the table grows slightly during a trial.
+ * 
+ * @author Derry Terran
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookServiceBenchmark {
+
+    @Benchmark
+    public Book registerBook(LibraryState state) {
+        return state.bookService.registerBook(
+                LibraryState.newCopy(ThreadLocalRandom.current().nextInt(state.titles())));
+    }
+
+    /**
+     * Borrows a random copy and returns it, so the share of borrowed copies stays constant.
+     */
+    @Benchmark
+    public Book borrowAndReturnBook(LibraryState state) {
+        var bookId = state.randomBookId();
+        state.bookService.borrowBook(bookId, state.randomBorrowerId());
+        return state.bookService.returnBook(bookId);
+    }
+
+    @Benchmark
+    public List<Book> getBooksByIsbn(LibraryState state) {
+        return state.bookService.getBooksByIsbn(state.randomIsbn());
+    }
+
+    @Benchmark
+    public List<Book> getAllBooks(LibraryState state) {
+        return state.bookService.getAllBooks();
+    }
+}
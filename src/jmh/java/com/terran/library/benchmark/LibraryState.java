@@ -0,0 +1,132 @@
+package com.terran.library.benchmark;
+
+import com.terran.library.TerranLibraryApplication;
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.service.BookRegistrationResult;
+import com.terran.library.service.BookService;
+import com.terran.library.service.BorrowerService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The application running against an embedded H2 database seeded with a given number of copies,
+ * with or without its caches.
+ * Copies are spread over titles of {@link #COPIES_PER_TITLE} copies each, and registered through
+ * the bulk registration path so that titles and copy counters are consistent.
+ * 
+ * @author Derry Terran
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    static final int COPIES_PER_TITLE = 10;
+    private static final int BORROWERS = 1000;
+    private static final int SEED_CHUNK = 50000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int copies;
+
+    /**
+     * Whether the lookup caches and the Hibernate second-level and query caches are on. Without
+     * them every lookup reaches the database, so the cached and uncached paths are measured apart.
+     */
+    @Param({"true", "false"})
+    public boolean caches;
+
+    ConfigurableApplicationContext context;
+    BookService bookService;
+    BorrowerService borrowerService;
+    long[] bookIds;
+    long[] borrowerIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(TerranLibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.terran.library=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.org.springframework.transaction=WARN",
+                        "logging.level.org.springframework.orm.jpa=WARN",
+                        "library.import.resume-on-startup=false")
+                .properties(caches ? new String[0] : new String[] {
+                        "spring.cache.type=none",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false"})
+                .run();
+        bookService = context.getBean(BookService.class);
+        borrowerService = context.getBean(BorrowerService.class);
+
+        bookIds = new long[copies];
+        for (int offset = 0; offset < copies; offset += SEED_CHUNK) {
+            var chunk = new ArrayList<Book>();
+            for (int i = offset; i < Math.min(offset + SEED_CHUNK, copies); i++) {
+                chunk.add(newCopy(i / COPIES_PER_TITLE));
+            }
+            List<BookRegistrationResult> results = bookService.registerBooks(chunk);
+            for (var result : results) {
+                bookIds[offset + result.index()] = result.id();
+            }
+        }
+
+        borrowerIds = new long[BORROWERS];
+        for (int i = 0; i < BORROWERS; i++) {
+            Borrower borrower = new Borrower();
+            borrower.setName("Benchmark Borrower " + i);
+            borrower.setEmail("borrower" + i + "@benchmark.example.com");
+            borrowerIds[i] = borrowerService.registerBorrower(borrower).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    int titles() {
+        return copies / COPIES_PER_TITLE;
+    }
+
+    long randomBookId() {
+        return bookIds[ThreadLocalRandom.current().nextInt(bookIds.length)];
+    }
+
+    long randomBorrowerId() {
+        return borrowerIds[ThreadLocalRandom.current().nextInt(borrowerIds.length)];
+    }
+
+    String randomIsbn() {
+        return isbn(ThreadLocalRandom.current().nextInt(titles()));
+    }
+
+    static String isbn(int title) {
+        return String.format("978%010d", title);
+    }
+
+    static Book newCopy(int title) {
+        Book book = new Book();
+        book.setIsbn(isbn(title));
+        book.setTitle("Benchmark Title " + title);
+        book.setAuthor("Benchmark Author " + (title % 997));
+        return book;
+    }
+}
@@ -0,0 +1,213 @@
+package com.terran.library.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a running application over HTTP with the library workload at a target request rate,
+ * and reports throughput, latency percentiles and error rates per operation and overall.
+ * Requests are started on a fixed schedule whether or not earlier ones have completed, and
+ * latency is measured from the scheduled start, so a slow server shows up as latency rather
+ * than as a lower request rate. 4xx responses, such as borrowing a title with no copy left,
+ * are reported as rejected; 5xx responses, timeouts and connection failures as errors.
+ * 
+ * Run with: mvn -Ploadtest test-compile exec:java -Dloadtest.args="--rps=200 --duration=60s"
+ * 
+ * @author Derry Terran
+ */
+public class LoadTest {
+
+    private static final class OperationStats {
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long latencyNanos, int status) {
+            latencies.recordValue(latencyNanos);
+            if (status >= 200 && status < 300) {
+                succeeded.increment();
+            } else if (status >= 400 && status < 500) {
+                rejected.increment();
+            } else {
+                errors.increment();
+            }
+        }
+
+        private long requests() {
+            return succeeded.sum() + rejected.sum() + errors.sum();
+        }
+    }
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient client;
+    private final Workload workload;
+    private final Map<Workload.Operation, OperationStats> stats = new EnumMap<>(Workload.Operation.class);
+    private final LongAdder inFlight = new LongAdder();
+
+    public LoadTest(LoadTestOptions options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder().connectTimeout(options.timeout()).build();
+        this.workload = new Workload(options, objectMapper);
+        for (var operation : Workload.Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadTest(options).run();
+    }
+
+    /**
+     * Seed the data, run the warmup and the measured period, and report.
+     *
+     * @throws IOException if seeding fails or the report cannot be written
+     * @throws InterruptedException if interrupted
+     */
+    public void run() throws IOException, InterruptedException {
+        System.out.printf("Seeding %d titles with %d copies each and %d borrowers on %s%n",
+                options.titles(), options.copies(), options.borrowers(), options.baseUrl());
+        workload.seed(client);
+
+        System.out.printf("Sending %d requests/s: %s warmup, then %s measured%n",
+                options.rps(), options.warmup(), options.duration());
+        var intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rps();
+        var start = System.nanoTime();
+        var measureFrom = start + options.warmup().toNanos();
+        var end = measureFrom + options.duration().toNanos();
+        for (long i = 0; ; i++) {
+            var scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            parkUntil(scheduled);
+            send(workload.next(), scheduled, scheduled >= measureFrom);
+        }
+        awaitInFlight(options.timeout().plusSeconds(5));
+        report();
+    }
+
+    private void send(Workload.Request request, long scheduled, boolean measured) {
+        inFlight.increment();
+        client.sendAsync(request.httpRequest(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    var latency = System.nanoTime() - scheduled;
+                    if (measured) {
+                        stats.get(request.operation()).record(latency, error == null ? response.statusCode() : -1);
+                    }
+                    if (error == null) {
+                        workload.completed(request, response);
+                    }
+                    inFlight.decrement();
+                });
+    }
+
+    private void awaitInFlight(Duration timeout) {
+        var deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.sum() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private void report() throws IOException {
+        var total = new Histogram(3);
+        long succeeded = 0;
+        long rejected = 0;
+        long errors = 0;
+        var operations = new LinkedHashMap<String, Object>();
+        System.out.printf("%n%-14s %9s %10s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "rejected", "errors");
+        for (var entry : stats.entrySet()) {
+            var operation = entry.getValue();
+            total.add(operation.latencies);
+            succeeded += operation.succeeded.sum();
+            rejected += operation.rejected.sum();
+            errors += operation.errors.sum();
+            operations.put(entry.getKey().label(), summary(operation.latencies, operation.requests(),
+                    operation.rejected.sum(), operation.errors.sum()));
+            print(entry.getKey().label(), operation.latencies, operation.requests(),
+                    operation.rejected.sum(), operation.errors.sum());
+        }
+        var requests = succeeded + rejected + errors;
+        print("total", total, requests, rejected, errors);
+
+        var result = new LinkedHashMap<String, Object>();
+        result.put("baseUrl", options.baseUrl().toString());
+        result.put("targetRps", options.rps());
+        result.put("durationSeconds", options.duration().toSeconds());
+        result.put("zipfExponent", options.zipfExponent());
+        result.put("mix", options.mix());
+        result.put("total", summary(total, requests, rejected, errors));
+        result.put("operations", operations);
+        var output = Path.of(options.output());
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        objectMapper.writeValue(output.toFile(), result);
+        System.out.printf("%nResult written to %s%n", output);
+    }
+
+    private Map<String, Object> summary(Histogram latencies, long requests, long rejected, long errors) {
+        var summary = new LinkedHashMap<String, Object>();
+        summary.put("requests", requests);
+        summary.put("throughput", throughput(requests));
+        summary.put("p50Ms", millis(latencies.getValueAtPercentile(50)));
+        summary.put("p99Ms", millis(latencies.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(latencies.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(latencies.getMaxValue()));
+        summary.put("rejectedRate", rate(rejected, requests));
+        summary.put("errorRate", rate(errors, requests));
+        return summary;
+    }
+
+    private void print(String label, Histogram latencies, long requests, long rejected, long errors) {
+        System.out.printf("%-14s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %8.2f%% %8.2f%%%n", label, requests,
+                throughput(requests), millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()), rate(rejected, requests) * 100, rate(errors, requests) * 100);
+    }
+
+    private double throughput(long requests) {
+        return requests / (options.duration().toNanos() / 1e9);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double rate(long count, long requests) {
+        return requests == 0 ? 0 : (double) count / requests;
+    }
+
+    private static void parkUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
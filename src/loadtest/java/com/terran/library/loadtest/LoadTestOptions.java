@@ -0,0 +1,108 @@
+package com.terran.library.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of a load test run, parsed from --name=value arguments.
+ *
+ * @param baseUrl the URL of the running application
+ * @param rps the target number of requests per second
+ * @param duration how long requests are measured
+ * @param warmup how long requests are sent before measuring starts
+ * @param titles the number of titles seeded before the run
+ * @param copies the number of copies seeded per title
+ * @param borrowers the number of borrowers seeded before the run
+ * @param zipfExponent the skew of ISBN popularity; 0 is uniform
+ * @param mix the percentages of catalog reads, borrows, returns and registrations
+ * @param timeout the timeout of each request
+ * @param output the file the JSON report is written to
+ * 
+ * @author Derry Terran
+ */
+public record LoadTestOptions(URI baseUrl, int rps, Duration duration, Duration warmup, int titles, int copies,
+                              int borrowers, double zipfExponent, int[] mix, Duration timeout, String output) {
+
+    private static final Set<String> OPTION_NAMES = Set.of("base-url", "rps", "duration", "warmup", "titles",
+            "copies", "borrowers", "zipf", "mix", "timeout", "output");
+
+    static final String USAGE = """
+            Options (all optional):
+              --base-url=http://localhost:8084   application under test
+              --rps=200                          target requests per second
+              --duration=60s                     measured run time
+              --warmup=10s                       unmeasured run time before it
+              --titles=1000                      titles seeded before the run
+              --copies=5                         copies seeded per title
+              --borrowers=200                    borrowers seeded before the run
+              --zipf=1.0                         skew of ISBN popularity (0 is uniform)
+              --mix=80,10,8,2                    % catalog reads, borrows, returns, registrations
+              --timeout=10s                      timeout of each request
+              --output=target/loadtest-result.json""";
+
+    /**
+     * Parse the command line arguments.
+     *
+     * @param args arguments of the form --name=value
+     * @return the options, with defaults for the missing ones
+     * @throws IllegalArgumentException if an argument is unknown or malformed
+     */
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        var options = new LoadTestOptions(
+                URI.create(stripTrailingSlash(values.getOrDefault("base-url", "http://localhost:8084"))),
+                Integer.parseInt(values.getOrDefault("rps", "200")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("warmup", "10s")),
+                Integer.parseInt(values.getOrDefault("titles", "1000")),
+                Integer.parseInt(values.getOrDefault("copies", "5")),
+                Integer.parseInt(values.getOrDefault("borrowers", "200")),
+                Double.parseDouble(values.getOrDefault("zipf", "1.0")),
+                mix(values.getOrDefault("mix", "80,10,8,2")),
+                duration(values.getOrDefault("timeout", "10s")),
+                values.getOrDefault("output", "target/loadtest-result.json"));
+        values.keySet().removeAll(OPTION_NAMES);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.rps() < 1 || options.titles() < 1 || options.copies() < 1 || options.borrowers() < 1) {
+            throw new IllegalArgumentException("rps, titles, copies and borrowers must be positive");
+        }
+        return options;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static Duration duration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    private static int[] mix(String value) {
+        var parts = value.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Mix needs four percentages: reads, borrows, returns, registrations");
+        }
+        var mix = new int[4];
+        var total = 0;
+        for (int i = 0; i < 4; i++) {
+            mix[i] = Integer.parseInt(parts[i].trim());
+            total += mix[i];
+        }
+        if (total != 100) {
+            throw new IllegalArgumentException("Mix percentages must add up to 100 but add up to " + total);
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,195 @@
+package com.terran.library.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The library workload: catalog reads, borrows, returns and registrations in a configured mix,
+ * on ISBNs drawn with Zipf-distributed popularity.
+ * Every run seeds its own titles, copies and borrowers, under ISBNs prefixed with a run ID, so
+ * repeated runs against the same database do not interfere. Copies borrowed during the run are
+ * remembered so that returns hit borrowed copies; a return with nothing to return is sent as a
+ * catalog read instead.
+ * 
+ * @author Derry Terran
+ */
+public class Workload {
+
+    private static final int SEED_CHUNK = 5000;
+    private static final Duration SEED_TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * The kinds of request in the mix.
+     */
+    public enum Operation {
+        CATALOG_READ("catalog-read"),
+        BORROW("borrow"),
+        RETURN("return"),
+        REGISTER("register");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * One request of the workload.
+     *
+     * @param operation the kind of request
+     * @param httpRequest the request to send
+     */
+    public record Request(Operation operation, HttpRequest httpRequest) {
+    }
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper;
+    private final ZipfSampler isbnPopularity;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final List<Long> borrowerIds = new ArrayList<>();
+    private final Queue<Long> borrowedBookIds = new ConcurrentLinkedQueue<>();
+
+    public Workload(LoadTestOptions options, ObjectMapper objectMapper) {
+        this.options = options;
+        this.objectMapper = objectMapper;
+        this.isbnPopularity = new ZipfSampler(options.titles(), options.zipfExponent());
+    }
+
+    /**
+     * Register the titles, copies and borrowers of this run.
+     *
+     * @param client the HTTP client
+     * @throws IOException if the application cannot be reached or rejects the seed data
+     * @throws InterruptedException if interrupted while waiting for a response
+     */
+    public void seed(HttpClient client) throws IOException, InterruptedException {
+        var books = new ArrayList<Map<String, String>>();
+        for (int rank = 0; rank < options.titles(); rank++) {
+            for (int copy = 0; copy < options.copies(); copy++) {
+                books.add(book(rank));
+                if (books.size() == SEED_CHUNK) {
+                    send(client, post("/terranapi/books/bulk", books), 200);
+                    books.clear();
+                }
+            }
+        }
+        if (!books.isEmpty()) {
+            send(client, post("/terranapi/books/bulk", books), 200);
+        }
+        for (int i = 0; i < options.borrowers(); i++) {
+            var borrower = Map.of("name", "Load Test Borrower " + i,
+                    "email", "loadtest-" + runId + "-" + i + "@example.com");
+            var response = send(client, post("/terranapi/borrowers", borrower), 201);
+            borrowerIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+    }
+
+    /**
+     * Draw the next request of the mix.
+     *
+     * @return the request
+     */
+    public Request next() {
+        var random = ThreadLocalRandom.current();
+        var roll = random.nextInt(100);
+        var mix = options.mix();
+        var isbn = isbn(isbnPopularity.next());
+        if (roll < mix[0]) {
+            return catalogRead(isbn);
+        }
+        roll -= mix[0];
+        if (roll < mix[1]) {
+            var borrowerId = borrowerIds.get(random.nextInt(borrowerIds.size()));
+            return new Request(Operation.BORROW,
+                    post("/terranapi/books/isbn/" + isbn + "/borrow", Map.of("borrowerId", borrowerId)));
+        }
+        roll -= mix[1];
+        if (roll < mix[2]) {
+            var bookId = borrowedBookIds.poll();
+            if (bookId == null) {
+                return catalogRead(isbn);
+            }
+            return new Request(Operation.RETURN, post("/terranapi/books/" + bookId + "/return", null));
+        }
+        return new Request(Operation.REGISTER, post("/terranapi/book", book(isbnPopularity.next())));
+    }
+
+    /**
+     * Track the effect of a completed request on the workload state.
+     *
+     * @param request the request
+     * @param response the response
+     */
+    public void completed(Request request, HttpResponse<String> response) {
+        if (request.operation() == Operation.BORROW && response.statusCode() == 200) {
+            try {
+                borrowedBookIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+            } catch (JsonProcessingException e) {
+                // The borrowed copy is simply never returned by this run
+            }
+        }
+    }
+
+    private Request catalogRead(String isbn) {
+        var path = switch (ThreadLocalRandom.current().nextInt(3)) {
+            case 0 -> "/terranapi/books/isbn/" + isbn + "/availability";
+            case 1 -> "/terranapi/books/isbn/" + isbn;
+            default -> "/terranapi/catalog?isbn=" + isbn;
+        };
+        return new Request(Operation.CATALOG_READ, request(path).GET().build());
+    }
+
+    private Map<String, String> book(int rank) {
+        return Map.of("isbn", isbn(rank), "title", "Load Test Title " + rank, "author", "Load Test Author");
+    }
+
+    private String isbn(int rank) {
+        return "LT-" + runId + "-" + rank;
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            var publisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+            return request(path).header("Content-Type", "application/json").POST(publisher).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize request body", e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .timeout(options.timeout())
+                .header("Accept", "application/json");
+    }
+
+    private static HttpResponse<String> send(HttpClient client, HttpRequest request, int expectedStatus)
+            throws IOException, InterruptedException {
+        var seedRequest = HttpRequest.newBuilder(request, (name, value) -> true).timeout(SEED_TIMEOUT).build();
+        var response = client.send(seedRequest, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IOException(request.method() + " " + request.uri() + " returned " + response.statusCode()
+                    + ": " + response.body());
+        }
+        return response;
+    }
+}
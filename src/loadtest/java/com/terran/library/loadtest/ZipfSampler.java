@@ -0,0 +1,40 @@
+package com.terran.library.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples ranks from 0 to n - 1 with Zipf-distributed popularity: rank k is drawn with a
+ * probability proportional to 1 / (k + 1)^exponent, so a few titles receive most requests.
+ * 
+ * @author Derry Terran
+ */
+public class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Zipf sampler needs at least one rank");
+        }
+        cumulative = new double[n];
+        var sum = 0.0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    /**
+     * Draw a rank.
+     *
+     * @return a rank between 0 and n - 1, rank 0 being the most popular
+     */
+    public int next() {
+        var index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
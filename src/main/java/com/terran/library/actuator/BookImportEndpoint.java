@@ -0,0 +1,40 @@
+package com.terran.library.actuator;
+
+import com.terran.library.service.BookImportService;
+import com.terran.library.service.ImportJobStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Custom actuator endpoint reporting the progress and throughput of book imports,
+ * at /actuator/imports and /actuator/imports/{id}.
+ * 
+ * @author Derry Terran
+ */
+@Component
+@Endpoint(id = "imports")
+public class BookImportEndpoint {
+
+    private final BookImportService bookImportService;
+
+    @Autowired
+    public BookImportEndpoint(BookImportService bookImportService) {
+        this.bookImportService = bookImportService;
+    }
+
+    @ReadOperation
+    public List<ImportJobStatus> imports() {
+        return bookImportService.getRecentImports();
+    }
+
+    @ReadOperation
+    public ImportJobStatus importJob(@Selector Long id) {
+        // A null result is answered with 404
+        return bookImportService.getImport(id).orElse(null);
+    }
+}
@@ -0,0 +1,77 @@
+package com.terran.library.actuator;
+
+import com.terran.library.config.HibernateCacheConfig.L2CacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Publishes the hit ratio of each Hibernate second-level cache region and of the query cache,
+ * next to the hit and miss counts published by Spring Boot's Hibernate metrics.
+ * Ratios are between 0 and 1, and 0 until a region has been read.
+ * <p>
+ * Every region configured under library.l2-cache.regions gets a gauge: entity regions report their
+ * domain data statistics, and query result regions their query statistics. Named query regions are
+ * only created by Hibernate on their first query, so their gauges read 0 until then. The update
+ * timestamps region is never read for results and has no gauge.
+ *
+ * @author Derry Terran
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+    private final CacheImplementor cache;
+    private final Set<String> regions;
+
+    @Autowired
+    public HibernateCacheMetrics(EntityManagerFactory entityManagerFactory, L2CacheProperties properties) {
+        var sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.statistics = sessionFactory.getStatistics();
+        this.cache = sessionFactory.unwrap(SessionFactoryImplementor.class).getCache();
+        this.regions = properties.regions() != null ? properties.regions().keySet() : Set.of();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (var region : regions) {
+            var cacheRegion = cache.getRegion(region);
+            if (cacheRegion instanceof TimestampsRegion) {
+                continue;
+            }
+            Function<Statistics, CacheRegionStatistics> regionStatistics = cacheRegion instanceof DomainDataRegion
+                    ? stats -> stats.getDomainDataRegionStatistics(region)
+                    : stats -> stats.getQueryRegionStatistics(region);
+            Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics,
+                            stats -> regionHitRatio(regionStatistics.apply(stats)))
+                    .tag("region", region)
+                    .description("Share of second-level cache lookups answered from the cache")
+                    .register(registry);
+        }
+        Gauge.builder("hibernate.query.cache.hit.ratio", statistics,
+                        stats -> hitRatio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()))
+                .description("Share of cacheable query executions answered from the query cache")
+                .register(registry);
+    }
+
+    private static double regionHitRatio(CacheRegionStatistics region) {
+        return region == null ? 0 : hitRatio(region.getHitCount(), region.getMissCount());
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+}
@@ -0,0 +1,106 @@
+package com.terran.library.actuator;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements, entity loads and flushes Hibernate performs for each HTTP request,
+ * and publishes them as the hibernate.request.statements, hibernate.request.entity.loads and
+ * hibernate.request.flushes distributions, tagged by request method and URI template.
+ * Counting happens on the request thread between {@link #begin()} and {@link #end(String, String)},
+ * which are called by {@link HibernateRequestMetricsFilter}; work outside a request is not counted.
+ * 
+ * @author Derry Terran
+ */
+@Component
+public class HibernateRequestMetrics implements Interceptor, StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final class Counts {
+        private long statements;
+        private long entityLoads;
+        private long flushes;
+    }
+
+    private final ThreadLocal<Counts> current = new ThreadLocal<>();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public HibernateRequestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, this);
+    }
+
+    /**
+     * Start counting for the request handled by the current thread.
+     */
+    public void begin() {
+        current.set(new Counts());
+    }
+
+    /**
+     * Stop counting for the current thread and record the counts of its request.
+     *
+     * @param method the HTTP method
+     * @param uri the URI template that handled the request
+     */
+    public void end(String method, String uri) {
+        var counts = current.get();
+        current.remove();
+        if (counts == null) {
+            return;
+        }
+        record("hibernate.request.statements", "SQL statements prepared per request", method, uri, counts.statements);
+        record("hibernate.request.entity.loads", "Entities loaded per request", method, uri, counts.entityLoads);
+        record("hibernate.request.flushes", "Session flushes per request", method, uri, counts.flushes);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        var counts = current.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        var counts = current.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+        return false;
+    }
+
+    @Override
+    public void postFlush(Iterator<Object> entities) {
+        var counts = current.get();
+        if (counts != null) {
+            counts.flushes++;
+        }
+    }
+
+    private void record(String name, String description, String method, String uri, long amount) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(amount);
+    }
+}
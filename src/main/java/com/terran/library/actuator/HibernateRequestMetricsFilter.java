@@ -0,0 +1,37 @@
+package com.terran.library.actuator;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Brackets each HTTP request with {@link HibernateRequestMetrics}, tagging its counts with the
+ * URI template that handled the request, or UNKNOWN when no handler matched.
+ * 
+ * @author Derry Terran
+ */
+public class HibernateRequestMetricsFilter extends OncePerRequestFilter {
+
+    private final HibernateRequestMetrics hibernateRequestMetrics;
+
+    public HibernateRequestMetricsFilter(HibernateRequestMetrics hibernateRequestMetrics) {
+        this.hibernateRequestMetrics = hibernateRequestMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        hibernateRequestMetrics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            hibernateRequestMetrics.end(request.getMethod(), pattern == null ? "UNKNOWN" : pattern.toString());
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.terran.library.actuator;
 
-import com.terran.library.repository.BookRepository;
-import com.terran.library.repository.BorrowerRepository;
+import com.terran.library.service.LibraryStatistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
@@ -9,39 +8,33 @@ import org.springframework.stereotype.Component;
 
 /**
  * Custom health indicator for the library application.
- * Checks if the repositories are accessible and reports the number of books and borrowers.
+ * Reports the number of books and borrowers from the in-memory library statistics, so that
+ * frequent health checks never query the database; database reachability is covered by the
+ * readiness probe.
  * 
  * @author Derry Terran
  */
 @Component
 public class LibraryHealthIndicator implements HealthIndicator {
 
-    private final BookRepository bookRepository;
-    private final BorrowerRepository borrowerRepository;
+    private final LibraryStatistics libraryStatistics;
 
     @Autowired
-    public LibraryHealthIndicator(BookRepository bookRepository, BorrowerRepository borrowerRepository) {
-        this.bookRepository = bookRepository;
-        this.borrowerRepository = borrowerRepository;
+    public LibraryHealthIndicator(LibraryStatistics libraryStatistics) {
+        this.libraryStatistics = libraryStatistics;
     }
 
     @Override
     public Health health() {
-        try {
-            var bookCount = bookRepository.count();
-            var borrowerCount = borrowerRepository.count();
-            var borrowedBooksCount = bookRepository.findByBorrowerIsNotNull().size();
-
-            return Health.up()
-                    .withDetail("totalBooks", bookCount)
-                    .withDetail("totalBorrowers", borrowerCount)
-                    .withDetail("borrowedBooks", borrowedBooksCount)
-                    .withDetail("availableBooks", bookCount - borrowedBooksCount)
-                    .build();
-        } catch (Exception e) {
-            return Health.down()
-                    .withDetail("error", e.getMessage())
-                    .build();
+        var statistics = libraryStatistics.snapshot();
+        var health = Health.up()
+                .withDetail("totalBooks", statistics.totalBooks())
+                .withDetail("totalBorrowers", statistics.totalBorrowers())
+                .withDetail("borrowedBooks", statistics.borrowedBooks())
+                .withDetail("availableBooks", statistics.availableBooks());
+        if (statistics.reconciledAt() != null) {
+            health.withDetail("reconciledAt", statistics.reconciledAt());
         }
+        return health.build();
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,6 @@
 package com.terran.library.actuator;
 
-import com.terran.library.repository.BookRepository;
-import com.terran.library.repository.BorrowerRepository;
+import com.terran.library.service.LibraryStatistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.info.Info;
 import org.springframework.boot.actuate.info.InfoContributor;
@@ -21,14 +20,12 @@ import java.util.Map;
 @Component
 public class LibraryInfoContributor implements InfoContributor {
 
-    private final BookRepository bookRepository;
-    private final BorrowerRepository borrowerRepository;
+    private final LibraryStatistics libraryStatistics;
     private final LocalDateTime startTime = LocalDateTime.now();
 
     @Autowired
-    public LibraryInfoContributor(BookRepository bookRepository, BorrowerRepository borrowerRepository) {
-        this.bookRepository = bookRepository;
-        this.borrowerRepository = borrowerRepository;
+    public LibraryInfoContributor(LibraryStatistics libraryStatistics) {
+        this.libraryStatistics = libraryStatistics;
     }
 
     @Override
@@ -36,8 +33,9 @@ public class LibraryInfoContributor implements InfoContributor {
         var libraryDetails = new HashMap<>();
         
         // Library statistics
-        libraryDetails.put("totalBooks", bookRepository.count());
-        libraryDetails.put("totalBorrowers", borrowerRepository.count());
+        var statistics = libraryStatistics.snapshot();
+        libraryDetails.put("totalBooks", statistics.totalBooks());
+        libraryDetails.put("totalBorrowers", statistics.totalBorrowers());
         
         // System information
         var systemInfo = new HashMap<>();
@@ -0,0 +1,53 @@
+package com.terran.library.actuator;
+
+import com.terran.library.config.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Health indicator for the read replicas, enabled with library.replicas.enabled.
+ * Reports which replicas receive reads and their connections in use, from the last health check
+ * rather than a new query. Reads fall back to the primary while no replica is healthy, so the
+ * indicator stays up and replicas are kept out of the readiness probe.
+ *
+ * @author Derry Terran
+ */
+@Component
+@ConditionalOnProperty(name = "library.replicas.enabled", havingValue = "true")
+public class ReplicaHealthIndicator implements HealthIndicator {
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public ReplicaHealthIndicator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Health health() {
+        var replicas = new LinkedHashMap<String, Object>();
+        long healthy = 0;
+        for (var replicated : ReplicaRoutingDataSource.find(dataSource)) {
+            for (var status : replicated.getReplicaStatus()) {
+                replicas.put(status.name(), Map.of(
+                        "healthy", status.healthy(),
+                        "activeConnections", status.activeConnections()));
+                if (status.healthy()) {
+                    healthy++;
+                }
+            }
+        }
+        return Health.up()
+                .withDetail("healthyReplicas", healthy)
+                .withDetail("totalReplicas", replicas.size())
+                .withDetail("replicas", replicas)
+                .build();
+    }
+}
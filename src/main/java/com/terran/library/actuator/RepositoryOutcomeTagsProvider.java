@@ -0,0 +1,25 @@
+package com.terran.library.actuator;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the outcome tag used by the service timers to Spring Data's spring.data.repository.invocations
+ * timers, next to the default repository, method, state and exception tags.
+ * Repository calls only report failures, so their outcome is success, conflict or error.
+ * 
+ * @author Derry Terran
+ */
+@Component
+public class RepositoryOutcomeTagsProvider extends DefaultRepositoryTagsProvider {
+
+    @Override
+    public Iterable<Tag> repositoryTags(RepositoryMethodInvocation invocation) {
+        var error = invocation.getResult().getError();
+        var outcome = error == null ? "success" : ServiceMetrics.outcomeOf(error);
+        return Tags.of(super.repositoryTags(invocation)).and("outcome", outcome);
+    }
+}
@@ -0,0 +1,33 @@
+package com.terran.library.actuator;
+
+import com.terran.library.service.BookSearchIndex;
+import com.terran.library.service.IndexedBookSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Custom actuator endpoint reporting the size and estimated heap footprint of the in-memory
+ * search index, at /actuator/searchindex. Only present when the index engine is used.
+ * 
+ * @author Derry Terran
+ */
+@Component
+@Endpoint(id = "searchindex")
+@ConditionalOnProperty(name = "library.search.engine", havingValue = "index")
+public class SearchIndexEndpoint {
+
+    private final IndexedBookSearchService indexedBookSearchService;
+
+    @Autowired
+    public SearchIndexEndpoint(IndexedBookSearchService indexedBookSearchService) {
+        this.indexedBookSearchService = indexedBookSearchService;
+    }
+
+    @ReadOperation
+    public BookSearchIndex.Footprint footprint() {
+        return indexedBookSearchService.footprint();
+    }
+}
@@ -0,0 +1,97 @@
+package com.terran.library.actuator;
+
+import com.terran.library.service.AlreadyBorrowedException;
+import com.terran.library.service.ConflictException;
+import com.terran.library.service.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Times every book and borrower service method, published as library.service with the service,
+ * the method and the outcome of the call as tags.
+ * The outcome is one of success, not-found, already-borrowed, conflict, invalid or error, derived
+ * from the type of the exception the service throws ({@link NotFoundException},
+ * {@link AlreadyBorrowedException}, {@link ConflictException} or another IllegalArgumentException);
+ * an empty Optional is not-found, and a null result (a registration rejected because its title does
+ * not match the ISBN) is a conflict.
+ * 
+ * @author Derry Terran
+ */
+@Aspect
+@Component
+public class ServiceMetrics {
+
+    public static final String METRIC_NAME = "library.service";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.terran.library.service.BookService+.*(..))"
+            + " || execution(public * com.terran.library.service.BorrowerService+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        var sample = Timer.start(meterRegistry);
+        var outcome = "error";
+        try {
+            var result = joinPoint.proceed();
+            outcome = outcomeOf(result, (MethodSignature) joinPoint.getSignature());
+            return result;
+        } catch (Throwable e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Book and borrower service calls")
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String outcomeOf(Object result, MethodSignature signature) {
+        if (result instanceof Optional<?> optional && optional.isEmpty()) {
+            return "not-found";
+        }
+        if (result == null && signature.getReturnType() != void.class) {
+            return "conflict";
+        }
+        return "success";
+    }
+
+    /**
+     * Classify a failed call by its exception.
+     *
+     * @param error the exception thrown by the call
+     * @return the outcome tag
+     */
+    static String outcomeOf(Throwable error) {
+        if (error instanceof NotFoundException) {
+            return "not-found";
+        }
+        if (error instanceof AlreadyBorrowedException) {
+            return "already-borrowed";
+        }
+        if (error instanceof ConflictException || error instanceof DataIntegrityViolationException
+                || error instanceof ConcurrencyFailureException) {
+            return "conflict";
+        }
+        if (error instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,96 @@
+package com.terran.library.config;
+
+import java.util.function.Supplier;
+
+/**
+ * The library branch the current thread works for, which selects the database shard used by the
+ * {@link BranchRoutingDataSource} and scopes the lookup caches. Requests set it from the
+ * {@link BranchFilter#BRANCH_HEADER} header; threads that never set it work for the
+ * {@link #DEFAULT_BRANCH}, so single-branch deployments do not have to know about branches at all.
+ *
+ * @author Derry Terran
+ */
+public final class BranchContext {
+
+    /**
+     * The branch of requests that do not name one, and the only branch when sharding is disabled.
+     */
+    public static final String DEFAULT_BRANCH = "main";
+
+    private static final ThreadLocal<String> BRANCH = new ThreadLocal<>();
+
+    private BranchContext() {
+    }
+
+    /**
+     * Get the branch set on the current thread.
+     *
+     * @return the branch, or null if none was set
+     */
+    public static String getBranch() {
+        return BRANCH.get();
+    }
+
+    /**
+     * Get the branch the current thread works for.
+     *
+     * @return the branch set on the current thread, or the default branch
+     */
+    public static String currentBranch() {
+        var branch = BRANCH.get();
+        return branch != null ? branch : DEFAULT_BRANCH;
+    }
+
+    /**
+     * Set the branch of the current thread.
+     *
+     * @param branch the branch, or null to fall back to the default branch
+     */
+    public static void setBranch(String branch) {
+        if (branch == null) {
+            BRANCH.remove();
+        } else {
+            BRANCH.set(branch);
+        }
+    }
+
+    /**
+     * Clear the branch of the current thread.
+     */
+    public static void clear() {
+        BRANCH.remove();
+    }
+
+    /**
+     * Run a task for a branch on the current thread, then restore the previous branch.
+     *
+     * @param branch the branch
+     * @param task the task
+     * @param <T> the result type
+     * @return the result of the task
+     */
+    public static <T> T callInBranch(String branch, Supplier<T> task) {
+        var previous = BRANCH.get();
+        setBranch(branch);
+        try {
+            return task.get();
+        } finally {
+            setBranch(previous);
+        }
+    }
+
+    /**
+     * Wrap a task so it runs for the branch of the thread that submits it, whichever thread executes it.
+     * Usable as a {@link org.springframework.core.task.TaskDecorator}.
+     *
+     * @param task the task
+     * @return the wrapped task
+     */
+    public static Runnable propagate(Runnable task) {
+        var branch = BRANCH.get();
+        return () -> callInBranch(branch, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.terran.library.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter that sets the branch of each request from the {@link #BRANCH_HEADER} header,
+ * so everything the request does reaches the database shard of its branch. Requests without the
+ * header work for the default branch; requests naming a branch this deployment does not serve are
+ * rejected with 400 Bad Request.
+ *
+ * @author Derry Terran
+ */
+public class BranchFilter extends OncePerRequestFilter {
+
+    /**
+     * Request header naming the branch a request works for.
+     */
+    public static final String BRANCH_HEADER = "X-Library-Branch";
+
+    private final Branches branches;
+
+    public BranchFilter(Branches branches) {
+        this.branches = branches;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var branch = request.getHeader(BRANCH_HEADER);
+        if (branch == null || branch.isBlank()) {
+            branch = BranchContext.DEFAULT_BRANCH;
+        }
+        if (!branches.contains(branch)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Unknown branch: " + branch);
+            return;
+        }
+        // Responses, and their entity tags, differ per branch
+        response.addHeader(HttpHeaders.VARY, BRANCH_HEADER);
+        BranchContext.setBranch(branch);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            BranchContext.clear();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.terran.library.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data source that hands out connections to the database shard of the current branch
+ * (see {@link BranchContext}). The branch is read when a connection is taken, which for a
+ * transaction is when it begins, so a transaction always stays on one shard.
+ * Unknown branches are rejected rather than sent to the default shard.
+ *
+ * @author Derry Terran
+ */
+public class BranchRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final Map<String, DataSource> shards;
+
+    /**
+     * Creates the routing data source.
+     *
+     * @param shards the data source of each branch, including the default branch
+     */
+    public BranchRoutingDataSource(Map<String, DataSource> shards) {
+        this.shards = Map.copyOf(shards);
+        setTargetDataSources(new HashMap<Object, Object>(shards));
+        setDefaultTargetDataSource(shards.get(BranchContext.DEFAULT_BRANCH));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return BranchContext.currentBranch();
+    }
+
+    /**
+     * Get the data source of each branch.
+     *
+     * @return the data sources keyed by branch
+     */
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    /**
+     * Closes the connection pool of every branch.
+     *
+     * @throws Exception if a pool fails to close
+     */
+    @Override
+    public void close() throws Exception {
+        for (var shard : shards.values()) {
+            ConnectionPools.close(shard);
+        }
+    }
+}
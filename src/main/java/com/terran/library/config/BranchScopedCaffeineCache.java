@@ -0,0 +1,75 @@
+package com.terran.library.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Caffeine cache whose entries belong to the branch of the thread that reads or writes them
+ * (see {@link BranchContext}), so lookups by ISBN and ID never return another branch's copies.
+ * Each key is stored together with its branch; the native cache, and with it the cache metrics, is
+ * shared by all branches.
+ *
+ * @author Derry Terran
+ */
+public class BranchScopedCaffeineCache extends CaffeineCache {
+
+    /**
+     * Creates the cache.
+     *
+     * @param name the cache name
+     * @param cache the native Caffeine cache
+     * @param allowNullValues whether null values are accepted
+     */
+    public BranchScopedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                     boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return super.lookup(scoped(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return super.get(scoped(key), valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return super.retrieve(scoped(key));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return super.retrieve(scoped(key), valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(scoped(key), value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return super.putIfAbsent(scoped(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(scoped(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return super.evictIfPresent(scoped(key));
+    }
+
+    private static Object scoped(Object key) {
+        return new SimpleKey(BranchContext.currentBranch(), key);
+    }
+}
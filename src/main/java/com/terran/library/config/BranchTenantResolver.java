@@ -0,0 +1,24 @@
+package com.terran.library.config;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Tells Hibernate that each session works for the branch current when it opens
+ * (see {@link BranchContext}). Hibernate keeps the blocks of IDs it takes from a pooled sequence per
+ * tenant, so with sharding each branch hands out IDs from the block of its own shard rather than from
+ * a block fetched on another shard.
+ *
+ * @author Derry Terran
+ */
+public class BranchTenantResolver implements CurrentTenantIdentifierResolver {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return BranchContext.currentBranch();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
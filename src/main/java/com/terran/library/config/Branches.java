@@ -0,0 +1,115 @@
+package com.terran.library.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * The library branches served by this deployment, and the fan-out of work to each of them.
+ * Without sharding there is a single branch, the {@link BranchContext#DEFAULT_BRANCH}, and work runs
+ * inline on the calling thread. With sharding, work runs on one virtual thread per branch, so the
+ * shards are queried in parallel and a call takes as long as the slowest shard rather than their sum.
+ * <p>
+ * Each task runs with its branch set in the {@link BranchContext}, on its own thread, so it does not
+ * join a transaction of the caller: a {@code @Transactional} service method called from the task
+ * opens its transaction on the shard of its branch.
+ *
+ * @author Derry Terran
+ */
+public class Branches implements AutoCloseable {
+
+    private final List<String> names;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the branches.
+     *
+     * @param names the branch names, including the default branch
+     */
+    public Branches(List<String> names) {
+        if (!names.contains(BranchContext.DEFAULT_BRANCH)) {
+            throw new IllegalArgumentException("The branches must include " + BranchContext.DEFAULT_BRANCH);
+        }
+        this.names = List.copyOf(names);
+        this.executor = names.size() > 1
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("branch-", 0).factory())
+                : null;
+    }
+
+    /**
+     * Creates the single default branch of a deployment without sharding.
+     *
+     * @return the branches
+     */
+    public static Branches single() {
+        return new Branches(List.of(BranchContext.DEFAULT_BRANCH));
+    }
+
+    /**
+     * Get the branch names.
+     *
+     * @return the names, in configuration order
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * Check if a branch is served by this deployment.
+     *
+     * @param branch the branch name
+     * @return true if the branch exists
+     */
+    public boolean contains(String branch) {
+        return names.contains(branch);
+    }
+
+    /**
+     * Run a task once for each branch and wait for all of them.
+     *
+     * @param task the task, run with its branch set in the branch context
+     * @param <T> the result type
+     * @return the result of each branch, in the order of {@link #names()}
+     * @throws RuntimeException the exception of the first failed branch, in branch order
+     */
+    public <T> Map<String, T> inEach(Supplier<T> task) {
+        var results = new LinkedHashMap<String, T>();
+        if (executor == null) {
+            names.forEach(branch -> results.put(branch, BranchContext.callInBranch(branch, task)));
+            return results;
+        }
+        var futures = new LinkedHashMap<String, Future<T>>();
+        names.forEach(branch -> futures.put(branch, executor.submit(() -> BranchContext.callInBranch(branch, task))));
+        try {
+            for (var entry : futures.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.values().forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while waiting for the branches", e);
+        } catch (ExecutionException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.terran.library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration class for the in-process caches of book and borrower lookups.
+ * 
+ * @author Derry Terran
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Books by ID, with their borrower.
+     */
+    public static final String BOOKS = "books";
+
+    /**
+     * Copies of an ISBN as books, keyed by ISBN.
+     */
+    public static final String BOOKS_BY_ISBN = "booksByIsbn";
+
+    /**
+     * Copies of an ISBN as catalog rows, keyed by ISBN.
+     */
+    public static final String COPIES_BY_ISBN = "copiesByIsbn";
+
+    /**
+     * Titles with their copy counters, keyed by ISBN.
+     */
+    public static final String TITLES = "titles";
+
+    /**
+     * Borrowers by ID.
+     */
+    public static final String BORROWERS = "borrowers";
+
+    /**
+     * Configures a Caffeine cache manager with size and time based eviction.
+     * Caches record statistics, so hits, misses and evictions are published to Micrometer.
+     * Evictions are transaction aware: a write evicts its entries only once it commits,
+     * so a read between the eviction and the commit cannot put the old state back into the cache.
+     * With sharding, entries are scoped to their branch, as ISBNs repeat across branches.
+     * Setting spring.cache.type to none turns the caches off, as the benchmarks of uncached lookups do.
+     *
+     * @param maximumSize the maximum number of entries of each cache
+     * @param timeToLive the time after which an entry is reloaded
+     * @param sharded whether the caches are shared by several branches
+     * @param cacheType the spring.cache.type setting
+     * @return the cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${library.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${library.cache.time-to-live:10m}") Duration timeToLive,
+                                     @Value("${library.sharding.enabled:false}") boolean sharded,
+                                     @Value("${spring.cache.type:}") String cacheType) {
+        if ("none".equalsIgnoreCase(cacheType)) {
+            return new NoOpCacheManager();
+        }
+        var cacheManager = sharded ? new BranchScopedCacheManager() : new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of(BOOKS, BOOKS_BY_ISBN, COPIES_BY_ISBN, TITLES, BORROWERS));
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats());
+        // Lookups of missing entries are not cached (see the unless conditions), so nothing
+        // has to be evicted when they are created
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Caffeine cache manager creating {@link BranchScopedCaffeineCache}s.
+     */
+    private static class BranchScopedCacheManager extends CaffeineCacheManager {
+
+        @Override
+        protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            return new BranchScopedCaffeineCache(name, cache, isAllowNullValues());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.terran.library.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Builds the connection pools of shards and read replicas, which are created next to the
+ * spring.datasource pool rather than by Spring Boot. They take its pool size and connection
+ * timeout unless they set their own, and in the virtual thread mode they are put behind a
+ * {@link ConnectionLimitingDataSource} like it.
+ *
+ * @author Derry Terran
+ */
+final class ConnectionPools {
+
+    private ConnectionPools() {
+    }
+
+    /**
+     * Creates a connection pool. Connections are only opened when first needed.
+     *
+     * @param poolName the pool name, which tags its metrics
+     * @param url the JDBC URL
+     * @param username the database user
+     * @param password the database password
+     * @param maximumPoolSize the pool size, or null for spring.datasource.hikari.maximum-pool-size
+     * @param environment the environment holding the spring.datasource.hikari settings
+     * @param meterRegistry the registry the pool metrics are published to, or null
+     * @return the pool
+     */
+    static DataSource create(String poolName, String url, String username, String password, Integer maximumPoolSize,
+                             Environment environment, MeterRegistry meterRegistry) {
+        var pool = new HikariDataSource();
+        pool.setPoolName(poolName);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setMaximumPoolSize(maximumPoolSize != null ? maximumPoolSize
+                : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        pool.setConnectionTimeout(environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30_000L));
+        if (meterRegistry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        return environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                ? VirtualThreadConfig.limited(pool)
+                : pool;
+    }
+
+    /**
+     * Closes the pool behind a data source, if it has one.
+     *
+     * @param dataSource the data source
+     * @throws Exception if the pool fails to close
+     */
+    static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        } else if (isWrapperFor(dataSource, AutoCloseable.class)) {
+            dataSource.unwrap(AutoCloseable.class).close();
+        }
+    }
+
+    private static boolean isWrapperFor(DataSource dataSource, Class<?> type) {
+        try {
+            return dataSource.isWrapperFor(type);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
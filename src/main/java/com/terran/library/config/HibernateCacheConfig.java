@@ -0,0 +1,88 @@
+package com.terran.library.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Configuration class for the Hibernate second-level and query cache.
+ * Every cache region is created up front from library.l2-cache.regions with its own size and
+ * expiry, and Hibernate is configured to fail on a region that has no configuration.
+ * 
+ * @author Derry Terran
+ */
+@Configuration
+@EnableConfigurationProperties(HibernateCacheConfig.L2CacheProperties.class)
+public class HibernateCacheConfig {
+
+    /**
+     * Sizing of the second-level cache regions, keyed by region name.
+     *
+     * @param regions the regions
+     */
+    @ConfigurationProperties(prefix = "library.l2-cache")
+    public record L2CacheProperties(Map<String, Region> regions) {
+    }
+
+    /**
+     * Sizing of one cache region; a null value leaves it unbounded.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param expireAfterWrite the time after which an entry is dropped
+     */
+    public record Region(Long maximumSize, Duration expireAfterWrite) {
+    }
+
+    /**
+     * Configures the JCache cache manager holding the Hibernate cache regions.
+     * Each application context gets its own cache manager, so that contexts sharing a JVM
+     * (as in tests) never see each other's entities.
+     *
+     * @param properties the region sizing
+     * @return the cache manager
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(L2CacheProperties properties) {
+        var provider = new CaffeineCachingProvider();
+        var cacheManager = provider.getCacheManager(
+                URI.create("terran-library-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        properties.regions().forEach((name, region) -> {
+            var configuration = new CaffeineConfiguration<Object, Object>();
+            configuration.setStatisticsEnabled(true);
+            if (region.maximumSize() != null) {
+                configuration.setMaximumSize(OptionalLong.of(region.maximumSize()));
+            }
+            if (region.expireAfterWrite() != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(region.expireAfterWrite().toNanos()));
+            }
+            cacheManager.createCache(name, configuration);
+        });
+        return cacheManager;
+    }
+
+    /**
+     * Hands the cache manager to Hibernate's JCache region factory.
+     *
+     * @param hibernateCacheManager the cache manager
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.terran.library.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for background book imports.
+ * 
+ * @author Derry Terran
+ */
+@Configuration
+public class ImportConfig {
+
+    /**
+     * Configures the executor that runs book imports, so long imports do not hold request threads.
+     *
+     * @param workers the number of imports that can run at the same time
+     * @return the import executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor bookImportExecutor(@Value("${library.import.workers:1}") int workers) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("book-import-");
+        // Interrupted imports are resumed from their checkpoint on the next start
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        // Imports write to the shard of the branch that started them
+        executor.setTaskDecorator(BranchContext::propagate);
+        return executor;
+    }
+}
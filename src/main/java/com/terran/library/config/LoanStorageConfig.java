@@ -0,0 +1,93 @@
+package com.terran.library.config;
+
+import com.terran.library.service.LoanPartitionManager;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.spi.SchemaFilter;
+import org.hibernate.tool.schema.spi.SchemaFilterProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the storage of the loan history.
+ * On PostgreSQL the loans table is partitioned, which Hibernate cannot create, so it is kept out of
+ * Hibernate's schema management; the migrations create it and {@link LoanPartitionManager} adds its
+ * monthly partitions. Elsewhere Hibernate creates it as a plain table.
+ * 
+ * @author Derry Terran
+ */
+@Configuration
+public class LoanStorageConfig {
+
+    /**
+     * Name of the loans table.
+     */
+    public static final String LOANS_TABLE = "loans";
+
+    /**
+     * Excludes the loans table from Hibernate's schema management on PostgreSQL.
+     *
+     * @param dataSourceProperties the data source properties
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer loanSchemaFilter(DataSourceProperties dataSourceProperties) {
+        return properties -> {
+            if (LoanPartitionManager.isPartitioned(dataSourceProperties.determineUrl())) {
+                properties.put("hibernate.hbm2ddl.schema_filter_provider", new ExcludeLoansProvider());
+            }
+        };
+    }
+
+    /**
+     * Schema filter provider leaving the loans table out of every schema action,
+     * so that a create-drop or update never replaces the partitioned table.
+     */
+    static class ExcludeLoansProvider implements SchemaFilterProvider {
+
+        private static final SchemaFilter EXCLUDE_LOANS = new SchemaFilter() {
+            @Override
+            public boolean includeNamespace(Namespace namespace) {
+                return true;
+            }
+
+            @Override
+            public boolean includeTable(Table table) {
+                return !LOANS_TABLE.equalsIgnoreCase(table.getName());
+            }
+
+            @Override
+            public boolean includeSequence(Sequence sequence) {
+                return true;
+            }
+        };
+
+        @Override
+        public SchemaFilter getCreateFilter() {
+            return EXCLUDE_LOANS;
+        }
+
+        @Override
+        public SchemaFilter getDropFilter() {
+            return EXCLUDE_LOANS;
+        }
+
+        @Override
+        public SchemaFilter getTruncatorFilter() {
+            return EXCLUDE_LOANS;
+        }
+
+        @Override
+        public SchemaFilter getMigrateFilter() {
+            return EXCLUDE_LOANS;
+        }
+
+        @Override
+        public SchemaFilter getValidateFilter() {
+            return EXCLUDE_LOANS;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.terran.library.config;
+
+import com.terran.library.actuator.HibernateRequestMetrics;
+import com.terran.library.actuator.HibernateRequestMetricsFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the request-level metrics.
+ * 
+ * @author Derry Terran
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Registers the filter counting Hibernate work per HTTP request.
+     *
+     * @param hibernateRequestMetrics the per-request Hibernate counters
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<HibernateRequestMetricsFilter> hibernateRequestMetricsFilter(
+            HibernateRequestMetrics hibernateRequestMetrics) {
+        var registration = new FilterRegistrationBean<>(new HibernateRequestMetricsFilter(hibernateRequestMetrics));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
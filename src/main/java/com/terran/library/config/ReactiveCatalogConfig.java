@@ -0,0 +1,97 @@
+package com.terran.library.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+
+/**
+ * Configuration class for the reactive catalog, used when the application runs as a reactive web
+ * application (the reactive profile). Catalog reads then go through R2DBC on the Netty event loop,
+ * while the JPA services keep their JDBC pool for the background jobs.
+ * <p>
+ * The R2DBC auto-configuration is excluded in application.yaml: Spring Boot skips the JDBC data source
+ * whenever a {@link ConnectionFactory} bean exists, so the pool is built here from the spring.r2dbc.*
+ * properties and kept out of the context behind {@link CatalogConnectionPool}.
+ *
+ * @author Derry Terran
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(R2dbcProperties.class)
+@EnableR2dbcRepositories(basePackages = "com.terran.library.repository.reactive")
+public class ReactiveCatalogConfig {
+
+    /**
+     * Creates the R2DBC connection pool for the catalog reads.
+     *
+     * @param properties the spring.r2dbc.* properties
+     * @return the pool holder, which closes the pool on shutdown
+     */
+    @Bean
+    public CatalogConnectionPool catalogConnectionPool(R2dbcProperties properties) {
+        var connectionFactory = ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+        var pool = properties.getPool();
+        var configuration = ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("catalog")
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime());
+        if (pool.getMaxAcquireTime() != null) {
+            configuration.maxAcquireTime(pool.getMaxAcquireTime());
+        }
+        return new CatalogConnectionPool(new ConnectionPool(configuration.build()));
+    }
+
+    /**
+     * Configures the entity template behind the reactive repositories.
+     * Identifiers are quoted, matching the schema created by Hibernate with quoted identifiers in tests.
+     *
+     * @param catalogConnectionPool the catalog connection pool
+     * @return the entity template
+     */
+    @Bean
+    public R2dbcEntityTemplate r2dbcEntityTemplate(CatalogConnectionPool catalogConnectionPool) {
+        ConnectionFactory connectionFactory = catalogConnectionPool.connectionFactory();
+        var dialect = DialectResolver.getDialect(connectionFactory);
+        var mappingContext = new R2dbcMappingContext();
+        mappingContext.setForceQuote(true);
+        var converter = new MappingR2dbcConverter(mappingContext, R2dbcCustomConversions.of(dialect, List.of()));
+        var databaseClient = DatabaseClient.builder()
+                .connectionFactory(connectionFactory)
+                .bindMarkers(dialect.getBindMarkersFactory())
+                .build();
+        return new R2dbcEntityTemplate(databaseClient, dialect, converter);
+    }
+
+    /**
+     * Holds the catalog connection pool without exposing it as a {@link ConnectionFactory} bean.
+     *
+     * @param connectionFactory the pooled connection factory
+     */
+    public record CatalogConnectionPool(ConnectionPool connectionFactory) implements DisposableBean {
+
+        @Override
+        public void destroy() {
+            connectionFactory.dispose();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.terran.library.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds whether the current thread reads from the primary even in read-only transactions, so a
+ * client sees its own borrows and returns before they reach the replicas (see
+ * {@link ReadYourWritesFilter}). Threads are not pinned unless said otherwise.
+ *
+ * @author Derry Terran
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Whether the current thread reads from the primary.
+     *
+     * @return true if pinned to the primary
+     */
+    public static boolean isPinned() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    /**
+     * Pins the current thread to the primary until {@link #clear()}.
+     */
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    /**
+     * Lets the current thread read from the replicas again.
+     */
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    /**
+     * Runs a task pinned to the primary, then restores the previous state of the thread.
+     *
+     * @param task the task
+     * @param <T> the result type
+     * @return the task result
+     */
+    public static <T> T callOnPrimary(Supplier<T> task) {
+        var previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                PINNED.remove();
+            } else {
+                PINNED.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.terran.library.config;
+
+import com.terran.library.event.BookBorrowedEvent;
+import com.terran.library.event.BookReturnedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Servlet filter giving each client read-your-writes consistency over lagging replicas. When a
+ * request borrows or returns a book, its response sets the {@link #PRIMARY_UNTIL_COOKIE} cookie to
+ * the end of the read-your-writes window, and the client's requests read from the primary until
+ * then (see {@link ReadYourWrites}); the rest of the writing request reads from the primary too.
+ * The cookie only moves reads: writes always go to the primary, and a cookie ending more than a
+ * window from now is ignored.
+ *
+ * @author Derry Terran
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * Cookie holding the time, in epoch milliseconds, until which the client reads from the primary.
+     */
+    public static final String PRIMARY_UNTIL_COOKIE = "library-primary-until";
+
+    private static final String WRITTEN_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".WRITTEN";
+
+    private final Duration window;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var now = clock.millis();
+        var until = primaryUntil(request);
+        // The cookie comes from the client, so a time beyond a full window from now was not set
+        // by this filter and is ignored rather than pinning the client to the primary indefinitely
+        if (until > now && until <= now + window.toMillis()) {
+            ReadYourWrites.pin();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookBorrowed(BookBorrowedEvent event) {
+        written();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookReturned(BookReturnedEvent event) {
+        written();
+    }
+
+    /**
+     * Pins the current request to the primary and starts the window of its client, once per request.
+     * Writes made outside a request, such as by imports, have no client to pin.
+     */
+    private void written() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        var request = attributes.getRequest();
+        var response = attributes.getResponse();
+        if (request.getAttribute(WRITTEN_ATTRIBUTE) != null) {
+            return;
+        }
+        request.setAttribute(WRITTEN_ATTRIBUTE, Boolean.TRUE);
+        ReadYourWrites.pin();
+        if (response != null && !response.isCommitted()) {
+            var cookie = ResponseCookie.from(PRIMARY_UNTIL_COOKIE, Long.toString(clock.millis() + window.toMillis()))
+                    .path("/")
+                    .maxAge(window.toSeconds() + 1)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (PRIMARY_UNTIL_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.terran.library.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Lazy connection proxy in front of a {@link ReplicaRoutingDataSource}. A transaction takes its
+ * connection when it begins, before it is marked read-only; through this proxy the connection is
+ * only opened by the first statement, when the routing data source can tell a read-only
+ * transaction from a write.
+ *
+ * @author Derry Terran
+ */
+public class ReplicaAwareDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    public ReplicaAwareDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     * Closes the routing data source and its pools.
+     *
+     * @throws Exception if a pool fails to close
+     */
+    @Override
+    public void close() throws Exception {
+        ConnectionPools.close(obtainTargetDataSource());
+    }
+}
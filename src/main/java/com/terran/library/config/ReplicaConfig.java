@@ -0,0 +1,219 @@
+package com.terran.library.config;
+
+import com.terran.library.config.ReplicaRoutingDataSource.Balancing;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration class for read replicas, enabled with library.replicas.enabled.
+ * Read-only transactions, such as the getters of the book and borrower services, then read from
+ * the replicas listed under library.replicas.hosts, while every other transaction, including
+ * borrows and returns, stays on the primary (see {@link ReplicaRoutingDataSource}). With sharding,
+ * each shard lists its own replicas under library.sharding.branches.name.replicas.
+ * <p>
+ * Replicas lag behind the primary, so a client that borrows or returns a book reads from the
+ * primary for library.replicas.read-your-writes-window afterwards (see {@link ReadYourWritesFilter}).
+ * <p>
+ * Hibernate keeps the connection of a request for its whole duration by default, which would let a
+ * write reuse the replica connection of an earlier read; with replicas every transaction takes and
+ * releases its own connection instead.
+ *
+ * @author Derry Terran
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaConfig.ReplicaProperties.class)
+public class ReplicaConfig {
+
+    /**
+     * The replicas and how reads are spread over them.
+     *
+     * @param enabled whether read-only transactions read from the replicas
+     * @param balancing how a read picks a healthy replica
+     * @param healthCheckInterval the time between health checks of each replica
+     * @param healthCheckTimeout the time a replica has to answer a health check
+     * @param readYourWritesWindow how long a client reads from the primary after a borrow or return
+     * @param hosts the replicas of spring.datasource, keyed by name; sharded deployments list them per shard
+     */
+    @ConfigurationProperties(prefix = "library.replicas")
+    public record ReplicaProperties(boolean enabled,
+                                    @DefaultValue("round-robin") Balancing balancing,
+                                    @DefaultValue("10s") Duration healthCheckInterval,
+                                    @DefaultValue("2s") Duration healthCheckTimeout,
+                                    @DefaultValue("5s") Duration readYourWritesWindow,
+                                    Map<String, Replica> hosts) {
+    }
+
+    /**
+     * One read replica.
+     *
+     * @param url the JDBC URL
+     * @param username the database user, which only needs read access
+     * @param password the database password
+     * @param maximumPoolSize the connection pool size, or null for spring.datasource.hikari.maximum-pool-size
+     */
+    public record Replica(String url, String username, String password, Integer maximumPoolSize) {
+    }
+
+    /**
+     * Creates a routing data source over a primary and its replicas, each replica with its own pool.
+     *
+     * @param poolPrefix the prefix of the pool names, followed by the replica name
+     * @param primary the primary data source
+     * @param hosts the replicas keyed by name, or null for none
+     * @param properties the replica properties
+     * @param environment the environment holding the spring.datasource.hikari settings
+     * @param meterRegistry the registry the pool metrics are published to, or null
+     * @return the routing data source
+     */
+    static ReplicaRoutingDataSource replicated(String poolPrefix, DataSource primary, Map<String, Replica> hosts,
+                                               ReplicaProperties properties, Environment environment,
+                                               MeterRegistry meterRegistry) {
+        var replicas = new LinkedHashMap<String, DataSource>();
+        if (hosts != null) {
+            hosts.forEach((name, replica) -> {
+                if (replica.url() == null) {
+                    throw new IllegalStateException("No URL for replica " + poolPrefix + name);
+                }
+                replicas.put(poolPrefix + name, ConnectionPools.create(poolPrefix + name, replica.url(),
+                        replica.username(), replica.password(), replica.maximumPoolSize(), environment, meterRegistry));
+            });
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, properties.balancing(),
+                properties.healthCheckInterval(), properties.healthCheckTimeout());
+    }
+
+    /**
+     * The replica routing and read-your-writes stickiness, when replicas are enabled.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "library.replicas.enabled", havingValue = "true")
+    static class RoutingConfiguration {
+
+        /**
+         * Puts the spring.datasource pool behind a replica routing data source and a lazy connection
+         * proxy. In the virtual thread mode the pool keeps its {@link ConnectionLimitingDataSource},
+         * and each replica pool gets its own. The routing data source of sharding is left alone, as
+         * its shards route to their replicas themselves.
+         *
+         * @param environment the environment holding the library.replicas settings
+         * @param meterRegistry the registry the replica pool metrics are published to, tagged with pool=replica-name
+         * @return the post processor
+         */
+        @Bean
+        public static BeanPostProcessor replicaDataSourcePostProcessor(Environment environment,
+                                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)
+                            || bean instanceof BranchRoutingDataSource || bean instanceof ReplicaAwareDataSource) {
+                        return bean;
+                    }
+                    if (primary instanceof HikariDataSource hikari
+                            && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+                        primary = VirtualThreadConfig.limited(hikari);
+                    }
+                    var properties = Binder.get(environment).bindOrCreate("library.replicas", ReplicaProperties.class);
+                    return new ReplicaAwareDataSource(replicated("replica-", primary, properties.hosts(), properties,
+                            environment, meterRegistry.getIfAvailable()));
+                }
+            };
+        }
+
+        /**
+         * Makes Hibernate take a connection per transaction rather than per request, so each
+         * transaction is routed on its own.
+         *
+         * @return the Hibernate properties customizer
+         */
+        @Bean
+        public HibernatePropertiesCustomizer replicaHibernateCustomizer() {
+            return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                    PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+        }
+
+        /**
+         * The filter keeping clients on the primary after their writes, also listening for them.
+         *
+         * @param properties the replica properties
+         * @return the filter
+         */
+        @Bean
+        public ReadYourWritesFilter readYourWritesFilter(ReplicaProperties properties) {
+            return new ReadYourWritesFilter(properties.readYourWritesWindow(), Clock.systemUTC());
+        }
+
+        /**
+         * Registers the read-your-writes filter right after the branch filter.
+         *
+         * @param filter the filter
+         * @return the filter registration
+         */
+        @Bean
+        public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilterRegistration(ReadYourWritesFilter filter) {
+            var registration = new FilterRegistrationBean<>(filter);
+            registration.addUrlPatterns("/*");
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+            return registration;
+        }
+
+        /**
+         * Publishes whether each replica receives reads and its connections in use.
+         *
+         * @param dataSource the data source
+         * @return the meter binder
+         */
+        @Bean
+        public MeterBinder replicaMetrics(DataSource dataSource) {
+            return registry -> ReplicaRoutingDataSource.find(dataSource).forEach(replicated -> {
+                for (var status : replicated.getReplicaStatus()) {
+                    var name = status.name();
+                    Gauge.builder("library.datasource.replica.healthy", replicated,
+                                    source -> healthy(source, name) ? 1 : 0)
+                            .description("Whether the replica receives reads")
+                            .tag("replica", name)
+                            .register(registry);
+                    Gauge.builder("library.datasource.replica.connections.active", replicated,
+                                    source -> activeConnections(source, name))
+                            .description("Connections to the replica in use")
+                            .tag("replica", name)
+                            .register(registry);
+                }
+            });
+        }
+
+        private static boolean healthy(ReplicaRoutingDataSource source, String name) {
+            return source.getReplicaStatus().stream().anyMatch(status -> status.name().equals(name) && status.healthy());
+        }
+
+        private static int activeConnections(ReplicaRoutingDataSource source, String name) {
+            return source.getReplicaStatus().stream()
+                    .filter(status -> status.name().equals(name))
+                    .mapToInt(ReplicaRoutingDataSource.ReplicaStatus::activeConnections)
+                    .sum();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.terran.library.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source that hands out connections to read replicas for read-only transactions and to the
+ * primary for everything else. The transaction must be known to be read-only when the connection is
+ * taken, so this data source sits behind a lazy connection proxy (see {@link ReplicaConfig}).
+ * <p>
+ * Replicas are chosen in turn, or by fewest connections in use, among those that passed their
+ * last health check. A replica that fails to hand out a connection is taken out of rotation until
+ * its next successful check, and reads go to the primary while no replica is healthy. Reads also
+ * go to the primary while the thread is pinned to it (see {@link ReadYourWrites}).
+ *
+ * @author Derry Terran
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * How a read-only transaction picks one of the healthy replicas.
+     */
+    public enum Balancing {
+        /**
+         * Each replica in turn.
+         */
+        ROUND_ROBIN,
+        /**
+         * The replica with the fewest connections in use, the first one on ties.
+         */
+        LEAST_CONNECTIONS
+    }
+
+    /**
+     * Point-in-time state of one replica.
+     *
+     * @param name the replica name
+     * @param healthy whether the replica receives reads
+     * @param activeConnections the connections handed out and not closed yet
+     */
+    public record ReplicaStatus(String name, boolean healthy, int activeConnections) {
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Balancing balancing;
+    private final Duration healthCheckTimeout;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks;
+
+    /**
+     * Creates the routing data source. Replicas start healthy; with a health check interval, they are
+     * checked right away and then at that interval.
+     *
+     * @param primary the primary data source
+     * @param replicas the replica data sources, keyed by name, in order
+     * @param balancing how replicas are picked
+     * @param healthCheckInterval the time between health checks, or null to only check on demand
+     * @param healthCheckTimeout the time a replica has to answer a health check
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Balancing balancing,
+                                    Duration healthCheckInterval, Duration healthCheckTimeout) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream().map(entry -> new Replica(entry.getKey(), entry.getValue())).toList();
+        this.balancing = balancing;
+        this.healthCheckTimeout = healthCheckTimeout;
+        if (healthCheckInterval != null && !this.replicas.isEmpty()) {
+            healthChecks = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("replica-health-", 0).factory());
+            healthChecks.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            healthChecks = null;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!readsFromReplica()) {
+            return primary.getConnection();
+        }
+        var replica = choose();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.connect();
+        } catch (SQLException | RuntimeException e) {
+            replica.markDown(e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Credentials given by the caller are those of the primary
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Checks every replica with a connection validity test, putting back into rotation those that
+     * answer and taking out those that do not.
+     */
+    public void checkHealth() {
+        for (var replica : replicas) {
+            try (var connection = replica.dataSource.getConnection()) {
+                if (connection.isValid((int) Math.max(1, healthCheckTimeout.toSeconds()))) {
+                    replica.markUp();
+                } else {
+                    replica.markDown("connection is not valid");
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get the state of every replica.
+     *
+     * @return the replica states, in configuration order
+     */
+    public List<ReplicaStatus> getReplicaStatus() {
+        return replicas.stream()
+                .map(replica -> new ReplicaStatus(replica.name, replica.healthy, replica.active.get()))
+                .toList();
+    }
+
+    /**
+     * Get the primary data source.
+     *
+     * @return the primary
+     */
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Find the replica routing data sources behind a data source: itself, the one behind a lazy
+     * proxy, or one per shard with sharding.
+     *
+     * @param dataSource the application data source
+     * @return the replica routing data sources, empty if replicas are not used
+     */
+    public static List<ReplicaRoutingDataSource> find(DataSource dataSource) {
+        if (dataSource instanceof ReplicaRoutingDataSource replicated) {
+            return List.of(replicated);
+        }
+        if (dataSource instanceof ReplicaAwareDataSource proxy) {
+            return find(proxy.getTargetDataSource());
+        }
+        if (dataSource instanceof BranchRoutingDataSource branches) {
+            var found = new ArrayList<ReplicaRoutingDataSource>();
+            branches.getShards().values().forEach(shard -> found.addAll(find(shard)));
+            return found;
+        }
+        return List.of();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    /**
+     * Stops the health checks and closes the pools of the replicas and the primary.
+     *
+     * @throws Exception if a pool fails to close
+     */
+    @Override
+    public void close() throws Exception {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (var replica : replicas) {
+            ConnectionPools.close(replica.dataSource);
+        }
+        ConnectionPools.close(primary);
+    }
+
+    private static boolean readsFromReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.isPinned();
+    }
+
+    private Replica choose() {
+        var healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        return switch (balancing) {
+            case ROUND_ROBIN -> healthy.get(Math.floorMod(nextReplica.getAndIncrement(), healthy.size()));
+            case LEAST_CONNECTIONS -> healthy.stream().min(Comparator.comparingInt(replica -> replica.active.get())).get();
+        };
+    }
+
+    private static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger active = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Opens a connection that counts as active until it is closed.
+         */
+        Connection connect() throws SQLException {
+            var connection = dataSource.getConnection();
+            active.incrementAndGet();
+            var closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                            active.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+
+        void markUp() {
+            if (!healthy) {
+                log.info("Replica {} is healthy again and receives reads", name);
+            }
+            healthy = true;
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                log.warn("Replica {} is unhealthy and no longer receives reads: {}", name, reason);
+            }
+            healthy = false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.terran.library.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling scheduled tasks, such as the reconciliation of the library statistics.
+ * 
+ * @author Derry Terran
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,68 @@
+package com.terran.library.config;
+
+import com.terran.library.repository.BookRepository;
+import com.terran.library.repository.TitleRepository;
+import com.terran.library.service.BookSearchService;
+import com.terran.library.service.IndexedBookSearchService;
+import com.terran.library.service.PostgresBookSearchService;
+import com.terran.library.service.SimpleBookSearchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Configuration class for the catalog search.
+ * On PostgreSQL titles are searched with full-text and trigram indexes; on other databases,
+ * such as H2 in tests, a substring match over the titles table is used instead.
+ * With {@code library.search.engine=index}, titles are searched in an in-memory index instead,
+ * for deployments where the PostgreSQL extensions cannot be installed.
+ * 
+ * @author Derry Terran
+ */
+@Configuration
+public class SearchConfig {
+
+    /**
+     * Creates the search engine for the configured database.
+     *
+     * @param dataSourceProperties the data source properties
+     * @param jdbcTemplate the JDBC template used on PostgreSQL
+     * @param titleRepository the title repository used elsewhere
+     * @param defaultPageSize the page size used when the client does not send one
+     * @param maxPageSize the largest page size a client can request
+     * @return the search engine
+     */
+    @Bean
+    @ConditionalOnProperty(name = "library.search.engine", havingValue = "database", matchIfMissing = true)
+    public BookSearchService bookSearchService(DataSourceProperties dataSourceProperties,
+                                               NamedParameterJdbcTemplate jdbcTemplate,
+                                               TitleRepository titleRepository,
+                                               @Value("${library.search.default-page-size:20}") int defaultPageSize,
+                                               @Value("${library.search.max-page-size:100}") int maxPageSize) {
+        var jdbcUrl = dataSourceProperties.determineUrl();
+        if (jdbcUrl != null && DatabaseDriver.fromJdbcUrl(jdbcUrl) == DatabaseDriver.POSTGRESQL) {
+            return new PostgresBookSearchService(jdbcTemplate, defaultPageSize, maxPageSize);
+        }
+        return new SimpleBookSearchService(titleRepository, defaultPageSize, maxPageSize);
+    }
+
+    /**
+     * Creates the in-memory search engine, which builds its index on startup.
+     *
+     * @param bookRepository the book repository the index is built from
+     * @param defaultPageSize the page size used when the client does not send one
+     * @param maxPageSize the largest page size a client can request
+     * @return the search engine
+     */
+    @Bean
+    @ConditionalOnProperty(name = "library.search.engine", havingValue = "index")
+    public IndexedBookSearchService indexedBookSearchService(BookRepository bookRepository,
+                                                             @Value("${library.search.default-page-size:20}") int defaultPageSize,
+                                                             @Value("${library.search.max-page-size:100}") int maxPageSize) {
+        return new IndexedBookSearchService(bookRepository, defaultPageSize, maxPageSize);
+    }
+}
@@ -0,0 +1,229 @@
+package com.terran.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration class for multi-branch deployments, enabled with library.sharding.enabled.
+ * Each branch has its own database shard holding its books and borrowers, and each request is
+ * routed to the shard of its branch (see {@link BranchFilter} and {@link BranchRoutingDataSource}),
+ * so the services work on one branch at a time without knowing about sharding. Cross-branch reads
+ * fan out to every shard through {@link Branches}.
+ * <p>
+ * Every shard hands out IDs from its own range, starting at its index shifted left by
+ * {@link #SHARD_ID_BITS}, so an ID names one row across all shards and results from several shards
+ * can be merged by ID. Hibernate draws IDs in blocks, which it keeps per branch through
+ * {@link BranchTenantResolver}. The Hibernate second-level and query caches do not know about branches, so
+ * they are turned off; the lookup caches of {@link CacheConfig} are scoped to the branch instead.
+ * <p>
+ * Without sharding, the deployment serves the default branch alone, on spring.datasource.
+ *
+ * @author Derry Terran
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingConfig.ShardingProperties.class)
+public class ShardingConfig {
+
+    /**
+     * Number of IDs in the range of each shard, as a power of two: about a trillion.
+     */
+    public static final int SHARD_ID_BITS = 40;
+
+    /**
+     * Flyway placeholder holding the start of the ID range of the database being migrated.
+     */
+    public static final String SHARD_ID_BASE = "shard_id_base";
+
+    /**
+     * The branches and their shards, keyed by branch name.
+     *
+     * @param enabled whether requests are routed to the shard of their branch
+     * @param branches the shards, which must include the default branch
+     */
+    @ConfigurationProperties(prefix = "library.sharding")
+    public record ShardingProperties(boolean enabled, Map<String, Shard> branches) {
+    }
+
+    /**
+     * The database shard of one branch.
+     *
+     * @param url the JDBC URL
+     * @param username the database user
+     * @param password the database password
+     * @param index the position of the shard, which selects its ID range; never reuse or change it
+     * @param maximumPoolSize the connection pool size, or null for spring.datasource.hikari.maximum-pool-size
+     * @param replicas the read replicas of the shard keyed by name, used when library.replicas.enabled is set
+     */
+    public record Shard(String url, String username, String password, int index, Integer maximumPoolSize,
+                        Map<String, ReplicaConfig.Replica> replicas) {
+
+        /**
+         * Get the start of the ID range of this shard; its first ID is the one after it.
+         *
+         * @return the range start
+         */
+        public long idBase() {
+            return (long) index << SHARD_ID_BITS;
+        }
+    }
+
+    /**
+     * The branches served by this deployment, ordered by shard index.
+     *
+     * @param properties the sharding properties
+     * @return the branches
+     */
+    @Bean(destroyMethod = "close")
+    public Branches branches(ShardingProperties properties) {
+        if (!properties.enabled()) {
+            return Branches.single();
+        }
+        return new Branches(validated(properties).entrySet().stream()
+                .sorted(Comparator.comparingInt(entry -> entry.getValue().index()))
+                .map(Map.Entry::getKey)
+                .toList());
+    }
+
+    /**
+     * Runs asynchronous work, such as streamed responses, for the branch of the request that starts it.
+     * Picked up by the application task executor.
+     *
+     * @return the task decorator
+     */
+    @Bean
+    public TaskDecorator branchTaskDecorator() {
+        return BranchContext::propagate;
+    }
+
+    private static Map<String, Shard> validated(ShardingProperties properties) {
+        var branches = properties.branches() != null ? properties.branches() : Map.<String, Shard>of();
+        if (!branches.containsKey(BranchContext.DEFAULT_BRANCH)) {
+            throw new IllegalStateException("library.sharding.branches must include the "
+                    + BranchContext.DEFAULT_BRANCH + " branch");
+        }
+        var indexes = new HashSet<Integer>();
+        branches.forEach((name, shard) -> {
+            if (shard.url() == null) {
+                throw new IllegalStateException("No URL for the shard of branch " + name);
+            }
+            // Keeps every ID exact as a JavaScript number
+            if (shard.index() < 0 || shard.index() >= 1 << (53 - SHARD_ID_BITS)) {
+                throw new IllegalStateException("Shard index out of range for branch " + name);
+            }
+            if (!indexes.add(shard.index())) {
+                throw new IllegalStateException("Shard index " + shard.index() + " is used by several branches");
+            }
+        });
+        return branches;
+    }
+
+    /**
+     * The routing data source and the per-shard migrations, when sharding is enabled.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "library.sharding.enabled", havingValue = "true")
+    static class RoutingConfiguration {
+
+        /**
+         * Configures one connection pool per shard behind a routing data source, which replaces the
+         * spring.datasource pool (see {@link ConnectionPools}). With replicas, each shard routes its
+         * read-only transactions to its own replicas.
+         *
+         * @param properties the sharding properties
+         * @param replicaProperties the replica properties
+         * @param environment the environment holding the spring.datasource.hikari settings
+         * @param meterRegistry the registry the pool metrics are published to, tagged with pool=branch-name
+         * @return the routing data source
+         */
+        @Bean(destroyMethod = "close")
+        public BranchRoutingDataSource dataSource(ShardingProperties properties,
+                                                  ReplicaConfig.ReplicaProperties replicaProperties,
+                                                  Environment environment,
+                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+            var registry = meterRegistry.getIfAvailable();
+            var shards = new LinkedHashMap<String, DataSource>();
+            validated(properties).forEach((name, shard) -> {
+                var pool = ConnectionPools.create("branch-" + name, shard.url(), shard.username(), shard.password(),
+                        shard.maximumPoolSize(), environment, registry);
+                shards.put(name, replicaProperties.enabled()
+                        ? new ReplicaAwareDataSource(ReplicaConfig.replicated("branch-" + name + "-", pool,
+                                shard.replicas(), replicaProperties, environment, registry))
+                        : pool);
+            });
+            return new BranchRoutingDataSource(shards);
+        }
+
+        /**
+         * Applies the migrations to every shard instead of the default one only, each with the
+         * start of its ID range as the {@link #SHARD_ID_BASE} placeholder.
+         *
+         * @param dataSource the routing data source
+         * @param properties the sharding properties
+         * @return the migration strategy
+         */
+        @Bean
+        public FlywayMigrationStrategy shardMigrationStrategy(BranchRoutingDataSource dataSource,
+                                                              ShardingProperties properties) {
+            return flyway -> properties.branches().forEach((name, shard) -> {
+                var placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put(SHARD_ID_BASE, Long.toString(shard.idBase()));
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(dataSource.getShards().get(name))
+                        .placeholders(placeholders)
+                        .load()
+                        .migrate();
+            });
+        }
+
+        /**
+         * Makes each Hibernate session work for its branch, so the pooled ID sequences keep one block
+         * of IDs per branch, and turns off the Hibernate second-level and query caches, which would
+         * serve a row or a query result to every branch, whichever shard it was read from.
+         *
+         * @return the Hibernate properties customizer
+         */
+        @Bean
+        public HibernatePropertiesCustomizer shardingHibernateCustomizer() {
+            return hibernateProperties -> {
+                hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new BranchTenantResolver());
+                hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, false);
+            };
+        }
+
+        /**
+         * Registers the filter setting the branch of each request, ahead of every other filter.
+         *
+         * @param branches the branches
+         * @return the filter registration
+         */
+        @Bean
+        public FilterRegistrationBean<BranchFilter> branchFilter(Branches branches) {
+            var registration = new FilterRegistrationBean<>(new BranchFilter(branches));
+            registration.addUrlPatterns("/*");
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.terran.library.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Configuration class for the virtual thread mode, enabled with spring.threads.virtual.enabled.
+ * Requests are then handled on virtual threads, which no longer bound how many of them wait on the
+ * database at once, so the Hikari pool is put behind a {@link ConnectionLimitingDataSource} with
+ * as many permits as the pool has connections, and the pool's connection timeout.
+ * 
+ * @author Derry Terran
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Wraps the spring.datasource Hikari pool in a connection limiting data source. Other Hikari
+     * data source beans are left alone, and the pool stays reachable through unwrap, so its
+     * Hikari metrics are still published.
+     *
+     * @return the post processor
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof HikariDataSource hikari) {
+                    return limited(hikari);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Puts a Hikari pool behind a connection limit of its size and connection timeout.
+     * Also used for the pools of shards and read replicas, which are not beans.
+     *
+     * @param hikari the pool
+     * @return the connection limiting data source
+     */
+    public static ConnectionLimitingDataSource limited(HikariDataSource hikari) {
+        return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(),
+                Duration.ofMillis(hikari.getConnectionTimeout()));
+    }
+
+    /**
+     * Publishes the available connection permits and the number of callers waiting for one.
+     *
+     * @param dataSource the data source
+     * @return the meter binder
+     */
+    @Bean
+    public MeterBinder connectionPermitMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limiting;
+            try {
+                limiting = dataSource.unwrap(ConnectionLimitingDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("library.datasource.permits.available", limiting,
+                            ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Database connections that can be handed out without waiting")
+                    .register(registry);
+            Gauge.builder("library.datasource.permits.waiting", limiting,
+                            ConnectionLimitingDataSource::getWaitingCallers)
+                    .description("Callers waiting for a database connection")
+                    .register(registry);
+        };
+    }
+}
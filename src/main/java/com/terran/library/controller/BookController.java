@@ -1,7 +1,18 @@
 package com.terran.library.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.terran.library.model.Book;
+import com.terran.library.model.Title;
+import com.terran.library.service.BatchMode;
+import com.terran.library.service.BookCirculationResult;
+import com.terran.library.service.BookRegistrationResult;
 import com.terran.library.service.BookService;
+import com.terran.library.service.CatalogFilter;
+import com.terran.library.service.CatalogPage;
+import com.terran.library.service.CatalogRow;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,15 +21,30 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST controller for managing books.
@@ -26,14 +52,26 @@ import java.util.Map;
  * @author Derry Terran
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Book", description = "Book management APIs")
 public class BookController {
 
+    /**
+     * Media type of the catalog export: one JSON document per line.
+     */
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final BookService bookService;
+    private final ObjectWriter exportWriter;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, ObjectMapper objectMapper) {
         this.bookService = bookService;
+        // The export flushes once at the end instead of after every line
+        this.exportWriter = objectMapper.writerFor(Book.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
@@ -63,36 +101,222 @@ public class BookController {
     }
 
     /**
-     * Get all books.
+     * Register a list of books at once, for onboarding whole inventories.
+     *
+     * @param books the books to register
+     * @return one result per submitted book, with the ID of each registered book or the reason it was rejected
+     */
+    @PostMapping("/terranapi/books/bulk")
+    @Operation(summary = "Register books in bulk", description = "Registers a list of books in one request. "
+            + "Books that are invalid or do not match the title and author of their ISBN are reported "
+            + "in the results without aborting the others")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books processed, see the result of each item",
+                    content = @Content(schema = @Schema(implementation = BookRegistrationResult.class))),
+            @ApiResponse(responseCode = "400", description = "Empty list or more books than the bulk limit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<List<BookRegistrationResult>> registerBooks(@RequestBody List<Book> books) {
+        try {
+            return new ResponseEntity<>(bookService.registerBooks(books), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Get all books, up to the configured legacy row limit.
+     * The listing is tagged with the latest change to the books table, read before the books so that
+     * a change made in between only makes the tag older than the content.
      *
-     * @return a list of all books
+     * @param webRequest the current request, for the conditional headers
+     * @return a list of books ordered by ID
      */
     @GetMapping("/terranapi/books")
-    @Operation(summary = "Get all books", description = "Returns a list of all books in the library")
-    @ApiResponse(responseCode = "200", description = "List of books retrieved successfully",
-            content = @Content(schema = @Schema(implementation = Book.class)))
-    public ResponseEntity<List<Book>> getAllBooks() {
+    @Operation(summary = "Get all books", description = "Returns the books in the library ordered by ID, "
+            + "capped at a hard row limit. Use /terranapi/catalog to page through the full catalog. "
+            + "Send the returned ETag in If-None-Match to poll for changes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of books retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = Book.class))),
+            @ApiResponse(responseCode = "304", description = "No book changed since the ETag was issued",
+                    content = @Content)
+    })
+    public ResponseEntity<List<Book>> getAllBooks(WebRequest webRequest) {
+        var etag = EntityTags.ofLastChange(bookService.getBooksLastChange());
+        if (webRequest.checkNotModified(etag)) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
         var books = bookService.getAllBooks();
-        return new ResponseEntity<>(books, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(books);
+    }
+
+    /**
+     * Get one page of the catalog.
+     *
+     * @param cursor the cursor returned with a previous page, or absent for the first page
+     * @param size the page size
+     * @param isbn optional ISBN filter
+     * @param author optional author filter
+     * @param available optional availability filter
+     * @return the catalog page with next and previous cursors
+     */
+    @GetMapping("/terranapi/catalog")
+    @Operation(summary = "Page through the catalog",
+            description = "Returns one page of books ordered by ID using cursor (keyset) pagination")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Catalog page retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = CatalogPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                    content = @Content)
+    })
+    public ResponseEntity<CatalogPage> getCatalogPage(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) String isbn,
+                                                      @RequestParam(required = false) String author,
+                                                      @RequestParam(required = false) Boolean available) {
+        try {
+            var page = bookService.getCatalogPage(cursor, size, new CatalogFilter(isbn, author, available));
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Get the copies of an ISBN with their availability.
+     *
+     * @param isbn the ISBN
+     * @return the catalog rows of the copies with the given ISBN
+     */
+    @GetMapping("/terranapi/books/isbn/{isbn}")
+    @Operation(summary = "Get the copies of an ISBN",
+            description = "Returns every copy of an ISBN with its borrowed flag and borrower ID")
+    @ApiResponse(responseCode = "200", description = "Copies retrieved successfully",
+            content = @Content(schema = @Schema(implementation = CatalogRow.class)))
+    public ResponseEntity<List<CatalogRow>> getCopiesByIsbn(@PathVariable String isbn) {
+        return new ResponseEntity<>(bookService.getCatalogRowsByIsbn(isbn), HttpStatus.OK);
+    }
+
+    /**
+     * Get the availability of an ISBN.
+     *
+     * @param isbn the ISBN
+     * @return the title with its total and available copy counts
+     */
+    @GetMapping("/terranapi/books/isbn/{isbn}/availability")
+    @Operation(summary = "Get the availability of an ISBN",
+            description = "Returns the title of an ISBN with its total and available copy counts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Title found",
+                    content = @Content(schema = @Schema(implementation = Title.class))),
+            @ApiResponse(responseCode = "404", description = "No copy of the ISBN is registered",
+                    content = @Content)
+    })
+    public ResponseEntity<Title> getAvailability(@PathVariable String isbn) {
+        return bookService.getTitle(isbn)
+                .map(title -> new ResponseEntity<>(title, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Export the catalog as newline-delimited JSON.
+     *
+     * @param updatedSince only export books changed at or after this time
+     * @return a streaming NDJSON body with one book per line
+     */
+    @GetMapping(value = "/terranapi/books/export", produces = NDJSON)
+    @Operation(summary = "Export the catalog as NDJSON",
+            description = "Streams every book, one JSON document per line, optionally only those changed since a given time")
+    @ApiResponse(responseCode = "200", description = "Catalog export streamed successfully",
+            content = @Content(mediaType = NDJSON, schema = @Schema(implementation = Book.class)))
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(out -> writeExport(out, updatedSince));
+    }
+
+    /**
+     * Export the catalog as gzip-compressed newline-delimited JSON.
+     *
+     * @param updatedSince only export books changed at or after this time
+     * @return a streaming gzip body containing one book per line
+     */
+    @GetMapping(value = "/terranapi/books/export.gz", produces = "application/gzip")
+    @Operation(summary = "Export the catalog as gzipped NDJSON",
+            description = "Same as /terranapi/books/export, compressed with gzip as a books.ndjson.gz download")
+    @ApiResponse(responseCode = "200", description = "Compressed catalog export streamed successfully",
+            content = @Content(mediaType = "application/gzip"))
+    public ResponseEntity<StreamingResponseBody> exportBooksGzip(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("books.ndjson.gz").build().toString())
+                .body(out -> {
+                    var gzip = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+                    writeExport(gzip, updatedSince);
+                    gzip.finish();
+                });
+    }
+
+    /**
+     * Write the export to the response as it is read from the database.
+     */
+    private void writeExport(OutputStream out, Instant updatedSince) throws IOException {
+        var buffered = new BufferedOutputStream(out, EXPORT_BUFFER_SIZE);
+        try (var generator = exportWriter.createGenerator(buffered)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            bookService.exportBooks(updatedSince, book -> {
+                try {
+                    exportWriter.writeValue(generator, book);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffered.flush();
     }
 
     /**
      * Get a book by ID.
+     * The book is tagged with its version; a conditional request is answered from the version alone.
      *
      * @param id the book ID
+     * @param webRequest the current request, for the conditional headers
      * @return the book if found
      */
     @GetMapping("/terranapi/books/{id}")
-    @Operation(summary = "Get a book by ID", description = "Returns a book with the specified ID")
+    @Operation(summary = "Get a book by ID", description = "Returns a book with the specified ID. "
+            + "Send the returned ETag in If-None-Match to poll for changes, or in If-Match to borrow or return it")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Book found",
                     content = @Content(schema = @Schema(implementation = Book.class))),
+            @ApiResponse(responseCode = "304", description = "The book did not change since the ETag was issued",
+                    content = @Content),
             @ApiResponse(responseCode = "404", description = "Book not found",
                     content = @Content)
     })
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, WebRequest webRequest) {
+        // Compare the version before loading the book, so a repeat poll neither loads nor serializes it
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            var version = bookService.getBookVersion(id);
+            if (version.isPresent() && webRequest.checkNotModified(EntityTags.ofVersion(version.get()))) {
+                return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+            }
+        }
         return bookService.getBookById(id)
-                .map(book -> new ResponseEntity<>(book, HttpStatus.OK))
+                .map(book -> ResponseEntity.ok()
+                        .eTag(EntityTags.ofVersion(book.getVersion()))
+                        .cacheControl(CacheControl.noCache())
+                        .body(book))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -101,6 +325,7 @@ public class BookController {
      *
      * @param id the book ID
      * @param requestBody the request body containing the borrower ID
+     * @param ifMatch the ETag of the book as the client last read it, to borrow it only if it did not change
      * @return the borrowed book
      */
     @PostMapping({"/terranapi/books/{id}/borrow", "/terranapi/{id}/borrow"})
@@ -111,16 +336,55 @@ public class BookController {
             @ApiResponse(responseCode = "400", description = "Book is already borrowed or invalid request",
                     content = @Content),
             @ApiResponse(responseCode = "404", description = "Book or borrower not found",
+                    content = @Content),
+            @ApiResponse(responseCode = "412", description = "The book changed since the If-Match ETag was issued",
+                    content = @Content)
+    })
+    public ResponseEntity<Book> borrowBook(@PathVariable Long id, @RequestBody Map<String, Long> requestBody,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            var borrowerId = requestBody.get("borrowerId");
+            if (borrowerId == null) {
+                throw new IllegalArgumentException("Borrower ID is required");
+            }
+            
+            var expectedVersion = EntityTags.requiredVersion(ifMatch);
+            var borrowedBook = expectedVersion == null
+                    ? bookService.borrowBook(id, borrowerId)
+                    : bookService.borrowBook(id, borrowerId, expectedVersion);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.ofVersion(borrowedBook.getVersion()))
+                    .body(borrowedBook);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Borrow any available copy of an ISBN.
+     *
+     * @param isbn the ISBN of the title to borrow
+     * @param requestBody the request body containing the borrower ID
+     * @return the borrowed copy
+     */
+    @PostMapping("/terranapi/books/isbn/{isbn}/borrow")
+    @Operation(summary = "Borrow any copy of an ISBN", description = "Borrows whichever copy of the ISBN is available")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book borrowed successfully",
+                    content = @Content(schema = @Schema(implementation = Book.class))),
+            @ApiResponse(responseCode = "400", description = "No copy is available, the borrower was not found, or invalid request",
                     content = @Content)
     })
-    public ResponseEntity<Book> borrowBook(@PathVariable Long id, @RequestBody Map<String, Long> requestBody) {
+    public ResponseEntity<Book> borrowAnyCopy(@PathVariable String isbn, @RequestBody Map<String, Long> requestBody) {
         try {
             var borrowerId = requestBody.get("borrowerId");
             if (borrowerId == null) {
                 throw new IllegalArgumentException("Borrower ID is required");
             }
             
-            var borrowedBook = bookService.borrowBook(id, borrowerId);
+            var borrowedBook = bookService.borrowAnyCopy(isbn, borrowerId);
             return new ResponseEntity<>(borrowedBook, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
@@ -131,6 +395,7 @@ public class BookController {
      * Return a book.
      *
      * @param id the book ID
+     * @param ifMatch the ETag of the book as the client last read it, to return it only if it did not change
      * @return the returned book
      */
     @PostMapping({"/terranapi/books/{id}/return", "/terranapi/{id}/return"})
@@ -141,14 +406,105 @@ public class BookController {
             @ApiResponse(responseCode = "400", description = "Book is not borrowed or invalid request",
                     content = @Content),
             @ApiResponse(responseCode = "404", description = "Book not found",
+                    content = @Content),
+            @ApiResponse(responseCode = "412", description = "The book changed since the If-Match ETag was issued",
                     content = @Content)
     })
-    public ResponseEntity<Book> returnBook(@PathVariable Long id) {
+    public ResponseEntity<Book> returnBook(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            var expectedVersion = EntityTags.requiredVersion(ifMatch);
+            var returnedBook = expectedVersion == null
+                    ? bookService.returnBook(id)
+                    : bookService.returnBook(id, expectedVersion);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.ofVersion(returnedBook.getVersion()))
+                    .body(returnedBook);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Borrow several books for one borrower, as at a checkout desk.
+     *
+     * @param batch the borrower ID and the book IDs
+     * @param mode whether to borrow the books only if all of them can be borrowed; defaults to library.circulation.batch-mode
+     * @return one result per submitted book ID
+     */
+    @PostMapping("/terranapi/books/borrow")
+    @Operation(summary = "Borrow books in a batch", description = "Borrows a list of books for one borrower "
+            + "in one transaction. In ALL_OR_NOTHING mode nothing is borrowed unless every book can be; "
+            + "in BEST_EFFORT mode the available books are borrowed and the others are reported")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch applied, see the result of each item",
+                    content = @Content(schema = @Schema(implementation = BookCirculationResult.class))),
+            @ApiResponse(responseCode = "400", description = "Missing borrower, empty or too long list, or borrower not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "No book of the batch was applied, see the result of each item",
+                    content = @Content(schema = @Schema(implementation = BookCirculationResult.class)))
+    })
+    public ResponseEntity<List<BookCirculationResult>> borrowBooks(@RequestBody CirculationBatch batch,
+                                                                   @RequestParam(required = false) BatchMode mode) {
+        try {
+            if (batch.borrowerId() == null) {
+                throw new IllegalArgumentException("Borrower ID is required");
+            }
+            var results = bookService.borrowBooks(batch.bookIds(), batch.borrowerId(), mode);
+            return new ResponseEntity<>(results, batchStatus(results));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Return several books at once.
+     *
+     * @param batch the book IDs
+     * @param mode whether to return the books only if all of them can be returned; defaults to library.circulation.batch-mode
+     * @return one result per submitted book ID
+     */
+    @PostMapping("/terranapi/books/return")
+    @Operation(summary = "Return books in a batch", description = "Returns a list of books in one transaction. "
+            + "In ALL_OR_NOTHING mode nothing is returned unless every book can be; in BEST_EFFORT mode "
+            + "the borrowed books are returned and the others are reported")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch applied, see the result of each item",
+                    content = @Content(schema = @Schema(implementation = BookCirculationResult.class))),
+            @ApiResponse(responseCode = "400", description = "Empty or too long list",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "No book of the batch was applied, see the result of each item",
+                    content = @Content(schema = @Schema(implementation = BookCirculationResult.class)))
+    })
+    public ResponseEntity<List<BookCirculationResult>> returnBooks(@RequestBody CirculationBatch batch,
+                                                                   @RequestParam(required = false) BatchMode mode) {
         try {
-            var returnedBook = bookService.returnBook(id);
-            return new ResponseEntity<>(returnedBook, HttpStatus.OK);
+            var results = bookService.returnBooks(batch.bookIds(), mode);
+            return new ResponseEntity<>(results, batchStatus(results));
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
+
+    /**
+     * Map a batch to 200 if any book changed hands, and to 409 if none did, which includes every
+     * ALL_OR_NOTHING batch that was rejected.
+     *
+     * @param results the results of the batch
+     * @return the response status
+     */
+    private static HttpStatus batchStatus(List<BookCirculationResult> results) {
+        return results.stream().anyMatch(BookCirculationResult::isApplied) ? HttpStatus.OK : HttpStatus.CONFLICT;
+    }
+
+    /**
+     * Request body of the batch borrow and return endpoints.
+     *
+     * @param borrowerId the ID of the borrower, for borrowing
+     * @param bookIds the IDs of the books
+     */
+    public record CirculationBatch(Long borrowerId, List<Long> bookIds) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.terran.library.controller;
+
+import com.terran.library.service.BookImportService;
+import com.terran.library.service.ImportJobStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * REST controller for importing books from CSV files.
+ * Imports run in the background; their progress is polled by ID.
+ * 
+ * @author Derry Terran
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/terranapi/imports")
+@Tag(name = "Import", description = "Book import APIs")
+public class BookImportController {
+
+    private final BookImportService bookImportService;
+
+    @Autowired
+    public BookImportController(BookImportService bookImportService) {
+        this.bookImportService = bookImportService;
+    }
+
+    /**
+     * Import books from an uploaded CSV file.
+     *
+     * @param file the CSV file, with isbn, title and author columns
+     * @return the started import
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import books from an uploaded CSV file",
+            description = "Starts importing a CSV file with isbn, title and author columns in the background")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import started",
+                    content = @Content(schema = @Schema(implementation = ImportJobStatus.class))),
+            @ApiResponse(responseCode = "400", description = "Empty file", content = @Content)
+    })
+    public ResponseEntity<ImportJobStatus> uploadImport(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Import file is empty");
+        }
+        try (var content = file.getInputStream()) {
+            return new ResponseEntity<>(bookImportService.startUpload(content), HttpStatus.ACCEPTED);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not store the import file", e);
+        }
+    }
+
+    /**
+     * Import books from a CSV file in the local import directory.
+     *
+     * @param path the path of the file, relative to the local import directory
+     * @return the started import
+     */
+    @PostMapping("/local")
+    @Operation(summary = "Import books from a local CSV file",
+            description = "Starts importing a CSV file from the configured local import directory in the background")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import started",
+                    content = @Content(schema = @Schema(implementation = ImportJobStatus.class))),
+            @ApiResponse(responseCode = "400", description = "File not found in the import directory",
+                    content = @Content)
+    })
+    public ResponseEntity<ImportJobStatus> localImport(@RequestParam String path) {
+        try {
+            return new ResponseEntity<>(bookImportService.startLocalImport(path), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Get the recent imports.
+     *
+     * @return the most recent imports, newest first
+     */
+    @GetMapping
+    @Operation(summary = "Get recent imports", description = "Returns the progress of the most recent imports")
+    @ApiResponse(responseCode = "200", description = "Imports retrieved successfully",
+            content = @Content(schema = @Schema(implementation = ImportJobStatus.class)))
+    public ResponseEntity<List<ImportJobStatus>> getRecentImports() {
+        return new ResponseEntity<>(bookImportService.getRecentImports(), HttpStatus.OK);
+    }
+
+    /**
+     * Get the progress of an import.
+     *
+     * @param id the import ID
+     * @return the import progress if found
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get an import by ID", description = "Returns the progress of an import")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import found",
+                    content = @Content(schema = @Schema(implementation = ImportJobStatus.class))),
+            @ApiResponse(responseCode = "404", description = "Import not found", content = @Content)
+    })
+    public ResponseEntity<ImportJobStatus> getImport(@PathVariable Long id) {
+        return bookImportService.getImport(id)
+                .map(status -> new ResponseEntity<>(status, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
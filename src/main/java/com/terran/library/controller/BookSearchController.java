@@ -0,0 +1,65 @@
+package com.terran.library.controller;
+
+import com.terran.library.service.BookSearchPage;
+import com.terran.library.service.BookSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for searching the catalog by title and author.
+ * 
+ * @author Derry Terran
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Tag(name = "Search", description = "Catalog search APIs")
+public class BookSearchController {
+
+    private final BookSearchService bookSearchService;
+
+    @Autowired
+    public BookSearchController(BookSearchService bookSearchService) {
+        this.bookSearchService = bookSearchService;
+    }
+
+    /**
+     * Search the catalog by title and author.
+     *
+     * @param q the search text; words may be incomplete
+     * @param page the zero-based page number
+     * @param size the page size
+     * @return one page of matching titles, most relevant first
+     */
+    @GetMapping("/terranapi/books/search")
+    @Operation(summary = "Search books by title and author",
+            description = "Returns one page of titles matching the search text, ranked by relevance. "
+                    + "Each ISBN appears once, with its total and available copy counts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search results retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = BookSearchPage.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or invalid search text, page or page size",
+                    content = @Content)
+    })
+    public ResponseEntity<BookSearchPage> search(@RequestParam(required = false) String q,
+                                                 @RequestParam(required = false) Integer page,
+                                                 @RequestParam(required = false) Integer size) {
+        try {
+            var results = bookSearchService.search(q, page, size);
+            return new ResponseEntity<>(results, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.terran.library.controller;
 
 import com.terran.library.model.Borrower;
+import com.terran.library.service.BorrowerDashboard;
 import com.terran.library.service.BorrowerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,9 +11,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -22,6 +28,7 @@ import java.util.List;
  * @author Derry Terran
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/terranapi/borrowers")
 @Tag(name = "Borrower", description = "Borrower management APIs")
 public class BorrowerController {
@@ -72,6 +79,7 @@ public class BorrowerController {
 
     /**
      * Get a borrower by ID.
+     * The borrower is tagged with its version, so a conditional request that matches gets 304 without a body.
      *
      * @param id the borrower ID
      * @return the borrower if found
@@ -81,12 +89,63 @@ public class BorrowerController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Borrower found",
                     content = @Content(schema = @Schema(implementation = Borrower.class))),
+            @ApiResponse(responseCode = "304", description = "The borrower did not change since the ETag was issued",
+                    content = @Content),
             @ApiResponse(responseCode = "404", description = "Borrower not found",
                     content = @Content)
     })
     public ResponseEntity<Borrower> getBorrowerById(@PathVariable Long id) {
         return borrowerService.getBorrowerById(id)
-                .map(borrower -> new ResponseEntity<>(borrower, HttpStatus.OK))
+                .map(borrower -> ResponseEntity.ok()
+                        .eTag(EntityTags.ofVersion(borrower.getVersion()))
+                        .cacheControl(CacheControl.noCache())
+                        .body(borrower))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
+
+    /**
+     * Get a borrower's dashboard: the profile and one page of the copies currently borrowed.
+     * The response carries an entity tag derived from the version of the borrower's loans, so a
+     * client polling with If-None-Match gets 304 Not Modified after a single aggregate query.
+     *
+     * @param id the borrower ID
+     * @param after the book ID after which the page starts, or absent for the first page
+     * @param size the page size
+     * @param webRequest the current request, for the conditional headers
+     * @return the dashboard if the borrower exists
+     */
+    @GetMapping("/{id}/dashboard")
+    @Operation(summary = "Get a borrower's dashboard",
+            description = "Returns the borrower with the number of borrowed copies and one page of them, "
+                    + "ordered by book ID. Send the returned ETag in If-None-Match to poll for changes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dashboard retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = BorrowerDashboard.class))),
+            @ApiResponse(responseCode = "304", description = "The borrower's loans did not change",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid page size",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Borrower not found",
+                    content = @Content)
+    })
+    public ResponseEntity<BorrowerDashboard> getDashboard(@PathVariable Long id,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer size,
+                                                          WebRequest webRequest) {
+        // Answer repeat polls from the loans version alone, without reading the dashboard
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(borrowerService.getLoansVersion(id))) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
+        try {
+            return borrowerService.getDashboard(id, after, size)
+                    .map(dashboard -> ResponseEntity.ok()
+                            .eTag(dashboard.version())
+                            .cacheControl(CacheControl.noCache())
+                            .body(dashboard))
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
\ No newline at end of file
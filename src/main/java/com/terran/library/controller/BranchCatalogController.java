@@ -0,0 +1,106 @@
+package com.terran.library.controller;
+
+import com.terran.library.config.Branches;
+import com.terran.library.service.BranchCatalogPage;
+import com.terran.library.service.BranchCatalogRow;
+import com.terran.library.service.BranchCatalogService;
+import com.terran.library.service.CatalogFilter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * REST controller for reading the catalogs of every branch at once.
+ * The other endpoints work on the branch named by the X-Library-Branch header.
+ * 
+ * @author Derry Terran
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Tag(name = "Branches", description = "Cross-branch catalog APIs")
+public class BranchCatalogController {
+
+    private final BranchCatalogService branchCatalogService;
+    private final Branches branches;
+
+    @Autowired
+    public BranchCatalogController(BranchCatalogService branchCatalogService, Branches branches) {
+        this.branchCatalogService = branchCatalogService;
+        this.branches = branches;
+    }
+
+    /**
+     * Get the branches served by this deployment.
+     *
+     * @return the branch names
+     */
+    @GetMapping("/terranapi/branches")
+    @Operation(summary = "Get the branches", description = "Returns the names of the branches, "
+            + "which can be sent in the X-Library-Branch header of the other requests")
+    @ApiResponse(responseCode = "200", description = "Branches retrieved successfully")
+    public ResponseEntity<List<String>> getBranches() {
+        return new ResponseEntity<>(branches.names(), HttpStatus.OK);
+    }
+
+    /**
+     * Get one page of the catalogs of every branch.
+     *
+     * @param cursor the cursor returned with a previous page, or absent for the first page
+     * @param size the page size
+     * @param isbn optional ISBN filter
+     * @param author optional author filter
+     * @param available optional availability filter
+     * @return the catalog page with next and previous cursors
+     */
+    @GetMapping("/terranapi/branches/catalog")
+    @Operation(summary = "Page through the catalogs of every branch",
+            description = "Returns one page of the books of every branch ordered by ID, each with its branch, "
+                    + "using cursor (keyset) pagination")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Catalog page retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = BranchCatalogPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                    content = @Content)
+    })
+    public ResponseEntity<BranchCatalogPage> getCatalogPage(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size,
+                                                            @RequestParam(required = false) String isbn,
+                                                            @RequestParam(required = false) String author,
+                                                            @RequestParam(required = false) Boolean available) {
+        try {
+            var page = branchCatalogService.getCatalogPage(cursor, size, new CatalogFilter(isbn, author, available));
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Get the copies of an ISBN in every branch.
+     *
+     * @param isbn the ISBN
+     * @return the catalog rows of the copies with the given ISBN, with their branch
+     */
+    @GetMapping("/terranapi/branches/books/isbn/{isbn}")
+    @Operation(summary = "Get the copies of an ISBN in every branch",
+            description = "Returns every copy of an ISBN across branches with its branch, borrowed flag and borrower ID")
+    @ApiResponse(responseCode = "200", description = "Copies retrieved successfully",
+            content = @Content(schema = @Schema(implementation = BranchCatalogRow.class)))
+    public ResponseEntity<List<BranchCatalogRow>> getCopiesByIsbn(@PathVariable String isbn) {
+        return new ResponseEntity<>(branchCatalogService.getCatalogRowsByIsbn(isbn), HttpStatus.OK);
+    }
+}
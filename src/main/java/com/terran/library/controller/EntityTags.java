@@ -0,0 +1,73 @@
+package com.terran.library.controller;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Entity tags of the REST resources.
+ * Single resources are tagged with their entity version, and listings with the latest change time
+ * of the table they read, so a tag can be checked without loading or serializing the response.
+ *
+ * @author Derry Terran
+ */
+final class EntityTags {
+
+    /**
+     * Version required by an If-Match tag that no entity can have, such as a weak or foreign tag.
+     */
+    static final long NO_VERSION = -1L;
+
+    private EntityTags() {
+    }
+
+    /**
+     * Tag a single resource with its entity version.
+     *
+     * @param version the entity version, or null
+     * @return the strong entity tag, or null if there is no version
+     */
+    static String ofVersion(Long version) {
+        return version != null ? "\"" + version + "\"" : null;
+    }
+
+    /**
+     * Tag a listing with the latest change time of the table it reads.
+     *
+     * @param lastChange the latest change time, or null if the table is empty
+     * @return the strong entity tag
+     */
+    static String ofLastChange(Instant lastChange) {
+        var micros = lastChange != null ? ChronoUnit.MICROS.between(Instant.EPOCH, lastChange) : 0;
+        return "\"t" + micros + "\"";
+    }
+
+    /**
+     * Read the entity version an If-Match header requires.
+     * If-Match uses the strong comparison, so weak tags and tags that are not versions require
+     * {@link #NO_VERSION}, which fails the precondition.
+     *
+     * @param ifMatch the If-Match header, or null
+     * @return the required version, or null if the header is absent or "*"
+     * @throws IllegalArgumentException if the header carries several tags or a malformed tag
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        var tag = ifMatch.trim();
+        if (tag.contains(",")) {
+            throw new IllegalArgumentException("If-Match must carry a single entity tag");
+        }
+        if (tag.startsWith("W/")) {
+            return NO_VERSION;
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Malformed entity tag in If-Match: " + tag);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.terran.library.controller;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.model.Title;
+import com.terran.library.service.CatalogRow;
+import com.terran.library.service.ReactiveCatalogService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking REST controller for the read-only catalog, served on the same paths as the MVC
+ * controllers when the application runs with the reactive profile. Kiosk and OPAC nodes run this
+ * profile so that many slow clients are served by a few event loop threads.
+ *
+ * @author Derry Terran
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Tag(name = "Catalog (reactive)", description = "Non-blocking catalog read APIs")
+public class ReactiveCatalogController {
+
+    private final ReactiveCatalogService catalogService;
+
+    @Autowired
+    public ReactiveCatalogController(ReactiveCatalogService catalogService) {
+        this.catalogService = catalogService;
+    }
+
+    /**
+     * Get all books, up to the configured legacy row limit.
+     *
+     * @return the books ordered by ID
+     */
+    @GetMapping(value = "/terranapi/books", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get all books", description = "Returns the books in the library ordered by ID, "
+            + "capped at a hard row limit. Request application/x-ndjson to stream the full catalog")
+    @ApiResponse(responseCode = "200", description = "List of books retrieved successfully",
+            content = @Content(schema = @Schema(implementation = Book.class)))
+    public Flux<Book> getAllBooks() {
+        return catalogService.getAllBooks();
+    }
+
+    /**
+     * Stream every book as newline-delimited JSON, at the pace the client reads it.
+     *
+     * @return every book ordered by ID
+     */
+    @GetMapping(value = "/terranapi/books", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all books",
+            description = "Streams every book ordered by ID, one JSON document per line, with backpressure")
+    @ApiResponse(responseCode = "200", description = "Books streamed successfully",
+            content = @Content(schema = @Schema(implementation = Book.class)))
+    public Flux<Book> streamAllBooks() {
+        return catalogService.streamAllBooks();
+    }
+
+    /**
+     * Get the copies of an ISBN with their availability.
+     *
+     * @param isbn the ISBN
+     * @return the catalog rows of the copies with the given ISBN
+     */
+    @GetMapping("/terranapi/books/isbn/{isbn}")
+    @Operation(summary = "Get the copies of an ISBN",
+            description = "Returns every copy of an ISBN with its borrowed flag and borrower ID")
+    @ApiResponse(responseCode = "200", description = "Copies retrieved successfully",
+            content = @Content(schema = @Schema(implementation = CatalogRow.class)))
+    public Flux<CatalogRow> getCopiesByIsbn(@PathVariable String isbn) {
+        return catalogService.getCatalogRowsByIsbn(isbn);
+    }
+
+    /**
+     * Get the availability of an ISBN.
+     *
+     * @param isbn the ISBN
+     * @return the title with its total and available copy counts
+     */
+    @GetMapping("/terranapi/books/isbn/{isbn}/availability")
+    @Operation(summary = "Get the availability of an ISBN",
+            description = "Returns the title of an ISBN with its total and available copy counts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Title found",
+                    content = @Content(schema = @Schema(implementation = Title.class))),
+            @ApiResponse(responseCode = "404", description = "No copy of the ISBN is registered",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<Title>> getAvailability(@PathVariable String isbn) {
+        return catalogService.getTitle(isbn)
+                .map(title -> new ResponseEntity<>(title, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Get a book by ID.
+     *
+     * @param id the book ID
+     * @return the book if found
+     */
+    @GetMapping("/terranapi/books/{id}")
+    @Operation(summary = "Get a book by ID", description = "Returns a book with the specified ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book found",
+                    content = @Content(schema = @Schema(implementation = Book.class))),
+            @ApiResponse(responseCode = "404", description = "Book not found",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<Book>> getBookById(@PathVariable Long id) {
+        return catalogService.getBookById(id)
+                .map(book -> new ResponseEntity<>(book, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Get a borrower by ID.
+     *
+     * @param id the borrower ID
+     * @return the borrower if found
+     */
+    @GetMapping("/terranapi/borrowers/{id}")
+    @Operation(summary = "Get a borrower by ID", description = "Returns a borrower with the specified ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Borrower found",
+                    content = @Content(schema = @Schema(implementation = Borrower.class))),
+            @ApiResponse(responseCode = "404", description = "Borrower not found",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<Borrower>> getBorrowerById(@PathVariable Long id) {
+        return catalogService.getBorrowerById(id)
+                .map(borrower -> new ResponseEntity<>(borrower, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
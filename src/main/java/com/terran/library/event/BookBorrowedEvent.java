@@ -0,0 +1,13 @@
+package com.terran.library.event;
+
+/**
+ * Published when a book is borrowed.
+ *
+ * @param bookId the ID of the borrowed book
+ * @param isbn the ISBN of the borrowed book
+ * @param borrowerId the ID of the borrower
+ *
+ * @author Derry Terran
+ */
+public record BookBorrowedEvent(Long bookId, String isbn, Long borrowerId) {
+}
@@ -0,0 +1,12 @@
+package com.terran.library.event;
+
+/**
+ * Published when a borrowed book is returned.
+ *
+ * @param bookId the ID of the returned book
+ * @param isbn the ISBN of the returned book
+ *
+ * @author Derry Terran
+ */
+public record BookReturnedEvent(Long bookId, String isbn) {
+}
@@ -0,0 +1,24 @@
+package com.terran.library.event;
+
+import com.terran.library.service.CatalogRow;
+
+import java.util.List;
+
+/**
+ * Published when books are registered, once per registration call.
+ *
+ * @param books the registered books, with their IDs
+ *
+ * @author Derry Terran
+ */
+public record BooksRegisteredEvent(List<CatalogRow> books) {
+
+    /**
+     * Gets the number of registered books.
+     *
+     * @return the number of registered books
+     */
+    public int count() {
+        return books.size();
+    }
+}
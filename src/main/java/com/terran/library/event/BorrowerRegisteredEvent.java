@@ -0,0 +1,11 @@
+package com.terran.library.event;
+
+/**
+ * Published when a borrower is registered.
+ *
+ * @param borrowerId the ID of the registered borrower
+ *
+ * @author Derry Terran
+ */
+public record BorrowerRegisteredEvent(Long borrowerId) {
+}
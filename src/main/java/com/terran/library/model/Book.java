@@ -1,34 +1,75 @@
 package com.terran.library.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.terran.library.config.BranchContext;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 /**
  * Entity class representing a book in the library.
  * Each book has a unique ID, ISBN number, title, and author.
  * Books with the same ISBN, title, and author are tracked with a stock count.
+ * Books are not kept in the Hibernate second-level cache: they are borrowed and returned with bulk
+ * updates, each of which would invalidate the whole entity region.
+ * Each copy belongs to a library branch, whose database shard holds it when sharding is enabled.
  * 
  * @author Derry Terran
  */
 @Entity
-@Table(name = "books")
+@NamedEntityGraph(name = Book.WITH_BORROWER, attributeNodes = @NamedAttributeNode("borrower"))
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_books_borrower_id", columnList = "borrower_id"),
+        @Index(name = "idx_books_isbn_borrower_id", columnList = "isbn, borrower_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Book {
 
+    /**
+     * Entity graph that loads the borrower together with the book, for the paths that return it.
+     */
+    public static final String WITH_BORROWER = "Book.withBorrower";
+
+    /**
+     * IDs come from a pooled sequence that hands out 50 values per call,
+     * so inserts can be sent in JDBC batches, which IDENTITY columns prevent.
+     * With sharding, each branch draws from its own block (see BranchTenantResolver).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "ISBN is required")
     @Column(nullable = false)
     private String isbn;
 
+    /**
+     * The catalog title of this copy, joined through the ISBN column (books.isbn references titles.isbn).
+     * The ISBN field above stays the writable side, so the title and author are still accepted and
+     * returned with each copy.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "isbn", referencedColumnName = "isbn", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_books_title"))
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Title catalogTitle;
+
     @NotBlank(message = "Title is required")
     @Column(nullable = false)
     private String title;
@@ -37,16 +78,45 @@ public class Book {
     @Column(nullable = false)
     private String author;
     /**
-     * The relationship to Borrower uses EAGER fetching to prevent LazyInitializationException
-     * when accessing the borrower outside of a transaction context, particularly during
-     * book borrowing and returning operations.
+     * The relationship to Borrower is fetched lazily so that queries which only need availability
+     * do not join or select borrowers. Paths that return the book with its borrower, such as
+     * lookups by ID and borrowing or returning, load it through the {@link #WITH_BORROWER}
+     * entity graph so it is initialized before the transaction ends.
      * 
      * The optional=true attribute is explicitly set to ensure proper handling of null values
      * during transaction commits, preventing potential JPA transaction errors.
      */
-    @ManyToOne(fetch = FetchType.EAGER, optional = true)
+    @ManyToOne(fetch = FetchType.LAZY, optional = true)
     @JoinColumn(name = "borrower_id", nullable = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Borrower borrower;
+
+    /**
+     * Time of the last change to this copy, maintained by Hibernate on every insert and update.
+     * Used by the catalog export to pull only the copies changed since the previous sync.
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    /**
+     * Version of this copy, incremented on every change, including by the conditional updates that
+     * borrow and return it. Served as the entity tag of the book and checked against If-Match.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    /**
+     * The branch holding this copy, taken from the branch of the request that registers it.
+     */
+    @ColumnDefault("'" + BranchContext.DEFAULT_BRANCH + "'")
+    @Column(nullable = false, length = 64)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String branch;
     
     /**
      * Checks if the book is currently borrowed.
@@ -56,4 +126,11 @@ public class Book {
     public boolean isBorrowed() {
         return borrower != null;
     }
+
+    @PrePersist
+    void assignBranch() {
+        if (branch == null) {
+            branch = BranchContext.currentBranch();
+        }
+    }
 }
\ No newline at end of file
@@ -1,27 +1,44 @@
 package com.terran.library.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.terran.library.config.BranchContext;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entity class representing a library borrower.
  * Each borrower has a unique ID, name, and email address.
+ * Borrowers are read far more often than written, so they are kept in the Hibernate
+ * second-level cache and resolving a borrower by ID usually does not reach the database.
+ * Each borrower is registered at a library branch, and emails are unique within a branch.
  * 
  * @author Derry Terran
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "borrowers")
 @Table(name = "borrowers")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Borrower {
 
+    /**
+     * IDs come from a pooled sequence that hands out 50 values per call,
+     * so inserts can be sent in JDBC batches, which IDENTITY columns prevent.
+     * With sharding, each branch draws from its own block (see BranchTenantResolver).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowers_seq")
+    @SequenceGenerator(name = "borrowers_seq", sequenceName = "borrowers_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -32,4 +49,28 @@ public class Borrower {
     @Email(message = "Email should be valid")
     @Column(nullable = false, unique = true)
     private String email;
+
+    /**
+     * Version of this borrower, incremented on every change and served as its entity tag.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    /**
+     * The branch the borrower is registered at, taken from the branch of the registering request.
+     */
+    @ColumnDefault("'" + BranchContext.DEFAULT_BRANCH + "'")
+    @Column(nullable = false, length = 64)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String branch;
+
+    @PrePersist
+    void assignBranch() {
+        if (branch == null) {
+            branch = BranchContext.currentBranch();
+        }
+    }
 }
\ No newline at end of file
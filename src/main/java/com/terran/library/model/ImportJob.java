@@ -0,0 +1,85 @@
+package com.terran.library.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing a book import from a CSV file.
+ * The number of processed records is the checkpoint of the import: it is committed together
+ * with each chunk of books, so an interrupted import resumes right after the last committed chunk.
+ * 
+ * @author Derry Terran
+ */
+@Entity
+@Table(name = "import_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJob {
+
+    /**
+     * Lifecycle of an import. Imports still RUNNING at startup were interrupted and are resumed.
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_jobs_seq")
+    @SequenceGenerator(name = "import_jobs_seq", sequenceName = "import_jobs_seq", allocationSize = 1)
+    private Long id;
+
+    /**
+     * Path of the file being imported; uploaded files are spooled to disk first.
+     */
+    @Column(nullable = false, length = 1024)
+    private String source;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    /**
+     * Number of CSV records read and committed so far, whether imported or rejected.
+     */
+    @Column(name = "records_processed", nullable = false)
+    private long recordsProcessed;
+
+    @Column(name = "books_imported", nullable = false)
+    private long booksImported;
+
+    @Column(name = "books_rejected", nullable = false)
+    private long booksRejected;
+
+    /**
+     * The last rejected record or the failure of the import, if any.
+     */
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    /**
+     * Create a new running import of a file.
+     * 
+     * @param source the path of the file to import
+     * @return the new import
+     */
+    public static ImportJob of(String source) {
+        var now = Instant.now();
+        return new ImportJob(null, source, Status.RUNNING, 0, 0, 0, null, now, now, null);
+    }
+}
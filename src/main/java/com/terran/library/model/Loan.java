@@ -0,0 +1,110 @@
+package com.terran.library.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Entity class representing one loan of a book copy, from borrowing to return.
+ * Loans are only ever appended, and closed once by setting the return time, so the table keeps
+ * the full borrowing history that the books table, holding only the current borrower, does not.
+ * The loan is keyed by the copy and the time it was borrowed, which on PostgreSQL is also the
+ * partition key (see {@link com.terran.library.service.LoanPartitionManager}).
+ * The table carries the ISBN and no foreign keys, so reports never join or lock the books table.
+ * 
+ * @author Derry Terran
+ */
+@Entity
+@IdClass(Loan.Key.class)
+@Table(name = "loans", indexes = {
+        @Index(name = "idx_loans_active_by_borrower", columnList = "borrower_id, returned_at"),
+        @Index(name = "idx_loans_isbn_borrowed_at", columnList = "isbn, borrowed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Loan implements Persistable<Loan.Key> {
+
+    @Id
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Id
+    @Column(name = "borrowed_at", nullable = false)
+    private Instant borrowedAt;
+
+    @Column(name = "borrower_id", nullable = false)
+    private Long borrowerId;
+
+    @Column(nullable = false)
+    private String isbn;
+
+    @Column(name = "returned_at")
+    private Instant returnedAt;
+
+    /**
+     * Whether this loan was created in this session and still has to be inserted.
+     * Lets a new loan be saved with a single INSERT instead of a merge.
+     */
+    @Transient
+    @JsonIgnore
+    private boolean created;
+
+    /**
+     * Open a loan for a copy that was just borrowed.
+     * 
+     * @param book the borrowed copy
+     * @param borrowerId the ID of the borrower
+     * @param borrowedAt the time of the borrow
+     * @return a new open loan
+     */
+    public static Loan open(Book book, Long borrowerId, Instant borrowedAt) {
+        return new Loan(book.getId(), borrowedAt, borrowerId, book.getIsbn(), null, true);
+    }
+
+    /**
+     * Checks if the book of this loan is still out.
+     * 
+     * @return true if the loan is not returned yet
+     */
+    public boolean isActive() {
+        return returnedAt == null;
+    }
+
+    @Override
+    @JsonIgnore
+    public Key getId() {
+        return new Key(bookId, borrowedAt);
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return created;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        created = false;
+    }
+
+    /**
+     * Identifier of a loan: the copy and the time it was borrowed.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long bookId;
+
+        private Instant borrowedAt;
+    }
+}
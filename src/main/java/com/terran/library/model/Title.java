@@ -0,0 +1,94 @@
+package com.terran.library.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Entity class representing a title in the library catalog, keyed by ISBN.
+ * Holds the title and author shared by every physical copy of the ISBN, together with
+ * copy counters so that availability is a primary key lookup instead of a scan over the copies.
+ * 
+ * @author Derry Terran
+ */
+@Entity
+@Table(name = "titles")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Title implements Persistable<String> {
+
+    @Id
+    @NotBlank(message = "ISBN is required")
+    private String isbn;
+
+    @NotBlank(message = "Title is required")
+    @Column(nullable = false)
+    private String title;
+
+    @NotBlank(message = "Author is required")
+    @Column(nullable = false)
+    private String author;
+
+    /**
+     * Number of registered copies of this title.
+     */
+    @Column(name = "total_copies", nullable = false)
+    private int totalCopies;
+
+    /**
+     * Number of copies of this title that are not borrowed.
+     */
+    @Column(name = "available_copies", nullable = false)
+    private int availableCopies;
+
+    /**
+     * The ISBN is assigned rather than generated, so newly created titles are flagged
+     * to be inserted directly instead of being merged with a preceding SELECT.
+     */
+    @Transient
+    @JsonIgnore
+    private boolean created;
+
+    /**
+     * Create the title of the first registered copy of an ISBN.
+     * 
+     * @param book the first copy
+     * @return a new title with one available copy
+     */
+    public static Title firstCopyOf(Book book) {
+        return new Title(book.getIsbn(), book.getTitle(), book.getAuthor(), 1, 1, true);
+    }
+
+    /**
+     * Checks if a copy carries the same title and author as this title.
+     * 
+     * @param book the copy to check
+     * @return true if the title and author match
+     */
+    public boolean describes(Book book) {
+        return title.contentEquals(book.getTitle()) && author.contentEquals(book.getAuthor());
+    }
+
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return isbn;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return created;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        created = false;
+    }
+}
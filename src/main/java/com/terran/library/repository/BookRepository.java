@@ -2,11 +2,25 @@ package com.terran.library.repository;
 
 import com.terran.library.model.Book;
 import com.terran.library.model.Borrower;
+import com.terran.library.service.CatalogRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Book entity.
@@ -16,15 +30,72 @@ import java.util.Optional;
  */
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+
+    /**
+     * JDBC fetch size used when streaming the catalog, so the driver holds one batch of rows at a time.
+     */
+    String EXPORT_FETCH_SIZE = "500";
+
+    /**
+     * Lock timeout that Hibernate renders as SKIP LOCKED on databases that support it.
+     */
+    String SKIP_LOCKED = "-2";
+    
+    /**
+     * Find a book by ID together with its borrower.
+     * 
+     * @param id the book ID
+     * @return an Optional containing the book with its borrower loaded, or empty if not found
+     */
+    @EntityGraph(Book.WITH_BORROWER)
+    Optional<Book> findWithBorrowerById(Long id);
     
     /**
-     * Find all books with a specific ISBN.
+     * Find the version of a book, without loading the book.
+     * 
+     * @param id the book ID
+     * @return an Optional containing the version if the book exists, or empty if not found
+     */
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    /**
+     * Find the time of the latest change to any book, served by the updated_at index.
+     * Every insert and update stamps the changed row, so this moves forward whenever the books table changes.
+     * 
+     * @return the latest change time, or null if there are no books
+     */
+    @Query("select max(b.updatedAt) from Book b")
+    Instant findLastChange();
+    
+    /**
+     * Find all books with a specific ISBN, together with their borrowers.
      * 
      * @param isbn the ISBN to search for
      * @return a list of books with the given ISBN
      */
+    @EntityGraph(Book.WITH_BORROWER)
     List<Book> findByIsbn(String isbn);
     
+    /**
+     * Find the title information of any copy with a specific ISBN.
+     * Only the ISBN, title and author columns are selected.
+     * 
+     * @param isbn the ISBN to search for
+     * @return an Optional containing the title information, or empty if no copy has the ISBN
+     */
+    Optional<BookTitleView> findFirstByIsbn(String isbn);
+    
+    /**
+     * Find the catalog rows of all copies with a specific ISBN, without loading borrowers.
+     * 
+     * @param isbn the ISBN to search for
+     * @return the catalog rows ordered by book ID
+     */
+    @Query("select new com.terran.library.service.CatalogRow(b.id, b.isbn, b.title, b.author, b.borrower.id)"
+            + " from Book b where b.isbn = :isbn order by b.id asc")
+    List<CatalogRow> findCatalogRowsByIsbn(@Param("isbn") String isbn);
+    
     /**
      * Find a book with a specific ISBN, title, and author.
      * 
@@ -56,6 +127,13 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @return a list of borrowed books
      */
     List<Book> findByBorrowerIsNotNull();
+
+    /**
+     * Count the books that are borrowed, without loading them.
+     * 
+     * @return the number of borrowed books
+     */
+    long countByBorrowerIsNotNull();
     
     /**
      * Check if a book with the given ID is currently borrowed.
@@ -64,4 +142,167 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @return true if the book is borrowed, false otherwise
      */
     boolean existsByIdAndBorrowerIsNotNull(Long id);
+
+    /**
+     * Find books in ID order, stopping after the given number of rows.
+     * 
+     * @param limit the maximum number of books to return
+     * @return at most {@code limit} books ordered by ID, with their borrowers
+     */
+    @EntityGraph(Book.WITH_BORROWER)
+    List<Book> findAllByOrderByIdAsc(Limit limit);
+    
+    /**
+     * Find the catalog page that follows a book ID (keyset pagination).
+     * Runs as an index range scan on the primary key instead of an OFFSET scan.
+     * Null filter parameters are ignored.
+     * 
+     * @param afterId only books with a greater ID are returned
+     * @param isbn the ISBN to filter on, or null
+     * @param author the author to filter on, or null
+     * @param available true for available books, false for borrowed books, or null for both
+     * @param limit the maximum number of books to return
+     * @return the matching catalog rows in ascending ID order
+     */
+    @Query("select new com.terran.library.service.CatalogRow(b.id, b.isbn, b.title, b.author, b.borrower.id)"
+            + " from Book b where b.id > :afterId"
+            + " and (:isbn is null or b.isbn = :isbn)"
+            + " and (:author is null or b.author = :author)"
+            + " and (:available is null or (:available = true and b.borrower is null)"
+            + " or (:available = false and b.borrower is not null))"
+            + " order by b.id asc")
+    List<CatalogRow> findCatalogPageAfter(@Param("afterId") Long afterId, @Param("isbn") String isbn,
+                                          @Param("author") String author, @Param("available") Boolean available,
+                                          Limit limit);
+    
+    /**
+     * Find the catalog page that precedes a book ID (keyset pagination).
+     * Books are returned in descending ID order, nearest to the key first.
+     * 
+     * @param beforeId only books with a smaller ID are returned
+     * @param isbn the ISBN to filter on, or null
+     * @param author the author to filter on, or null
+     * @param available true for available books, false for borrowed books, or null for both
+     * @param limit the maximum number of books to return
+     * @return the matching catalog rows in descending ID order
+     */
+    @Query("select new com.terran.library.service.CatalogRow(b.id, b.isbn, b.title, b.author, b.borrower.id)"
+            + " from Book b where b.id < :beforeId"
+            + " and (:isbn is null or b.isbn = :isbn)"
+            + " and (:author is null or b.author = :author)"
+            + " and (:available is null or (:available = true and b.borrower is null)"
+            + " or (:available = false and b.borrower is not null))"
+            + " order by b.id desc")
+    List<CatalogRow> findCatalogPageBefore(@Param("beforeId") Long beforeId, @Param("isbn") String isbn,
+                                           @Param("author") String author, @Param("available") Boolean available,
+                                           Limit limit);
+
+    /**
+     * Stream books in ID order for the catalog export, together with their borrowers.
+     * Rows are read from an open cursor with a JDBC fetch size instead of being loaded into a list,
+     * so the stream must be consumed and closed inside a transaction.
+     * 
+     * @param updatedSince only books changed at or after this time, or null for all books
+     * @return a stream of books ordered by ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select b from Book b left join fetch b.borrower"
+            + " where (:updatedSince is null or b.updatedAt >= :updatedSince)"
+            + " order by b.id asc")
+    Stream<Book> streamForExport(@Param("updatedSince") Instant updatedSince);
+
+    /**
+     * Stream the catalog rows of every book in ID order, without loading entities or borrowers.
+     * Used to build the in-memory search index; like the export, the stream must be consumed
+     * and closed inside a transaction.
+     * 
+     * @return a stream of catalog rows ordered by ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select new com.terran.library.service.CatalogRow(b.id, b.isbn, b.title, b.author, b.borrower.id)"
+            + " from Book b order by b.id asc")
+    Stream<CatalogRow> streamCatalogRows();
+
+    /**
+     * Assign a borrower to a book in a single conditional UPDATE, only if the book is not borrowed.
+     * Concurrent callers cannot both succeed, as the database re-checks the condition under the row lock.
+     * 
+     * @param id the book ID
+     * @param borrower the borrower to assign
+     * @param now the time of the change
+     * @return 1 if the book was borrowed, 0 if it does not exist or is already borrowed
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.borrower = :borrower, b.updatedAt = :now, b.version = b.version + 1"
+            + " where b.id = :id and b.borrower is null")
+    int assignBorrowerIfAvailable(@Param("id") Long id, @Param("borrower") Borrower borrower,
+                                  @Param("now") Instant now);
+    
+    /**
+     * Clear the borrower of a book in a single conditional UPDATE, only if the book is borrowed.
+     * 
+     * @param id the book ID
+     * @param now the time of the change
+     * @return 1 if the book was returned, 0 if it does not exist or is not borrowed
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.borrower = null, b.updatedAt = :now, b.version = b.version + 1"
+            + " where b.id = :id and b.borrower is not null")
+    int clearBorrowerIfBorrowed(@Param("id") Long id, @Param("now") Instant now);
+
+    /**
+     * Assign a borrower to a book in a single conditional UPDATE, only if the book is not borrowed
+     * and still has the version the caller read.
+     * 
+     * @param id the book ID
+     * @param borrower the borrower to assign
+     * @param version the expected version of the book
+     * @param now the time of the change
+     * @return 1 if the book was borrowed, 0 if it does not exist, is already borrowed or has another version
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.borrower = :borrower, b.updatedAt = :now, b.version = b.version + 1"
+            + " where b.id = :id and b.borrower is null and b.version = :version")
+    int assignBorrowerIfVersion(@Param("id") Long id, @Param("borrower") Borrower borrower,
+                                @Param("version") Long version, @Param("now") Instant now);
+
+    /**
+     * Clear the borrower of a book in a single conditional UPDATE, only if the book is borrowed
+     * and still has the version the caller read.
+     * 
+     * @param id the book ID
+     * @param version the expected version of the book
+     * @param now the time of the change
+     * @return 1 if the book was returned, 0 if it does not exist, is not borrowed or has another version
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.borrower = null, b.updatedAt = :now, b.version = b.version + 1"
+            + " where b.id = :id and b.borrower is not null and b.version = :version")
+    int clearBorrowerIfVersion(@Param("id") Long id, @Param("version") Long version, @Param("now") Instant now);
+
+    /**
+     * Find and lock the books with the given IDs, for a batch of borrows or returns.
+     * Rows are locked in ascending ID order, so two overlapping batches cannot deadlock.
+     * 
+     * @param ids the book IDs
+     * @return the locked books that exist, in ascending ID order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.id in :ids order by b.id asc")
+    List<Book> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find and lock available copies of an ISBN, skipping copies locked by other transactions.
+     * On PostgreSQL this runs as {@code SELECT ... FOR UPDATE SKIP LOCKED}, so concurrent callers
+     * claim different copies instead of queueing on the same row. Databases without SKIP LOCKED
+     * support, such as H2, fall back to a plain {@code FOR UPDATE}.
+     * 
+     * @param isbn the ISBN
+     * @param limit the maximum number of copies to lock
+     * @return the locked copies in ascending ID order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = SKIP_LOCKED))
+    @Query("select b from Book b where b.isbn = :isbn and b.borrower is null order by b.id asc")
+    List<Book> findAvailableCopiesForUpdate(@Param("isbn") String isbn, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.terran.library.repository;
+
+/**
+ * Projection of the title information shared by every copy of an ISBN.
+ * 
+ * @author Derry Terran
+ */
+public interface BookTitleView {
+
+    String getIsbn();
+
+    String getTitle();
+
+    String getAuthor();
+}
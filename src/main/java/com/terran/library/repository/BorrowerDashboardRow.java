@@ -0,0 +1,27 @@
+package com.terran.library.repository;
+
+import java.time.Instant;
+
+/**
+ * One row of the borrower dashboard query: the borrower profile and loan counts, repeated on
+ * every row, and one borrowed copy. The copy columns are null when the borrower holds no copy
+ * on the requested page.
+ *
+ * @param borrowerId the borrower ID
+ * @param name the borrower name
+ * @param email the borrower email
+ * @param version the borrower version
+ * @param branch the branch the borrower is registered at
+ * @param borrowedBooks the number of copies the borrower holds
+ * @param lastChange the latest change time of those copies
+ * @param bookId the ID of the borrowed copy, or null
+ * @param isbn the ISBN of the borrowed copy
+ * @param title the title of the borrowed copy
+ * @param author the author of the borrowed copy
+ *
+ * @author Derry Terran
+ */
+public record BorrowerDashboardRow(Long borrowerId, String name, String email, Long version, String branch,
+                                   long borrowedBooks, Instant lastChange, Long bookId, String isbn,
+                                   String title, String author) {
+}
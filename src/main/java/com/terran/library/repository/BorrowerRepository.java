@@ -1,9 +1,16 @@
 package com.terran.library.repository;
 
 import com.terran.library.model.Borrower;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,20 +21,68 @@ import java.util.Optional;
  */
 @Repository
 public interface BorrowerRepository extends JpaRepository<Borrower, Long> {
+
+    /**
+     * Query cache region of the lookups by email. Cached results are invalidated whenever
+     * the borrowers table is written to.
+     */
+    String BY_EMAIL_REGION = "borrowersByEmail";
     
     /**
      * Find a borrower by email.
+     * The result is served from the query cache when the same email was looked up before.
      * 
      * @param email the email to search for
      * @return an Optional containing the borrower if found, or empty if not found
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BY_EMAIL_REGION)
+    })
     Optional<Borrower> findByEmail(String email);
     
     /**
      * Check if a borrower with the given email exists.
+     * The result is served from the query cache when the same email was checked before.
      * 
      * @param email the email to check
      * @return true if a borrower with the email exists, false otherwise
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BY_EMAIL_REGION)
+    })
     boolean existsByEmail(String email);
+
+    /**
+     * Read a borrower dashboard page in one statement: the borrower, the loan counts from an
+     * aggregate over the borrower's copies, and the borrowed copies after a book ID.
+     * The outer join returns one row with null copy columns when no copy is left on the page,
+     * so the result is only empty when the borrower does not exist.
+     * 
+     * @param borrowerId the borrower ID
+     * @param afterId only copies with a greater ID are returned
+     * @param limit the maximum number of rows to return
+     * @return the dashboard rows in ascending book ID order
+     */
+    @Query("select new com.terran.library.repository.BorrowerDashboardRow(br.id, br.name, br.email, br.version, br.branch,"
+            + " v.borrowedBooks, v.lastChange, b.id, b.isbn, b.title, b.author)"
+            + " from Borrower br"
+            + " join (select count(c.id) as borrowedBooks, max(c.updatedAt) as lastChange"
+            + " from Book c where c.borrower.id = :borrowerId) v"
+            + " left join Book b on b.borrower = br and b.id > :afterId"
+            + " where br.id = :borrowerId"
+            + " order by b.id asc")
+    List<BorrowerDashboardRow> findDashboardRows(@Param("borrowerId") Long borrowerId,
+                                                 @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Read the version of a borrower's loans, without loading the borrowed copies.
+     * 
+     * @param borrowerId the borrower ID
+     * @return the loans version; a borrower without copies, or unknown, has the empty version
+     */
+    @Query("select new com.terran.library.repository.LoansVersion(count(b.id), max(b.updatedAt))"
+            + " from Book b where b.borrower.id = :borrowerId")
+    LoansVersion findLoansVersion(@Param("borrowerId") Long borrowerId);
 }
\ No newline at end of file
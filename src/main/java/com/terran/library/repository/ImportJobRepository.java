@@ -0,0 +1,72 @@
+package com.terran.library.repository;
+
+import com.terran.library.model.ImportJob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for ImportJob entity.
+ * Provides methods to interact with the import_jobs table in the database.
+ * 
+ * @author Derry Terran
+ */
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    /**
+     * Find imports by status.
+     * 
+     * @param status the status
+     * @return the imports with that status
+     */
+    List<ImportJob> findByStatus(ImportJob.Status status);
+
+    /**
+     * Find the most recent imports.
+     * 
+     * @param limit the maximum number of imports
+     * @return the imports, newest first
+     */
+    List<ImportJob> findAllByOrderByIdDesc(Limit limit);
+
+    /**
+     * Advance the checkpoint of an import after a chunk of records.
+     * Runs in the transaction that inserts the books of the chunk, so both commit together.
+     * 
+     * @param id the import ID
+     * @param records the number of records in the chunk
+     * @param imported the number of books imported from the chunk
+     * @param rejected the number of records rejected from the chunk
+     * @param lastError the last rejection in the chunk, or null to keep the previous one
+     * @param now the update time
+     * @return the number of updated imports
+     */
+    @Modifying
+    @Query("update ImportJob j set j.recordsProcessed = j.recordsProcessed + :records,"
+            + " j.booksImported = j.booksImported + :imported, j.booksRejected = j.booksRejected + :rejected,"
+            + " j.lastError = coalesce(cast(:lastError as String), j.lastError), j.updatedAt = :now where j.id = :id")
+    int recordChunk(@Param("id") Long id, @Param("records") long records, @Param("imported") long imported,
+                    @Param("rejected") long rejected, @Param("lastError") String lastError, @Param("now") Instant now);
+
+    /**
+     * Mark an import as completed or failed.
+     * 
+     * @param id the import ID
+     * @param status the final status
+     * @param error the failure, or null to keep the last rejection
+     * @param now the finish time
+     * @return the number of updated imports
+     */
+    @Modifying
+    @Query("update ImportJob j set j.status = :status, j.lastError = coalesce(cast(:error as String), j.lastError),"
+            + " j.finishedAt = :now, j.updatedAt = :now where j.id = :id")
+    int finish(@Param("id") Long id, @Param("status") ImportJob.Status status, @Param("error") String error,
+               @Param("now") Instant now);
+}
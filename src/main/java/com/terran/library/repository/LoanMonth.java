@@ -0,0 +1,13 @@
+package com.terran.library.repository;
+
+/**
+ * Number of loans of an ISBN started in one calendar month.
+ *
+ * @param year the year
+ * @param month the month, 1 to 12
+ * @param loans the number of loans
+ *
+ * @author Derry Terran
+ */
+public record LoanMonth(int year, int month, long loans) {
+}
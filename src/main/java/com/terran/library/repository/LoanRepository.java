@@ -0,0 +1,57 @@
+package com.terran.library.repository;
+
+import com.terran.library.model.Loan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for Loan entity.
+ * Provides methods to record loans and to query the loan history without touching the books table.
+ * 
+ * @author Derry Terran
+ */
+@Repository
+public interface LoanRepository extends JpaRepository<Loan, Loan.Key> {
+
+    /**
+     * Close the open loans of the given copies, when they are returned.
+     * 
+     * @param bookIds the IDs of the returned copies
+     * @param returnedAt the time of the return
+     * @return the number of closed loans
+     */
+    @Modifying
+    @Query("update Loan l set l.returnedAt = :returnedAt where l.bookId in :bookIds and l.returnedAt is null")
+    int closeLoans(@Param("bookIds") Collection<Long> bookIds, @Param("returnedAt") Instant returnedAt);
+
+    /**
+     * Find the loans a borrower has not returned yet, served by the active loans by borrower index.
+     * 
+     * @param borrowerId the borrower ID
+     * @return the active loans, oldest first
+     */
+    List<Loan> findByBorrowerIdAndReturnedAtIsNullOrderByBorrowedAtAsc(Long borrowerId);
+
+    /**
+     * Count the loans of an ISBN per month, served by the ISBN and borrow time index.
+     * Months follow the time zone of the database session.
+     * 
+     * @param isbn the ISBN
+     * @param from the start of the period, inclusive
+     * @param to the end of the period, exclusive
+     * @return the number of loans of each month with at least one loan, in calendar order
+     */
+    @Query("select new com.terran.library.repository.LoanMonth(year(l.borrowedAt), month(l.borrowedAt), count(l))"
+            + " from Loan l where l.isbn = :isbn and l.borrowedAt >= :from and l.borrowedAt < :to"
+            + " group by year(l.borrowedAt), month(l.borrowedAt)"
+            + " order by year(l.borrowedAt), month(l.borrowedAt)")
+    List<LoanMonth> countLoansPerMonth(@Param("isbn") String isbn, @Param("from") Instant from,
+                                       @Param("to") Instant to);
+}
@@ -0,0 +1,28 @@
+package com.terran.library.repository;
+
+import java.time.Instant;
+
+/**
+ * Version of the loans of one borrower, derived from the copies the borrower holds.
+ * Borrowing a copy stamps it with the current time, which moves the latest change forward, and
+ * returning one lowers the count, so every borrow and return yields a new version without a
+ * counter being written to the borrowers row.
+ *
+ * @param borrowedBooks the number of copies the borrower holds
+ * @param lastChange the latest change time of those copies, or null if there are none
+ *
+ * @author Derry Terran
+ */
+public record LoansVersion(long borrowedBooks, Instant lastChange) {
+
+    /**
+     * Formats the version as an entity tag value.
+     *
+     * @param borrowerId the borrower ID, so that tags of different borrowers never match
+     * @return the tag, without quotes
+     */
+    public String tag(Long borrowerId) {
+        var micros = lastChange != null ? lastChange.getEpochSecond() * 1_000_000 + lastChange.getNano() / 1_000 : 0;
+        return borrowerId + "-" + borrowedBooks + "-" + micros;
+    }
+}
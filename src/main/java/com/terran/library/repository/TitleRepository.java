@@ -0,0 +1,80 @@
+package com.terran.library.repository;
+
+import com.terran.library.model.Title;
+import com.terran.library.service.BookSearchResult;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for Title entity.
+ * Provides methods to interact with the titles table in the database.
+ * Counter updates run as single UPDATE statements so concurrent registrations,
+ * borrows and returns never overwrite each other's changes.
+ * 
+ * @author Derry Terran
+ */
+@Repository
+public interface TitleRepository extends JpaRepository<Title, String>, TitleRepositoryCustom {
+
+    /**
+     * Add newly registered copies to a title.
+     * 
+     * @param isbn the ISBN of the title
+     * @param count the number of new copies
+     * @return the number of updated titles
+     */
+    @Modifying
+    @Query("update Title t set t.totalCopies = t.totalCopies + :count,"
+            + " t.availableCopies = t.availableCopies + :count where t.isbn = :isbn")
+    int addCopies(@Param("isbn") String isbn, @Param("count") int count);
+
+    /**
+     * Change the number of available copies of a title.
+     * 
+     * @param isbn the ISBN of the title
+     * @param delta -1 when a copy is borrowed, +1 when it is returned
+     * @return the number of updated titles
+     */
+    @Modifying
+    @Query("update Title t set t.availableCopies = t.availableCopies + :delta where t.isbn = :isbn")
+    int adjustAvailableCopies(@Param("isbn") String isbn, @Param("delta") int delta);
+
+    /**
+     * Create the missing titles from the existing copies in the books table, with their counters.
+     * Used to migrate catalogs registered before titles existed; titles that already exist are left alone.
+     * 
+     * @return the number of created titles
+     */
+    @Modifying
+    @Query("insert into Title (isbn, title, author, totalCopies, availableCopies)"
+            + " select b.isbn, min(b.title), min(b.author), cast(count(b) as Integer),"
+            + " cast(sum(case when b.borrower is null then 1 else 0 end) as Integer)"
+            + " from Book b where not exists (select t.isbn from Title t where t.isbn = b.isbn)"
+            + " group by b.isbn")
+    int backfillFromBooks();
+
+    /**
+     * Find the titles whose title or author contains a pattern, ignoring case.
+     * Titles starting with the search text rank first, then other title matches, then author matches.
+     * Used by the search engine of databases without full-text search; the patterns cannot use an index.
+     * 
+     * @param pattern the LIKE pattern matching the search text anywhere, with '!' as escape character
+     * @param prefix the LIKE pattern matching the search text at the start, with '!' as escape character
+     * @param pageable the page to read
+     * @return the matching titles, scored 3, 2 or 1 by where the text matched
+     */
+    @Query("select new com.terran.library.service.BookSearchResult(t.isbn, t.title, t.author,"
+            + " t.totalCopies, t.availableCopies,"
+            + " case when lower(t.title) like :prefix escape '!' then 3.0"
+            + " when lower(t.title) like :pattern escape '!' then 2.0 else 1.0 end)"
+            + " from Title t where lower(t.title) like :pattern escape '!' or lower(t.author) like :pattern escape '!'"
+            + " order by case when lower(t.title) like :prefix escape '!' then 3"
+            + " when lower(t.title) like :pattern escape '!' then 2 else 1 end desc, t.title, t.isbn")
+    Slice<BookSearchResult> searchByTitleOrAuthor(@Param("pattern") String pattern, @Param("prefix") String prefix,
+                                                 Pageable pageable);
+}
@@ -0,0 +1,21 @@
+package com.terran.library.repository;
+
+/**
+ * Title repository methods whose SQL depends on the database.
+ * 
+ * @author Derry Terran
+ */
+public interface TitleRepositoryCustom {
+
+    /**
+     * Create the title of the first registered copy of an ISBN, with one available copy, unless the
+     * title exists. The check and the insert are one statement, so when a concurrent registration
+     * creates the title first, nothing is inserted and the caller can add its copy to that title.
+     * 
+     * @param isbn the ISBN of the title
+     * @param title the title of the copy
+     * @param author the author of the copy
+     * @return 1 if the title was created, 0 if it already existed
+     */
+    int insertFirstCopy(String isbn, String title, String author);
+}
@@ -0,0 +1,62 @@
+package com.terran.library.repository;
+
+import com.terran.library.model.Title;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Implementation of the database-specific title repository methods.
+ * PostgreSQL skips an existing title with ON CONFLICT, which also waits for a concurrent insert of
+ * the same ISBN to commit. Other databases, such as H2 in tests, use a MERGE inserting only an
+ * unmatched ISBN; a concurrent MERGE of the same ISBN can still fail on the primary key there, and
+ * as those databases roll back only the failed statement, that failure counts as an existing title.
+ * <p>
+ * The statements run through JDBC on the connection of the current transaction, so a failure does
+ * not mark the JPA transaction for rollback.
+ *
+ * @author Derry Terran
+ */
+public class TitleRepositoryCustomImpl implements TitleRepositoryCustom {
+
+    // Table and columns are filled in from the mapping, so they are quoted as Hibernate quotes them
+    static final String INSERT_ON_CONFLICT = """
+            INSERT INTO %1$s (%2$s, %3$s, %4$s, %5$s, %6$s)
+            VALUES (?, ?, ?, 1, 1)
+            ON CONFLICT (%2$s) DO NOTHING""";
+
+    static final String MERGE_WHEN_NOT_MATCHED = """
+            MERGE INTO %1$s t
+            USING (SELECT CAST(? AS varchar(255)) AS %2$s, CAST(? AS varchar(255)) AS %3$s,
+                          CAST(? AS varchar(255)) AS %4$s) s ON t.%2$s = s.%2$s
+            WHEN NOT MATCHED THEN
+                INSERT (%2$s, %3$s, %4$s, %5$s, %6$s)
+                VALUES (s.%2$s, s.%3$s, s.%4$s, 1, 1)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertFirstCopy;
+
+    public TitleRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        var sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        var postgres = sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        var titles = (AbstractEntityPersister) sessionFactory.getMappingMetamodel().getEntityDescriptor(Title.class);
+        this.insertFirstCopy = (postgres ? INSERT_ON_CONFLICT : MERGE_WHEN_NOT_MATCHED).formatted(
+                titles.getTableName(), titles.getIdentifierColumnNames()[0],
+                titles.getPropertyColumnNames("title")[0], titles.getPropertyColumnNames("author")[0],
+                titles.getPropertyColumnNames("totalCopies")[0], titles.getPropertyColumnNames("availableCopies")[0]);
+    }
+
+    @Override
+    public int insertFirstCopy(String isbn, String title, String author) {
+        try {
+            return jdbcTemplate.update(insertFirstCopy, isbn, title, author);
+        } catch (DuplicateKeyException e) {
+            // Only the MERGE fails this way, and its database rolled back just the failed statement
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.terran.library.repository.reactive;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.service.CatalogRow;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+/**
+ * Row of the books table read through R2DBC, joined with the name and email of the current borrower.
+ * Column names are explicit so they are quoted as written; derived names would be upper-cased on H2.
+ *
+ * @param id the book ID
+ * @param isbn the ISBN
+ * @param title the title
+ * @param author the author
+ * @param borrowerId the ID of the current borrower, or null if the copy is available
+ * @param borrowerName the name of the current borrower, or null if the copy is available
+ * @param borrowerEmail the email of the current borrower, or null if the copy is available
+ * @param borrowerVersion the version of the current borrower, or null if the copy is available
+ * @param borrowerBranch the branch of the current borrower, or null if the copy is available
+ * @param updatedAt the time of the last change to the copy
+ * @param version the version of the copy
+ * @param branch the branch holding the copy
+ *
+ * @author Derry Terran
+ */
+@Table("books")
+public record CatalogBook(@Id @Column("id") Long id,
+                          @Column("isbn") String isbn,
+                          @Column("title") String title,
+                          @Column("author") String author,
+                          @Column("borrower_id") Long borrowerId,
+                          @ReadOnlyProperty @Column("borrower_name") String borrowerName,
+                          @ReadOnlyProperty @Column("borrower_email") String borrowerEmail,
+                          @ReadOnlyProperty @Column("borrower_version") Long borrowerVersion,
+                          @ReadOnlyProperty @Column("borrower_branch") String borrowerBranch,
+                          @Column("updated_at") Instant updatedAt,
+                          @Column("version") Long version,
+                          @Column("branch") String branch) {
+
+    /**
+     * Converts the row to the book returned by the MVC endpoints, so both stacks serve the same JSON.
+     *
+     * @return the book with its borrower, if any
+     */
+    public Book toBook() {
+        var borrower = borrowerId == null ? null
+                : new Borrower(borrowerId, borrowerName, borrowerEmail, borrowerVersion, borrowerBranch);
+        return new Book(id, isbn, null, title, author, borrower, updatedAt, version, branch);
+    }
+
+    /**
+     * Converts the row to a catalog row.
+     *
+     * @return the catalog row carrying the borrower ID only
+     */
+    public CatalogRow toCatalogRow() {
+        return new CatalogRow(id, isbn, title, author, borrowerId);
+    }
+}
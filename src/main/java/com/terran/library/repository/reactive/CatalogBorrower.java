@@ -0,0 +1,34 @@
+package com.terran.library.repository.reactive;
+
+import com.terran.library.model.Borrower;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Row of the borrowers table read through R2DBC.
+ *
+ * @param id the borrower ID
+ * @param name the name
+ * @param email the email
+ * @param version the version
+ * @param branch the branch the borrower is registered at
+ *
+ * @author Derry Terran
+ */
+@Table("borrowers")
+public record CatalogBorrower(@Id @Column("id") Long id,
+                              @Column("name") String name,
+                              @Column("email") String email,
+                              @Column("version") Long version,
+                              @Column("branch") String branch) {
+
+    /**
+     * Converts the row to the borrower returned by the MVC endpoints.
+     *
+     * @return the borrower
+     */
+    public Borrower toBorrower() {
+        return new Borrower(id, name, email, version, branch);
+    }
+}
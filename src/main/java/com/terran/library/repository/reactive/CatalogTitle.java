@@ -0,0 +1,34 @@
+package com.terran.library.repository.reactive;
+
+import com.terran.library.model.Title;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Row of the titles table read through R2DBC.
+ *
+ * @param isbn the ISBN
+ * @param title the title
+ * @param author the author
+ * @param totalCopies the number of registered copies
+ * @param availableCopies the number of copies not borrowed
+ *
+ * @author Derry Terran
+ */
+@Table("titles")
+public record CatalogTitle(@Id @Column("isbn") String isbn,
+                           @Column("title") String title,
+                           @Column("author") String author,
+                           @Column("total_copies") int totalCopies,
+                           @Column("available_copies") int availableCopies) {
+
+    /**
+     * Converts the row to the title returned by the MVC endpoints.
+     *
+     * @return the title
+     */
+    public Title toTitle() {
+        return new Title(isbn, title, author, totalCopies, availableCopies, false);
+    }
+}
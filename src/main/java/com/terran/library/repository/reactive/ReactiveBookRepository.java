@@ -0,0 +1,58 @@
+package com.terran.library.repository.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read repository over the books table, mirroring the catalog reads of
+ * {@link com.terran.library.repository.BookRepository}.
+ * Identifiers are quoted so the same statements run against PostgreSQL and against H2 with the
+ * quoted, lower-case names Hibernate creates in tests.
+ *
+ * @author Derry Terran
+ */
+@Repository
+public interface ReactiveBookRepository extends R2dbcRepository<CatalogBook, Long> {
+
+    /**
+     * Selects the book columns together with the name, email, version and branch of the current borrower.
+     */
+    String SELECT_WITH_BORROWER = "SELECT b.\"id\", b.\"isbn\", b.\"title\", b.\"author\", b.\"borrower_id\","
+            + " r.\"name\" AS \"borrower_name\", r.\"email\" AS \"borrower_email\","
+            + " r.\"version\" AS \"borrower_version\", r.\"branch\" AS \"borrower_branch\","
+            + " b.\"updated_at\", b.\"version\", b.\"branch\""
+            + " FROM \"books\" b LEFT JOIN \"borrowers\" r ON r.\"id\" = b.\"borrower_id\" ";
+
+    /**
+     * Find a book by ID with its borrower, in one statement.
+     *
+     * @param id the book ID
+     * @return the book, or empty if not found
+     */
+    @Query(SELECT_WITH_BORROWER + "WHERE b.\"id\" = :id")
+    Mono<CatalogBook> findWithBorrowerById(Long id);
+
+    /**
+     * Find the copies of an ISBN, ordered by ID. Reads the books table only; the borrower name and
+     * email are left empty.
+     *
+     * @param isbn the ISBN
+     * @return the copies of the ISBN
+     */
+    @Query("SELECT \"id\", \"isbn\", \"title\", \"author\", \"borrower_id\", \"updated_at\", \"version\", \"branch\""
+            + " FROM \"books\" WHERE \"isbn\" = :isbn ORDER BY \"id\"")
+    Flux<CatalogBook> findByIsbnOrderById(String isbn);
+
+    /**
+     * Find the next page of books with their borrowers, using the ID of the last book read as the cursor.
+     *
+     * @param afterId the ID of the last book of the previous page, or 0 for the first page
+     * @param limit the page size
+     * @return up to {@code limit} books ordered by ID
+     */
+    @Query(SELECT_WITH_BORROWER + "WHERE b.\"id\" > :afterId ORDER BY b.\"id\" LIMIT :limit")
+    Flux<CatalogBook> findPageWithBorrowerAfter(long afterId, int limit);
+}
@@ -0,0 +1,23 @@
+package com.terran.library.repository.reactive;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read repository over the borrowers table, mirroring
+ * {@link com.terran.library.repository.BorrowerRepository}.
+ *
+ * @author Derry Terran
+ */
+@Repository
+public interface ReactiveBorrowerRepository extends R2dbcRepository<CatalogBorrower, Long> {
+
+    /**
+     * Find a borrower by email.
+     *
+     * @param email the email to search for
+     * @return the borrower, or empty if not found
+     */
+    Mono<CatalogBorrower> findByEmail(String email);
+}
@@ -0,0 +1,13 @@
+package com.terran.library.repository.reactive;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking read repository over the titles table, used for availability lookups by ISBN.
+ *
+ * @author Derry Terran
+ */
+@Repository
+public interface ReactiveTitleRepository extends R2dbcRepository<CatalogTitle, String> {
+}
@@ -0,0 +1,13 @@
+package com.terran.library.service;
+
+/**
+ * Thrown when a book to borrow is already borrowed.
+ *
+ * @author Derry Terran
+ */
+public class AlreadyBorrowedException extends ConflictException {
+
+    public AlreadyBorrowedException(String message) {
+        super(message);
+    }
+}
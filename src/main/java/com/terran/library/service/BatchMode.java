@@ -0,0 +1,19 @@
+package com.terran.library.service;
+
+/**
+ * How a batch of borrows or returns handles the items that cannot be applied.
+ *
+ * @author Derry Terran
+ */
+public enum BatchMode {
+
+    /**
+     * Apply the batch only if every item can be applied; otherwise apply nothing.
+     */
+    ALL_OR_NOTHING,
+
+    /**
+     * Apply every item that can be applied and report the others.
+     */
+    BEST_EFFORT
+}
@@ -0,0 +1,35 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+
+/**
+ * Outcome of borrowing or returning one book of a batch.
+ * The error is null exactly when the item was applied, so a desk client can tell which
+ * books changed hands and why the others did not.
+ *
+ * @param index the position of the book ID in the submitted list
+ * @param bookId the submitted book ID
+ * @param isbn the ISBN of the book, or null if it was not found
+ * @param error the reason the item was not applied, or null if it was applied
+ *
+ * @author Derry Terran
+ */
+public record BookCirculationResult(int index, Long bookId, String isbn, String error) {
+
+    static BookCirculationResult applied(int index, Book book) {
+        return new BookCirculationResult(index, book.getId(), book.getIsbn(), null);
+    }
+
+    static BookCirculationResult failed(int index, Long bookId, Book book, String error) {
+        return new BookCirculationResult(index, bookId, book == null ? null : book.getIsbn(), error);
+    }
+
+    /**
+     * Checks whether the item was applied.
+     *
+     * @return true if the book was borrowed or returned
+     */
+    public boolean isApplied() {
+        return error == null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.terran.library.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for importing books from CSV files.
+ * Files are streamed through parse, validation and registration in chunks; each chunk
+ * commits together with the checkpoint of the import, so interrupted imports resume
+ * after the last committed chunk.
+ * 
+ * @author Derry Terran
+ */
+public interface BookImportService {
+
+    /**
+     * Spool an uploaded CSV file to disk and start importing it in the background.
+     * 
+     * @param content the uploaded file content
+     * @return the started import
+     * @throws IOException if the file cannot be stored
+     */
+    ImportJobStatus startUpload(InputStream content) throws IOException;
+
+    /**
+     * Start importing a CSV file from the configured local import directory in the background.
+     * 
+     * @param path the path of the file, relative to the local import directory
+     * @return the started import
+     * @throws IllegalArgumentException if the file is outside the import directory or does not exist
+     */
+    ImportJobStatus startLocalImport(String path);
+
+    /**
+     * Run an import to completion in the calling thread, starting after its last committed chunk.
+     * Does nothing if the import is not running or is already being run.
+     * 
+     * @param jobId the import ID
+     */
+    void runImport(Long jobId);
+
+    /**
+     * Resume in the background the imports that were interrupted while running.
+     * 
+     * @return the number of resumed imports
+     */
+    int resumeInterrupted();
+
+    /**
+     * Get the progress of an import.
+     * 
+     * @param jobId the import ID
+     * @return the import progress if found
+     */
+    Optional<ImportJobStatus> getImport(Long jobId);
+
+    /**
+     * Get the progress of the most recent imports.
+     * 
+     * @return the imports, newest first
+     */
+    List<ImportJobStatus> getRecentImports();
+}
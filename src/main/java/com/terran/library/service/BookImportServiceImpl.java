@@ -0,0 +1,236 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.ImportJob;
+import com.terran.library.repository.ImportJobRepository;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of the BookImportService interface.
+ * Each chunk of records is validated against the Book constraints, registered through
+ * {@link BookService#registerBooks(List)} and checkpointed in one transaction.
+ * 
+ * @author Derry Terran
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportServiceImpl.class);
+    private static final int RECENT_IMPORTS = 20;
+
+    private final BookService bookService;
+    private final ImportJobRepository importJobRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor importExecutor;
+
+    /**
+     * Imports being run by this instance, with the throughput of the current run.
+     */
+    private final Map<Long, RunProgress> running = new ConcurrentHashMap<>();
+
+    @Value("${library.import.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${library.import.spool-dir:${java.io.tmpdir}/terran-library/imports}")
+    private Path spoolDir;
+
+    @Value("${library.import.local-dir:${java.io.tmpdir}/terran-library/inbox}")
+    private Path localDir;
+
+    @Autowired
+    public BookImportServiceImpl(BookService bookService, ImportJobRepository importJobRepository,
+                                 Validator validator, TransactionTemplate transactionTemplate,
+                                 @Qualifier("bookImportExecutor") TaskExecutor importExecutor) {
+        this.bookService = bookService;
+        this.importJobRepository = importJobRepository;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.importExecutor = importExecutor;
+    }
+
+    @Override
+    public ImportJobStatus startUpload(InputStream content) throws IOException {
+        // Uploads are kept on disk so that an interrupted import can be resumed
+        Files.createDirectories(spoolDir);
+        var file = spoolDir.resolve("upload-" + UUID.randomUUID() + ".csv");
+        Files.copy(content, file);
+        return start(file);
+    }
+
+    @Override
+    public ImportJobStatus startLocalImport(String path) {
+        var root = localDir.toAbsolutePath().normalize();
+        var file = root.resolve(path).normalize();
+        if (!file.startsWith(root)) {
+            throw new IllegalArgumentException("Import file must be inside the import directory: " + path);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Import file not found: " + path);
+        }
+        return start(file);
+    }
+
+    private ImportJobStatus start(Path file) {
+        var job = importJobRepository.save(ImportJob.of(file.toAbsolutePath().toString()));
+        importExecutor.execute(() -> runImport(job.getId()));
+        return ImportJobStatus.of(job, 0.0);
+    }
+
+    @Override
+    public void runImport(Long jobId) {
+        var job = importJobRepository.findById(jobId)
+                .orElseThrow(() -> new NotFoundException("Import not found with ID: " + jobId));
+        var progress = new RunProgress();
+        if (job.getStatus() != ImportJob.Status.RUNNING || running.putIfAbsent(jobId, progress) != null) {
+            return;
+        }
+        try (var reader = new CsvBookReader(Files.newBufferedReader(Path.of(job.getSource()), StandardCharsets.UTF_8))) {
+            if (job.getRecordsProcessed() > 0) {
+                var skipped = reader.skip(job.getRecordsProcessed());
+                log.info("Resuming import {} after {} committed records", jobId, skipped);
+            }
+            var chunk = new ArrayList<CsvBookReader.Record>(chunkSize);
+            CsvBookReader.Record record;
+            while ((record = reader.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    commitChunk(jobId, chunk);
+                    progress.records.addAndGet(chunk.size());
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                commitChunk(jobId, chunk);
+                progress.records.addAndGet(chunk.size());
+            }
+            finish(jobId, ImportJob.Status.COMPLETED, null);
+            log.info("Import {} completed", jobId);
+            deleteSpooledUpload(Path.of(job.getSource()));
+        } catch (IOException | RuntimeException e) {
+            log.error("Import {} failed", jobId, e);
+            finish(jobId, ImportJob.Status.FAILED, e.getMessage() != null ? e.getMessage() : e.toString());
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    /**
+     * Validate and register one chunk of records and advance the checkpoint, in one transaction.
+     * 
+     * @param jobId the import ID
+     * @param chunk the records of the chunk
+     */
+    private void commitChunk(Long jobId, List<CsvBookReader.Record> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            var books = new ArrayList<Book>(chunk.size());
+            var numbers = new ArrayList<Long>(chunk.size());
+            var rejections = new TreeMap<Long, String>();
+            for (var record : chunk) {
+                var error = record.error();
+                if (error == null) {
+                    var violations = validator.validate(record.book());
+                    if (!violations.isEmpty()) {
+                        error = violations.iterator().next().getMessage();
+                    }
+                }
+                if (error == null) {
+                    books.add(record.book());
+                    numbers.add(record.number());
+                } else {
+                    rejections.put(record.number(), error);
+                }
+            }
+            if (!books.isEmpty()) {
+                for (var result : bookService.registerBooks(books)) {
+                    if (result.error() != null) {
+                        rejections.put(numbers.get(result.index()), result.error());
+                    }
+                }
+            }
+            var lastRejection = rejections.lastEntry();
+            var lastError = lastRejection == null ? null
+                    : "Record " + lastRejection.getKey() + ": " + lastRejection.getValue();
+            importJobRepository.recordChunk(jobId, chunk.size(), chunk.size() - rejections.size(),
+                    rejections.size(), lastError, Instant.now());
+        });
+    }
+
+    private void deleteSpooledUpload(Path file) {
+        if (file.startsWith(spoolDir.toAbsolutePath().normalize())) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete imported upload {}", file, e);
+            }
+        }
+    }
+
+    private void finish(Long jobId, ImportJob.Status status, String error) {
+        transactionTemplate.executeWithoutResult(tx -> importJobRepository.finish(jobId, status, error, Instant.now()));
+    }
+
+    @Override
+    public int resumeInterrupted() {
+        var interrupted = importJobRepository.findByStatus(ImportJob.Status.RUNNING);
+        for (var job : interrupted) {
+            if (!running.containsKey(job.getId())) {
+                importExecutor.execute(() -> runImport(job.getId()));
+            }
+        }
+        return interrupted.size();
+    }
+
+    @Override
+    public Optional<ImportJobStatus> getImport(Long jobId) {
+        return importJobRepository.findById(jobId).map(this::status);
+    }
+
+    @Override
+    public List<ImportJobStatus> getRecentImports() {
+        return importJobRepository.findAllByOrderByIdDesc(Limit.of(RECENT_IMPORTS)).stream()
+                .map(this::status)
+                .toList();
+    }
+
+    private ImportJobStatus status(ImportJob job) {
+        var progress = running.get(job.getId());
+        return ImportJobStatus.of(job, progress != null ? progress.ratePerSecond() : null);
+    }
+
+    /**
+     * Records committed by the current run of an import, for its throughput.
+     */
+    private static final class RunProgress {
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong records = new AtomicLong();
+
+        double ratePerSecond() {
+            return ImportJobStatus.ratePerSecond(records.get(), System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+
+/**
+ * Outcome of registering one book of a bulk registration.
+ * Exactly one of the ID and the error is set, so a client can tell which
+ * items were registered and why the others were rejected.
+ *
+ * @param index the position of the book in the submitted list
+ * @param isbn the ISBN of the submitted book
+ * @param id the ID of the registered book, or null if it was rejected
+ * @param error the reason the book was rejected, or null if it was registered
+ *
+ * @author Derry Terran
+ */
+public record BookRegistrationResult(int index, String isbn, Long id, String error) {
+
+    static BookRegistrationResult registered(int index, Book book) {
+        return new BookRegistrationResult(index, book.getIsbn(), book.getId(), null);
+    }
+
+    static BookRegistrationResult rejected(int index, Book book, String error) {
+        return new BookRegistrationResult(index, book == null ? null : book.getIsbn(), null, error);
+    }
+}
@@ -0,0 +1,348 @@
+package com.terran.library.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the title and author words of the catalog.
+ * <p>
+ * Titles are numbered by ordinal in the order their first copy is indexed, and copies by document
+ * number in the order they are indexed. Every word maps to the ascending ordinals of the titles
+ * containing it, kept in a primitive int array, separately for titles and authors. A search ORs the
+ * posting lists of the words starting with each search word into a bitmap and ANDs the bitmaps of all
+ * search words. Availability is a bitmap over the copies, flipped by borrows and returns, so the
+ * available copies of a matching title are its copies ANDed with that bitmap.
+ * <p>
+ * Reads share a lock and updates take it exclusively; every update is idempotent.
+ *
+ * @author Derry Terran
+ */
+public class BookSearchIndex {
+
+    /**
+     * Size and estimated heap footprint of an index.
+     *
+     * @param titles the number of indexed titles
+     * @param copies the number of indexed copies
+     * @param words the number of distinct title and author words
+     * @param postings the number of title ordinals in all posting lists
+     * @param bytes the estimated heap size of the index in bytes, assuming compressed references
+     */
+    public record Footprint(int titles, int copies, int words, long postings, long bytes) {
+    }
+
+    // Scores of a search word found as a whole word or as the prefix of a word, in the title or author
+    static final int TITLE_WORD = 4;
+    static final int TITLE_PREFIX = 3;
+    static final int AUTHOR_WORD = 2;
+    static final int AUTHOR_PREFIX = 1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Titles, by ordinal
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private String[] isbns = new String[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private String[] authors = new String[INITIAL_CAPACITY];
+    private IntList[] copies = new IntList[INITIAL_CAPACITY];
+    private int titleCount;
+    private long stringBytes;
+
+    // Copies, by document number
+    private final LongIntMap documents = new LongIntMap();
+    private final BitSet available = new BitSet();
+    private int copyCount;
+
+    // Posting lists of title ordinals, by word
+    private final NavigableMap<String, IntList> titleWords = new TreeMap<>();
+    private final NavigableMap<String, IntList> authorWords = new TreeMap<>();
+    private long postings;
+
+    /**
+     * Adds a copy to the index, together with its title if it is the first copy of its ISBN.
+     * Copies of an ISBN share the title and author of the first copy.
+     *
+     * @param row the catalog row of the copy
+     * @return false if the copy was already indexed
+     */
+    public boolean add(CatalogRow row) {
+        lock.writeLock().lock();
+        try {
+            if (documents.get(row.id()) >= 0) {
+                return false;
+            }
+            var ordinal = ordinals.get(row.isbn());
+            if (ordinal == null) {
+                ordinal = addTitle(row.isbn(), row.title(), row.author());
+            }
+            var document = copyCount++;
+            documents.put(row.id(), document);
+            copies[ordinal].add(document);
+            available.set(document, !row.borrowed());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks a copy as available or borrowed.
+     *
+     * @param bookId the book ID of the copy
+     * @param isAvailable true when the copy is returned, false when it is borrowed
+     * @return false if the copy is not indexed
+     */
+    public boolean setAvailable(long bookId, boolean isAvailable) {
+        lock.writeLock().lock();
+        try {
+            var document = documents.get(bookId);
+            if (document < 0) {
+                return false;
+            }
+            available.set(document, isAvailable);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the titles containing every word of a search as a word or word prefix, in the title or author.
+     * Titles are ranked by the sum of the scores of the search words, then by ordinal.
+     *
+     * @param query the search query
+     * @return the matching titles of the query page, and the first title of the next page if any
+     */
+    public List<BookSearchResult> search(BookSearchQuery query) {
+        var words = query.words();
+        lock.readLock().lock();
+        try {
+            var titleMatches = new BitSet[words.size()];
+            BitSet matches = null;
+            for (int i = 0; i < words.size(); i++) {
+                titleMatches[i] = startingWith(titleWords, words.get(i));
+                var wordMatches = startingWith(authorWords, words.get(i));
+                wordMatches.or(titleMatches[i]);
+                if (matches == null) {
+                    matches = wordMatches;
+                } else {
+                    matches.and(wordMatches);
+                }
+            }
+
+            // Sort by score, then by ordinal: the score goes in the high half of the key, the inverted ordinal in the low half
+            var keys = new long[matches.cardinality()];
+            var count = 0;
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                var score = 0;
+                for (int i = 0; i < words.size(); i++) {
+                    if (titleMatches[i].get(ordinal)) {
+                        score += contains(titleWords.get(words.get(i)), ordinal) ? TITLE_WORD : TITLE_PREFIX;
+                    } else {
+                        score += contains(authorWords.get(words.get(i)), ordinal) ? AUTHOR_WORD : AUTHOR_PREFIX;
+                    }
+                }
+                keys[count++] = (long) score << 32 | (Integer.MAX_VALUE - ordinal);
+            }
+            Arrays.sort(keys);
+
+            var results = new ArrayList<BookSearchResult>(query.size() + 1);
+            for (long i = keys.length - 1 - query.offset(); i >= 0 && results.size() <= query.size(); i--) {
+                var key = keys[(int) i];
+                results.add(result(Integer.MAX_VALUE - (int) key, (int) (key >>> 32)));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the size of the index and estimates its heap footprint.
+     *
+     * @return the footprint
+     */
+    public Footprint footprint() {
+        lock.readLock().lock();
+        try {
+            // Title arrays, ISBN ordinals (hash map node, boxed ordinal and table slot) and strings
+            long bytes = 3L * (16 + 4L * isbns.length) + (16 + 4L * copies.length)
+                    + 56L * ordinals.size() + stringBytes;
+            for (int ordinal = 0; ordinal < titleCount; ordinal++) {
+                bytes += copies[ordinal].bytes();
+            }
+            // Copy documents and availability bitmap
+            bytes += documents.bytes() + 16 + available.size() / 8;
+            // Words: tree map entry, word string and posting list
+            for (var words : List.of(titleWords, authorWords)) {
+                for (var entry : words.entrySet()) {
+                    bytes += 40 + stringBytes(entry.getKey()) + entry.getValue().bytes();
+                }
+            }
+            return new Footprint(titleCount, copyCount, titleWords.size() + authorWords.size(), postings, bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int addTitle(String isbn, String title, String author) {
+        var ordinal = titleCount++;
+        if (ordinal == isbns.length) {
+            var capacity = ordinal + (ordinal >> 1);
+            isbns = Arrays.copyOf(isbns, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            copies = Arrays.copyOf(copies, capacity);
+        }
+        isbns[ordinal] = isbn;
+        titles[ordinal] = title;
+        authors[ordinal] = author;
+        copies[ordinal] = new IntList();
+        ordinals.put(isbn, ordinal);
+        stringBytes += stringBytes(isbn) + stringBytes(title) + stringBytes(author);
+        addPostings(titleWords, title, ordinal);
+        addPostings(authorWords, author, ordinal);
+        return ordinal;
+    }
+
+    private void addPostings(NavigableMap<String, IntList> words, String text, int ordinal) {
+        // Ordinals grow with every title, so appending keeps each posting list sorted
+        for (var word : new LinkedHashSet<>(BookSearchQuery.tokenize(text))) {
+            words.computeIfAbsent(word, key -> new IntList()).add(ordinal);
+            postings++;
+        }
+    }
+
+    private BookSearchResult result(int ordinal, int score) {
+        var copiesOfTitle = copies[ordinal];
+        var availableCopies = 0;
+        for (int i = 0; i < copiesOfTitle.size; i++) {
+            if (available.get(copiesOfTitle.values[i])) {
+                availableCopies++;
+            }
+        }
+        return new BookSearchResult(isbns[ordinal], titles[ordinal], authors[ordinal], copiesOfTitle.size,
+                availableCopies, score);
+    }
+
+    private static BitSet startingWith(NavigableMap<String, IntList> words, String prefix) {
+        var bits = new BitSet();
+        for (var postingList : words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (int i = 0; i < postingList.size; i++) {
+                bits.set(postingList.values[i]);
+            }
+        }
+        return bits;
+    }
+
+    private static boolean contains(IntList postingList, int ordinal) {
+        return postingList != null && Arrays.binarySearch(postingList.values, 0, postingList.size, ordinal) >= 0;
+    }
+
+    private static long stringBytes(String value) {
+        // String header and fields, array header, one byte per Latin-1 character
+        return 40L + value.length();
+    }
+
+    /**
+     * Growable list of ints, without boxing.
+     */
+    static final class IntList {
+
+        private int[] values = new int[1];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = value;
+        }
+
+        long bytes() {
+            return 24 + 16 + 4L * values.length;
+        }
+    }
+
+    /**
+     * Open addressing hash map from long keys to non-negative int values, without boxing.
+     */
+    static final class LongIntMap {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(INITIAL_CAPACITY);
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int size;
+
+        /**
+         * Gets the value of a key.
+         *
+         * @param key the key
+         * @return the value, or -1 if the key is absent
+         */
+        int get(long key) {
+            var mask = keys.length - 1;
+            for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if (3 * (size + 1) > 2 * keys.length) {
+                resize();
+            }
+            var mask = keys.length - 1;
+            var slot = slot(key, mask);
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                size++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        long bytes() {
+            return 16 + 8L * keys.length + 16 + 4L * values.length;
+        }
+
+        private void resize() {
+            var oldKeys = keys;
+            var oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        }
+
+        private static long[] newKeys(int capacity) {
+            var keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.terran.library.service;
+
+import java.util.List;
+
+/**
+ * One page of catalog search results, ordered by descending relevance.
+ *
+ * @param results the matching titles on this page
+ * @param page the zero-based page number
+ * @param size the effective page size used for the query
+ * @param hasNext whether more results follow this page
+ *
+ * @author Derry Terran
+ */
+public record BookSearchPage(List<BookSearchResult> results, int page, int size, boolean hasNext) {
+
+    /**
+     * Builds a page from rows read with one row more than the page size, which tells if a next page exists.
+     *
+     * @param query the search query
+     * @param rows up to {@code query.size() + 1} matching titles
+     * @return the page
+     */
+    public static BookSearchPage of(BookSearchQuery query, List<BookSearchResult> rows) {
+        var hasNext = rows.size() > query.size();
+        return new BookSearchPage(hasNext ? rows.subList(0, query.size()) : rows, query.page(), query.size(), hasNext);
+    }
+}
@@ -0,0 +1,87 @@
+package com.terran.library.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * A validated catalog search: the normalized search text and the requested page.
+ *
+ * @param text the search text, trimmed and lower case
+ * @param page the zero-based page number
+ * @param size the page size
+ *
+ * @author Derry Terran
+ */
+public record BookSearchQuery(String text, int page, int size) {
+
+    /**
+     * Longest search text accepted; longer texts only make the query more expensive.
+     */
+    public static final int MAX_LENGTH = 200;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Validates a search request.
+     *
+     * @param text the search text
+     * @param page the zero-based page number, or null for the first page
+     * @param size the page size, or null for the default
+     * @param defaultPageSize the page size used when none is given
+     * @param maxPageSize the largest page size returned
+     * @return the query
+     * @throws IllegalArgumentException if the text has no letter or digit or is too long,
+     *                                  or the page or size is out of range
+     */
+    public static BookSearchQuery of(String text, Integer page, Integer size, int defaultPageSize, int maxPageSize) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Search text is required");
+        }
+        if (text.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Search text must be at most " + MAX_LENGTH + " characters");
+        }
+        if (page != null && page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size != null && size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        var query = new BookSearchQuery(text.strip().toLowerCase(Locale.ROOT), page != null ? page : 0,
+                Math.min(size != null ? size : defaultPageSize, maxPageSize));
+        if (query.words().isEmpty()) {
+            throw new IllegalArgumentException("Search text must contain a letter or digit");
+        }
+        return query;
+    }
+
+    /**
+     * Gets the words of the search text, split at every character that is not a letter or digit.
+     *
+     * @return the words, in the order they appear
+     */
+    public List<String> words() {
+        return tokenize(text);
+    }
+
+    /**
+     * Splits a text into lower case words at every character that is not a letter or digit,
+     * the same way search texts are split.
+     *
+     * @param text the text
+     * @return the words, in the order they appear
+     */
+    public static List<String> tokenize(String text) {
+        return Arrays.stream(NON_WORD.split(text.toLowerCase(Locale.ROOT))).filter(word -> !word.isEmpty()).toList();
+    }
+
+    /**
+     * Gets the number of results preceding the page.
+     *
+     * @return the offset of the first result on the page
+     */
+    public long offset() {
+        return (long) page * size;
+    }
+}
@@ -0,0 +1,18 @@
+package com.terran.library.service;
+
+/**
+ * One title matching a catalog search, with the copy counts of its ISBN.
+ * Copies share their title and author, so every ISBN appears once however many copies it has.
+ *
+ * @param isbn the ISBN
+ * @param title the title
+ * @param author the author
+ * @param totalCopies the number of registered copies of the ISBN
+ * @param availableCopies the number of copies that are not borrowed
+ * @param score the relevance of the title to the search; higher is better, comparable within one search only
+ *
+ * @author Derry Terran
+ */
+public record BookSearchResult(String isbn, String title, String author, int totalCopies, int availableCopies,
+                               double score) {
+}
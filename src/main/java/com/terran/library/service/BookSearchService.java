@@ -0,0 +1,22 @@
+package com.terran.library.service;
+
+/**
+ * Service interface for searching the catalog by title and author.
+ * Results are titles rather than copies, ranked by relevance and paginated.
+ * The engine depends on the database, see {@link com.terran.library.config.SearchConfig}.
+ *
+ * @author Derry Terran
+ */
+public interface BookSearchService {
+
+    /**
+     * Search the titles and authors of the catalog.
+     *
+     * @param text the search text; words may be incomplete
+     * @param page the zero-based page number, or null for the first page
+     * @param size the page size, or null for the default
+     * @return the page of matching titles, most relevant first
+     * @throws IllegalArgumentException if the search text is blank or too long, or the page or size is invalid
+     */
+    BookSearchPage search(String text, Integer page, Integer size);
+}
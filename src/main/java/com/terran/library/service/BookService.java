@@ -1,9 +1,12 @@
 package com.terran.library.service;
 
 import com.terran.library.model.Book;
+import com.terran.library.model.Title;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing books.
@@ -14,11 +17,25 @@ public interface BookService {
     
     /**
      * Register a new book to the library.
+     * The first copy of an ISBN creates its title; further copies must carry the same title
+     * and author, and increase the copy counters of the title.
      * 
      * @param book the book to register
-     * @return the registered book with ID
+     * @return the registered book with ID, or null if the title or author does not match the ISBN
      */
     Book registerBook(Book book);
+
+    /**
+     * Register a list of books in one transaction, for onboarding whole inventories.
+     * Titles of all ISBNs in the list are checked with a single query, and the books are
+     * inserted in JDBC batches. Books that are invalid or do not match the title and author
+     * of their ISBN are rejected without aborting the rest of the list.
+     * 
+     * @param books the books to register
+     * @return one result per submitted book, in the submitted order
+     * @throws IllegalArgumentException if the list is empty or larger than the bulk limit
+     */
+    List<BookRegistrationResult> registerBooks(List<Book> books);
     
     /**
      * Get a book by ID.
@@ -28,13 +45,53 @@ public interface BookService {
      */
     Optional<Book> getBookById(Long id);
     
+    /**
+     * Get the version of a book, without loading the book when it is not cached.
+     * 
+     * @param id the book ID
+     * @return an Optional containing the version if the book exists, or empty if not found
+     */
+    Optional<Long> getBookVersion(Long id);
+    
+    /**
+     * Get the time of the latest change to any book.
+     * Registrations, borrows and returns all move it forward, so it versions the book listings.
+     * 
+     * @return the latest change time, or null if there are no books
+     */
+    Instant getBooksLastChange();
+    
     /**
      * Get all books in the library.
+     * The result is capped at the configured legacy row limit; use
+     * {@link #getCatalogPage(String, Integer, CatalogFilter)} to walk the full catalog.
      * 
-     * @return a list of all books
+     * @return a list of books ordered by ID, at most the legacy row limit
      */
     List<Book> getAllBooks();
     
+    /**
+     * Get one page of the catalog using keyset pagination on the book ID.
+     * 
+     * @param cursor the cursor returned with a previous page, or null for the first page
+     * @param size the requested page size, or null for the default; capped at the configured maximum
+     * @param filter optional filters on ISBN, author and availability
+     * @return the requested page with its next and previous cursors
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+     */
+    CatalogPage getCatalogPage(String cursor, Integer size, CatalogFilter filter);
+    
+    /**
+     * Export books one at a time to a consumer, in ID order.
+     * Books are streamed from the database and detached once consumed,
+     * so memory use does not grow with the size of the catalog.
+     * 
+     * @param updatedSince only export books changed at or after this time, or null for all books
+     * @param sink the consumer that receives each book
+     * @return the number of exported books
+     */
+    long exportBooks(Instant updatedSince, Consumer<Book> sink);
+    
     /**
      * Get all books with a specific ISBN.
      * 
@@ -43,8 +100,27 @@ public interface BookService {
      */
     List<Book> getBooksByIsbn(String isbn);
     
+    /**
+     * Get the catalog rows of all copies with a specific ISBN.
+     * Cheaper than {@link #getBooksByIsbn(String)} as borrowers are not loaded.
+     * 
+     * @param isbn the ISBN to search for
+     * @return the catalog rows of the copies, ordered by book ID
+     */
+    List<CatalogRow> getCatalogRowsByIsbn(String isbn);
+    
+    /**
+     * Get the title of an ISBN with its copy counters.
+     * 
+     * @param isbn the ISBN
+     * @return an Optional containing the title if any copy was registered, or empty if not found
+     */
+    Optional<Title> getTitle(String isbn);
+    
     /**
      * Borrow a book with a particular book ID.
+     * The book is assigned with a single conditional update, so when several borrowers
+     * race for the same copy exactly one of them succeeds. A loan is opened in the same transaction.
      * 
      * @param bookId the ID of the book to borrow
      * @param borrowerId the ID of the borrower
@@ -54,12 +130,75 @@ public interface BookService {
      */
     Book borrowBook(Long bookId, Long borrowerId);
     
+    /**
+     * Borrow a book with a particular book ID, only if it still has the version the caller read.
+     * The version is checked by the same conditional update that assigns the borrower.
+     * 
+     * @param bookId the ID of the book to borrow
+     * @param borrowerId the ID of the borrower
+     * @param expectedVersion the expected version of the book, or null to borrow whatever its version
+     * @return the borrowed book
+     * @throws IllegalArgumentException if the book is already borrowed or doesn't exist,
+     *         or if the borrower doesn't exist
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the book has another version
+     */
+    Book borrowBook(Long bookId, Long borrowerId, Long expectedVersion);
+    
+    /**
+     * Borrow any available copy of an ISBN.
+     * A free copy is claimed in a single transaction, skipping copies that concurrent
+     * requests are claiming, so requests for a popular ISBN spread across its copies.
+     * 
+     * @param isbn the ISBN of the title to borrow
+     * @param borrowerId the ID of the borrower
+     * @return the borrowed copy
+     * @throws IllegalArgumentException if the borrower doesn't exist or no copy of the ISBN is available
+     */
+    Book borrowAnyCopy(String isbn, Long borrowerId);
+    
     /**
      * Return a borrowed book.
+     * The borrower is cleared with a single conditional update, and the open loan of the book
+     * is closed in the same transaction.
      * 
      * @param bookId the ID of the book to return
      * @return the returned book
      * @throws IllegalArgumentException if the book is not borrowed or doesn't exist
      */
     Book returnBook(Long bookId);
+    
+    /**
+     * Return a borrowed book, only if it still has the version the caller read.
+     * 
+     * @param bookId the ID of the book to return
+     * @param expectedVersion the expected version of the book, or null to return whatever its version
+     * @return the returned book
+     * @throws IllegalArgumentException if the book is not borrowed or doesn't exist
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the book has another version
+     */
+    Book returnBook(Long bookId, Long expectedVersion);
+
+    /**
+     * Borrow several books for one borrower, as at a checkout desk.
+     * The borrower is resolved once, the copies are loaded and locked with one query, and the
+     * borrowed copies are written in one JDBC batch.
+     * 
+     * @param bookIds the IDs of the books to borrow
+     * @param borrowerId the ID of the borrower
+     * @param mode whether to apply the batch only if every book can be borrowed, or null for the configured default
+     * @return one result per submitted book ID, in the submitted order
+     * @throws IllegalArgumentException if the list is empty or too long, or the borrower doesn't exist
+     */
+    List<BookCirculationResult> borrowBooks(List<Long> bookIds, Long borrowerId, BatchMode mode);
+
+    /**
+     * Return several borrowed books at once.
+     * The copies are loaded and locked with one query and the returned copies are written in one JDBC batch.
+     * 
+     * @param bookIds the IDs of the books to return
+     * @param mode whether to apply the batch only if every book can be returned, or null for the configured default
+     * @return one result per submitted book ID, in the submitted order
+     * @throws IllegalArgumentException if the list is empty or too long
+     */
+    List<BookCirculationResult> returnBooks(List<Long> bookIds, BatchMode mode);
 }
\ No newline at end of file
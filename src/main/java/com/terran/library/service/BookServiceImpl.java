@@ -1,15 +1,44 @@
 package com.terran.library.service;
 
+import com.terran.library.config.CacheConfig;
+import com.terran.library.event.BookBorrowedEvent;
+import com.terran.library.event.BookReturnedEvent;
+import com.terran.library.event.BooksRegisteredEvent;
 import com.terran.library.model.Book;
 import com.terran.library.model.Borrower;
+import com.terran.library.model.Loan;
+import com.terran.library.model.Title;
 import com.terran.library.repository.BookRepository;
 import com.terran.library.repository.BorrowerRepository;
+import com.terran.library.repository.LoanRepository;
+import com.terran.library.repository.TitleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the BookService interface.
@@ -22,81 +51,551 @@ public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
     private final BorrowerRepository borrowerRepository;
+    private final TitleRepository titleRepository;
+    private final LoanRepository loanRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${library.catalog.default-page-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${library.catalog.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    @Value("${library.catalog.legacy-max-rows:1000}")
+    private int legacyMaxRows = 1000;
+
+    @Value("${library.catalog.bulk-max-books:50000}")
+    private int bulkMaxBooks = 50000;
+
+    @Value("${library.circulation.batch-max-books:100}")
+    private int batchMaxBooks = 100;
+
+    @Value("${library.circulation.batch-mode:ALL_OR_NOTHING}")
+    private BatchMode defaultBatchMode = BatchMode.ALL_OR_NOTHING;
+
+    // Flush and clear the persistence context once per JDBC batch, so a bulk registration
+    // sends full batches and does not keep every inserted book managed until commit
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int bulkFlushSize = 50;
 
     @Autowired
-    public BookServiceImpl(BookRepository bookRepository, BorrowerRepository borrowerRepository) {
+    public BookServiceImpl(BookRepository bookRepository, BorrowerRepository borrowerRepository,
+                           TitleRepository titleRepository, LoanRepository loanRepository,
+                           ApplicationEventPublisher eventPublisher, CacheManager cacheManager) {
         this.bookRepository = bookRepository;
         this.borrowerRepository = borrowerRepository;
+        this.titleRepository = titleRepository;
+        this.loanRepository = loanRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
     }
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.BOOKS_BY_ISBN, CacheConfig.COPIES_BY_ISBN, CacheConfig.TITLES},
+            key = "#book.isbn")
     public Book registerBook(Book book) {
         // Ensure the book is not borrowed when registered
         book.setBorrower(null);
         
-        // Check if a book with the same ISBN, title, and author already exists
-        var existingBook = bookRepository.findByIsbn(book.getIsbn());
-        if(existingBook !=null && existingBook.isEmpty()){
-            return bookRepository.save(book);
-        }else{
-            if(book.getTitle().contentEquals(existingBook.get(0).getTitle()) && book.getAuthor().contentEquals(existingBook.get(0).getAuthor())){
-                return bookRepository.save(book);
+        // Copies of an ISBN must share the title and author of the registered title
+        var existingTitle = titleRepository.findById(book.getIsbn());
+        if (existingTitle.isEmpty() && titleRepository.insertFirstCopy(book.getIsbn(), book.getTitle(), book.getAuthor()) == 0) {
+            // A concurrent registration created the title since it was read
+            existingTitle = Optional.of(titleRepository.findById(book.getIsbn())
+                    .orElseThrow(() -> new IllegalStateException("Title of ISBN " + book.getIsbn() + " not found")));
+        }
+        if (existingTitle.isPresent()) {
+            if (!existingTitle.get().describes(book)) {
+                return null;
             }
+            titleRepository.addCopies(book.getIsbn(), 1);
+        }
+        var savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(new BooksRegisteredEvent(List.of(CatalogRow.of(savedBook))));
+        return savedBook;
+    }
+
+    @Override
+    // A bulk registration can touch thousands of ISBNs, so it clears the ISBN caches instead
+    @CacheEvict(cacheNames = {CacheConfig.BOOKS_BY_ISBN, CacheConfig.COPIES_BY_ISBN, CacheConfig.TITLES},
+            allEntries = true)
+    public List<BookRegistrationResult> registerBooks(List<Book> books) {
+        if (books == null || books.isEmpty()) {
+            throw new IllegalArgumentException("No books to register");
+        }
+        if (books.size() > bulkMaxBooks) {
+            throw new IllegalArgumentException("Too many books: " + books.size() + ", the limit is " + bulkMaxBooks);
+        }
+        var results = new BookRegistrationResult[books.size()];
+
+        // Load the titles of every ISBN in the list with one query
+        var isbns = new HashSet<String>();
+        for (var book : books) {
+            if (book != null && book.getIsbn() != null) {
+                isbns.add(book.getIsbn());
+            }
+        }
+        var titles = new HashMap<String, Title>();
+        titleRepository.findAllById(isbns).forEach(title -> titles.put(title.getIsbn(), title));
+
+        // Check every book, creating the titles of new ISBNs from their first copy in the list
+        var accepted = new ArrayList<Integer>();
+        var addedCopies = new LinkedHashMap<String, Integer>();
+        for (int i = 0; i < books.size(); i++) {
+            var book = books.get(i);
+            var error = invalidBookError(book);
+            if (error == null) {
+                var title = titles.get(book.getIsbn());
+                if (title == null) {
+                    titles.put(book.getIsbn(), Title.firstCopyOf(book));
+                } else if (!title.describes(book)) {
+                    error = "Title or author does not match ISBN " + book.getIsbn();
+                } else if (title.isNew()) {
+                    title.setTotalCopies(title.getTotalCopies() + 1);
+                    title.setAvailableCopies(title.getAvailableCopies() + 1);
+                } else {
+                    addedCopies.merge(book.getIsbn(), 1, Integer::sum);
+                }
+            }
+            if (error == null) {
+                book.setBorrower(null);
+                accepted.add(i);
+            } else {
+                results[i] = BookRegistrationResult.rejected(i, book, error);
+            }
+        }
+
+        // Titles go in first, since the books reference them
+        var newTitles = titles.values().stream().filter(Title::isNew).toList();
+        titleRepository.saveAll(newTitles);
+        addedCopies.forEach(titleRepository::addCopies);
+        entityManager.flush();
+
+        var registered = new ArrayList<CatalogRow>(accepted.size());
+        for (int start = 0; start < accepted.size(); start += bulkFlushSize) {
+            var chunk = accepted.subList(start, Math.min(start + bulkFlushSize, accepted.size()));
+            for (var index : chunk) {
+                var saved = bookRepository.save(books.get(index));
+                results[index] = BookRegistrationResult.registered(index, saved);
+                registered.add(CatalogRow.of(saved));
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+        if (!registered.isEmpty()) {
+            eventPublisher.publishEvent(new BooksRegisteredEvent(registered));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Check the fields a bulk-registered book must carry.
+     * 
+     * @param book the submitted book
+     * @return the validation error, or null if the book is valid
+     */
+    private String invalidBookError(Book book) {
+        if (book == null) {
+            return "Book is required";
+        }
+        if (book.getIsbn() == null || book.getIsbn().isBlank()) {
+            return "ISBN is required";
+        }
+        if (book.getTitle() == null || book.getTitle().isBlank()) {
+            return "Title is required";
+        }
+        if (book.getAuthor() == null || book.getAuthor().isBlank()) {
+            return "Author is required";
         }
         return null;
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.BOOKS, unless = "#result == null")
     public Optional<Book> getBookById(Long id) {
-        return bookRepository.findById(id);
+        return bookRepository.findWithBorrowerById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getBookVersion(Long id) {
+        // A cached book answers without a query; the cache entry is evicted whenever the book changes
+        var cache = cacheManager.getCache(CacheConfig.BOOKS);
+        var cached = cache != null ? cache.get(id, Book.class) : null;
+        if (cached != null) {
+            return Optional.ofNullable(cached.getVersion());
+        }
+        return bookRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Instant getBooksLastChange() {
+        return bookRepository.findLastChange();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+        return bookRepository.findAllByOrderByIdAsc(Limit.of(legacyMaxRows));
     }
 
     @Override
     @Transactional(readOnly = true)
+    public CatalogPage getCatalogPage(String cursor, Integer size, CatalogFilter filter) {
+        if (size != null && size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        var pageSize = Math.min(size != null ? size : defaultPageSize, maxPageSize);
+        var position = cursor != null ? CatalogCursor.decode(cursor) : CatalogCursor.after(0L);
+        var criteria = filter != null ? filter : CatalogFilter.none();
+        
+        // Fetch one extra row to find out whether there is another page in the reading direction
+        var limit = Limit.of(pageSize + 1);
+        List<CatalogRow> books;
+        if (position.forward()) {
+            books = bookRepository.findCatalogPageAfter(position.key(), criteria.isbn(),
+                    criteria.author(), criteria.available(), limit);
+        } else {
+            books = new ArrayList<>(bookRepository.findCatalogPageBefore(position.key(), criteria.isbn(),
+                    criteria.author(), criteria.available(), limit));
+        }
+        
+        var hasMore = books.size() > pageSize;
+        if (hasMore) {
+            books = books.subList(0, pageSize);
+        }
+        if (!position.forward()) {
+            Collections.reverse(books);
+        }
+        if (books.isEmpty()) {
+            return new CatalogPage(books, pageSize, null, null);
+        }
+        
+        var firstId = books.get(0).id();
+        var lastId = books.get(books.size() - 1).id();
+        // Reading forward from a cursor implies there are rows behind it, and reading backward
+        // implies there are rows ahead of it; the extra row answers the other direction.
+        var hasNext = position.forward() ? hasMore : true;
+        var hasPrev = position.forward() ? cursor != null : hasMore;
+        return new CatalogPage(books, pageSize,
+                hasNext ? CatalogCursor.after(lastId).encode() : null,
+                hasPrev ? CatalogCursor.before(firstId).encode() : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(Instant updatedSince, Consumer<Book> sink) {
+        var exported = 0L;
+        try (var books = bookRepository.streamForExport(updatedSince)) {
+            var iterator = books.iterator();
+            while (iterator.hasNext()) {
+                var book = iterator.next();
+                sink.accept(book);
+                // Detach what has been written so the persistence context stays small
+                entityManager.detach(book);
+                if (book.getBorrower() != null) {
+                    entityManager.detach(book.getBorrower());
+                }
+                exported++;
+            }
+        }
+        return exported;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.BOOKS_BY_ISBN)
     public List<Book> getBooksByIsbn(String isbn) {
         return bookRepository.findByIsbn(isbn);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.COPIES_BY_ISBN)
+    public List<CatalogRow> getCatalogRowsByIsbn(String isbn) {
+        return bookRepository.findCatalogRowsByIsbn(isbn);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TITLES, unless = "#result == null")
+    public Optional<Title> getTitle(String isbn) {
+        return titleRepository.findById(isbn);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#bookId"),
+            @CacheEvict(cacheNames = {CacheConfig.BOOKS_BY_ISBN, CacheConfig.COPIES_BY_ISBN, CacheConfig.TITLES},
+                    key = "#result.isbn")
+    })
     public Book borrowBook(Long bookId, Long borrowerId) {
-        // Get the book
-        var book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new IllegalArgumentException("Book not found with ID: " + bookId));
+        return borrowBook(bookId, borrowerId, null);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#bookId"),
+            @CacheEvict(cacheNames = {CacheConfig.BOOKS_BY_ISBN, CacheConfig.COPIES_BY_ISBN, CacheConfig.TITLES},
+                    key = "#result.isbn")
+    })
+    public Book borrowBook(Long bookId, Long borrowerId, Long expectedVersion) {
+        // Get the borrower
+        var borrower = borrowerRepository.findById(borrowerId)
+                .orElseThrow(() -> new NotFoundException("Borrower not found with ID: " + borrowerId));
         
-        // Check if the book is already borrowed
-        if (book.isBorrowed()) {
-            throw new IllegalArgumentException("Book is already borrowed");
+        // Assign the borrower only if the book is still available; the row count tells whether it was
+        var now = Instant.now();
+        var assigned = expectedVersion == null
+                ? bookRepository.assignBorrowerIfAvailable(bookId, borrower, now)
+                : bookRepository.assignBorrowerIfVersion(bookId, borrower, expectedVersion, now);
+        if (assigned == 0) {
+            checkVersion(bookId, expectedVersion);
+            throw bookNotFoundOr(bookId, new AlreadyBorrowedException("Book is already borrowed"));
         }
-        
+        var book = bookRepository.findWithBorrowerById(bookId)
+                .orElseThrow(() -> new NotFoundException("Book not found with ID: " + bookId));
+        titleRepository.adjustAvailableCopies(book.getIsbn(), -1);
+        loanRepository.save(Loan.open(book, borrowerId, now));
+        eventPublisher.publishEvent(new BookBorrowedEvent(bookId, book.getIsbn(), borrowerId));
+        return book;
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#result.id"),
+            @CacheEvict(cacheNames = {CacheConfig.BOOKS_BY_ISBN, CacheConfig.COPIES_BY_ISBN, CacheConfig.TITLES},
+                    key = "#isbn")
+    })
+    public Book borrowAnyCopy(String isbn, Long borrowerId) {
         // Get the borrower
         var borrower = borrowerRepository.findById(borrowerId)
-                .orElseThrow(() -> new IllegalArgumentException("Borrower not found with ID: " + borrowerId));
+                .orElseThrow(() -> new NotFoundException("Borrower not found with ID: " + borrowerId));
         
-        // Set the borrower and save the book
-        book.setBorrower(borrower);
-        return bookRepository.save(book);
+        // Each failed claim means the copy was taken meanwhile, so the loop ends once the ISBN runs out of copies
+        while (true) {
+            var copy = bookRepository.findAvailableCopiesForUpdate(isbn, Limit.of(1)).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ConflictException("No available copy of ISBN: " + isbn));
+            
+            // Without SKIP LOCKED the lock can return a copy that was borrowed while we waited for it
+            var now = Instant.now();
+            if (bookRepository.assignBorrowerIfAvailable(copy.getId(), borrower, now) == 1) {
+                titleRepository.adjustAvailableCopies(isbn, -1);
+                eventPublisher.publishEvent(new BookBorrowedEvent(copy.getId(), isbn, borrowerId));
+                var book = bookRepository.findWithBorrowerById(copy.getId())
+                        .orElseThrow(() -> new NotFoundException("Book not found with ID: " + copy.getId()));
+                loanRepository.save(Loan.open(book, borrowerId, now));
+                return book;
+            }
+        }
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#bookId"),
+            @CacheEvict(cacheNames = {CacheConfig.BOOKS_BY_ISBN, CacheConfig.COPIES_BY_ISBN, CacheConfig.TITLES},
+                    key = "#result.isbn")
+    })
     public Book returnBook(Long bookId) {
-        // Get the book
+        return returnBook(bookId, null);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#bookId"),
+            @CacheEvict(cacheNames = {CacheConfig.BOOKS_BY_ISBN, CacheConfig.COPIES_BY_ISBN, CacheConfig.TITLES},
+                    key = "#result.isbn")
+    })
+    public Book returnBook(Long bookId, Long expectedVersion) {
+        // Clear the borrower only if the book is currently borrowed
+        var now = Instant.now();
+        var cleared = expectedVersion == null
+                ? bookRepository.clearBorrowerIfBorrowed(bookId, now)
+                : bookRepository.clearBorrowerIfVersion(bookId, expectedVersion, now);
+        if (cleared == 0) {
+            checkVersion(bookId, expectedVersion);
+            throw bookNotFoundOr(bookId, new ConflictException("Book is not borrowed"));
+        }
         var book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new IllegalArgumentException("Book not found with ID: " + bookId));
-        
-        // Check if the book is borrowed
-        if (!book.isBorrowed()) {
-            throw new IllegalArgumentException("Book is not borrowed");
+                .orElseThrow(() -> new NotFoundException("Book not found with ID: " + bookId));
+        titleRepository.adjustAvailableCopies(book.getIsbn(), 1);
+        loanRepository.closeLoans(List.of(bookId), now);
+        eventPublisher.publishEvent(new BookReturnedEvent(bookId, book.getIsbn()));
+        return book;
+    }
+
+    @Override
+    public List<BookCirculationResult> borrowBooks(List<Long> bookIds, Long borrowerId, BatchMode mode) {
+        checkBatch(bookIds);
+        var borrower = borrowerRepository.findById(borrowerId)
+                .orElseThrow(() -> new NotFoundException("Borrower not found with ID: " + borrowerId));
+
+        var results = new BookCirculationResult[bookIds.size()];
+        var changed = checkBatchItems(bookIds, results, book -> book.isBorrowed() ? "Book is already borrowed" : null);
+        if (!shouldApply(mode, results)) {
+            return Arrays.asList(results);
+        }
+        var now = Instant.now();
+        changed.forEach(book -> book.setBorrower(borrower));
+        writeBatch(changed, -1);
+        loanRepository.saveAll(changed.stream().map(book -> Loan.open(book, borrowerId, now)).toList());
+        changed.forEach(book -> eventPublisher.publishEvent(
+                new BookBorrowedEvent(book.getId(), book.getIsbn(), borrowerId)));
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public List<BookCirculationResult> returnBooks(List<Long> bookIds, BatchMode mode) {
+        checkBatch(bookIds);
+
+        var results = new BookCirculationResult[bookIds.size()];
+        var changed = checkBatchItems(bookIds, results, book -> book.isBorrowed() ? null : "Book is not borrowed");
+        if (!shouldApply(mode, results)) {
+            return Arrays.asList(results);
+        }
+        changed.forEach(book -> book.setBorrower(null));
+        writeBatch(changed, 1);
+        if (!changed.isEmpty()) {
+            loanRepository.closeLoans(changed.stream().map(Book::getId).toList(), Instant.now());
+        }
+        changed.forEach(book -> eventPublisher.publishEvent(new BookReturnedEvent(book.getId(), book.getIsbn())));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Check the size of a batch of borrows or returns.
+     * 
+     * @param bookIds the submitted book IDs
+     */
+    private void checkBatch(List<Long> bookIds) {
+        if (bookIds == null || bookIds.isEmpty()) {
+            throw new IllegalArgumentException("No books in the batch");
+        }
+        if (bookIds.size() > batchMaxBooks) {
+            throw new IllegalArgumentException("Too many books: " + bookIds.size() + ", the limit is " + batchMaxBooks);
+        }
+    }
+
+    /**
+     * Load and lock the books of a batch with one query and check each submitted ID.
+     * 
+     * @param bookIds the submitted book IDs
+     * @param results the results to fill in, one per submitted ID
+     * @param stateError returns why a book cannot be borrowed or returned, or null if it can
+     * @return the books that can be changed, in the submitted order
+     */
+    private List<Book> checkBatchItems(List<Long> bookIds, BookCirculationResult[] results,
+                                       Function<Book, String> stateError) {
+        var books = new HashMap<Long, Book>();
+        var ids = bookIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        bookRepository.findAllByIdForUpdate(ids).forEach(book -> books.put(book.getId(), book));
+
+        var changed = new ArrayList<Book>();
+        var seen = new HashSet<Long>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            var bookId = bookIds.get(i);
+            var book = books.get(bookId);
+            String error;
+            if (book == null) {
+                error = "Book not found with ID: " + bookId;
+            } else if (!seen.add(bookId)) {
+                error = "Book is listed more than once";
+            } else {
+                error = stateError.apply(book);
+            }
+            if (error == null) {
+                changed.add(book);
+                results[i] = BookCirculationResult.applied(i, book);
+            } else {
+                results[i] = BookCirculationResult.failed(i, bookId, book, error);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Decide whether a checked batch is written. In all-or-nothing mode a batch with any rejected
+     * item is not written, and its other items are reported as not applied.
+     * 
+     * @param mode the requested mode, or null for the configured default
+     * @param results the results of the checked items
+     * @return true if the batch should be written
+     */
+    private boolean shouldApply(BatchMode mode, BookCirculationResult[] results) {
+        var effectiveMode = mode == null ? defaultBatchMode : mode;
+        var rejected = Arrays.stream(results).anyMatch(result -> !result.isApplied());
+        if (effectiveMode == BatchMode.BEST_EFFORT || !rejected) {
+            return true;
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].isApplied()) {
+                results[i] = BookCirculationResult.failed(i, results[i].bookId(), null,
+                        "Not applied, another book of the batch was rejected");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write the changed books of a batch in one JDBC batch, adjust the available copies once per ISBN,
+     * and evict the cached entries of the books and their ISBNs once the transaction commits.
+     * 
+     * @param changed the books whose borrower was changed
+     * @param delta -1 per borrowed copy, +1 per returned copy
+     */
+    private void writeBatch(List<Book> changed, int delta) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        var copiesByIsbn = new LinkedHashMap<String, Integer>();
+        changed.forEach(book -> copiesByIsbn.merge(book.getIsbn(), 1, Integer::sum));
+        copiesByIsbn.forEach((isbn, copies) -> titleRepository.adjustAvailableCopies(isbn, delta * copies));
+
+        var books = cacheManager.getCache(CacheConfig.BOOKS);
+        changed.forEach(book -> books.evict(book.getId()));
+        for (var cacheName : List.of(CacheConfig.BOOKS_BY_ISBN, CacheConfig.COPIES_BY_ISBN, CacheConfig.TITLES)) {
+            var cache = cacheManager.getCache(cacheName);
+            copiesByIsbn.keySet().forEach(cache::evict);
+        }
+    }
+
+    /**
+     * Explain why a conditional update on a book matched no row.
+     * 
+     * @param bookId the book ID
+     * @param stateError the exception to throw when the book exists but was in the wrong state
+     * @return the exception to throw
+     */
+    private IllegalArgumentException bookNotFoundOr(Long bookId, ConflictException stateError) {
+        if (!bookRepository.existsById(bookId)) {
+            return new NotFoundException("Book not found with ID: " + bookId);
+        }
+        return stateError;
+    }
+
+    /**
+     * After a conditional update on a version matched no row, fail if the book exists with another version.
+     * 
+     * @param bookId the book ID
+     * @param expectedVersion the version the caller expected, or null if it did not expect one
+     * @throws OptimisticLockingFailureException if the book was changed since the caller read it
+     */
+    private void checkVersion(Long bookId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return;
+        }
+        var version = bookRepository.findVersionById(bookId);
+        if (version.isPresent() && !version.get().equals(expectedVersion)) {
+            throw new OptimisticLockingFailureException("Book " + bookId + " has version " + version.get()
+                    + ", not the expected version " + expectedVersion);
         }
-        
-        // Remove the borrower and save the book
-        book.setBorrower(null);
-        return bookRepository.save(book);
     }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.terran.library.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.terran.library.model.Borrower;
+
+import java.util.List;
+
+/**
+ * Borrower profile with the copies the borrower currently holds, for the patron portal.
+ * The copies are paginated by book ID; pass the next cursor back as the after parameter.
+ *
+ * @param borrower the borrower profile
+ * @param borrowedBooks the number of copies the borrower holds, across all pages
+ * @param loans the borrowed copies on this page, ordered by book ID
+ * @param size the effective page size used for the query
+ * @param nextAfter the book ID after which the following page starts, or null on the last page
+ * @param version the version of the borrower's loans, used as entity tag
+ *
+ * @author Derry Terran
+ */
+public record BorrowerDashboard(Borrower borrower, long borrowedBooks, List<CatalogRow> loans, int size,
+                                Long nextAfter, @JsonIgnore String version) {
+}
@@ -43,4 +43,25 @@ public interface BorrowerService {
      * @return a list of all borrowers
      */
     List<Borrower> getAllBorrowers();
+    
+    /**
+     * Get a borrower's dashboard: the profile, the number of borrowed copies and one page of
+     * those copies, read with a single query.
+     * 
+     * @param borrowerId the borrower ID
+     * @param after the book ID after which the page starts, or null for the first page
+     * @param size the page size, or null for the default; capped at the maximum page size
+     * @return an Optional containing the dashboard if the borrower exists, or empty if not
+     * @throws IllegalArgumentException if the page size is not positive
+     */
+    Optional<BorrowerDashboard> getDashboard(Long borrowerId, Long after, Integer size);
+    
+    /**
+     * Get the version of a borrower's loans, which changes on every borrow and return by the borrower.
+     * Cheaper than reading the dashboard, to answer conditional requests.
+     * 
+     * @param borrowerId the borrower ID
+     * @return the version, as returned by {@link BorrowerDashboard#version()}
+     */
+    String getLoansVersion(Long borrowerId);
 }
\ No newline at end of file
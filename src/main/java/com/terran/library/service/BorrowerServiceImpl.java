@@ -1,8 +1,15 @@
 package com.terran.library.service;
 
+import com.terran.library.config.CacheConfig;
+import com.terran.library.event.BorrowerRegisteredEvent;
 import com.terran.library.model.Borrower;
 import com.terran.library.repository.BorrowerRepository;
+import com.terran.library.repository.LoansVersion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,24 +26,35 @@ import java.util.Optional;
 public class BorrowerServiceImpl implements BorrowerService {
 
     private final BorrowerRepository borrowerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${library.catalog.default-page-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${library.catalog.max-page-size:500}")
+    private int maxPageSize = 500;
 
     @Autowired
-    public BorrowerServiceImpl(BorrowerRepository borrowerRepository) {
+    public BorrowerServiceImpl(BorrowerRepository borrowerRepository, ApplicationEventPublisher eventPublisher) {
         this.borrowerRepository = borrowerRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public Borrower registerBorrower(Borrower borrower) {
         // Check if a borrower with the same email already exists
         if (borrowerRepository.existsByEmail(borrower.getEmail())) {
-            throw new IllegalArgumentException("A borrower with email " + borrower.getEmail() + " already exists");
+            throw new ConflictException("A borrower with email " + borrower.getEmail() + " already exists");
         }
         
-        return borrowerRepository.save(borrower);
+        var savedBorrower = borrowerRepository.save(borrower);
+        eventPublisher.publishEvent(new BorrowerRegisteredEvent(savedBorrower.getId()));
+        return savedBorrower;
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.BORROWERS, unless = "#result == null")
     public Optional<Borrower> getBorrowerById(Long id) {
         return borrowerRepository.findById(id);
     }
@@ -52,4 +70,36 @@ public class BorrowerServiceImpl implements BorrowerService {
     public List<Borrower> getAllBorrowers() {
         return borrowerRepository.findAll();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BorrowerDashboard> getDashboard(Long borrowerId, Long after, Integer size) {
+        if (size != null && size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        var pageSize = Math.min(size != null ? size : defaultPageSize, maxPageSize);
+        
+        // Fetch one extra row to find out whether there is another page
+        var rows = borrowerRepository.findDashboardRows(borrowerId, after != null ? after : 0L, Limit.of(pageSize + 1));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        var first = rows.get(0);
+        var loans = rows.stream()
+                .filter(row -> row.bookId() != null)
+                .limit(pageSize)
+                .map(row -> new CatalogRow(row.bookId(), row.isbn(), row.title(), row.author(), borrowerId))
+                .toList();
+        var nextAfter = rows.size() > pageSize ? loans.get(loans.size() - 1).id() : null;
+        var borrower = new Borrower(first.borrowerId(), first.name(), first.email(), first.version(), first.branch());
+        var version = new LoansVersion(first.borrowedBooks(), first.lastChange()).tag(borrowerId);
+        return Optional.of(new BorrowerDashboard(borrower, first.borrowedBooks(), loans, pageSize, nextAfter, version));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getLoansVersion(Long borrowerId) {
+        return borrowerRepository.findLoansVersion(borrowerId).tag(borrowerId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.terran.library.service;
+
+import java.util.List;
+
+/**
+ * One page of the catalogs of every branch, ordered by book ID, which is unique across branches.
+ * The cursors work as those of {@link CatalogPage}.
+ *
+ * @param books the catalog rows on this page, with their branch
+ * @param size the effective page size used for the query
+ * @param nextCursor the cursor of the following page, or null
+ * @param prevCursor the cursor of the preceding page, or null
+ *
+ * @author Derry Terran
+ */
+public record BranchCatalogPage(List<BranchCatalogRow> books, int size, String nextCursor, String prevCursor) {
+}
@@ -0,0 +1,15 @@
+package com.terran.library.service;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * Catalog row of a copy together with the branch holding it, for cross-branch listings.
+ * Serialized as the catalog row with an added branch field.
+ *
+ * @param branch the branch holding the copy
+ * @param book the catalog row of the copy
+ *
+ * @author Derry Terran
+ */
+public record BranchCatalogRow(String branch, @JsonUnwrapped CatalogRow book) {
+}
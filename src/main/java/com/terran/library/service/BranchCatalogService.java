@@ -0,0 +1,31 @@
+package com.terran.library.service;
+
+import java.util.List;
+
+/**
+ * Service interface for reading the catalogs of every branch at once.
+ * Each call queries the shards of all branches in parallel and merges their answers.
+ *
+ * @author Derry Terran
+ */
+public interface BranchCatalogService {
+
+    /**
+     * Get one page of the catalogs of every branch.
+     *
+     * @param cursor the cursor returned with a previous page, or null for the first page
+     * @param size the page size, or null for the default
+     * @param filter the filters applied in every branch, or null for none
+     * @return the page, ordered by book ID
+     * @throws IllegalArgumentException if the cursor or page size is invalid
+     */
+    BranchCatalogPage getCatalogPage(String cursor, Integer size, CatalogFilter filter);
+
+    /**
+     * Get the copies of an ISBN in every branch.
+     *
+     * @param isbn the ISBN
+     * @return the catalog rows of the copies, ordered by book ID
+     */
+    List<BranchCatalogRow> getCatalogRowsByIsbn(String isbn);
+}
@@ -0,0 +1,74 @@
+package com.terran.library.service;
+
+import com.terran.library.config.Branches;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementation of the BranchCatalogService interface.
+ * Every branch is read through the single-branch {@link BookService}, so the merged answers use the
+ * same queries, caches and page size limits as the per-branch ones.
+ *
+ * @author Derry Terran
+ */
+@Service
+public class BranchCatalogServiceImpl implements BranchCatalogService {
+
+    private static final Comparator<BranchCatalogRow> BY_ID = Comparator.comparing(row -> row.book().id());
+
+    private final BookService bookService;
+    private final Branches branches;
+
+    @Autowired
+    public BranchCatalogServiceImpl(BookService bookService, Branches branches) {
+        this.bookService = bookService;
+        this.branches = branches;
+    }
+
+    /**
+     * Reads the page at the cursor in every branch and keeps the rows closest to the cursor.
+     * A page of each branch holds at most one merged page of rows, so the merged page is exact;
+     * there are more rows in the reading direction if the branches returned more rows than fit
+     * or any branch has a page beyond its own.
+     */
+    @Override
+    public BranchCatalogPage getCatalogPage(String cursor, Integer size, CatalogFilter filter) {
+        var position = cursor != null ? CatalogCursor.decode(cursor) : CatalogCursor.after(0L);
+        var pages = branches.inEach(() -> bookService.getCatalogPage(cursor, size, filter));
+
+        var merged = new ArrayList<BranchCatalogRow>();
+        pages.forEach((branch, page) -> page.books().forEach(row -> merged.add(new BranchCatalogRow(branch, row))));
+        merged.sort(BY_ID);
+        var pageSize = pages.values().iterator().next().size();
+        var hasMore = merged.size() > pageSize || pages.values().stream()
+                .anyMatch(page -> (position.forward() ? page.nextCursor() : page.prevCursor()) != null);
+        // Reading forward keeps the lowest IDs after the cursor, reading backward the highest before it
+        var books = position.forward()
+                ? merged.subList(0, Math.min(pageSize, merged.size()))
+                : merged.subList(Math.max(0, merged.size() - pageSize), merged.size());
+        if (books.isEmpty()) {
+            return new BranchCatalogPage(List.of(), pageSize, null, null);
+        }
+
+        var firstId = books.get(0).book().id();
+        var lastId = books.get(books.size() - 1).book().id();
+        var hasNext = position.forward() ? hasMore : true;
+        var hasPrev = position.forward() ? cursor != null : hasMore;
+        return new BranchCatalogPage(List.copyOf(books), pageSize,
+                hasNext ? CatalogCursor.after(lastId).encode() : null,
+                hasPrev ? CatalogCursor.before(firstId).encode() : null);
+    }
+
+    @Override
+    public List<BranchCatalogRow> getCatalogRowsByIsbn(String isbn) {
+        var copies = new ArrayList<BranchCatalogRow>();
+        branches.inEach(() -> bookService.getCatalogRowsByIsbn(isbn))
+                .forEach((branch, rows) -> rows.forEach(row -> copies.add(new BranchCatalogRow(branch, row))));
+        copies.sort(BY_ID);
+        return copies;
+    }
+}
@@ -0,0 +1,63 @@
+package com.terran.library.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for catalog pagination.
+ * A cursor points either after or before a book ID and is encoded as URL-safe Base64,
+ * so clients cannot depend on its contents.
+ *
+ * @param forward true to read the page after the key, false to read the page before it
+ * @param key the book ID the page is anchored on
+ *
+ * @author Derry Terran
+ */
+record CatalogCursor(boolean forward, long key) {
+
+    private static final String AFTER = "a";
+    private static final String BEFORE = "b";
+
+    static CatalogCursor after(long key) {
+        return new CatalogCursor(true, key);
+    }
+
+    static CatalogCursor before(long key) {
+        return new CatalogCursor(false, key);
+    }
+
+    /**
+     * Encode this cursor to its opaque token form.
+     *
+     * @return the cursor token
+     */
+    String encode() {
+        var raw = (forward ? AFTER : BEFORE) + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor token.
+     *
+     * @param token the token returned by {@link #encode()}
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static CatalogCursor decode(String token) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separator = raw.indexOf(':');
+            var direction = raw.substring(0, separator);
+            var key = Long.parseLong(raw.substring(separator + 1));
+            if (AFTER.equals(direction)) {
+                return after(key);
+            }
+            if (BEFORE.equals(direction)) {
+                return before(key);
+            }
+        } catch (RuntimeException e) {
+            // fall through to the common error below
+        }
+        throw new IllegalArgumentException("Invalid catalog cursor: " + token);
+    }
+}
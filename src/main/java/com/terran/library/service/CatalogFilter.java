@@ -0,0 +1,23 @@
+package com.terran.library.service;
+
+/**
+ * Optional filters applied to a catalog page request.
+ * A null field means the filter is not applied.
+ *
+ * @param isbn only return copies with this ISBN
+ * @param author only return copies written by this author
+ * @param available true for copies on the shelf, false for borrowed copies
+ *
+ * @author Derry Terran
+ */
+public record CatalogFilter(String isbn, String author, Boolean available) {
+
+    /**
+     * A filter that matches every book.
+     *
+     * @return an empty filter
+     */
+    public static CatalogFilter none() {
+        return new CatalogFilter(null, null, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.terran.library.service;
+
+import java.util.List;
+
+/**
+ * One page of the library catalog, ordered by book ID.
+ * The cursors are opaque tokens to pass back to fetch the adjacent pages;
+ * a null cursor means there is no page in that direction.
+ *
+ * @param books the catalog rows on this page
+ * @param size the effective page size used for the query
+ * @param nextCursor the cursor of the following page, or null
+ * @param prevCursor the cursor of the preceding page, or null
+ *
+ * @author Derry Terran
+ */
+public record CatalogPage(List<CatalogRow> books, int size, String nextCursor, String prevCursor) {
+}
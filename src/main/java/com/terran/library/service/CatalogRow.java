@@ -0,0 +1,38 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+
+/**
+ * Read-side view of one book copy for catalog listings.
+ * Carries the borrower ID only, so it can be read from the books table without touching borrowers.
+ *
+ * @param id the book ID
+ * @param isbn the ISBN
+ * @param title the title
+ * @param author the author
+ * @param borrowed whether the copy is currently borrowed
+ * @param borrowerId the ID of the current borrower, or null if the copy is available
+ *
+ * @author Derry Terran
+ */
+public record CatalogRow(Long id, String isbn, String title, String author, boolean borrowed, Long borrowerId) {
+
+    /**
+     * Constructor used by JPQL constructor expressions; the borrowed flag follows from the borrower ID.
+     */
+    public CatalogRow(Long id, String isbn, String title, String author, Long borrowerId) {
+        this(id, isbn, title, author, borrowerId != null, borrowerId);
+    }
+
+    /**
+     * Creates the catalog row of a book.
+     *
+     * @param book the book
+     * @return the catalog row
+     */
+    public static CatalogRow of(Book book) {
+        var borrower = book.getBorrower();
+        return new CatalogRow(book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor(),
+                borrower != null ? borrower.getId() : null);
+    }
+}
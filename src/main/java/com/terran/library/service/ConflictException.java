@@ -0,0 +1,15 @@
+package com.terran.library.service;
+
+/**
+ * Thrown when a service call conflicts with the current state of the library, such as returning a
+ * book that is not borrowed or registering a borrower whose email is taken.
+ * Extends IllegalArgumentException, so callers handling invalid requests also handle it.
+ *
+ * @author Derry Terran
+ */
+public class ConflictException extends IllegalArgumentException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
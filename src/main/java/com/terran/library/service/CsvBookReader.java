@@ -0,0 +1,179 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming reader of books from a CSV file (RFC 4180: quoted fields may hold commas,
+ * doubled quotes and line breaks). The header row locates the isbn, title and author
+ * columns in any order; other columns are ignored. Only the current record is held in
+ * memory, and oversized fields are rejected instead of buffered.
+ * 
+ * @author Derry Terran
+ */
+final class CsvBookReader implements Closeable {
+
+    static final int MAX_FIELD_LENGTH = 4096;
+
+    /**
+     * One data record of the file, numbered from 1 after the header.
+     * Holds either the parsed book or the reason it could not be parsed.
+     */
+    record Record(long number, Book book, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final int isbnColumn;
+    private final int titleColumn;
+    private final int authorColumn;
+    private long number;
+    private String rowError;
+
+    /**
+     * Open a CSV file and read its header row.
+     * 
+     * @param reader the file content
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is empty or lacks an isbn, title or author column
+     */
+    CsvBookReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        var header = readRow();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        var columns = header.stream()
+                .map(name -> name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT))
+                .toList();
+        this.isbnColumn = column(columns, "isbn");
+        this.titleColumn = column(columns, "title");
+        this.authorColumn = column(columns, "author");
+    }
+
+    /**
+     * Read the next data record. Blank lines are skipped and not numbered.
+     * 
+     * @return the next record, or null at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    Record next() throws IOException {
+        List<String> row;
+        do {
+            row = readRow();
+            if (row == null) {
+                return null;
+            }
+        } while (row.size() == 1 && row.get(0).isBlank() && rowError == null);
+        number++;
+        if (rowError != null) {
+            return new Record(number, null, rowError);
+        }
+        var last = Math.max(isbnColumn, Math.max(titleColumn, authorColumn));
+        if (row.size() <= last) {
+            return new Record(number, null, "Expected at least " + (last + 1) + " fields but found " + row.size());
+        }
+        var book = new Book();
+        book.setIsbn(row.get(isbnColumn).trim());
+        book.setTitle(row.get(titleColumn).trim());
+        book.setAuthor(row.get(authorColumn).trim());
+        return new Record(number, book, null);
+    }
+
+    /**
+     * Skip data records that were already processed.
+     * 
+     * @param count the number of records to skip
+     * @return the number of records skipped, less than the count if the file is shorter
+     * @throws IOException if the file cannot be read
+     */
+    long skip(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count && next() != null) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static int column(List<String> columns, String name) {
+        var index = columns.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("CSV header has no " + name + " column");
+        }
+        return index;
+    }
+
+    /**
+     * Read one row, which spans several lines when a quoted field holds line breaks.
+     * 
+     * @return the fields of the row, or null at the end of the file
+     */
+    private List<String> readRow() throws IOException {
+        rowError = null;
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        var read = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c != '"') {
+                    append(field, c);
+                    continue;
+                }
+                reader.mark(1);
+                var following = reader.read();
+                if (following == '"') {
+                    append(field, '"');
+                } else {
+                    quoted = false;
+                    if (following != -1) {
+                        reader.reset();
+                    }
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else {
+                append(field, c);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        if (quoted) {
+            rowError = "Unterminated quoted field";
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void append(StringBuilder field, int c) {
+        if (field.length() < MAX_FIELD_LENGTH) {
+            field.append((char) c);
+        } else if (rowError == null) {
+            rowError = "Field longer than " + MAX_FIELD_LENGTH + " characters";
+        }
+    }
+}
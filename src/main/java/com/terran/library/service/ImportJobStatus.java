@@ -0,0 +1,45 @@
+package com.terran.library.service;
+
+import com.terran.library.model.ImportJob;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Progress of a book import, as reported by the API and the imports actuator endpoint.
+ *
+ * @param id the import ID
+ * @param source the path of the imported file
+ * @param status the import status
+ * @param recordsProcessed the number of records committed so far
+ * @param booksImported the number of books imported
+ * @param booksRejected the number of records rejected
+ * @param lastError the last rejected record or the failure of the import, if any
+ * @param createdAt the time the import was started
+ * @param updatedAt the time of the last committed chunk
+ * @param finishedAt the time the import completed or failed, or null while running
+ * @param recordsPerSecond the throughput of the current run while running, or the average of the import once finished
+ *
+ * @author Derry Terran
+ */
+public record ImportJobStatus(Long id, String source, ImportJob.Status status, long recordsProcessed,
+                              long booksImported, long booksRejected, String lastError, Instant createdAt,
+                              Instant updatedAt, Instant finishedAt, double recordsPerSecond) {
+
+    static ImportJobStatus of(ImportJob job, Double currentRate) {
+        double rate;
+        if (currentRate != null) {
+            rate = currentRate;
+        } else {
+            var end = job.getFinishedAt() != null ? job.getFinishedAt() : job.getUpdatedAt();
+            rate = ratePerSecond(job.getRecordsProcessed(), Duration.between(job.getCreatedAt(), end).toNanos());
+        }
+        return new ImportJobStatus(job.getId(), job.getSource(), job.getStatus(), job.getRecordsProcessed(),
+                job.getBooksImported(), job.getBooksRejected(), job.getLastError(), job.getCreatedAt(),
+                job.getUpdatedAt(), job.getFinishedAt(), rate);
+    }
+
+    static double ratePerSecond(long records, long elapsedNanos) {
+        return elapsedNanos > 0 ? records * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+}
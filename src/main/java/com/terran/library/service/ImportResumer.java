@@ -0,0 +1,41 @@
+package com.terran.library.service;
+
+import com.terran.library.config.Branches;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resumes on startup the book imports that were still running when the application stopped.
+ * Each one continues after its last committed chunk, in the branch that started it.
+ * 
+ * @author Derry Terran
+ */
+@Component
+@ConditionalOnProperty(name = "library.import.resume-on-startup", havingValue = "true", matchIfMissing = true)
+public class ImportResumer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportResumer.class);
+
+    private final BookImportService bookImportService;
+    private final Branches branches;
+
+    @Autowired
+    public ImportResumer(BookImportService bookImportService, Branches branches) {
+        this.bookImportService = bookImportService;
+        this.branches = branches;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        branches.inEach(bookImportService::resumeInterrupted).forEach((branch, resumed) -> {
+            if (resumed > 0) {
+                log.info("Resuming {} interrupted imports of branch {}", resumed, branch);
+            }
+        });
+    }
+}
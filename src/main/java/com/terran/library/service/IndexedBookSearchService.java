@@ -0,0 +1,111 @@
+package com.terran.library.service;
+
+import com.terran.library.event.BookBorrowedEvent;
+import com.terran.library.event.BookReturnedEvent;
+import com.terran.library.event.BooksRegisteredEvent;
+import com.terran.library.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Catalog search engine for deployments that cannot install PostgreSQL extensions.
+ * Searches an in-memory {@link BookSearchIndex} of every copy, so no query reaches the database.
+ * <p>
+ * The index is built on startup by streaming the books table, then follows the registration, borrow
+ * and return events once their transactions commit. Until the build finishes, searches see the copies
+ * indexed so far. Changes made by another instance or directly in the database are not seen until
+ * the next restart.
+ *
+ * @author Derry Terran
+ */
+public class IndexedBookSearchService implements BookSearchService, ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexedBookSearchService.class);
+
+    private final BookRepository bookRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final BookSearchIndex index = new BookSearchIndex();
+
+    // Borrows and returns of copies the build has not reached yet, replayed once it finishes
+    private final Map<Long, Boolean> pendingAvailability = new HashMap<>();
+    private boolean building = true;
+
+    public IndexedBookSearchService(BookRepository bookRepository, int defaultPageSize, int maxPageSize) {
+        this.bookRepository = bookRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public BookSearchPage search(String text, Integer page, Integer size) {
+        var query = BookSearchQuery.of(text, page, size, defaultPageSize, maxPageSize);
+        return BookSearchPage.of(query, index.search(query));
+    }
+
+    /**
+     * Gets the size and estimated heap footprint of the index.
+     *
+     * @return the footprint
+     */
+    public BookSearchIndex.Footprint footprint() {
+        return index.footprint();
+    }
+
+    /**
+     * Builds the index from the books table, reading catalog rows rather than entities so the
+     * persistence context stays empty however large the catalog is.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        var start = System.nanoTime();
+        try (var rows = bookRepository.streamCatalogRows()) {
+            rows.forEach(index::add);
+        }
+        synchronized (pendingAvailability) {
+            pendingAvailability.forEach(index::setAvailable);
+            pendingAvailability.clear();
+            building = false;
+        }
+        var footprint = index.footprint();
+        log.info("Indexed {} copies of {} titles in {} ms, about {} KiB", footprint.copies(), footprint.titles(),
+                (System.nanoTime() - start) / 1_000_000, footprint.bytes() / 1024);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksRegistered(BooksRegisteredEvent event) {
+        event.books().forEach(index::add);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookBorrowed(BookBorrowedEvent event) {
+        setAvailable(event.bookId(), false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookReturned(BookReturnedEvent event) {
+        setAvailable(event.bookId(), true);
+    }
+
+    private void setAvailable(long bookId, boolean isAvailable) {
+        if (index.setAvailable(bookId, isAvailable)) {
+            return;
+        }
+        synchronized (pendingAvailability) {
+            // Checked again under the lock, as the build may have indexed the copy in the meantime
+            if (building && !index.setAvailable(bookId, isAvailable)) {
+                pendingAvailability.put(bookId, isAvailable);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.terran.library.service;
+
+import com.terran.library.config.Branches;
+import com.terran.library.event.BookBorrowedEvent;
+import com.terran.library.event.BookReturnedEvent;
+import com.terran.library.event.BooksRegisteredEvent;
+import com.terran.library.event.BorrowerRegisteredEvent;
+import com.terran.library.repository.BookRepository;
+import com.terran.library.repository.BorrowerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Book and borrower counts kept in memory, so health and info requests read them in constant time.
+ * The counts follow the registration, borrow and return events once their transactions commit,
+ * and are periodically reconciled against COUNT queries to correct drift, such as changes made
+ * by another instance or directly in the database. With sharding, the counts cover every branch.
+ * 
+ * @author Derry Terran
+ */
+@Component
+public class LibraryStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(LibraryStatistics.class);
+
+    /**
+     * Point-in-time copy of the counts.
+     *
+     * @param totalBooks the number of registered books
+     * @param borrowedBooks the number of borrowed books
+     * @param availableBooks the number of books that are not borrowed
+     * @param totalBorrowers the number of registered borrowers
+     * @param reconciledAt the time of the last reconciliation, or null before the first one
+     */
+    public record Snapshot(long totalBooks, long borrowedBooks, long availableBooks, long totalBorrowers,
+                           Instant reconciledAt) {
+    }
+
+    private record Counts(long books, long borrowed, long borrowers) {
+    }
+
+    private final BookRepository bookRepository;
+    private final BorrowerRepository borrowerRepository;
+    private final Branches branches;
+
+    private final LongAdder totalBooks = new LongAdder();
+    private final LongAdder borrowedBooks = new LongAdder();
+    private final LongAdder totalBorrowers = new LongAdder();
+    private volatile Instant reconciledAt;
+
+    @Autowired
+    public LibraryStatistics(BookRepository bookRepository, BorrowerRepository borrowerRepository,
+                             Branches branches) {
+        this.bookRepository = bookRepository;
+        this.borrowerRepository = borrowerRepository;
+        this.branches = branches;
+    }
+
+    /**
+     * Get the current counts, without querying the database.
+     * 
+     * @return the counts
+     */
+    public Snapshot snapshot() {
+        var books = totalBooks.sum();
+        var borrowed = borrowedBooks.sum();
+        return new Snapshot(books, borrowed, books - borrowed, totalBorrowers.sum(), reconciledAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksRegistered(BooksRegisteredEvent event) {
+        totalBooks.add(event.count());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookBorrowed(BookBorrowedEvent event) {
+        borrowedBooks.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookReturned(BookReturnedEvent event) {
+        borrowedBooks.decrement();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowerRegistered(BorrowerRegisteredEvent event) {
+        totalBorrowers.increment();
+    }
+
+    /**
+     * Correct the counts against the database, on startup and then periodically.
+     * Each count is moved by its difference to the queried value rather than reset, so events
+     * handled during the reconciliation are not lost; any event racing with the query is
+     * corrected by the next reconciliation. The branches are counted in parallel.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${library.statistics.reconcile-interval:PT5M}")
+    public void reconcile() {
+        try {
+            var counts = branches.inEach(() -> new Counts(bookRepository.count(),
+                    bookRepository.countByBorrowerIsNotNull(), borrowerRepository.count())).values();
+            correct(totalBooks, counts.stream().mapToLong(Counts::books).sum(), "totalBooks");
+            correct(borrowedBooks, counts.stream().mapToLong(Counts::borrowed).sum(), "borrowedBooks");
+            correct(totalBorrowers, counts.stream().mapToLong(Counts::borrowers).sum(), "totalBorrowers");
+            reconciledAt = Instant.now();
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile library statistics", e);
+        }
+    }
+
+    private static void correct(LongAdder counter, long actual, String name) {
+        var drift = actual - counter.sum();
+        if (drift != 0) {
+            counter.add(drift);
+            log.debug("Corrected {} by {}", name, drift);
+        }
+    }
+}
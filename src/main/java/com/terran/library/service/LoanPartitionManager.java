@@ -0,0 +1,124 @@
+package com.terran.library.service;
+
+import com.terran.library.config.Branches;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extends the partitioned loans table on PostgreSQL.
+ * The table is partitioned by month of the borrow time, so reports over a period only scan its
+ * months and old months can be detached or archived without touching current loans. The table, its
+ * indexes and the default partition catching loans outside every monthly one are created by the
+ * migrations, and Hibernate does not manage the table on PostgreSQL (see
+ * {@link com.terran.library.config.LoanStorageConfig}); on other databases, such as H2 in tests,
+ * Hibernate creates a plain table and this component does nothing.
+ * <p>
+ * On startup and then daily, the partitions of the current month and the configured number of
+ * months ahead are created if missing. With sharding, this is done on the database of every branch.
+ * 
+ * @author Derry Terran
+ */
+@Component
+public class LoanPartitionManager implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanPartitionManager.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Branches branches;
+    private final boolean partitioned;
+    private final Clock clock;
+
+    @Value("${library.loans.partition-months-ahead:3}")
+    private int monthsAhead = 3;
+
+    @Autowired
+    public LoanPartitionManager(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                Branches branches) {
+        this(jdbcTemplate, branches, isPartitioned(dataSourceProperties.determineUrl()), Clock.systemUTC());
+    }
+
+    LoanPartitionManager(JdbcTemplate jdbcTemplate, boolean partitioned, Clock clock) {
+        this(jdbcTemplate, Branches.single(), partitioned, clock);
+    }
+
+    private LoanPartitionManager(JdbcTemplate jdbcTemplate, Branches branches, boolean partitioned, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.branches = branches;
+        this.partitioned = partitioned;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks if the loans table is partitioned on the database of a JDBC URL.
+     * 
+     * @param jdbcUrl the JDBC URL
+     * @return true on PostgreSQL
+     */
+    public static boolean isPartitioned(String jdbcUrl) {
+        return jdbcUrl != null && DatabaseDriver.fromJdbcUrl(jdbcUrl) == DatabaseDriver.POSTGRESQL;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        createMonthlyPartitions();
+    }
+
+    /**
+     * Creates the partitions of the current month and the months ahead that do not exist yet.
+     */
+    @Scheduled(cron = "${library.loans.partition-cron:0 0 3 * * *}", zone = "UTC")
+    public void createMonthlyPartitions() {
+        if (!partitioned) {
+            return;
+        }
+        var statements = monthlyPartitionStatements();
+        branches.inEach(() -> {
+            for (var statement : statements) {
+                try {
+                    jdbcTemplate.execute(statement);
+                } catch (DataAccessException e) {
+                    // Fails if the default partition already holds loans of that month; they have to be moved first
+                    log.warn("Could not create loan partition: {}", e.getMostSpecificCause().getMessage());
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Builds the statements creating the monthly partitions, with bounds at midnight UTC.
+     * 
+     * @return one CREATE TABLE ... PARTITION OF statement per month
+     */
+    List<String> monthlyPartitionStatements() {
+        var statements = new ArrayList<String>();
+        var month = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++, month = month.plusMonths(1)) {
+            statements.add("CREATE TABLE IF NOT EXISTS loans_%d_%02d PARTITION OF loans FOR VALUES FROM ('%s') TO ('%s')"
+                    .formatted(month.getYear(), month.getMonthValue(),
+                            startOf(month.atDay(1)), startOf(month.plusMonths(1).atDay(1))));
+        }
+        return statements;
+    }
+
+    private static String startOf(LocalDate day) {
+        return day.atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+    }
+}
@@ -0,0 +1,14 @@
+package com.terran.library.service;
+
+/**
+ * Thrown when a book or borrower a service call refers to does not exist.
+ * Extends IllegalArgumentException, so callers handling invalid requests also handle it.
+ *
+ * @author Derry Terran
+ */
+public class NotFoundException extends IllegalArgumentException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
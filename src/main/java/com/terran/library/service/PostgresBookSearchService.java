@@ -0,0 +1,126 @@
+package com.terran.library.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog search engine for PostgreSQL, reading the titles table so every ISBN is found once.
+ * <p>
+ * Titles are found by full-text search over a {@code tsvector} of the title (weight A) and author
+ * (weight B) with every word of the search text matched as a prefix, and, when the pg_trgm extension is
+ * available, by trigram word similarity, which tolerates typos. Both are served by GIN indexes created
+ * on startup. Results are ranked by {@code ts_rank} plus the trigram similarity to the title.
+ * <p>
+ * The 'simple' text search configuration is used, without stemming or stop words, as the catalog
+ * holds titles in many languages.
+ *
+ * @author Derry Terran
+ */
+public class PostgresBookSearchService implements BookSearchService, ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresBookSearchService.class);
+
+    /**
+     * The indexed document; the queries use the same expression, unqualified, for the index to apply.
+     */
+    static final String DOCUMENT = "(setweight(to_tsvector('simple', title), 'A')"
+            + " || setweight(to_tsvector('simple', author), 'B'))";
+
+    static final String CREATE_EXTENSION = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+
+    static final String CREATE_DOCUMENT_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_titles_search ON titles USING gin (" + DOCUMENT + ")";
+
+    static final List<String> CREATE_TRIGRAM_INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_titles_title_trgm ON titles USING gin (title gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_titles_author_trgm ON titles USING gin (author gin_trgm_ops)");
+
+    static final String TRIGRAMS_INSTALLED = "SELECT count(*) FROM pg_extension WHERE extname = 'pg_trgm'";
+
+    static final String SEARCH = """
+            SELECT t.isbn, t.title, t.author, t.total_copies, t.available_copies,
+                   ts_rank(%1$s, q.query) AS score
+            FROM titles t, to_tsquery('simple', :tsquery) AS q(query)
+            WHERE %1$s @@ q.query
+            ORDER BY score DESC, t.title, t.isbn
+            LIMIT :limit OFFSET :offset""".formatted(DOCUMENT);
+
+    static final String SEARCH_WITH_TRIGRAMS = """
+            SELECT t.isbn, t.title, t.author, t.total_copies, t.available_copies,
+                   ts_rank(%1$s, q.query) + word_similarity(:text, t.title) AS score
+            FROM titles t, to_tsquery('simple', :tsquery) AS q(query)
+            WHERE %1$s @@ q.query OR :text <%% t.title OR :text <%% t.author
+            ORDER BY score DESC, t.title, t.isbn
+            LIMIT :limit OFFSET :offset""".formatted(DOCUMENT);
+
+    private static final RowMapper<BookSearchResult> RESULT_MAPPER = (rs, rowNum) -> new BookSearchResult(
+            rs.getString("isbn"), rs.getString("title"), rs.getString("author"),
+            rs.getInt("total_copies"), rs.getInt("available_copies"), rs.getDouble("score"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    private volatile boolean trigrams;
+
+    public PostgresBookSearchService(NamedParameterJdbcTemplate jdbcTemplate, int defaultPageSize, int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Creates the search indexes on the titles table, once the migrations have created the table.
+     * Creating pg_trgm needs the CREATE privilege on the database; without the extension,
+     * searches use the full-text index only.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+        jdbc.execute(CREATE_DOCUMENT_INDEX);
+        try {
+            jdbc.execute(CREATE_EXTENSION);
+        } catch (DataAccessException e) {
+            log.warn("Could not create the pg_trgm extension: {}", e.getMostSpecificCause().getMessage());
+        }
+        trigrams = Integer.valueOf(1).equals(jdbc.queryForObject(TRIGRAMS_INSTALLED, Integer.class));
+        if (trigrams) {
+            CREATE_TRIGRAM_INDEXES.forEach(jdbc::execute);
+        } else {
+            log.warn("pg_trgm is not installed, catalog search does not tolerate typos");
+        }
+    }
+
+    @Override
+    public BookSearchPage search(String text, Integer page, Integer size) {
+        var query = BookSearchQuery.of(text, page, size, defaultPageSize, maxPageSize);
+        var parameters = new MapSqlParameterSource()
+                .addValue("tsquery", toPrefixQuery(query))
+                .addValue("text", query.text())
+                .addValue("limit", query.size() + 1)
+                .addValue("offset", query.offset());
+        var rows = jdbcTemplate.query(trigrams ? SEARCH_WITH_TRIGRAMS : SEARCH, parameters, RESULT_MAPPER);
+        return BookSearchPage.of(query, rows);
+    }
+
+    /**
+     * Builds a text search query matching documents that contain every word of the search text as a prefix.
+     * The words hold letters and digits only, so they cannot carry tsquery operators.
+     *
+     * @param query the search query
+     * @return the query text for to_tsquery, such as {@code dune:* & herb:*}
+     */
+    static String toPrefixQuery(BookSearchQuery query) {
+        return query.words().stream().map(word -> word + ":*").collect(Collectors.joining(" & "));
+    }
+}
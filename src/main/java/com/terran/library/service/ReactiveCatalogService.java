@@ -0,0 +1,64 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.model.Title;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read-only service for the catalog, served by the reactive profile.
+ * Returns the same models as {@link BookService} and {@link BorrowerService}, read through R2DBC.
+ *
+ * @author Derry Terran
+ */
+public interface ReactiveCatalogService {
+
+    /**
+     * Get a book by ID, with its borrower.
+     *
+     * @param id the book ID
+     * @return the book, or empty if not found
+     */
+    Mono<Book> getBookById(Long id);
+
+    /**
+     * Get the copies of an ISBN with their availability.
+     *
+     * @param isbn the ISBN
+     * @return the catalog rows of the copies, ordered by ID
+     */
+    Flux<CatalogRow> getCatalogRowsByIsbn(String isbn);
+
+    /**
+     * Get the title of an ISBN with its copy counts.
+     *
+     * @param isbn the ISBN
+     * @return the title, or empty if no copy of the ISBN is registered
+     */
+    Mono<Title> getTitle(String isbn);
+
+    /**
+     * Get the books ordered by ID, up to the legacy row limit of {@link BookService#getAllBooks()}.
+     *
+     * @return the first books of the catalog
+     */
+    Flux<Book> getAllBooks();
+
+    /**
+     * Stream every book ordered by ID. Pages are read from the database only as the subscriber
+     * requests more books, so a slow client holds at most about one page in memory and no connection
+     * between pages.
+     *
+     * @return every book of the catalog
+     */
+    Flux<Book> streamAllBooks();
+
+    /**
+     * Get a borrower by ID.
+     *
+     * @param id the borrower ID
+     * @return the borrower, or empty if not found
+     */
+    Mono<Borrower> getBorrowerById(Long id);
+}
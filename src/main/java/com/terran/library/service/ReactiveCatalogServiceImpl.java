@@ -0,0 +1,91 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.model.Title;
+import com.terran.library.repository.reactive.CatalogBook;
+import com.terran.library.repository.reactive.CatalogBorrower;
+import com.terran.library.repository.reactive.CatalogTitle;
+import com.terran.library.repository.reactive.ReactiveBookRepository;
+import com.terran.library.repository.reactive.ReactiveBorrowerRepository;
+import com.terran.library.repository.reactive.ReactiveTitleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Implementation of the ReactiveCatalogService interface over the R2DBC repositories.
+ * Only created when the application runs as a reactive web application.
+ *
+ * @author Derry Terran
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCatalogServiceImpl implements ReactiveCatalogService {
+
+    private final ReactiveBookRepository bookRepository;
+    private final ReactiveBorrowerRepository borrowerRepository;
+    private final ReactiveTitleRepository titleRepository;
+
+    @Value("${library.catalog.legacy-max-rows:1000}")
+    private int legacyMaxRows = 1000;
+
+    @Value("${library.catalog.stream-page-size:500}")
+    private int streamPageSize = 500;
+
+    @Autowired
+    public ReactiveCatalogServiceImpl(ReactiveBookRepository bookRepository,
+                                      ReactiveBorrowerRepository borrowerRepository,
+                                      ReactiveTitleRepository titleRepository) {
+        this.bookRepository = bookRepository;
+        this.borrowerRepository = borrowerRepository;
+        this.titleRepository = titleRepository;
+    }
+
+    @Override
+    public Mono<Book> getBookById(Long id) {
+        return bookRepository.findWithBorrowerById(id).map(CatalogBook::toBook);
+    }
+
+    @Override
+    public Flux<CatalogRow> getCatalogRowsByIsbn(String isbn) {
+        return bookRepository.findByIsbnOrderById(isbn).map(CatalogBook::toCatalogRow);
+    }
+
+    @Override
+    public Mono<Title> getTitle(String isbn) {
+        return titleRepository.findById(isbn).map(CatalogTitle::toTitle);
+    }
+
+    @Override
+    public Flux<Book> getAllBooks() {
+        return bookRepository.findPageWithBorrowerAfter(0L, legacyMaxRows).map(CatalogBook::toBook);
+    }
+
+    @Override
+    public Flux<Book> streamAllBooks() {
+        // Each page is a separate short query starting after the last ID read, and the next one is only
+        // sent once the subscriber has drained the current page (prefetch of one page)
+        return readPage(0L)
+                .expand(page -> page.size() < streamPageSize
+                        ? Mono.empty()
+                        : readPage(page.get(page.size() - 1).id()))
+                .flatMapIterable(Function.identity(), 1)
+                .map(CatalogBook::toBook);
+    }
+
+    @Override
+    public Mono<Borrower> getBorrowerById(Long id) {
+        return borrowerRepository.findById(id).map(CatalogBorrower::toBorrower);
+    }
+
+    private Mono<List<CatalogBook>> readPage(long afterId) {
+        return bookRepository.findPageWithBorrowerAfter(afterId, streamPageSize).collectList();
+    }
+}
@@ -0,0 +1,45 @@
+package com.terran.library.service;
+
+import com.terran.library.repository.TitleRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Catalog search engine for databases without full-text search, such as H2 in tests.
+ * Matches the whole search text as a case-insensitive substring of the title or author of each title,
+ * which scans the titles table; it has no typo tolerance and ranks by where the text matched.
+ *
+ * @author Derry Terran
+ */
+public class SimpleBookSearchService implements BookSearchService {
+
+    private final TitleRepository titleRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public SimpleBookSearchService(TitleRepository titleRepository, int defaultPageSize, int maxPageSize) {
+        this.titleRepository = titleRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookSearchPage search(String text, Integer page, Integer size) {
+        var query = BookSearchQuery.of(text, page, size, defaultPageSize, maxPageSize);
+        var escaped = escapeLike(query.text());
+        var slice = titleRepository.searchByTitleOrAuthor("%" + escaped + "%", escaped + "%",
+                PageRequest.of(query.page(), query.size()));
+        return new BookSearchPage(slice.getContent(), query.page(), query.size(), slice.hasNext());
+    }
+
+    /**
+     * Escapes the LIKE wildcards of a text with '!', so they match literally.
+     *
+     * @param text the text
+     * @return the escaped text
+     */
+    static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,47 @@
+package com.terran.library.service;
+
+import com.terran.library.config.Branches;
+import com.terran.library.repository.TitleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Migrates catalogs registered before the titles table existed.
+ * On startup, creates the title and copy counters of every ISBN in the books table that has no title yet.
+ * Runs in a single INSERT ... SELECT per branch, and is a no-op once every ISBN has its title.
+ * 
+ * @author Derry Terran
+ */
+@Component
+@ConditionalOnProperty(name = "library.titles.backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class TitleBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TitleBackfill.class);
+
+    private final TitleRepository titleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Branches branches;
+
+    @Autowired
+    public TitleBackfill(TitleRepository titleRepository, TransactionTemplate transactionTemplate, Branches branches) {
+        this.titleRepository = titleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.branches = branches;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        branches.inEach(() -> transactionTemplate.execute(status -> titleRepository.backfillFromBooks()))
+                .forEach((branch, created) -> {
+                    if (created > 0) {
+                        log.info("Backfilled {} titles from existing books of branch {}", created, branch);
+                    }
+                });
+    }
+}
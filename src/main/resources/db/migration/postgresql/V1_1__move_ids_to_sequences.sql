@@ -0,0 +1,19 @@
+-- Book and borrower IDs come from pooled sequences instead of IDENTITY columns, so inserts can be batched.
+-- Databases that already hold rows have their sequences moved past the highest existing ID, including
+-- sequences Hibernate created at 1 next to existing rows, so new rows never collide with the old ones.
+-- Hibernate hands out the block of 50 IDs ending at each value the sequence returns.
+
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS borrowers_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('books_seq', m.max_id)
+FROM (SELECT max(id) AS max_id FROM books) m
+WHERE m.max_id >= (SELECT last_value FROM books_seq);
+
+SELECT setval('borrowers_seq', m.max_id)
+FROM (SELECT max(id) AS max_id FROM borrowers) m
+WHERE m.max_id >= (SELECT last_value FROM borrowers_seq);
+
+-- The IDs are always given by Hibernate now
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE borrowers ALTER COLUMN id DROP IDENTITY IF EXISTS;
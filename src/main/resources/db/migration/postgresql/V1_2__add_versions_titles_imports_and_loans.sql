@@ -0,0 +1,80 @@
+-- Brings the original schema to the one the entities expect. Databases that Hibernate updated in
+-- between may already have part of it, so every step is skipped where it has been done.
+
+-- Change tracking of books and borrowers: the catalog export reads updated_at, and the versions
+-- are the entity tags checked against If-Match
+ALTER TABLE books ADD COLUMN IF NOT EXISTS updated_at timestamp(6) with time zone;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE borrowers ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+UPDATE books SET version = 0 WHERE version IS NULL;
+UPDATE borrowers SET version = 0 WHERE version IS NULL;
+ALTER TABLE books ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+ALTER TABLE borrowers ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_books_updated_at ON books (updated_at);
+CREATE INDEX IF NOT EXISTS idx_books_borrower_id ON books (borrower_id);
+
+-- One title per ISBN with its copy counters, created from the existing copies like TitleBackfill does
+CREATE TABLE IF NOT EXISTS titles (
+    isbn varchar(255) NOT NULL,
+    title varchar(255) NOT NULL,
+    author varchar(255) NOT NULL,
+    total_copies integer NOT NULL,
+    available_copies integer NOT NULL,
+    PRIMARY KEY (isbn)
+);
+
+INSERT INTO titles (isbn, title, author, total_copies, available_copies)
+SELECT isbn, min(title), min(author), count(*), count(*) FILTER (WHERE borrower_id IS NULL)
+FROM books
+GROUP BY isbn
+ON CONFLICT (isbn) DO NOTHING;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'books'::regclass AND confrelid = 'titles'::regclass AND contype = 'f') THEN
+        ALTER TABLE books ADD CONSTRAINT fk_books_title FOREIGN KEY (isbn) REFERENCES titles (isbn);
+    END IF;
+END $$;
+
+-- Book imports and their checkpoints
+CREATE SEQUENCE IF NOT EXISTS import_jobs_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+    id bigint NOT NULL,
+    source varchar(1024) NOT NULL,
+    status varchar(255) NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED')),
+    records_processed bigint NOT NULL,
+    books_imported bigint NOT NULL,
+    books_rejected bigint NOT NULL,
+    last_error varchar(1024),
+    created_at timestamp(6) with time zone NOT NULL,
+    updated_at timestamp(6) with time zone NOT NULL,
+    finished_at timestamp(6) with time zone,
+    PRIMARY KEY (id)
+);
+
+SELECT setval('import_jobs_seq', m.max_id)
+FROM (SELECT max(id) AS max_id FROM import_jobs) m
+WHERE m.max_id >= (SELECT last_value FROM import_jobs_seq);
+
+-- Loan history, partitioned by month of the borrow time; the monthly partitions are created by LoanPartitionManager
+CREATE TABLE IF NOT EXISTS loans (
+    book_id bigint NOT NULL,
+    borrowed_at timestamp(6) with time zone NOT NULL,
+    borrower_id bigint NOT NULL,
+    isbn varchar(255) NOT NULL,
+    returned_at timestamp(6) with time zone,
+    PRIMARY KEY (book_id, borrowed_at)
+) PARTITION BY RANGE (borrowed_at);
+
+CREATE INDEX IF NOT EXISTS idx_loans_active_by_borrower ON loans (borrower_id) WHERE returned_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_loans_isbn_borrowed_at ON loans (isbn, borrowed_at);
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'loans'::regclass) THEN
+        CREATE TABLE IF NOT EXISTS loans_default PARTITION OF loans DEFAULT;
+    END IF;
+END $$;
@@ -0,0 +1,22 @@
+-- Schema as created by Hibernate for the original entities, before migrations were introduced:
+-- books and borrowers with IDENTITY IDs. Databases created that way are baselined at this version
+-- (spring.flyway.baseline-on-migrate), so this script only runs on empty databases, and the later
+-- versions bring both to the current schema.
+
+CREATE TABLE borrowers (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    email varchar(255) NOT NULL,
+    name varchar(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_borrowers_email UNIQUE (email)
+);
+
+CREATE TABLE books (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    author varchar(255) NOT NULL,
+    isbn varchar(255) NOT NULL,
+    title varchar(255) NOT NULL,
+    borrower_id bigint,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_books_borrower FOREIGN KEY (borrower_id) REFERENCES borrowers (id)
+);
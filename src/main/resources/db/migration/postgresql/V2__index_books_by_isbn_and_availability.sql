@@ -0,0 +1,7 @@
+-- Lookups of the copies of an ISBN (findByIsbn, the catalog ISBN filter) and per-ISBN availability.
+-- The ISBN leads, so this also serves every lookup by ISBN alone and the fk_books_title checks.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_isbn_borrower_id ON books (isbn, borrower_id);
+
+-- Available copies only (findByBorrowerIsNull, and the SKIP LOCKED copy allocation by ISBN in ID order).
+-- Borrowed copies are left out, so the index shrinks as more of the catalog is on loan.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_available ON books (isbn, id) WHERE borrower_id IS NULL;
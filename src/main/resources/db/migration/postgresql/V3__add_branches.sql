@@ -0,0 +1,11 @@
+-- Every book and borrower belongs to a library branch; rows created before branches existed
+-- belong to the default branch.
+ALTER TABLE books ADD COLUMN IF NOT EXISTS branch varchar(64) DEFAULT 'main' NOT NULL;
+ALTER TABLE borrowers ADD COLUMN IF NOT EXISTS branch varchar(64) DEFAULT 'main' NOT NULL;
+
+-- With sharding, each branch database hands out IDs from its own range, starting after
+-- ${shard_id_base} (see ShardingConfig), so an ID names one row across all shards.
+-- The sequences are only moved forward, so running this on a database that already has rows is safe.
+SELECT setval('books_seq', ${shard_id_base}) WHERE ${shard_id_base} > (SELECT last_value FROM books_seq);
+SELECT setval('borrowers_seq', ${shard_id_base}) WHERE ${shard_id_base} > (SELECT last_value FROM borrowers_seq);
+SELECT setval('import_jobs_seq', ${shard_id_base}) WHERE ${shard_id_base} > (SELECT last_value FROM import_jobs_seq);
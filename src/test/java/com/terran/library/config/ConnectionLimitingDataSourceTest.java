@@ -0,0 +1,88 @@
+package com.terran.library.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConnectionLimitingDataSource(targetDataSource, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_WaitsForPermitAndTimesOut() throws SQLException {
+        // Arrange
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        Connection first = dataSource.getConnection();
+
+        // Act & Assert
+        Exception exception = assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        assertTrue(exception.getMessage().contains("No database connection available"));
+        assertEquals(0, dataSource.getAvailablePermits());
+        verify(targetDataSource, times(1)).getConnection();
+
+        first.close();
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    void close_ReleasesPermitOnce() throws SQLException {
+        // Arrange
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        Connection limited = dataSource.getConnection();
+
+        // Act
+        limited.close();
+        limited.close();
+
+        // Assert
+        assertEquals(1, dataSource.getAvailablePermits());
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    void getConnection_ReleasesPermitWhenTargetFails() throws SQLException {
+        // Arrange
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("Database is down"));
+
+        // Act & Assert
+        Exception exception = assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals("Database is down", exception.getMessage());
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void unwrap_ReturnsLimitingProxy() throws SQLException {
+        // Arrange
+        when(targetDataSource.getConnection()).thenReturn(connection);
+
+        // Act
+        Connection limited = dataSource.getConnection();
+
+        // Assert
+        assertSame(limited, limited.unwrap(Connection.class));
+        assertSame(dataSource, dataSource.unwrap(ConnectionLimitingDataSource.class));
+    }
+}
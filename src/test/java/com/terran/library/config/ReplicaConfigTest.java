@@ -0,0 +1,179 @@
+package com.terran.library.config;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.service.BookService;
+import com.terran.library.service.BorrowerService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks read replica routing on one H2 database read through two users: the primary connects as
+ * SA, and the healthy replica connects as READER, which may only read, so the current user tells
+ * which side a transaction ran on. A second replica points to a database that does not exist.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicated;DB_CLOSE_DELAY=-1;"
+                // Inlined properties are read in the properties format, where the backslash escaping
+                // the semicolon of H2's INIT needs escaping itself
+                + "INIT=CREATE USER IF NOT EXISTS READER PASSWORD 'reader'\\\\;GRANT SELECT ON SCHEMA PUBLIC TO READER",
+        "library.replicas.enabled=true",
+        "library.replicas.health-check-interval=1h",
+        "library.replicas.hosts.fresh.url=jdbc:h2:mem:replicated;IFEXISTS=TRUE",
+        "library.replicas.hosts.fresh.username=READER",
+        "library.replicas.hosts.fresh.password=reader",
+        "library.replicas.hosts.gone.url=jdbc:h2:mem:replicated-gone;IFEXISTS=TRUE",
+        "library.replicas.hosts.gone.username=sa"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReplicaConfigTest {
+
+    private static final String PRIMARY_USER = "SA";
+    private static final String REPLICA_USER = "READER";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private ReadYourWritesFilter readYourWritesFilter;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // The first scheduled check may have run before the database existed
+        ReplicaRoutingDataSource.find(dataSource).forEach(ReplicaRoutingDataSource::checkHealth);
+    }
+
+    @Test
+    void readOnlyTransaction_ReadsFromHealthyReplica() {
+        assertEquals(REPLICA_USER, currentUser(true));
+        assertEquals(REPLICA_USER, currentUser(true));
+    }
+
+    @Test
+    void writeTransaction_StaysOnPrimary() {
+        assertEquals(PRIMARY_USER, currentUser(false));
+    }
+
+    @Test
+    void readOnlyTransaction_PinnedToPrimary() {
+        assertEquals(PRIMARY_USER, ReadYourWrites.callOnPrimary(() -> currentUser(true)));
+        assertEquals(REPLICA_USER, currentUser(true));
+    }
+
+    @Test
+    void checkHealth_MissingReplicaOutOfRotation() {
+        // Act
+        var replicas = ReplicaRoutingDataSource.find(dataSource);
+
+        // Assert
+        assertEquals(1, replicas.size());
+        assertEquals(Map.of("replica-fresh", true, "replica-gone", false), replicas.get(0).getReplicaStatus().stream()
+                .collect(Collectors.toMap(
+                        ReplicaRoutingDataSource.ReplicaStatus::name, ReplicaRoutingDataSource.ReplicaStatus::healthy)));
+    }
+
+    @Test
+    void getBookById_ReadFromReplica() {
+        // Arrange
+        Book book = bookService.registerBook(newBook());
+
+        // Act & Assert
+        assertEquals(book.getIsbn(), bookService.getBookById(book.getId()).orElseThrow().getIsbn());
+        assertEquals(1, bookService.getBooksByIsbn(book.getIsbn()).size());
+    }
+
+    @Test
+    void borrowBook_StartsReadYourWritesWindow() throws Exception {
+        // Arrange
+        Book book = bookService.registerBook(newBook());
+        Borrower borrower = new Borrower();
+        borrower.setName("Replica Patron");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        Long borrowerId = borrowerService.registerBorrower(borrower).getId();
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/" + book.getId() + "/borrow")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + borrowerId + "}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.SET_COOKIE,
+                        containsString(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE + "=")));
+        assertTrue(bookService.getBookById(book.getId()).orElseThrow().isBorrowed());
+    }
+
+    @Test
+    void readYourWritesFilter_PinsClientsInsideTheirWindow() throws Exception {
+        long now = System.currentTimeMillis();
+
+        assertTrue(pinnedWith(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, Long.toString(now + 2_000))));
+        assertFalse(pinnedWith(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, Long.toString(now - 1))));
+        assertFalse(pinnedWith(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, Long.toString(now + 60_000))));
+        assertFalse(pinnedWith(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, Long.toString(Long.MAX_VALUE))));
+        assertFalse(pinnedWith(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, "soon")));
+        assertFalse(pinnedWith());
+        assertFalse(ReadYourWrites.isPinned());
+    }
+
+    private boolean pinnedWith(Cookie... cookies) throws Exception {
+        var request = new MockHttpServletRequest("GET", "/terranapi/books");
+        if (cookies.length > 0) {
+            request.setCookies(cookies);
+        }
+        var pinned = new AtomicBoolean();
+        readYourWritesFilter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> pinned.set(ReadYourWrites.isPinned()));
+        return pinned.get();
+    }
+
+    private String currentUser(boolean readOnly) {
+        var template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT CURRENT_USER", String.class));
+    }
+
+    private static Book newBook() {
+        Book book = new Book();
+        book.setIsbn(UUID.randomUUID().toString());
+        book.setTitle("Replicated Title");
+        book.setAuthor("Replica Author");
+        return book;
+    }
+}
@@ -0,0 +1,202 @@
+package com.terran.library.config;
+
+import com.terran.library.config.ReplicaRoutingDataSource.Balancing;
+import com.terran.library.config.ReplicaRoutingDataSource.ReplicaStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource first;
+
+    @Mock
+    private DataSource second;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void getConnection_WritesGoToPrimary() throws SQLException {
+        // Arrange
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        var dataSource = routing(Balancing.ROUND_ROBIN);
+
+        // Act
+        Connection connection = dataSource.getConnection();
+
+        // Assert
+        assertSame(primaryConnection, connection);
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    void getConnection_ReadOnlyRoundRobin() throws SQLException {
+        // Arrange
+        when(first.getConnection()).thenReturn(replicaConnection);
+        when(second.getConnection()).thenReturn(replicaConnection);
+        var dataSource = routing(Balancing.ROUND_ROBIN);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            dataSource.getConnection().close();
+        }
+
+        // Assert
+        verify(first, times(2)).getConnection();
+        verify(second, times(2)).getConnection();
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_ReadOnlyLeastConnections() throws SQLException {
+        // Arrange
+        when(first.getConnection()).thenReturn(replicaConnection);
+        when(second.getConnection()).thenReturn(replicaConnection);
+        var dataSource = routing(Balancing.LEAST_CONNECTIONS);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Connection held = dataSource.getConnection();
+        Connection busy = dataSource.getConnection();
+        List<ReplicaStatus> whileHeld = dataSource.getReplicaStatus();
+        held.close();
+        held.close();
+        dataSource.getConnection();
+
+        // Assert: the first replica is picked on ties, the second while the first is busy
+        verify(first, times(2)).getConnection();
+        verify(second, times(1)).getConnection();
+        assertEquals(List.of(1, 1), whileHeld.stream().map(ReplicaStatus::activeConnections).toList());
+        assertEquals(List.of(1, 1), dataSource.getReplicaStatus().stream().map(ReplicaStatus::activeConnections).toList());
+        assertNotNull(busy);
+    }
+
+    @Test
+    void getConnection_PinnedReadsGoToPrimary() throws SQLException {
+        // Arrange
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        var dataSource = routing(Balancing.ROUND_ROBIN);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Connection connection = ReadYourWrites.callOnPrimary(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Assert
+        assertSame(primaryConnection, connection);
+        assertFalse(ReadYourWrites.isPinned());
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    void getConnection_FailingReplicaTakenOutOfRotation() throws SQLException {
+        // Arrange
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(first.getConnection()).thenThrow(new SQLException("Replica is down"));
+        when(second.getConnection()).thenReturn(replicaConnection);
+        var dataSource = routing(Balancing.ROUND_ROBIN);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Connection failedOver = dataSource.getConnection();
+        for (int i = 0; i < 3; i++) {
+            dataSource.getConnection().close();
+        }
+
+        // Assert
+        assertSame(primaryConnection, failedOver);
+        verify(first, times(1)).getConnection();
+        verify(second, times(3)).getConnection();
+        assertFalse(dataSource.getReplicaStatus().get(0).healthy());
+    }
+
+    @Test
+    void getConnection_NoHealthyReplicaReadsFromPrimary() throws SQLException {
+        // Arrange
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(first.getConnection()).thenThrow(new SQLException("Replica is down"));
+        when(second.getConnection()).thenThrow(new SQLException("Replica is down"));
+        var dataSource = routing(Balancing.ROUND_ROBIN);
+        dataSource.checkHealth();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Connection connection = dataSource.getConnection();
+
+        // Assert
+        assertSame(primaryConnection, connection);
+        verify(first, times(1)).getConnection();
+        verify(second, times(1)).getConnection();
+    }
+
+    @Test
+    void checkHealth_RecoveredReplicaBackInRotation() throws SQLException {
+        // Arrange
+        when(first.getConnection()).thenThrow(new SQLException("Replica is down")).thenReturn(replicaConnection);
+        when(second.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.isValid(anyInt())).thenReturn(true);
+        var dataSource = routing(Balancing.ROUND_ROBIN);
+        dataSource.checkHealth();
+        List<ReplicaStatus> whileDown = dataSource.getReplicaStatus();
+
+        // Act
+        dataSource.checkHealth();
+
+        // Assert
+        assertEquals(List.of(false, true), whileDown.stream().map(ReplicaStatus::healthy).toList());
+        assertEquals(List.of(true, true), dataSource.getReplicaStatus().stream().map(ReplicaStatus::healthy).toList());
+    }
+
+    @Test
+    void find_ThroughLazyProxy() throws SQLException {
+        // Arrange: the proxy may read the default connection settings from the primary
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        var dataSource = routing(Balancing.ROUND_ROBIN);
+
+        // Act & Assert
+        assertEquals(List.of(dataSource), ReplicaRoutingDataSource.find(new ReplicaAwareDataSource(dataSource)));
+        assertEquals(List.of(), ReplicaRoutingDataSource.find(primary));
+    }
+
+    private ReplicaRoutingDataSource routing(Balancing balancing) {
+        var replicas = new LinkedHashMap<String, DataSource>();
+        replicas.put("first", first);
+        replicas.put("second", second);
+        return new ReplicaRoutingDataSource(primary, replicas, balancing, null, Duration.ofSeconds(1));
+    }
+}
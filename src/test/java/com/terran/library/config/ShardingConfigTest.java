@@ -0,0 +1,214 @@
+package com.terran.library.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.service.BookService;
+import com.terran.library.service.BorrowerService;
+import com.terran.library.service.BranchCatalogPage;
+import com.terran.library.service.BranchCatalogRow;
+import com.terran.library.service.BranchCatalogService;
+import com.terran.library.service.CatalogFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the multi-branch deployment on two H2 databases standing in for the shards of the main and
+ * south branches: requests reach the shard named by their branch header, each shard hands out IDs
+ * from its own range, and cross-branch reads merge both shards by ID.
+ * The shards are created by the migrations in src/test/resources/db/migration/h2.
+ */
+@SpringBootTest(properties = {
+        "library.sharding.enabled=true",
+        "library.sharding.branches.main.url=jdbc:h2:mem:main-${random.uuid};DB_CLOSE_DELAY=-1",
+        "library.sharding.branches.main.username=sa",
+        "library.sharding.branches.main.index=0",
+        "library.sharding.branches.south.url=jdbc:h2:mem:south-${random.uuid};DB_CLOSE_DELAY=-1",
+        "library.sharding.branches.south.username=sa",
+        "library.sharding.branches.south.index=1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.generate-ddl=false",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.hbm2ddl.auto=none",
+        "spring.jpa.properties.hibernate.globally_quoted_identifiers=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ShardingConfigTest {
+
+    private static final String SOUTH = "south";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BranchCatalogService branchCatalogService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void dataSource_RoutesByBranch() {
+        assertInstanceOf(BranchRoutingDataSource.class, dataSource);
+        assertEquals(List.of(BranchContext.DEFAULT_BRANCH, SOUTH),
+                ((BranchRoutingDataSource) dataSource).getShards().keySet().stream().sorted().toList());
+    }
+
+    @Test
+    void registerBook_StoredInTheBranchOfTheRequest() throws Exception {
+        // Arrange
+        String isbn = UUID.randomUUID().toString();
+
+        // Act
+        mockMvc.perform(post("/terranapi/book")
+                        .header(BranchFilter.BRANCH_HEADER, SOUTH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newBook(isbn))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.branch", is(SOUTH)));
+
+        // Assert
+        mockMvc.perform(get("/terranapi/books/isbn/" + isbn).header(BranchFilter.BRANCH_HEADER, SOUTH))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", BranchFilter.BRANCH_HEADER))
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(get("/terranapi/books/isbn/" + isbn))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void registerBook_IdsFromTheRangeOfTheShard() {
+        // Act: interleaved, so each branch draws IDs after the other one fetched a block
+        Book main = bookService.registerBook(newBook(UUID.randomUUID().toString()));
+        Book south = inSouth(() -> bookService.registerBook(newBook(UUID.randomUUID().toString())));
+        Book mainAgain = bookService.registerBook(newBook(UUID.randomUUID().toString()));
+        Borrower southBorrower = inSouth(() -> borrowerService.registerBorrower(newBorrower()));
+        Borrower mainBorrower = borrowerService.registerBorrower(newBorrower());
+
+        // Assert
+        assertEquals(BranchContext.DEFAULT_BRANCH, main.getBranch());
+        assertEquals(SOUTH, south.getBranch());
+        assertTrue(main.getId() < 1L << ShardingConfig.SHARD_ID_BITS);
+        assertTrue(mainAgain.getId() < 1L << ShardingConfig.SHARD_ID_BITS);
+        assertTrue(south.getId() > 1L << ShardingConfig.SHARD_ID_BITS);
+        assertTrue(south.getId() < 2L << ShardingConfig.SHARD_ID_BITS);
+        assertTrue(southBorrower.getId() > 1L << ShardingConfig.SHARD_ID_BITS);
+        assertTrue(mainBorrower.getId() < 1L << ShardingConfig.SHARD_ID_BITS);
+    }
+
+    @Test
+    void borrowBook_StaysInTheBranch() {
+        // Arrange
+        Book book = inSouth(() -> bookService.registerBook(newBook(UUID.randomUUID().toString())));
+        Long borrowerId = inSouth(() -> borrowerService.registerBorrower(newBorrower())).getId();
+
+        // Act
+        Book borrowed = inSouth(() -> bookService.borrowBook(book.getId(), borrowerId));
+
+        // Assert
+        assertTrue(borrowed.isBorrowed());
+        assertTrue(inSouth(() -> bookService.getBookById(book.getId())).orElseThrow().isBorrowed());
+        assertTrue(bookService.getBookById(book.getId()).isEmpty());
+        assertTrue(borrowerService.getBorrowerById(borrowerId).isEmpty());
+    }
+
+    @Test
+    void branchCatalog_MergesBranchesById() {
+        // Arrange: the same title in both branches, registered in the main branch first
+        String isbn = UUID.randomUUID().toString();
+        for (int i = 0; i < 3; i++) {
+            bookService.registerBook(newBook(isbn));
+        }
+        for (int i = 0; i < 3; i++) {
+            inSouth(() -> bookService.registerBook(newBook(isbn)));
+        }
+        var filter = new CatalogFilter(isbn, null, null);
+
+        // Act
+        BranchCatalogPage first = branchCatalogService.getCatalogPage(null, 4, filter);
+        BranchCatalogPage second = branchCatalogService.getCatalogPage(first.nextCursor(), 4, filter);
+        BranchCatalogPage back = branchCatalogService.getCatalogPage(second.prevCursor(), 4, filter);
+        List<BranchCatalogRow> copies = branchCatalogService.getCatalogRowsByIsbn(isbn);
+
+        // Assert
+        assertEquals(List.of("main", "main", "main", SOUTH), first.books().stream().map(BranchCatalogRow::branch).toList());
+        assertNull(first.prevCursor());
+        assertEquals(List.of(SOUTH, SOUTH), second.books().stream().map(BranchCatalogRow::branch).toList());
+        assertNull(second.nextCursor());
+        assertEquals(first.books(), back.books());
+        assertEquals(6, copies.size());
+        assertEquals(copies.stream().map(row -> row.book().id()).sorted().toList(),
+                copies.stream().map(row -> row.book().id()).toList());
+    }
+
+    @Test
+    void branchCatalog_ServedOverHttp() throws Exception {
+        // Arrange
+        String isbn = UUID.randomUUID().toString();
+        bookService.registerBook(newBook(isbn));
+        inSouth(() -> bookService.registerBook(newBook(isbn)));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/branches/books/isbn/" + isbn))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].branch", is("main")))
+                .andExpect(jsonPath("$[0].isbn", is(isbn)))
+                .andExpect(jsonPath("$[1].branch", is(SOUTH)));
+        mockMvc.perform(get("/terranapi/branches"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", is(List.of("main", SOUTH))));
+    }
+
+    @Test
+    void request_UnknownBranchRejected() throws Exception {
+        mockMvc.perform(get("/terranapi/books").header(BranchFilter.BRANCH_HEADER, "atlantis"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static <T> T inSouth(Supplier<T> task) {
+        return BranchContext.callInBranch(SOUTH, task);
+    }
+
+    private static Book newBook(String isbn) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle("Sharded Title");
+        book.setAuthor("Branch Author");
+        return book;
+    }
+
+    private static Borrower newBorrower() {
+        Borrower borrower = new Borrower();
+        borrower.setName("Branch Patron");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        return borrower;
+    }
+}
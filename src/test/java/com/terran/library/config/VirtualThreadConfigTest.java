@@ -0,0 +1,101 @@
+package com.terran.library.config;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.service.BookService;
+import com.terran.library.service.BorrowerService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the virtual thread mode puts the connection pool behind a connection limit of the
+ * pool size, that the pool's Hikari metrics are still published, and that many concurrent borrows
+ * on virtual threads all complete through it.
+ */
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("test")
+public class VirtualThreadConfigTest {
+
+    private static final int BORROWERS = 200;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void dataSource_LimitedToPoolSize() throws Exception {
+        var limiting = dataSource.unwrap(ConnectionLimitingDataSource.class);
+        var hikari = dataSource.unwrap(HikariDataSource.class);
+
+        assertEquals(hikari.getMaximumPoolSize(), limiting.getAvailablePermits());
+    }
+
+    @Test
+    void hikariMetrics_PublishedForLimitedPool() throws Exception {
+        var hikari = dataSource.unwrap(HikariDataSource.class);
+
+        var maxConnections = meterRegistry.get("hikaricp.connections.max").tag("pool", hikari.getPoolName()).gauge();
+        assertEquals(hikari.getMaximumPoolSize(), maxConnections.value());
+        assertNotNull(meterRegistry.get("hikaricp.connections.active").tag("pool", hikari.getPoolName()).gauge());
+    }
+
+    @Test
+    void borrowAndReturn_ManyVirtualThreads() throws Exception {
+        // Arrange
+        var bookIds = new ArrayList<Long>();
+        var borrowerIds = new ArrayList<Long>();
+        for (int i = 0; i < BORROWERS; i++) {
+            Book book = new Book();
+            book.setIsbn(UUID.randomUUID().toString());
+            book.setTitle("Virtual Borrowing");
+            book.setAuthor("Test Author");
+            bookIds.add(bookService.registerBook(book).getId());
+            Borrower borrower = new Borrower();
+            borrower.setName("Virtual Borrower " + i);
+            borrower.setEmail(UUID.randomUUID() + "@example.com");
+            borrowerIds.add(borrowerService.registerBorrower(borrower).getId());
+        }
+
+        // Act
+        List<Future<Book>> returns = new ArrayList<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < BORROWERS; i++) {
+                var bookId = bookIds.get(i);
+                var borrowerId = borrowerIds.get(i);
+                returns.add(executor.submit(() -> {
+                    bookService.borrowBook(bookId, borrowerId);
+                    return bookService.returnBook(bookId);
+                }));
+            }
+
+            // Assert
+            for (var returned : returns) {
+                assertNull(returned.get(30, TimeUnit.SECONDS).getBorrower());
+            }
+        }
+        var limiting = dataSource.unwrap(ConnectionLimitingDataSource.class);
+        assertEquals(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize(), limiting.getAvailablePermits());
+    }
+}
@@ -3,25 +3,45 @@ package com.terran.library.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.terran.library.model.Book;
 import com.terran.library.model.Borrower;
+import com.terran.library.model.Title;
+import com.terran.library.service.BatchMode;
+import com.terran.library.service.BookCirculationResult;
+import com.terran.library.service.BookRegistrationResult;
 import com.terran.library.service.BookService;
+import com.terran.library.service.CatalogFilter;
+import com.terran.library.service.CatalogPage;
+import com.terran.library.service.CatalogRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -104,6 +124,52 @@ public class BookControllerTest {
         verify(bookService, times(1)).registerBook(any(Book.class));
     }
 
+    @Test
+    void registerBooks_PartialFailures() throws Exception {
+        // Arrange
+        Book newBook = new Book();
+        newBook.setIsbn("5555555555");
+        newBook.setTitle("New Book");
+        newBook.setAuthor("New Author");
+
+        Book mismatch = new Book();
+        mismatch.setIsbn("1234567890");
+        mismatch.setTitle("Another Title");
+        mismatch.setAuthor("Craig Walls");
+
+        when(bookService.registerBooks(anyList())).thenReturn(List.of(
+                new BookRegistrationResult(0, "5555555555", 4L, null),
+                new BookRegistrationResult(1, "1234567890", null, "Title or author does not match ISBN 1234567890")));
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(newBook, mismatch))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(4)))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].id").doesNotExist())
+                .andExpect(jsonPath("$[1].error", is("Title or author does not match ISBN 1234567890")));
+
+        verify(bookService, times(1)).registerBooks(argThat(books -> books.size() == 2));
+    }
+
+    @Test
+    void registerBooks_TooMany() throws Exception {
+        // Arrange
+        when(bookService.registerBooks(anyList()))
+                .thenThrow(new IllegalArgumentException("Too many books: 3, the limit is 2"));
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{},{},{}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertEquals("Too many books: 3, the limit is 2",
+                        ((ResponseStatusException) result.getResolvedException()).getReason()));
+    }
+
     @Test
     void getAllBooks() throws Exception {
         // Arrange
@@ -124,6 +190,141 @@ public class BookControllerTest {
         verify(bookService, times(1)).getAllBooks();
     }
 
+    @Test
+    void getCatalogPage() throws Exception {
+        // Arrange
+        CatalogFilter filter = new CatalogFilter("1234567890", null, true);
+        when(bookService.getCatalogPage("abc", 2, filter))
+                .thenReturn(new CatalogPage(List.of(new CatalogRow(1L, "1234567890",
+                        "Spring Boot in Action", "Craig Walls", null)), 2, null, "prev"));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/catalog")
+                .param("cursor", "abc")
+                .param("size", "2")
+                .param("isbn", "1234567890")
+                .param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books", hasSize(1)))
+                .andExpect(jsonPath("$.books[0].id", is(1)))
+                .andExpect(jsonPath("$.books[0].borrowed", is(false)))
+                .andExpect(jsonPath("$.size", is(2)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.prevCursor", is("prev")));
+
+        verify(bookService, times(1)).getCatalogPage("abc", 2, filter);
+    }
+
+    @Test
+    void getCatalogPage_InvalidCursor() throws Exception {
+        // Arrange
+        when(bookService.getCatalogPage(eq("bogus"), any(), any()))
+                .thenThrow(new IllegalArgumentException("Invalid catalog cursor: bogus"));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/catalog").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCopiesByIsbn() throws Exception {
+        // Arrange
+        when(bookService.getCatalogRowsByIsbn("1234567890")).thenReturn(List.of(
+                new CatalogRow(1L, "1234567890", "Spring Boot in Action", "Craig Walls", null),
+                new CatalogRow(3L, "1234567890", "Spring Boot in Action", "Craig Walls", 1L)));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/books/isbn/1234567890"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].borrowed", is(false)))
+                .andExpect(jsonPath("$[1].borrowed", is(true)))
+                .andExpect(jsonPath("$[1].borrowerId", is(1)))
+                .andExpect(jsonPath("$[1].borrower").doesNotExist());
+
+        verify(bookService, times(1)).getCatalogRowsByIsbn("1234567890");
+    }
+
+    @Test
+    void getAvailability_Found() throws Exception {
+        // Arrange
+        when(bookService.getTitle("1234567890"))
+                .thenReturn(Optional.of(new Title("1234567890", "Spring Boot in Action", "Craig Walls", 2, 1, false)));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/books/isbn/1234567890/availability"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isbn", is("1234567890")))
+                .andExpect(jsonPath("$.totalCopies", is(2)))
+                .andExpect(jsonPath("$.availableCopies", is(1)))
+                .andExpect(jsonPath("$.new").doesNotExist());
+    }
+
+    @Test
+    void getAvailability_NotFound() throws Exception {
+        // Arrange
+        when(bookService.getTitle("0000000000")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/books/isbn/0000000000/availability"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportBooks_Ndjson() throws Exception {
+        // Arrange
+        when(bookService.exportBooks(isNull(), any())).thenAnswer(invocation -> {
+            Consumer<Book> sink = invocation.getArgument(1);
+            sink.accept(book1);
+            sink.accept(book3);
+            return 2L;
+        });
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/terranapi/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], Book.class).getId());
+        assertEquals("John Doe", objectMapper.readValue(lines[1], Book.class).getBorrower().getName());
+    }
+
+    @Test
+    void exportBooks_GzipUpdatedSince() throws Exception {
+        // Arrange
+        Instant since = Instant.parse("2024-01-01T00:00:00Z");
+        when(bookService.exportBooks(eq(since), any())).thenAnswer(invocation -> {
+            Consumer<Book> sink = invocation.getArgument(1);
+            sink.accept(book2);
+            return 1L;
+        });
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/terranapi/books/export.gz")
+                .param("updatedSince", "2024-01-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("books.ndjson.gz")))
+                .andReturn().getResponse().getContentAsByteArray();
+        String ndjson;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals("Clean Code", objectMapper.readValue(ndjson.trim(), Book.class).getTitle());
+        assertEquals('\n', ndjson.charAt(ndjson.length() - 1));
+        verify(bookService, times(1)).exportBooks(eq(since), any());
+    }
+
     @Test
     void getBookById_Found() throws Exception {
         // Arrange
@@ -211,6 +412,48 @@ public class BookControllerTest {
         verify(bookService, times(1)).borrowBook(3L, 1L);
     }
 
+    @Test
+    void borrowAnyCopy_Success() throws Exception {
+        // Arrange
+        Map<String, Long> requestBody = new HashMap<>();
+        requestBody.put("borrowerId", 1L);
+
+        Book borrowedBook = new Book();
+        borrowedBook.setId(3L);
+        borrowedBook.setIsbn("1234567890");
+        borrowedBook.setTitle("Spring Boot in Action");
+        borrowedBook.setAuthor("Craig Walls");
+        borrowedBook.setBorrower(borrower);
+
+        when(bookService.borrowAnyCopy("1234567890", 1L)).thenReturn(borrowedBook);
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/isbn/1234567890/borrow")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(3)))
+                .andExpect(jsonPath("$.borrower.id", is(1)));
+
+        verify(bookService, times(1)).borrowAnyCopy("1234567890", 1L);
+    }
+
+    @Test
+    void borrowAnyCopy_NoCopyAvailable() throws Exception {
+        // Arrange
+        Map<String, Long> requestBody = new HashMap<>();
+        requestBody.put("borrowerId", 1L);
+
+        when(bookService.borrowAnyCopy("1234567890", 1L))
+                .thenThrow(new IllegalArgumentException("No available copy of ISBN: 1234567890"));
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/isbn/1234567890/borrow")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void returnBook_Success() throws Exception {
         // Arrange
@@ -292,4 +535,181 @@ public class BookControllerTest {
 
         verify(bookService, times(1)).returnBook(3L);
     }
+
+    @Test
+    void borrowBooks_BestEffort() throws Exception {
+        // Arrange
+        when(bookService.borrowBooks(List.of(1L, 3L), 1L, BatchMode.BEST_EFFORT)).thenReturn(List.of(
+                new BookCirculationResult(0, 1L, "1234567890", null),
+                new BookCirculationResult(1, 3L, "1234567890", "Book is already borrowed")));
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/borrow")
+                .param("mode", "BEST_EFFORT")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"borrowerId\": 1, \"bookIds\": [1, 3]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].applied", is(true)))
+                .andExpect(jsonPath("$[1].applied", is(false)))
+                .andExpect(jsonPath("$[1].error", is("Book is already borrowed")));
+    }
+
+    @Test
+    void borrowBooks_AllOrNothingRejected() throws Exception {
+        // Arrange
+        when(bookService.borrowBooks(List.of(1L, 3L), 1L, null)).thenReturn(List.of(
+                new BookCirculationResult(0, 1L, null, "Not applied, another book of the batch was rejected"),
+                new BookCirculationResult(1, 3L, "1234567890", "Book is already borrowed")));
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/borrow")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"borrowerId\": 1, \"bookIds\": [1, 3]}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$[1].error", is("Book is already borrowed")));
+    }
+
+    @Test
+    void borrowBooks_MissingBorrowerId() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/borrow")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookIds\": [1, 3]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookService, never()).borrowBooks(any(), any(), any());
+    }
+
+    @Test
+    void returnBooks_Success() throws Exception {
+        // Arrange
+        when(bookService.returnBooks(List.of(3L), null))
+                .thenReturn(List.of(new BookCirculationResult(0, 3L, "1234567890", null)));
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/return")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookIds\": [3]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookId", is(3)))
+                .andExpect(jsonPath("$[0].applied", is(true)));
+    }
+
+    @Test
+    void getBookById_TaggedWithVersion() throws Exception {
+        // Arrange
+        book1.setVersion(4L);
+        when(bookService.getBookById(1L)).thenReturn(Optional.of(book1));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/books/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.version", is(4)));
+
+        verify(bookService, never()).getBookVersion(any());
+    }
+
+    @Test
+    void getBookById_NotModified() throws Exception {
+        // Arrange
+        when(bookService.getBookVersion(1L)).thenReturn(Optional.of(4L));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/books/1").header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(bookService, never()).getBookById(any());
+    }
+
+    @Test
+    void getBookById_ChangedSinceETag() throws Exception {
+        // Arrange
+        book1.setVersion(5L);
+        when(bookService.getBookVersion(1L)).thenReturn(Optional.of(5L));
+        when(bookService.getBookById(1L)).thenReturn(Optional.of(book1));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/books/1").header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    void getAllBooks_NotModifiedUntilBooksChange() throws Exception {
+        // Arrange
+        Instant lastChange = Instant.parse("2026-10-01T08:00:00.000123Z");
+        when(bookService.getBooksLastChange()).thenReturn(lastChange);
+        when(bookService.getAllBooks()).thenReturn(List.of(book1));
+
+        // Act
+        String etag = mockMvc.perform(get("/terranapi/books"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert
+        mockMvc.perform(get("/terranapi/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(bookService, times(1)).getAllBooks();
+
+        when(bookService.getBooksLastChange()).thenReturn(lastChange.plusMillis(1));
+        mockMvc.perform(get("/terranapi/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(bookService, times(2)).getAllBooks();
+    }
+
+    @Test
+    void borrowBook_IfMatch() throws Exception {
+        // Arrange
+        Book borrowedBook = new Book();
+        borrowedBook.setId(1L);
+        borrowedBook.setIsbn("1234567890");
+        borrowedBook.setBorrower(borrower);
+        borrowedBook.setVersion(5L);
+        when(bookService.borrowBook(1L, 1L, 4L)).thenReturn(borrowedBook);
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/1/borrow")
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"borrowerId\": 1}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+
+        verify(bookService, never()).borrowBook(anyLong(), anyLong());
+    }
+
+    @Test
+    void borrowBook_IfMatchStale() throws Exception {
+        // Arrange
+        when(bookService.borrowBook(1L, 1L, 4L))
+                .thenThrow(new OptimisticLockingFailureException("Book 1 has version 5, not the expected version 4"));
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/1/borrow")
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"borrowerId\": 1}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void returnBook_IfMatchWeakTagNeverMatches() throws Exception {
+        // Arrange
+        when(bookService.returnBook(3L, EntityTags.NO_VERSION))
+                .thenThrow(new OptimisticLockingFailureException("Book 3 has version 5, not the expected version -1"));
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/books/3/return").header(HttpHeaders.IF_MATCH, "W/\"5\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(post("/terranapi/books/3/return").header(HttpHeaders.IF_MATCH, "\"4\", \"5\""))
+                .andExpect(status().isBadRequest());
+        verify(bookService, never()).returnBook(3L);
+    }
 }
\ No newline at end of file
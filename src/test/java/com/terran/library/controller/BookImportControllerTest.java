@@ -0,0 +1,93 @@
+package com.terran.library.controller;
+
+import com.terran.library.model.ImportJob;
+import com.terran.library.service.BookImportService;
+import com.terran.library.service.ImportJobStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BookImportController.class)
+public class BookImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookImportService bookImportService;
+
+    @Test
+    void uploadImport_Accepted() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv",
+                "isbn,title,author\n1234567890,Spring Boot in Action,Craig Walls\n".getBytes());
+        when(bookImportService.startUpload(any())).thenReturn(importStatus(1L, ImportJob.Status.RUNNING));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/terranapi/imports").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.status", is("RUNNING")));
+
+        verify(bookImportService, times(1)).startUpload(any());
+    }
+
+    @Test
+    void uploadImport_EmptyFile() throws Exception {
+        // Act & Assert
+        mockMvc.perform(multipart("/terranapi/imports").file(new MockMultipartFile("file", new byte[0])))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookImportService);
+    }
+
+    @Test
+    void localImport_OutsideImportDirectory() throws Exception {
+        // Arrange
+        when(bookImportService.startLocalImport("../secret.csv"))
+                .thenThrow(new IllegalArgumentException("Import file must be inside the import directory: ../secret.csv"));
+
+        // Act & Assert
+        mockMvc.perform(post("/terranapi/imports/local").param("path", "../secret.csv"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getImport_Found() throws Exception {
+        // Arrange
+        when(bookImportService.getImport(2L)).thenReturn(Optional.of(importStatus(2L, ImportJob.Status.COMPLETED)));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/imports/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("COMPLETED")))
+                .andExpect(jsonPath("$.booksImported", is(1)));
+    }
+
+    @Test
+    void getImport_NotFound() throws Exception {
+        // Arrange
+        when(bookImportService.getImport(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/imports/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static ImportJobStatus importStatus(Long id, ImportJob.Status status) {
+        Instant now = Instant.now();
+        return new ImportJobStatus(id, "/data/imports/books.csv", status, 1, 1, 0, null, now, now, null, 0.0);
+    }
+}
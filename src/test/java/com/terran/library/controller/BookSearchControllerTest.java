@@ -0,0 +1,54 @@
+package com.terran.library.controller;
+
+import com.terran.library.service.BookSearchPage;
+import com.terran.library.service.BookSearchResult;
+import com.terran.library.service.BookSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BookSearchController.class)
+public class BookSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookSearchService bookSearchService;
+
+    @Test
+    void search_Success() throws Exception {
+        // Arrange
+        var result = new BookSearchResult("1234567890", "Spring Boot in Action", "Craig Walls", 3, 1, 0.75);
+        when(bookSearchService.search("spring boo", 1, 10)).thenReturn(new BookSearchPage(List.of(result), 1, 10, true));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/books/search").param("q", "spring boo").param("page", "1").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(1)))
+                .andExpect(jsonPath("$.results[0].isbn", is("1234567890")))
+                .andExpect(jsonPath("$.results[0].totalCopies", is(3)))
+                .andExpect(jsonPath("$.results[0].availableCopies", is(1)))
+                .andExpect(jsonPath("$.page", is(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)));
+    }
+
+    @Test
+    void search_MissingText() throws Exception {
+        // Arrange
+        when(bookSearchService.search(null, null, null)).thenThrow(new IllegalArgumentException("Search text is required"));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/books/search"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,186 @@
+package com.terran.library.controller;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.model.Title;
+import com.terran.library.repository.BookRepository;
+import com.terran.library.repository.BorrowerRepository;
+import com.terran.library.repository.TitleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the number of SQL statements each book endpoint issues, using Hibernate statistics,
+ * so that borrowers are never loaded one query per book.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private TitleRepository titleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String isbn;
+    private List<Book> books;
+    private Borrower borrower;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        isbn = UUID.randomUUID().toString();
+        books = new ArrayList<>();
+        titleRepository.save(new Title(isbn, "Statement Counting", "Test Author", 4, 1, true));
+
+        // Every borrowed copy has a different borrower, so an N+1 fetch would show up in the counts
+        for (int i = 0; i < 4; i++) {
+            Book book = new Book();
+            book.setIsbn(isbn);
+            book.setTitle("Statement Counting");
+            book.setAuthor("Test Author");
+            if (i < 3) {
+                book.setBorrower(newBorrower());
+            }
+            books.add(bookRepository.save(book));
+        }
+        borrower = newBorrower();
+        statistics.clear();
+    }
+
+    @Test
+    void getBookById_OneStatement() throws Exception {
+        mockMvc.perform(get("/terranapi/books/" + books.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrower.name").exists());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllBooks_OneStatementAfterChangeTime() throws Exception {
+        mockMvc.perform(get("/terranapi/books"))
+                .andExpect(status().isOk());
+
+        // the latest change time for the ETag, then the books with their borrowers
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getCatalogPage_OneStatement() throws Exception {
+        mockMvc.perform(get("/terranapi/catalog").param("isbn", isbn))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(4));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getCopiesByIsbn_OneStatement() throws Exception {
+        mockMvc.perform(get("/terranapi/books/isbn/" + isbn))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void exportBooks_OneStatement() throws Exception {
+        MvcResult result = mockMvc.perform(get("/terranapi/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void borrowAndReturn_StatementCounts() throws Exception {
+        Book available = books.get(3);
+
+        mockMvc.perform(post("/terranapi/books/" + available.getId() + "/borrow")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"borrowerId\": " + borrower.getId() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrower.id").value(borrower.getId()));
+        // conditionally update the book, load the book with its borrower, update the title counter,
+        // insert the loan; the borrower itself is resolved from the second-level cache
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+
+        statistics.clear();
+        mockMvc.perform(post("/terranapi/books/" + available.getId() + "/return"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrower").doesNotExist());
+        // conditionally update the book, load the book, update the title counter, close the loan
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void batchReturnAndBorrow_StatementCounts() throws Exception {
+        var borrowed = books.subList(0, 3).stream().map(Book::getId).toList();
+
+        mockMvc.perform(post("/terranapi/books/return")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookIds\": " + borrowed + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[2].applied").value(true));
+        // lock the copies with one IN query, update them in one JDBC batch, update the title counter,
+        // close their loans with one update
+        assertEquals(4, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(post("/terranapi/books/borrow")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"borrowerId\": " + borrower.getId() + ", \"bookIds\": " + borrowed + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[2].applied").value(true));
+        // the same statements, the loans being inserted in one JDBC batch;
+        // the borrower is resolved from the second-level cache
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(1, titleRepository.findById(isbn).orElseThrow().getAvailableCopies());
+    }
+
+    private Borrower newBorrower() {
+        Borrower newBorrower = new Borrower();
+        newBorrower.setName("Statement Counter");
+        newBorrower.setEmail(UUID.randomUUID() + "@example.com");
+        return borrowerRepository.save(newBorrower);
+    }
+}
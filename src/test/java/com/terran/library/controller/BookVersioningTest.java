@@ -0,0 +1,165 @@
+package com.terran.library.controller;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.repository.BookRepository;
+import com.terran.library.service.BookService;
+import com.terran.library.service.BorrowerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the book versions end to end: every borrow and return moves the version, GET answers
+ * If-None-Match with 304 without loading the book, and If-Match guards borrowing and returning.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookVersioningTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Book book;
+    private Borrower borrower;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Book newBook = new Book();
+        newBook.setIsbn(UUID.randomUUID().toString());
+        newBook.setTitle("Versioned Reading");
+        newBook.setAuthor("Test Author");
+        book = bookService.registerBook(newBook);
+        Borrower newBorrower = new Borrower();
+        newBorrower.setName("Careful Reader");
+        newBorrower.setEmail(UUID.randomUUID() + "@example.com");
+        borrower = borrowerService.registerBorrower(newBorrower);
+    }
+
+    @Test
+    void borrowAndReturn_IncrementVersion() {
+        // Act
+        long registered = book.getVersion();
+        long borrowed = bookService.borrowBook(book.getId(), borrower.getId()).getVersion();
+        long returned = bookService.returnBook(book.getId()).getVersion();
+
+        // Assert
+        assertEquals(0L, registered);
+        assertEquals(1L, borrowed);
+        assertEquals(2L, returned);
+        assertEquals(2L, bookRepository.findVersionById(book.getId()).orElseThrow());
+    }
+
+    @Test
+    void getBookById_NotModifiedWithoutLoadingTheBook() throws Exception {
+        // Arrange
+        String path = "/terranapi/books/" + book.getId();
+        String etag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"0\"", etag);
+
+        // Act & Assert: the cached book answers without a statement
+        statistics.clear();
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // Act & Assert: otherwise only the version is read
+        cacheManager.getCache("books").clear();
+        statistics.clear();
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // Act & Assert: a borrow changes the tag
+        bookService.borrowBook(book.getId(), borrower.getId());
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void borrowAndReturn_IfMatch() throws Exception {
+        // Act & Assert: a stale tag fails the precondition and leaves the book alone
+        mockMvc.perform(post("/terranapi/books/" + book.getId() + "/borrow")
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + borrower.getId() + "}"))
+                .andExpect(status().isPreconditionFailed());
+        assertFalse(bookRepository.existsByIdAndBorrowerIsNotNull(book.getId()));
+
+        // Act & Assert: the current tag borrows it and returns the new tag
+        mockMvc.perform(post("/terranapi/books/" + book.getId() + "/borrow")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + borrower.getId() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        // Act & Assert: returning with the tag read before the borrow fails
+        mockMvc.perform(post("/terranapi/books/" + book.getId() + "/return")
+                        .header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(post("/terranapi/books/" + book.getId() + "/return")
+                        .header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void getAllBooks_TagMovesWithAnyChange() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/terranapi/books"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        bookService.borrowBook(book.getId(), borrower.getId());
+        mockMvc.perform(get("/terranapi/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+}
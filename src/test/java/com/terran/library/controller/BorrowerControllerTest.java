@@ -2,12 +2,15 @@ package com.terran.library.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.terran.library.model.Borrower;
+import com.terran.library.service.BorrowerDashboard;
 import com.terran.library.service.BorrowerService;
+import com.terran.library.service.CatalogRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -138,4 +141,89 @@ public class BorrowerControllerTest {
 
         verify(borrowerService, times(1)).getBorrowerById(99L);
     }
+
+    @Test
+    void getDashboard_WithETag() throws Exception {
+        // Arrange
+        BorrowerDashboard dashboard = new BorrowerDashboard(borrower1, 1,
+                List.of(new CatalogRow(10L, "1234567890", "Test Book", "Test Author", 1L)), 50, null, "1-1-42");
+        when(borrowerService.getDashboard(1L, null, null)).thenReturn(Optional.of(dashboard));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/borrowers/1/dashboard"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-1-42\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.borrower.name", is("John Doe")))
+                .andExpect(jsonPath("$.borrowedBooks", is(1)))
+                .andExpect(jsonPath("$.loans[0].id", is(10)))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        verify(borrowerService, never()).getLoansVersion(any());
+    }
+
+    @Test
+    void getDashboard_NotModified() throws Exception {
+        // Arrange
+        when(borrowerService.getLoansVersion(1L)).thenReturn("1-1-42");
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/borrowers/1/dashboard")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-1-42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(borrowerService, never()).getDashboard(any(), any(), any());
+    }
+
+    @Test
+    void getDashboard_ChangedSinceETag() throws Exception {
+        // Arrange
+        BorrowerDashboard dashboard = new BorrowerDashboard(borrower1, 0, List.of(), 50, null, "1-0-0");
+        when(borrowerService.getLoansVersion(1L)).thenReturn("1-0-0");
+        when(borrowerService.getDashboard(1L, null, null)).thenReturn(Optional.of(dashboard));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/borrowers/1/dashboard")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-1-42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0-0\""))
+                .andExpect(jsonPath("$.loans", hasSize(0)));
+    }
+
+    @Test
+    void getDashboard_NotFound() throws Exception {
+        // Arrange
+        when(borrowerService.getDashboard(99L, null, null)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/borrowers/99/dashboard"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getDashboard_InvalidSize() throws Exception {
+        // Arrange
+        when(borrowerService.getDashboard(1L, null, 0)).thenThrow(new IllegalArgumentException("Page size must be positive"));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/borrowers/1/dashboard").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBorrowerById_NotModified() throws Exception {
+        // Arrange
+        borrower1.setVersion(2L);
+        when(borrowerService.getBorrowerById(1L)).thenReturn(Optional.of(borrower1));
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/borrowers/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        mockMvc.perform(get("/terranapi/borrowers/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.terran.library.controller;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.service.BookService;
+import com.terran.library.service.BorrowerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that the borrower dashboard is read with one statement, pages through the borrowed
+ * copies, and answers repeat polls with 304 until the borrower's loans change.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BorrowerDashboardTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<Book> copies;
+    private Borrower borrower;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        var isbn = UUID.randomUUID().toString();
+        copies = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Book book = new Book();
+            book.setIsbn(isbn);
+            book.setTitle("Dashboard Reading");
+            book.setAuthor("Test Author");
+            copies.add(bookService.registerBook(book));
+        }
+        Borrower newBorrower = new Borrower();
+        newBorrower.setName("Heavy Reader");
+        newBorrower.setEmail(UUID.randomUUID() + "@example.com");
+        borrower = borrowerService.registerBorrower(newBorrower);
+        for (int i = 0; i < 3; i++) {
+            bookService.borrowBook(copies.get(i).getId(), borrower.getId());
+        }
+        statistics.clear();
+    }
+
+    @Test
+    void getDashboard_OneStatementPerPage() throws Exception {
+        // Act
+        String etag = mockMvc.perform(get("/terranapi/borrowers/" + borrower.getId() + "/dashboard")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrower.email").value(borrower.getEmail()))
+                .andExpect(jsonPath("$.borrowedBooks").value(3))
+                .andExpect(jsonPath("$.loans.length()").value(2))
+                .andExpect(jsonPath("$.loans[0].id").value(copies.get(0).getId()))
+                .andExpect(jsonPath("$.nextAfter").value(copies.get(1).getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert
+        assertNotNull(etag);
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/terranapi/borrowers/" + borrower.getId() + "/dashboard")
+                        .param("size", "2")
+                        .param("after", copies.get(1).getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrowedBooks").value(3))
+                .andExpect(jsonPath("$.loans.length()").value(1))
+                .andExpect(jsonPath("$.loans[0].id").value(copies.get(2).getId()))
+                .andExpect(jsonPath("$.nextAfter").doesNotExist())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getDashboard_NotModifiedUntilLoansChange() throws Exception {
+        // Arrange
+        String dashboard = "/terranapi/borrowers/" + borrower.getId() + "/dashboard";
+        String etag = mockMvc.perform(get(dashboard))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert: a repeat poll costs one aggregate statement
+        statistics.clear();
+        mockMvc.perform(get(dashboard).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        // Act & Assert: a borrow changes the version
+        bookService.borrowBook(copies.get(3).getId(), borrower.getId());
+        String afterBorrow = mockMvc.perform(get(dashboard).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrowedBooks").value(4))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, afterBorrow);
+
+        // Act & Assert: so does a return
+        bookService.returnBook(copies.get(0).getId());
+        mockMvc.perform(get(dashboard).header(HttpHeaders.IF_NONE_MATCH, afterBorrow))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrowedBooks").value(3))
+                .andExpect(jsonPath("$.loans[0].id").value(copies.get(1).getId()));
+    }
+
+    @Test
+    void getDashboard_BorrowerWithoutLoans() throws Exception {
+        // Arrange
+        Borrower newBorrower = new Borrower();
+        newBorrower.setName("New Reader");
+        newBorrower.setEmail(UUID.randomUUID() + "@example.com");
+        Borrower idle = borrowerService.registerBorrower(newBorrower);
+
+        // Act & Assert
+        mockMvc.perform(get("/terranapi/borrowers/" + idle.getId() + "/dashboard"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.borrower.name").value("New Reader"))
+                .andExpect(jsonPath("$.borrowedBooks").value(0))
+                .andExpect(jsonPath("$.loans.length()").value(0));
+
+        mockMvc.perform(get("/terranapi/borrowers/-1/dashboard"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,144 @@
+package com.terran.library.controller;
+
+import com.terran.library.actuator.ServiceMetrics;
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.service.AlreadyBorrowedException;
+import com.terran.library.service.BookService;
+import com.terran.library.service.BorrowerService;
+import com.terran.library.service.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the service timers and their outcome tags, the repository timers, the per-request
+ * Hibernate counts and the Prometheus scrape endpoint.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    private Book book;
+    private Borrower borrower;
+
+    @BeforeEach
+    void setUp() {
+        Book newBook = new Book();
+        newBook.setIsbn(UUID.randomUUID().toString());
+        newBook.setTitle("Measured Book");
+        newBook.setAuthor("Test Author");
+        book = bookService.registerBook(newBook);
+
+        Borrower newBorrower = new Borrower();
+        newBorrower.setName("Measured Borrower");
+        newBorrower.setEmail(UUID.randomUUID() + "@example.com");
+        borrower = borrowerService.registerBorrower(newBorrower);
+    }
+
+    @Test
+    void serviceTimers_TaggedByOutcome() {
+        // Arrange
+        long success = serviceCalls("borrowBook", "success");
+        long alreadyBorrowed = serviceCalls("borrowBook", "already-borrowed");
+        long notFound = serviceCalls("borrowBook", "not-found");
+        long lookupNotFound = serviceCalls("getBookById", "not-found");
+
+        // Act
+        bookService.borrowBook(book.getId(), borrower.getId());
+        assertThrows(AlreadyBorrowedException.class, () -> bookService.borrowBook(book.getId(), borrower.getId()));
+        assertThrows(NotFoundException.class, () -> bookService.borrowBook(-1L, borrower.getId()));
+        bookService.getBookById(-1L);
+
+        // Assert
+        assertEquals(success + 1, serviceCalls("borrowBook", "success"));
+        assertEquals(alreadyBorrowed + 1, serviceCalls("borrowBook", "already-borrowed"));
+        assertEquals(notFound + 1, serviceCalls("borrowBook", "not-found"));
+        assertEquals(lookupNotFound + 1, serviceCalls("getBookById", "not-found"));
+    }
+
+    @Test
+    void repositoryTimers_TaggedByOutcome() {
+        // Act
+        bookService.getAllBooks();
+
+        // Assert
+        Timer timer = meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "BookRepository")
+                .tag("outcome", "success")
+                .timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() > 0);
+    }
+
+    @Test
+    void requestCounts_RecordedPerUriTemplate() throws Exception {
+        // Act
+        mockMvc.perform(post("/terranapi/books/" + book.getId() + "/borrow")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"borrowerId\": " + borrower.getId() + "}"))
+                .andExpect(status().isOk());
+
+        // Assert
+        var statements = meterRegistry.find("hibernate.request.statements")
+                .tag("method", "POST")
+                .tag("uri", "/terranapi/books/{id}/borrow")
+                .summary();
+        assertNotNull(statements);
+        assertTrue(statements.totalAmount() >= 3);
+        assertNotNull(meterRegistry.find("hibernate.request.entity.loads").tag("uri", "/terranapi/books/{id}/borrow").summary());
+        assertNotNull(meterRegistry.find("hibernate.request.flushes").tag("uri", "/terranapi/books/{id}/borrow").summary());
+    }
+
+    @Test
+    void prometheus_ScrapesHistograms() throws Exception {
+        // Arrange
+        bookService.getAllBooks();
+
+        // Act & Assert
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("library_service_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_statements_total")));
+    }
+
+    private long serviceCalls(String method, String outcome) {
+        Timer timer = meterRegistry.find(ServiceMetrics.METRIC_NAME)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,179 @@
+package com.terran.library.controller;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.service.BookService;
+import com.terran.library.service.BorrowerService;
+import com.terran.library.service.ReactiveCatalogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the application as a reactive web application and checks the catalog endpoints read through
+ * R2DBC against the same H2 database the JPA services write to.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive-catalog;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-catalog;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "library.catalog.stream-page-size=3",
+        "library.catalog.legacy-max-rows=2"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive"})
+public class ReactiveCatalogTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveCatalogService catalogService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    private String isbn;
+    private List<Book> copies;
+    private Borrower borrower;
+
+    @BeforeEach
+    void setUp() {
+        isbn = UUID.randomUUID().toString();
+        copies = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book();
+            book.setIsbn(isbn);
+            book.setTitle("Reactive Reading");
+            book.setAuthor("Test Author");
+            copies.add(bookService.registerBook(book));
+        }
+        Borrower newBorrower = new Borrower();
+        newBorrower.setName("Kiosk Patron");
+        newBorrower.setEmail(UUID.randomUUID() + "@example.com");
+        borrower = borrowerService.registerBorrower(newBorrower);
+        bookService.borrowBook(copies.get(0).getId(), borrower.getId());
+    }
+
+    @Test
+    void getBookById_WithBorrower() {
+        webTestClient.get().uri("/terranapi/books/{id}", copies.get(0).getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.isbn").isEqualTo(isbn)
+                .jsonPath("$.borrower.id").isEqualTo(borrower.getId())
+                .jsonPath("$.borrower.name").isEqualTo("Kiosk Patron")
+                .jsonPath("$.borrowed").isEqualTo(true);
+    }
+
+    @Test
+    void getBookById_NotFound() {
+        webTestClient.get().uri("/terranapi/books/{id}", -1)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getCopiesByIsbn_WithAvailability() {
+        webTestClient.get().uri("/terranapi/books/isbn/{isbn}", isbn)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].borrowed").isEqualTo(true)
+                .jsonPath("$[0].borrowerId").isEqualTo(borrower.getId())
+                .jsonPath("$[1].borrowed").isEqualTo(false);
+    }
+
+    @Test
+    void getAvailability_Counts() {
+        webTestClient.get().uri("/terranapi/books/isbn/{isbn}/availability", isbn)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalCopies").isEqualTo(3)
+                .jsonPath("$.availableCopies").isEqualTo(2);
+
+        webTestClient.get().uri("/terranapi/books/isbn/{isbn}/availability", UUID.randomUUID().toString())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getBorrowerById() {
+        webTestClient.get().uri("/terranapi/borrowers/{id}", borrower.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo(borrower.getEmail());
+    }
+
+    @Test
+    void getAllBooks_CappedAtLegacyLimit() {
+        webTestClient.get().uri("/terranapi/books")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2);
+    }
+
+    @Test
+    void streamAllBooks_EveryBookAcrossPages() {
+        // Act
+        List<Book> streamed = webTestClient.get().uri("/terranapi/books")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Book.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // Assert: more books than the legacy limit, read three per page, in ID order without gaps
+        assertNotNull(streamed);
+        assertTrue(streamed.size() >= copies.size());
+        for (int i = 1; i < streamed.size(); i++) {
+            assertTrue(streamed.get(i - 1).getId() < streamed.get(i).getId());
+        }
+        assertTrue(streamed.stream().map(Book::getId).toList()
+                .containsAll(copies.stream().map(Book::getId).toList()));
+    }
+
+    @Test
+    void streamAllBooks_ReadsOnDemand() {
+        StepVerifier.create(catalogService.streamAllBooks(), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void writeEndpoints_NotServed() {
+        webTestClient.post().uri("/terranapi/books/{id}/return", copies.get(0).getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,93 @@
+package com.terran.library.repository;
+
+import com.terran.library.actuator.HibernateRequestMetrics;
+import com.terran.library.model.Borrower;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks on H2 that the book lookups by ISBN, borrower and ID read an index instead of scanning the
+ * books table. H2 has no partial indexes, so the available-copies index is checked on PostgreSQL only,
+ * see {@link PostgresMigrationTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookQueryPlanTest {
+
+    @SpyBean
+    private HibernateRequestMetrics hibernateRequestMetrics;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private QueryPlans queryPlans;
+
+    @BeforeEach
+    void setUp() {
+        queryPlans = new QueryPlans(hibernateRequestMetrics, jdbcTemplate, List.of());
+    }
+
+    @Test
+    void findByIsbn_UsesIndex() {
+        var sql = queryPlans.sqlOf(() -> bookRepository.findByIsbn("1234567890"));
+
+        assertUsesIndex(queryPlans.explain(sql, "1234567890"));
+    }
+
+    @Test
+    void findByBorrower_UsesIndex() {
+        // Arrange
+        Borrower borrower = new Borrower();
+        borrower.setName("Planned Patron");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        var saved = borrowerRepository.save(borrower);
+
+        // Act
+        var sql = queryPlans.sqlOf(() -> bookRepository.findByBorrower(saved));
+
+        // Assert
+        assertUsesIndex(queryPlans.explain(sql, saved.getId()));
+    }
+
+    @Test
+    void findAvailableCopiesForUpdate_UsesIndex() {
+        var sql = queryPlans.sqlOf(() -> transactionTemplate.executeWithoutResult(
+                status -> bookRepository.findAvailableCopiesForUpdate("1234567890", Limit.of(1))));
+
+        assertUsesIndex(queryPlans.explain(sql, "1234567890"));
+    }
+
+    @Test
+    void existsByIdAndBorrowerIsNotNull_UsesPrimaryKey() {
+        var sql = queryPlans.sqlOf(() -> bookRepository.existsByIdAndBorrowerIsNotNull(1L));
+
+        assertUsesIndex(queryPlans.explain(sql, 1L));
+    }
+
+    private static void assertUsesIndex(String plan) {
+        // H2 marks full scans as tableScan and index reads with the index name and condition
+        assertFalse(plan.toLowerCase(Locale.ROOT).contains("tablescan"), plan);
+    }
+}
@@ -0,0 +1,118 @@
+package com.terran.library.repository;
+
+import com.terran.library.actuator.HibernateRequestMetrics;
+import com.terran.library.model.Borrower;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the migrations on PostgreSQL: the schema they create passes Hibernate's validation, which the
+ * context does on startup, and the book lookups read the migrated indexes. Sequential scans are turned
+ * off while explaining, so the plans do not depend on the table statistics.
+ * <p>
+ * Runs only when LIBRARY_TEST_POSTGRES_URL points to an empty, disposable database, with the user and
+ * password in LIBRARY_TEST_POSTGRES_USERNAME and LIBRARY_TEST_POSTGRES_PASSWORD (terrandb by default).
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "LIBRARY_TEST_POSTGRES_URL", matches = ".+")
+public class PostgresMigrationTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("LIBRARY_TEST_POSTGRES_URL"));
+        registry.add("spring.datasource.username",
+                () -> System.getenv().getOrDefault("LIBRARY_TEST_POSTGRES_USERNAME", "terrandb"));
+        registry.add("spring.datasource.password",
+                () -> System.getenv().getOrDefault("LIBRARY_TEST_POSTGRES_PASSWORD", "terrandb"));
+        registry.add("library.import.resume-on-startup", () -> "false");
+    }
+
+    @SpyBean
+    private HibernateRequestMetrics hibernateRequestMetrics;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private QueryPlans queryPlans;
+
+    @BeforeEach
+    void setUp() {
+        queryPlans = new QueryPlans(hibernateRequestMetrics, jdbcTemplate, List.of("SET enable_seqscan = off"));
+    }
+
+    @Test
+    void migrate_AppliesEveryVersion() {
+        assertEquals("3", flyway.info().current().getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void findByIsbn_UsesIsbnIndex() {
+        var sql = queryPlans.sqlOf(() -> bookRepository.findByIsbn("1234567890"));
+
+        assertUsesIndex(queryPlans.explain(sql, "1234567890"), "idx_books_isbn_borrower_id");
+    }
+
+    @Test
+    void findByBorrowerIsNull_UsesIndex() {
+        var sql = queryPlans.sqlOf(() -> bookRepository.findByBorrowerIsNull());
+
+        // Both the partial index and the borrower index can serve IS NULL; which one depends on the statistics
+        assertUsesIndex(queryPlans.explain(sql), "idx_books_available", "idx_books_borrower_id");
+    }
+
+    @Test
+    void findAvailableCopiesForUpdate_UsesIndex() {
+        var sql = queryPlans.sqlOf(() -> transactionTemplate.executeWithoutResult(
+                status -> bookRepository.findAvailableCopiesForUpdate("1234567890", Limit.of(1))));
+
+        assertUsesIndex(queryPlans.explain(sql, "1234567890"), "idx_books_available", "idx_books_isbn_borrower_id");
+    }
+
+    @Test
+    void findByBorrower_UsesBorrowerIndex() {
+        // Arrange
+        Borrower borrower = new Borrower();
+        borrower.setName("Planned Patron");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        var saved = borrowerRepository.save(borrower);
+
+        // Act
+        var sql = queryPlans.sqlOf(() -> bookRepository.findByBorrower(saved));
+
+        // Assert
+        assertUsesIndex(queryPlans.explain(sql, saved.getId()), "idx_books_borrower_id");
+    }
+
+    private static void assertUsesIndex(String plan, String... indexes) {
+        assertFalse(plan.contains("Seq Scan"), plan);
+        assertTrue(List.of(indexes).stream().anyMatch(plan::contains), plan);
+    }
+}
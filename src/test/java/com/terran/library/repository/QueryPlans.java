@@ -0,0 +1,85 @@
+package com.terran.library.repository;
+
+import com.terran.library.actuator.HibernateRequestMetrics;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Captures the SQL of a repository call and reads its query plan from the database.
+ * The SQL is taken from the statement inspector of {@link HibernateRequestMetrics}, which the tests
+ * replace with a spy, so the plans are those of the statements the repositories actually send.
+ */
+class QueryPlans {
+
+    private final HibernateRequestMetrics statementInspector;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> settings;
+
+    /**
+     * @param statementInspector the spied statement inspector
+     * @param jdbcTemplate the JDBC template
+     * @param settings PostgreSQL planner settings applied for each EXPLAIN, and reset after it
+     */
+    QueryPlans(HibernateRequestMetrics statementInspector, JdbcTemplate jdbcTemplate, List<String> settings) {
+        this.statementInspector = statementInspector;
+        this.jdbcTemplate = jdbcTemplate;
+        this.settings = settings;
+    }
+
+    /**
+     * Runs a repository call and returns the SQL of its last statement.
+     *
+     * @param call the repository call
+     * @return the SQL, with its parameter markers
+     */
+    String sqlOf(Runnable call) {
+        clearInvocations(statementInspector);
+        call.run();
+        var sql = ArgumentCaptor.forClass(String.class);
+        verify(statementInspector, atLeastOnce()).inspect(sql.capture());
+        return sql.getValue();
+    }
+
+    /**
+     * Explains a statement with its parameters bound, on a single connection.
+     * Markers past the given parameters are the row limits Hibernate adds, and are bound to 1.
+     *
+     * @param sql the SQL
+     * @param parameters the leading parameter values, in order
+     * @return the plan, one line per row of the EXPLAIN output
+     */
+    String explain(String sql, Object... parameters) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (var statement = connection.createStatement()) {
+                for (var setting : settings) {
+                    statement.execute(setting);
+                }
+                try (var explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                    var markers = (int) sql.chars().filter(c -> c == '?').count();
+                    for (int i = 0; i < markers; i++) {
+                        explain.setObject(i + 1, i < parameters.length ? parameters[i] : 1);
+                    }
+                    var plan = new StringBuilder();
+                    try (var rows = explain.executeQuery()) {
+                        while (rows.next()) {
+                            plan.append(rows.getString(1)).append('\n');
+                        }
+                    }
+                    return plan.toString();
+                } finally {
+                    if (!settings.isEmpty()) {
+                        // The connection goes back to the pool
+                        statement.execute("RESET ALL");
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.repository.BookRepository;
+import com.terran.library.repository.TitleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Registers a whole inventory in bulk against H2 and checks, using Hibernate statistics,
+ * that the books are inserted in JDBC batches with IDs from the pooled sequence.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookBulkRegistrationTest {
+
+    private static final int COPIES = 120;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TitleRepository titleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void registerBooks_InsertsInBatches() {
+        // Arrange: two ISBNs, one of them with a copy that does not match its title
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String isbn = UUID.randomUUID().toString();
+        String otherIsbn = UUID.randomUUID().toString();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            books.add(newBook(i % 2 == 0 ? isbn : otherIsbn, "Bulk Title"));
+        }
+        books.set(5, newBook(otherIsbn, "Mismatched Title"));
+        statistics.clear();
+
+        // Act
+        List<BookRegistrationResult> results = bookService.registerBooks(books);
+
+        // Assert
+        assertEquals(COPIES, results.size());
+        assertEquals(COPIES - 1, results.stream().filter(result -> result.error() == null).count());
+        assertNotNull(results.get(5).error());
+        assertEquals(COPIES - 1, statistics.getEntityInsertCount() - 2);
+        // title lookup, title inserts, sequence calls and one insert statement per batch of 50,
+        // instead of one statement per book
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "expected batched inserts but got " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(COPIES / 2, titleRepository.findById(isbn).orElseThrow().getTotalCopies());
+        assertEquals(COPIES / 2 - 1, titleRepository.findById(otherIsbn).orElseThrow().getAvailableCopies());
+        assertEquals(COPIES - 1, bookRepository.findByIsbn(isbn).size() + bookRepository.findByIsbn(otherIsbn).size());
+    }
+
+    private Book newBook(String isbn, String title) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor("Bulk Author");
+        return book;
+    }
+}
@@ -0,0 +1,154 @@
+package com.terran.library.service;
+
+import com.terran.library.config.CacheConfig;
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.repository.BorrowerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the read-through caches of book and borrower lookups against H2: repeated reads are
+ * served without statements, and writes evict only the affected book ID and ISBN, after commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookCacheTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String isbn;
+    private Book first;
+    private Book second;
+    private Borrower borrower;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        isbn = UUID.randomUUID().toString();
+        first = bookService.registerBook(newBook());
+        second = bookService.registerBook(newBook());
+        borrower = new Borrower();
+        borrower.setName("Cache Tester");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        borrower = borrowerRepository.save(borrower);
+    }
+
+    @Test
+    void lookups_ServedFromCache() {
+        // Arrange
+        bookService.getBookById(first.getId());
+        bookService.getCatalogRowsByIsbn(isbn);
+        bookService.getTitle(isbn);
+        borrowerService.getBorrowerById(borrower.getId());
+        statistics.clear();
+
+        // Act
+        Book book = bookService.getBookById(first.getId()).orElseThrow();
+        int copies = bookService.getCatalogRowsByIsbn(isbn).size();
+        int available = bookService.getTitle(isbn).orElseThrow().getAvailableCopies();
+        Borrower cached = borrowerService.getBorrowerById(borrower.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(first.getId(), book.getId());
+        assertEquals(2, copies);
+        assertEquals(2, available);
+        assertEquals(borrower.getEmail(), cached.getEmail());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", CacheConfig.BOOKS).tag("result", "hit")
+                .functionCounter().count() >= 1);
+    }
+
+    @Test
+    void missingIds_NotCached() {
+        // Act
+        bookService.getBookById(Long.MAX_VALUE);
+
+        // Assert
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(Long.MAX_VALUE));
+    }
+
+    @Test
+    void borrowBook_EvictsOnlyAffectedEntriesAfterCommit() {
+        // Arrange
+        bookService.getBookById(first.getId());
+        bookService.getBookById(second.getId());
+        bookService.getCatalogRowsByIsbn(isbn);
+        bookService.getTitle(isbn);
+
+        // Act & Assert: the entries stay until the borrowing transaction commits
+        transactionTemplate.executeWithoutResult(status -> {
+            bookService.borrowBook(first.getId(), borrower.getId());
+            assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(first.getId()));
+        });
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(first.getId()));
+        assertNull(cacheManager.getCache(CacheConfig.COPIES_BY_ISBN).get(isbn));
+        assertNull(cacheManager.getCache(CacheConfig.TITLES).get(isbn));
+        assertNotNull(cacheManager.getCache(CacheConfig.BOOKS).get(second.getId()));
+
+        assertEquals(borrower.getId(), bookService.getBookById(first.getId()).orElseThrow().getBorrower().getId());
+        assertEquals(1, bookService.getTitle(isbn).orElseThrow().getAvailableCopies());
+        assertTrue(bookService.getCatalogRowsByIsbn(isbn).stream().anyMatch(CatalogRow::borrowed));
+    }
+
+    @Test
+    void returnAndRegister_EvictAffectedEntries() {
+        // Arrange
+        bookService.borrowBook(first.getId(), borrower.getId());
+        bookService.getBookById(first.getId());
+        bookService.getBooksByIsbn(isbn);
+
+        // Act
+        bookService.returnBook(first.getId());
+        bookService.getBooksByIsbn(isbn);
+        bookService.registerBook(newBook());
+
+        // Assert
+        assertNull(bookService.getBookById(first.getId()).orElseThrow().getBorrower());
+        assertEquals(3, bookService.getBooksByIsbn(isbn).size());
+        assertEquals(3, bookService.getTitle(isbn).orElseThrow().getAvailableCopies());
+    }
+
+    private Book newBook() {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle("Cached Title");
+        book.setAuthor("Cache Author");
+        return book;
+    }
+}
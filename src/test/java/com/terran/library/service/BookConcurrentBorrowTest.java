@@ -0,0 +1,169 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.model.Title;
+import com.terran.library.repository.BookRepository;
+import com.terran.library.repository.BorrowerRepository;
+import com.terran.library.repository.TitleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races several borrowers for the same copies against H2 and checks that each copy has exactly one winner.
+ * On H2 the copy allocation runs without SKIP LOCKED, which exercises the fallback path.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookConcurrentBorrowTest {
+
+    private static final int COPIES = 5;
+    private static final int BORROWERS_PER_COPY = 8;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private TitleRepository titleRepository;
+
+    @Test
+    void borrowBook_ExactlyOneWinnerPerCopy() throws Exception {
+        // Arrange
+        String isbn = UUID.randomUUID().toString();
+        titleRepository.save(new Title(isbn, "Concurrent Borrowing", "Test Author", COPIES, COPIES, true));
+        List<Book> copies = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            Book book = new Book();
+            book.setIsbn(isbn);
+            book.setTitle("Concurrent Borrowing");
+            book.setAuthor("Test Author");
+            copies.add(bookRepository.save(book));
+        }
+        List<Borrower> borrowers = new ArrayList<>();
+        for (int i = 0; i < BORROWERS_PER_COPY; i++) {
+            Borrower borrower = new Borrower();
+            borrower.setName("Racer " + i);
+            borrower.setEmail(UUID.randomUUID() + "@example.com");
+            borrowers.add(borrowerRepository.save(borrower));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(COPIES * BORROWERS_PER_COPY);
+        CountDownLatch start = new CountDownLatch(1);
+        List<List<Future<Boolean>>> attempts = new ArrayList<>();
+        try {
+            // Act
+            for (Book copy : copies) {
+                List<Future<Boolean>> copyAttempts = new ArrayList<>();
+                for (Borrower borrower : borrowers) {
+                    copyAttempts.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            bookService.borrowBook(copy.getId(), borrower.getId());
+                            return true;
+                        } catch (IllegalArgumentException e) {
+                            assertEquals("Book is already borrowed", e.getMessage());
+                            return false;
+                        }
+                    }));
+                }
+                attempts.add(copyAttempts);
+            }
+            start.countDown();
+
+            // Assert
+            for (int i = 0; i < COPIES; i++) {
+                int winners = 0;
+                for (Future<Boolean> attempt : attempts.get(i)) {
+                    if (attempt.get(30, TimeUnit.SECONDS)) {
+                        winners++;
+                    }
+                }
+                assertEquals(1, winners, "copy " + copies.get(i).getId() + " must have exactly one winner");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (Book copy : copies) {
+            assertTrue(bookRepository.existsByIdAndBorrowerIsNotNull(copy.getId()));
+        }
+        assertEquals(0, titleRepository.findById(isbn).orElseThrow().getAvailableCopies());
+    }
+
+    @Test
+    void borrowAnyCopy_EveryCopyClaimedOnce() throws Exception {
+        // Arrange: more borrowers than copies of the ISBN
+        String isbn = UUID.randomUUID().toString();
+        titleRepository.save(new Title(isbn, "Concurrent Allocation", "Test Author", COPIES, COPIES, true));
+        for (int i = 0; i < COPIES; i++) {
+            Book book = new Book();
+            book.setIsbn(isbn);
+            book.setTitle("Concurrent Allocation");
+            book.setAuthor("Test Author");
+            bookRepository.save(book);
+        }
+        List<Borrower> borrowers = new ArrayList<>();
+        for (int i = 0; i < BORROWERS_PER_COPY; i++) {
+            Borrower borrower = new Borrower();
+            borrower.setName("Patron " + i);
+            borrower.setEmail(UUID.randomUUID() + "@example.com");
+            borrowers.add(borrowerRepository.save(borrower));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(BORROWERS_PER_COPY);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> attempts = new ArrayList<>();
+        try {
+            // Act
+            for (Borrower borrower : borrowers) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return bookService.borrowAnyCopy(isbn, borrower.getId()).getId();
+                    } catch (IllegalArgumentException e) {
+                        assertEquals("No available copy of ISBN: " + isbn, e.getMessage());
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+
+            // Assert
+            Set<Long> claimed = new HashSet<>();
+            int misses = 0;
+            for (Future<Long> attempt : attempts) {
+                Long bookId = attempt.get(30, TimeUnit.SECONDS);
+                if (bookId == null) {
+                    misses++;
+                } else {
+                    assertTrue(claimed.add(bookId), "copy " + bookId + " was handed out twice");
+                }
+            }
+            assertEquals(COPIES, claimed.size());
+            assertEquals(BORROWERS_PER_COPY - COPIES, misses);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, titleRepository.findById(isbn).orElseThrow().getAvailableCopies());
+    }
+}
\ No newline at end of file
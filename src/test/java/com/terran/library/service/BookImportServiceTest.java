@@ -0,0 +1,139 @@
+package com.terran.library.service;
+
+import com.terran.library.actuator.BookImportEndpoint;
+import com.terran.library.model.ImportJob;
+import com.terran.library.repository.BookRepository;
+import com.terran.library.repository.ImportJobRepository;
+import com.terran.library.repository.TitleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports CSV files into H2 in chunks of three records, including an import resumed from its checkpoint.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookImportServiceTest {
+
+    @TempDir
+    static Path importDir;
+
+    @DynamicPropertySource
+    static void importProperties(DynamicPropertyRegistry registry) {
+        registry.add("library.import.chunk-size", () -> 3);
+        registry.add("library.import.local-dir", () -> importDir.resolve("inbox").toString());
+        registry.add("library.import.spool-dir", () -> importDir.resolve("uploads").toString());
+        registry.add("library.import.resume-on-startup", () -> false);
+    }
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TitleRepository titleRepository;
+
+    @Autowired
+    private BookImportEndpoint bookImportEndpoint;
+
+    @Test
+    void runImport_CommitsChunksAndReportsRejects() throws IOException {
+        // Arrange
+        String isbn = UUID.randomUUID().toString();
+        Path file = csv("isbn,title,author",
+                isbn + ",Imported Title,Import Author",
+                isbn + ",Imported Title,Import Author",
+                isbn + ",,Import Author",
+                isbn + ",Other Title,Import Author",
+                "malformed record",
+                isbn + ",Imported Title,Import Author",
+                isbn + ",Imported Title,Import Author");
+        ImportJob job = importJobRepository.save(ImportJob.of(file.toString()));
+
+        // Act
+        bookImportService.runImport(job.getId());
+
+        // Assert
+        ImportJobStatus status = bookImportService.getImport(job.getId()).orElseThrow();
+        assertEquals(ImportJob.Status.COMPLETED, status.status());
+        assertEquals(7, status.recordsProcessed());
+        assertEquals(4, status.booksImported());
+        assertEquals(3, status.booksRejected());
+        assertTrue(status.lastError().startsWith("Record 5: "));
+        assertNotNull(status.finishedAt());
+        assertEquals(4, bookRepository.findByIsbn(isbn).size());
+        assertEquals(4, titleRepository.findById(isbn).orElseThrow().getAvailableCopies());
+        assertEquals(status, bookImportEndpoint.importJob(job.getId()));
+    }
+
+    @Test
+    void runImport_ResumesAfterLastCommittedChunk() throws IOException {
+        // Arrange: an import that committed its first chunk before the application stopped
+        String isbn = UUID.randomUUID().toString();
+        Path file = csv("isbn,title,author",
+                isbn + ",Resumed Title,Import Author",
+                isbn + ",Resumed Title,Import Author",
+                isbn + ",Resumed Title,Import Author",
+                isbn + ",Resumed Title,Import Author",
+                isbn + ",Resumed Title,Import Author");
+        ImportJob job = ImportJob.of(file.toString());
+        job.setRecordsProcessed(3);
+        job.setBooksImported(3);
+        job = importJobRepository.save(job);
+
+        // Act
+        bookImportService.runImport(job.getId());
+
+        // Assert
+        ImportJobStatus status = bookImportService.getImport(job.getId()).orElseThrow();
+        assertEquals(ImportJob.Status.COMPLETED, status.status());
+        assertEquals(5, status.recordsProcessed());
+        assertEquals(5, status.booksImported());
+        assertEquals(2, bookRepository.findByIsbn(isbn).size());
+    }
+
+    @Test
+    void runImport_MissingFileFails() {
+        // Arrange
+        ImportJob job = importJobRepository.save(ImportJob.of(importDir.resolve("missing.csv").toString()));
+
+        // Act
+        bookImportService.runImport(job.getId());
+
+        // Assert
+        ImportJobStatus status = bookImportService.getImport(job.getId()).orElseThrow();
+        assertEquals(ImportJob.Status.FAILED, status.status());
+        assertTrue(status.lastError().contains("missing.csv"));
+    }
+
+    @Test
+    void startLocalImport_RejectsPathsOutsideImportDirectory() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> bookImportService.startLocalImport("../uploads/secret.csv"));
+        assertTrue(exception.getMessage().contains("inside the import directory"));
+        assertThrows(IllegalArgumentException.class, () -> bookImportService.startLocalImport("absent.csv"));
+    }
+
+    private static Path csv(String... lines) throws IOException {
+        Path inbox = Files.createDirectories(importDir.resolve("inbox"));
+        return Files.write(inbox.resolve(UUID.randomUUID() + ".csv"), String.join("\n", lines).getBytes());
+    }
+}
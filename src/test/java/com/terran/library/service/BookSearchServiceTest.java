@@ -0,0 +1,127 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the catalog search on H2, which uses the substring engine: one result per ISBN with its copy
+ * counts, title matches ranked before author matches, and pagination.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookSearchServiceTest {
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    private String word;
+
+    @BeforeEach
+    void setUp() {
+        // A word no other test uses, so results only hold the books of this test
+        word = "w" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Test
+    void search_OneResultPerIsbnWithCopyCounts() {
+        // Arrange
+        String isbn = UUID.randomUUID().toString();
+        Book first = bookService.registerBook(newBook(isbn, "The " + word + " Chronicles", "Some Author"));
+        bookService.registerBook(newBook(isbn, "The " + word + " Chronicles", "Some Author"));
+        bookService.registerBook(newBook(isbn, "The " + word + " Chronicles", "Some Author"));
+        Borrower borrower = new Borrower();
+        borrower.setName("Searching Patron");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        bookService.borrowBook(first.getId(), borrowerService.registerBorrower(borrower).getId());
+
+        // Act
+        BookSearchPage page = bookSearchService.search(word.toUpperCase(), null, null);
+
+        // Assert
+        assertEquals(1, page.results().size());
+        BookSearchResult result = page.results().get(0);
+        assertEquals(isbn, result.isbn());
+        assertEquals(3, result.totalCopies());
+        assertEquals(2, result.availableCopies());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void search_RanksTitlePrefixThenTitleThenAuthor() {
+        // Arrange
+        String byAuthor = bookService.registerBook(newBook(UUID.randomUUID().toString(), "Unrelated", word + " Smith")).getIsbn();
+        String inTitle = bookService.registerBook(newBook(UUID.randomUUID().toString(), "About " + word, "Jones")).getIsbn();
+        String titlePrefix = bookService.registerBook(newBook(UUID.randomUUID().toString(), word + " Rising", "Brown")).getIsbn();
+
+        // Act
+        BookSearchPage page = bookSearchService.search(word, null, null);
+
+        // Assert
+        assertEquals(List.of(titlePrefix, inTitle, byAuthor), page.results().stream().map(BookSearchResult::isbn).toList());
+        assertTrue(page.results().get(0).score() > page.results().get(1).score());
+        assertTrue(page.results().get(1).score() > page.results().get(2).score());
+    }
+
+    @Test
+    void search_Paginates() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            bookService.registerBook(newBook(UUID.randomUUID().toString(), word + " Volume " + i, "Series Author"));
+        }
+
+        // Act
+        BookSearchPage first = bookSearchService.search(word, 0, 2);
+        BookSearchPage last = bookSearchService.search(word, 2, 2);
+
+        // Assert
+        assertEquals(2, first.results().size());
+        assertTrue(first.hasNext());
+        assertEquals(1, last.results().size());
+        assertFalse(last.hasNext());
+        assertEquals(word + " Volume 4", last.results().get(0).title());
+    }
+
+    @Test
+    void search_WildcardsMatchLiterally() {
+        // Arrange
+        bookService.registerBook(newBook(UUID.randomUUID().toString(), word + " Unrelated", "Anyone"));
+
+        // Act
+        BookSearchPage page = bookSearchService.search(word + "%", null, null);
+
+        // Assert
+        assertTrue(page.results().isEmpty());
+    }
+
+    @Test
+    void search_InvalidText() {
+        assertThrows(IllegalArgumentException.class, () -> bookSearchService.search("  ", null, null));
+        assertThrows(IllegalArgumentException.class, () -> bookSearchService.search("%!_", null, null));
+        assertThrows(IllegalArgumentException.class, () -> bookSearchService.search(word, -1, null));
+        assertThrows(IllegalArgumentException.class, () -> bookSearchService.search(word, null, 0));
+    }
+
+    private static Book newBook(String isbn, String title, String author) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+}
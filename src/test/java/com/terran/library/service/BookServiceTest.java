@@ -1,22 +1,43 @@
 package com.terran.library.service;
 
+import com.terran.library.event.BookBorrowedEvent;
+import com.terran.library.event.BookReturnedEvent;
+import com.terran.library.event.BooksRegisteredEvent;
 import com.terran.library.model.Book;
 import com.terran.library.model.Borrower;
+import com.terran.library.model.Loan;
+import com.terran.library.model.Title;
 import com.terran.library.repository.BookRepository;
 import com.terran.library.repository.BorrowerRepository;
+import com.terran.library.repository.LoanRepository;
+import com.terran.library.repository.TitleRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +49,24 @@ public class BookServiceTest {
     @Mock
     private BorrowerRepository borrowerRepository;
 
+    @Mock
+    private TitleRepository titleRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -38,6 +77,9 @@ public class BookServiceTest {
 
     @BeforeEach
     void setUp() {
+        // The entity manager is field-injected by the container
+        ReflectionTestUtils.setField(bookService, "entityManager", entityManager);
+
         // Set up borrower
         borrower = new Borrower();
         borrower.setId(1L);
@@ -76,8 +118,8 @@ public class BookServiceTest {
         newBook.setAuthor("New Author");
         newBook.setBorrower(borrower); // Should be set to null during registration
 
-        when(bookRepository.findByIsbnAndTitleAndAuthor(anyString(), anyString(), anyString()))
-            .thenReturn(Optional.empty());
+        when(titleRepository.findById("5555555555")).thenReturn(Optional.empty());
+        when(titleRepository.insertFirstCopy("5555555555", "New Book", "New Author")).thenReturn(1);
         when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
             Book savedBook = invocation.getArgument(0);
             assertNull(savedBook.getBorrower()); // Verify borrower is set to null
@@ -90,10 +132,58 @@ public class BookServiceTest {
         // Assert
         assertNotNull(result);
         assertNull(result.getBorrower());
-        verify(bookRepository, times(1)).findByIsbnAndTitleAndAuthor(
-            newBook.getIsbn(), newBook.getTitle(), newBook.getAuthor());
+        verify(titleRepository, times(1)).findById(newBook.getIsbn());
+        verify(titleRepository, times(1)).insertFirstCopy("5555555555", "New Book", "New Author");
+        verify(titleRepository, never()).addCopies(any(), anyInt());
+        verify(bookRepository, times(1)).save(newBook);
+        verify(eventPublisher, times(1)).publishEvent(new BooksRegisteredEvent(List.of(CatalogRow.of(newBook))));
+    }
+
+    @Test
+    void registerBook_TitleCreatedConcurrently_IncrementStock() {
+        // Arrange
+        Book newBook = new Book();
+        newBook.setIsbn("5555555555");
+        newBook.setTitle("New Book");
+        newBook.setAuthor("New Author");
+
+        when(titleRepository.findById("5555555555"))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(new Title("5555555555", "New Book", "New Author", 1, 1, false)));
+        when(titleRepository.insertFirstCopy("5555555555", "New Book", "New Author")).thenReturn(0);
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Book result = bookService.registerBook(newBook);
+
+        // Assert
+        assertNotNull(result);
+        verify(titleRepository, times(2)).findById("5555555555");
+        verify(titleRepository, times(1)).addCopies("5555555555", 1);
         verify(bookRepository, times(1)).save(newBook);
     }
+
+    @Test
+    void registerBook_TitleCreatedConcurrently_TitleMismatch() {
+        // Arrange
+        Book newBook = new Book();
+        newBook.setIsbn("5555555555");
+        newBook.setTitle("New Book");
+        newBook.setAuthor("New Author");
+
+        when(titleRepository.findById("5555555555"))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(new Title("5555555555", "Other Book", "New Author", 1, 1, false)));
+        when(titleRepository.insertFirstCopy("5555555555", "New Book", "New Author")).thenReturn(0);
+
+        // Act
+        Book result = bookService.registerBook(newBook);
+
+        // Assert
+        assertNull(result);
+        verify(titleRepository, never()).addCopies(any(), anyInt());
+        verify(bookRepository, never()).save(any());
+    }
     
     @Test
     void registerBook_ExistingBook_IncrementStock() {
@@ -103,8 +193,8 @@ public class BookServiceTest {
         newBook.setTitle("Spring Boot in Action");
         newBook.setAuthor("Craig Walls");
         
-        when(bookRepository.findByIsbnAndTitleAndAuthor("1234567890", "Spring Boot in Action", "Craig Walls"))
-            .thenReturn(Optional.of(book1)); // book1 already exists with stock 2
+        when(titleRepository.findById("1234567890"))
+            .thenReturn(Optional.of(new Title("1234567890", "Spring Boot in Action", "Craig Walls", 2, 1, false))); // two copies exist
         when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
         
         // Act
@@ -112,15 +202,100 @@ public class BookServiceTest {
         
         // Assert
         assertNotNull(result);
-        verify(bookRepository, times(1)).findByIsbnAndTitleAndAuthor(
-            newBook.getIsbn(), newBook.getTitle(), newBook.getAuthor());
-        verify(bookRepository, times(1)).save(book1);
+        verify(titleRepository, times(1)).findById(newBook.getIsbn());
+        verify(titleRepository, times(1)).addCopies("1234567890", 1);
+        verify(titleRepository, never()).save(any());
+        verify(bookRepository, times(1)).save(newBook);
+    }
+
+    @Test
+    void registerBook_TitleMismatch() {
+        // Arrange
+        Book newBook = new Book();
+        newBook.setIsbn("1234567890");
+        newBook.setTitle("Another Title");
+        newBook.setAuthor("Craig Walls");
+
+        when(titleRepository.findById("1234567890"))
+            .thenReturn(Optional.of(new Title("1234567890", "Spring Boot in Action", "Craig Walls", 2, 1, false)));
+
+        // Act
+        Book result = bookService.registerBook(newBook);
+
+        // Assert
+        assertNull(result);
+        verify(titleRepository, never()).addCopies(any(), anyInt());
+        verify(bookRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void registerBooks_PartialFailures() {
+        // Arrange
+        List<Book> books = Arrays.asList(
+            newBook("5555555555", "New Book", "New Author"),
+            newBook("1234567890", "Spring Boot in Action", "Craig Walls"),
+            newBook("1234567890", "Another Title", "Craig Walls"),
+            newBook("5555555555", "New Book", "New Author"),
+            newBook("6666666666", "", "No Title"));
+        when(titleRepository.findAllById(any()))
+            .thenReturn(List.of(new Title("1234567890", "Spring Boot in Action", "Craig Walls", 2, 1, false)));
+        long[] ids = {100L};
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
+            Book saved = invocation.getArgument(0);
+            saved.setId(ids[0]++);
+            return saved;
+        });
+
+        // Act
+        List<BookRegistrationResult> results = bookService.registerBooks(books);
+
+        // Assert
+        assertEquals(5, results.size());
+        assertEquals(new BookRegistrationResult(0, "5555555555", 100L, null), results.get(0));
+        assertEquals(new BookRegistrationResult(1, "1234567890", 101L, null), results.get(1));
+        assertEquals("Title or author does not match ISBN 1234567890", results.get(2).error());
+        assertNull(results.get(2).id());
+        assertEquals(new BookRegistrationResult(3, "5555555555", 102L, null), results.get(3));
+        assertEquals("Title is required", results.get(4).error());
+        verify(titleRepository, times(1)).findAllById(any());
+        verify(titleRepository, times(1)).saveAll(argThat(titles -> titles.iterator().next().getTotalCopies() == 2));
+        verify(titleRepository, times(1)).addCopies("1234567890", 1);
+        verify(bookRepository, times(3)).save(any(Book.class));
+        verify(bookRepository, never()).findByIsbn(any());
+        verify(eventPublisher, times(1)).publishEvent(new BooksRegisteredEvent(List.of(
+            new CatalogRow(100L, "5555555555", "New Book", "New Author", null),
+            new CatalogRow(101L, "1234567890", "Spring Boot in Action", "Craig Walls", null),
+            new CatalogRow(102L, "5555555555", "New Book", "New Author", null))));
+    }
+
+    @Test
+    void registerBooks_Empty() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> bookService.registerBooks(List.of()));
+        assertEquals("No books to register", exception.getMessage());
+        verifyNoInteractions(titleRepository, bookRepository);
+    }
+
+    @Test
+    void getTitle() {
+        // Arrange
+        when(titleRepository.findById("1234567890"))
+            .thenReturn(Optional.of(new Title("1234567890", "Spring Boot in Action", "Craig Walls", 2, 1, false)));
+
+        // Act
+        Optional<Title> result = bookService.getTitle("1234567890");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(1, result.get().getAvailableCopies());
+        verifyNoInteractions(bookRepository);
     }
 
     @Test
     void getBookById_Found() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book1));
+        when(bookRepository.findWithBorrowerById(1L)).thenReturn(Optional.of(book1));
 
         // Act
         Optional<Book> result = bookService.getBookById(1L);
@@ -129,27 +304,27 @@ public class BookServiceTest {
         assertTrue(result.isPresent());
         assertEquals(book1.getId(), result.get().getId());
         assertEquals(book1.getTitle(), result.get().getTitle());
-        verify(bookRepository, times(1)).findById(1L);
+        verify(bookRepository, times(1)).findWithBorrowerById(1L);
     }
 
     @Test
     void getBookById_NotFound() {
         // Arrange
-        when(bookRepository.findById(99L)).thenReturn(Optional.empty());
+        when(bookRepository.findWithBorrowerById(99L)).thenReturn(Optional.empty());
 
         // Act
         Optional<Book> result = bookService.getBookById(99L);
 
         // Assert
         assertFalse(result.isPresent());
-        verify(bookRepository, times(1)).findById(99L);
+        verify(bookRepository, times(1)).findWithBorrowerById(99L);
     }
 
     @Test
     void getAllBooks() {
         // Arrange
         List<Book> books = Arrays.asList(book1, book2, book3);
-        when(bookRepository.findAll()).thenReturn(books);
+        when(bookRepository.findAllByOrderByIdAsc(Limit.of(1000))).thenReturn(books);
 
         // Act
         List<Book> result = bookService.getAllBooks();
@@ -159,7 +334,77 @@ public class BookServiceTest {
         assertTrue(result.contains(book1));
         assertTrue(result.contains(book2));
         assertTrue(result.contains(book3));
-        verify(bookRepository, times(1)).findAll();
+        verify(bookRepository, times(1)).findAllByOrderByIdAsc(Limit.of(1000));
+        verify(bookRepository, never()).findAll();
+    }
+
+    @Test
+    void getCatalogPage_FirstPage() {
+        // Arrange
+        when(bookRepository.findCatalogPageAfter(0L, null, null, null, Limit.of(3)))
+            .thenReturn(Arrays.asList(row(book1), row(book2), row(book3)));
+
+        // Act
+        CatalogPage page = bookService.getCatalogPage(null, 2, null);
+
+        // Assert
+        assertEquals(2, page.size());
+        assertEquals(Arrays.asList(row(book1), row(book2)), page.books());
+        assertNotNull(page.nextCursor());
+        assertNull(page.prevCursor());
+    }
+
+    @Test
+    void getCatalogPage_FollowCursors() {
+        // Arrange
+        when(bookRepository.findCatalogPageAfter(0L, "1234567890", null, true, Limit.of(2)))
+            .thenReturn(Arrays.asList(row(book1), row(book3)));
+        when(bookRepository.findCatalogPageAfter(1L, "1234567890", null, true, Limit.of(2)))
+            .thenReturn(List.of(row(book3)));
+        when(bookRepository.findCatalogPageBefore(3L, "1234567890", null, true, Limit.of(2)))
+            .thenReturn(List.of(row(book1)));
+        CatalogFilter filter = new CatalogFilter("1234567890", null, true);
+
+        // Act
+        CatalogPage first = bookService.getCatalogPage(null, 1, filter);
+        CatalogPage second = bookService.getCatalogPage(first.nextCursor(), 1, filter);
+        CatalogPage back = bookService.getCatalogPage(second.prevCursor(), 1, filter);
+
+        // Assert
+        assertEquals(List.of(row(book3)), second.books());
+        assertTrue(second.books().get(0).borrowed());
+        assertEquals(1L, second.books().get(0).borrowerId());
+        assertNull(second.nextCursor());
+        assertNotNull(second.prevCursor());
+        assertEquals(List.of(row(book1)), back.books());
+        assertNull(back.prevCursor());
+        assertNotNull(back.nextCursor());
+    }
+
+    @Test
+    void getCatalogPage_SizeIsCapped() {
+        // Arrange
+        when(bookRepository.findCatalogPageAfter(0L, null, null, null, Limit.of(501)))
+            .thenReturn(List.of(row(book1)));
+
+        // Act
+        CatalogPage page = bookService.getCatalogPage(null, 100_000, CatalogFilter.none());
+
+        // Assert
+        assertEquals(500, page.size());
+        assertNull(page.nextCursor());
+        verify(bookRepository, times(1)).findCatalogPageAfter(0L, null, null, null, Limit.of(501));
+    }
+
+    @Test
+    void getCatalogPage_InvalidCursor() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookService.getCatalogPage("not-a-cursor", 10, null);
+        });
+
+        assertTrue(exception.getMessage().contains("Invalid catalog cursor"));
+        verifyNoInteractions(bookRepository);
     }
 
     @Test
@@ -178,14 +423,28 @@ public class BookServiceTest {
         verify(bookRepository, times(1)).findByIsbn("1234567890");
     }
 
+    @Test
+    void getCatalogRowsByIsbn() {
+        // Arrange
+        when(bookRepository.findCatalogRowsByIsbn("1234567890")).thenReturn(List.of(row(book1), row(book3)));
+
+        // Act
+        List<CatalogRow> result = bookService.getCatalogRowsByIsbn("1234567890");
+
+        // Assert
+        assertEquals(2, result.size());
+        assertFalse(result.get(0).borrowed());
+        assertTrue(result.get(1).borrowed());
+        verify(bookRepository, never()).findByIsbn(any());
+    }
+
     @Test
     void borrowBook_Success() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book1));
+        Book borrowedBook = copy(1L, borrower);
         when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
-        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
-        // Remember initial stock
+        when(bookRepository.assignBorrowerIfAvailable(eq(1L), eq(borrower), any(Instant.class))).thenReturn(1);
+        when(bookRepository.findWithBorrowerById(1L)).thenReturn(Optional.of(borrowedBook));
 
         // Act
         Book result = bookService.borrowBook(1L, 1L);
@@ -193,9 +452,14 @@ public class BookServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(borrower, result.getBorrower());
-        verify(bookRepository, times(1)).findById(1L);
         verify(borrowerRepository, times(1)).findById(1L);
-        verify(bookRepository, times(1)).save(book1);
+        verify(bookRepository, times(1)).assignBorrowerIfAvailable(eq(1L), eq(borrower), any(Instant.class));
+        verify(titleRepository, times(1)).adjustAvailableCopies("1234567890", -1);
+        verify(eventPublisher, times(1)).publishEvent(new BookBorrowedEvent(1L, "1234567890", 1L));
+        verify(loanRepository, times(1)).save(argThat(loan -> loan.getBookId().equals(1L)
+                && loan.getBorrowerId().equals(1L) && loan.isActive()));
+        verify(bookRepository, never()).existsById(any());
+        verify(bookRepository, never()).save(any());
     }
     
     @Test
@@ -207,7 +471,7 @@ public class BookServiceTest {
         outOfStockBook.setTitle("Out of Stock Book");
         outOfStockBook.setAuthor("Test Author");
 
-        when(bookRepository.findById(4L)).thenReturn(Optional.of(outOfStockBook));
+        when(bookRepository.findWithBorrowerById(4L)).thenReturn(Optional.of(outOfStockBook));
         
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -215,7 +479,7 @@ public class BookServiceTest {
         });
         
         assertTrue(exception.getMessage().contains("out of stock"));
-        verify(bookRepository, times(1)).findById(4L);
+        verify(bookRepository, times(1)).findWithBorrowerById(4L);
         verify(borrowerRepository, never()).findById(any());
         verify(bookRepository, never()).save(any());
     }
@@ -223,7 +487,9 @@ public class BookServiceTest {
     @Test
     void borrowBook_BookNotFound() {
         // Arrange
-        when(bookRepository.findById(99L)).thenReturn(Optional.empty());
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.assignBorrowerIfAvailable(eq(99L), eq(borrower), any(Instant.class))).thenReturn(0);
+        when(bookRepository.existsById(99L)).thenReturn(false);
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -231,15 +497,14 @@ public class BookServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Book not found"));
-        verify(bookRepository, times(1)).findById(99L);
-        verify(borrowerRepository, never()).findById(any());
+        verify(bookRepository, times(1)).existsById(99L);
+        verify(bookRepository, never()).findWithBorrowerById(any());
         verify(bookRepository, never()).save(any());
     }
 
     @Test
     void borrowBook_BorrowerNotFound() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book1));
         when(borrowerRepository.findById(99L)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -248,15 +513,18 @@ public class BookServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Borrower not found"));
-        verify(bookRepository, times(1)).findById(1L);
         verify(borrowerRepository, times(1)).findById(99L);
+        verify(bookRepository, never()).assignBorrowerIfAvailable(any(), any(), any());
+        verify(loanRepository, never()).save(any());
         verify(bookRepository, never()).save(any());
     }
 
     @Test
     void borrowBook_AlreadyBorrowed() {
         // Arrange
-        when(bookRepository.findById(3L)).thenReturn(Optional.of(book3)); // book3 is already borrowed
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.assignBorrowerIfAvailable(eq(3L), eq(borrower), any(Instant.class))).thenReturn(0); // book3 is already borrowed
+        when(bookRepository.existsById(3L)).thenReturn(true);
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -264,22 +532,89 @@ public class BookServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("already borrowed"));
-        verify(bookRepository, times(1)).findById(3L);
-        verify(borrowerRepository, never()).findById(any());
+        verify(bookRepository, times(1)).existsById(3L);
+        verify(titleRepository, never()).adjustAvailableCopies(any(), anyInt());
+        verify(bookRepository, never()).findWithBorrowerById(any());
         verify(bookRepository, never()).save(any());
     }
 
     @Test
-    void returnBook_Success() {
+    void borrowAnyCopy_Success() {
         // Arrange
-        when(bookRepository.findById(3L)).thenReturn(Optional.of(book3)); // book3 is borrowed
-        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
-            Book savedBook = invocation.getArgument(0);
-            assertNull(savedBook.getBorrower()); // Verify borrower is set to null
-            return savedBook;
+        Book borrowedBook = copy(1L, borrower);
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findAvailableCopiesForUpdate("1234567890", Limit.of(1))).thenReturn(List.of(book1));
+        when(bookRepository.assignBorrowerIfAvailable(eq(1L), eq(borrower), any(Instant.class))).thenReturn(1);
+        when(bookRepository.findWithBorrowerById(1L)).thenReturn(Optional.of(borrowedBook));
+
+        // Act
+        Book result = bookService.borrowAnyCopy("1234567890", 1L);
+
+        // Assert
+        assertEquals(1L, result.getId());
+        assertEquals(borrower, result.getBorrower());
+        verify(bookRepository, times(1)).findAvailableCopiesForUpdate("1234567890", Limit.of(1));
+        verify(loanRepository, times(1)).save(any(Loan.class));
+    }
+
+    @Test
+    void borrowAnyCopy_RetriesWhenCopyWasTaken() {
+        // Arrange
+        Book borrowedBook = copy(2L, borrower);
+        Book otherCopy = copy(2L, null);
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findAvailableCopiesForUpdate("1234567890", Limit.of(1)))
+            .thenReturn(List.of(book1))
+            .thenReturn(List.of(otherCopy));
+        when(bookRepository.assignBorrowerIfAvailable(eq(1L), eq(borrower), any(Instant.class))).thenReturn(0);
+        when(bookRepository.assignBorrowerIfAvailable(eq(2L), eq(borrower), any(Instant.class))).thenReturn(1);
+        when(bookRepository.findWithBorrowerById(2L)).thenReturn(Optional.of(borrowedBook));
+
+        // Act
+        Book result = bookService.borrowAnyCopy("1234567890", 1L);
+
+        // Assert
+        assertEquals(2L, result.getId());
+        verify(bookRepository, times(2)).findAvailableCopiesForUpdate("1234567890", Limit.of(1));
+        verify(titleRepository, times(1)).adjustAvailableCopies("1234567890", -1);
+        verify(eventPublisher, times(1)).publishEvent(new BookBorrowedEvent(2L, "1234567890", 1L));
+    }
+
+    @Test
+    void borrowAnyCopy_NoAvailableCopy() {
+        // Arrange
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findAvailableCopiesForUpdate("1234567890", Limit.of(1))).thenReturn(List.of());
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookService.borrowAnyCopy("1234567890", 1L);
         });
 
-        // Remember initial stock
+        assertTrue(exception.getMessage().contains("No available copy"));
+        verify(bookRepository, never()).assignBorrowerIfAvailable(any(), any(), any());
+    }
+
+    @Test
+    void borrowAnyCopy_BorrowerNotFound() {
+        // Arrange
+        when(borrowerRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            bookService.borrowAnyCopy("1234567890", 99L);
+        });
+
+        assertTrue(exception.getMessage().contains("Borrower not found"));
+        verify(bookRepository, never()).findAvailableCopiesForUpdate(any(), any());
+    }
+
+    @Test
+    void returnBook_Success() {
+        // Arrange
+        Book returnedBook = copy(3L, null);
+        when(bookRepository.clearBorrowerIfBorrowed(eq(3L), any(Instant.class))).thenReturn(1); // book3 is borrowed
+        when(bookRepository.findById(3L)).thenReturn(Optional.of(returnedBook));
 
         // Act
         Book result = bookService.returnBook(3L);
@@ -287,14 +622,19 @@ public class BookServiceTest {
         // Assert
         assertNotNull(result);
         assertNull(result.getBorrower());
-        verify(bookRepository, times(1)).findById(3L);
-        verify(bookRepository, times(1)).save(book3);
+        verify(bookRepository, times(1)).clearBorrowerIfBorrowed(eq(3L), any(Instant.class));
+        verify(titleRepository, times(1)).adjustAvailableCopies("1234567890", 1);
+        verify(eventPublisher, times(1)).publishEvent(new BookReturnedEvent(3L, "1234567890"));
+        verify(loanRepository, times(1)).closeLoans(eq(List.of(3L)), any(Instant.class));
+        verify(bookRepository, never()).existsById(any());
+        verify(bookRepository, never()).save(any());
     }
 
     @Test
     void returnBook_BookNotFound() {
         // Arrange
-        when(bookRepository.findById(99L)).thenReturn(Optional.empty());
+        when(bookRepository.clearBorrowerIfBorrowed(eq(99L), any(Instant.class))).thenReturn(0);
+        when(bookRepository.existsById(99L)).thenReturn(false);
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -302,14 +642,15 @@ public class BookServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Book not found"));
-        verify(bookRepository, times(1)).findById(99L);
+        verify(bookRepository, times(1)).existsById(99L);
         verify(bookRepository, never()).save(any());
     }
 
     @Test
     void returnBook_NotBorrowed() {
         // Arrange
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book1)); // book1 is not borrowed
+        when(bookRepository.clearBorrowerIfBorrowed(eq(1L), any(Instant.class))).thenReturn(0); // book1 is not borrowed
+        when(bookRepository.existsById(1L)).thenReturn(true);
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -317,7 +658,249 @@ public class BookServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("not borrowed"));
-        verify(bookRepository, times(1)).findById(1L);
+        verify(bookRepository, times(1)).existsById(1L);
+        verify(bookRepository, never()).findById(any());
         verify(bookRepository, never()).save(any());
+        verify(loanRepository, never()).closeLoans(any(), any());
+    }
+
+    @Test
+    void borrowBook_AtVersion() {
+        // Arrange
+        Book borrowedBook = copy(1L, borrower);
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.assignBorrowerIfVersion(eq(1L), eq(borrower), eq(4L), any(Instant.class))).thenReturn(1);
+        when(bookRepository.findWithBorrowerById(1L)).thenReturn(Optional.of(borrowedBook));
+
+        // Act
+        Book result = bookService.borrowBook(1L, 1L, 4L);
+
+        // Assert
+        assertEquals(borrower, result.getBorrower());
+        verify(bookRepository, never()).assignBorrowerIfAvailable(any(), any(), any());
+        verify(bookRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void borrowBook_VersionChanged() {
+        // Arrange
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.assignBorrowerIfVersion(eq(1L), eq(borrower), eq(4L), any(Instant.class))).thenReturn(0);
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        // Act & Assert
+        Exception exception = assertThrows(OptimisticLockingFailureException.class,
+                () -> bookService.borrowBook(1L, 1L, 4L));
+
+        assertTrue(exception.getMessage().contains("version 5"));
+        verify(titleRepository, never()).adjustAvailableCopies(any(), anyInt());
+        verify(loanRepository, never()).save(any());
+    }
+
+    @Test
+    void borrowBook_AtCurrentVersionButBorrowed() {
+        // Arrange
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.assignBorrowerIfVersion(eq(3L), eq(borrower), eq(5L), any(Instant.class))).thenReturn(0);
+        when(bookRepository.findVersionById(3L)).thenReturn(Optional.of(5L));
+        when(bookRepository.existsById(3L)).thenReturn(true);
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> bookService.borrowBook(3L, 1L, 5L));
+
+        assertTrue(exception.getMessage().contains("already borrowed"));
+    }
+
+    @Test
+    void returnBook_VersionChanged() {
+        // Arrange
+        when(bookRepository.clearBorrowerIfVersion(eq(3L), eq(4L), any(Instant.class))).thenReturn(0);
+        when(bookRepository.findVersionById(3L)).thenReturn(Optional.of(5L));
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> bookService.returnBook(3L, 4L));
+
+        verify(bookRepository, never()).clearBorrowerIfBorrowed(any(), any());
+        verify(loanRepository, never()).closeLoans(any(), any());
+    }
+
+    @Test
+    void getBookVersion_FromCacheOrQuery() {
+        // Arrange
+        book1.setVersion(7L);
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+        when(cache.get(1L, Book.class)).thenReturn(book1);
+        when(cache.get(2L, Book.class)).thenReturn(null);
+        when(bookRepository.findVersionById(2L)).thenReturn(Optional.of(3L));
+
+        // Act & Assert
+        assertEquals(Optional.of(7L), bookService.getBookVersion(1L));
+        assertEquals(Optional.of(3L), bookService.getBookVersion(2L));
+        verify(bookRepository, never()).findVersionById(1L);
+    }
+
+    @Test
+    void borrowBooks_Success() {
+        // Arrange
+        Book first = copy(1L, null);
+        Book second = copy(2L, null);
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findAllByIdForUpdate(Set.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+
+        // Act
+        List<BookCirculationResult> results = bookService.borrowBooks(List.of(2L, 1L), 1L, BatchMode.ALL_OR_NOTHING);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(BookCirculationResult::isApplied));
+        assertEquals(2L, results.get(0).bookId());
+        assertEquals(borrower, first.getBorrower());
+        assertEquals(borrower, second.getBorrower());
+        verify(borrowerRepository, times(1)).findById(1L);
+        verify(bookRepository, times(1)).findAllByIdForUpdate(any());
+        verify(entityManager, times(1)).flush();
+        verify(titleRepository, times(1)).adjustAvailableCopies("1234567890", -2);
+        verify(eventPublisher, times(1)).publishEvent(new BookBorrowedEvent(1L, "1234567890", 1L));
+        verify(eventPublisher, times(1)).publishEvent(new BookBorrowedEvent(2L, "1234567890", 1L));
+        verify(cache, times(1)).evict(1L);
+        verify(cache, times(1)).evict(2L);
+        verify(loanRepository, times(1)).saveAll(argThat(loans -> ((List<Loan>) loans).size() == 2));
+        verify(bookRepository, never()).assignBorrowerIfAvailable(any(), any(), any());
+    }
+
+    @Test
+    void borrowBooks_AllOrNothing_NothingApplied() {
+        // Arrange: one copy is available, one is borrowed and one does not exist
+        Book available = copy(1L, null);
+        Book borrowed = copy(3L, borrower);
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findAllByIdForUpdate(Set.of(1L, 3L, 99L))).thenReturn(List.of(available, borrowed));
+
+        // Act
+        List<BookCirculationResult> results = bookService.borrowBooks(List.of(1L, 3L, 99L), 1L, BatchMode.ALL_OR_NOTHING);
+
+        // Assert
+        assertTrue(results.stream().noneMatch(BookCirculationResult::isApplied));
+        assertTrue(results.get(0).error().contains("Not applied"));
+        assertEquals("Book is already borrowed", results.get(1).error());
+        assertTrue(results.get(2).error().contains("Book not found"));
+        assertNull(available.getBorrower());
+        verify(entityManager, never()).flush();
+        verify(titleRepository, never()).adjustAvailableCopies(any(), anyInt());
+        verify(loanRepository, never()).saveAll(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void borrowBooks_BestEffort_AppliesAvailable() {
+        // Arrange
+        Book available = copy(1L, null);
+        Book borrowed = copy(3L, borrower);
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findAllByIdForUpdate(Set.of(1L, 3L))).thenReturn(List.of(available, borrowed));
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+
+        // Act
+        List<BookCirculationResult> results = bookService.borrowBooks(List.of(1L, 3L, 1L), 1L, BatchMode.BEST_EFFORT);
+
+        // Assert
+        assertTrue(results.get(0).isApplied());
+        assertEquals("Book is already borrowed", results.get(1).error());
+        assertEquals("Book is listed more than once", results.get(2).error());
+        assertEquals(borrower, available.getBorrower());
+        verify(titleRepository, times(1)).adjustAvailableCopies("1234567890", -1);
+        verify(eventPublisher, times(1)).publishEvent(new BookBorrowedEvent(1L, "1234567890", 1L));
+    }
+
+    @Test
+    void borrowBooks_BorrowerNotFound() {
+        // Arrange
+        when(borrowerRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> bookService.borrowBooks(List.of(1L), 99L, null));
+
+        assertTrue(exception.getMessage().contains("Borrower not found"));
+        verify(bookRepository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void borrowBooks_TooManyBooks() {
+        // Arrange
+        List<Long> bookIds = Collections.nCopies(101, 1L);
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> bookService.borrowBooks(bookIds, 1L, null));
+
+        assertTrue(exception.getMessage().contains("Too many books"));
+        verify(borrowerRepository, never()).findById(any());
+    }
+
+    @Test
+    void returnBooks_Success() {
+        // Arrange
+        Book first = copy(3L, borrower);
+        Book second = copy(4L, borrower);
+        when(bookRepository.findAllByIdForUpdate(Set.of(3L, 4L))).thenReturn(List.of(first, second));
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+
+        // Act
+        List<BookCirculationResult> results = bookService.returnBooks(List.of(3L, 4L), null);
+
+        // Assert
+        assertTrue(results.stream().allMatch(BookCirculationResult::isApplied));
+        assertNull(first.getBorrower());
+        assertNull(second.getBorrower());
+        verify(entityManager, times(1)).flush();
+        verify(titleRepository, times(1)).adjustAvailableCopies("1234567890", 2);
+        verify(eventPublisher, times(1)).publishEvent(new BookReturnedEvent(3L, "1234567890"));
+        verify(eventPublisher, times(1)).publishEvent(new BookReturnedEvent(4L, "1234567890"));
+        verify(loanRepository, times(1)).closeLoans(eq(List.of(3L, 4L)), any(Instant.class));
+        verify(bookRepository, never()).clearBorrowerIfBorrowed(any(), any());
+    }
+
+    @Test
+    void returnBooks_AllOrNothing_NotBorrowed() {
+        // Arrange
+        Book borrowed = copy(3L, borrower);
+        Book available = copy(1L, null);
+        when(bookRepository.findAllByIdForUpdate(Set.of(3L, 1L))).thenReturn(List.of(available, borrowed));
+
+        // Act
+        List<BookCirculationResult> results = bookService.returnBooks(List.of(3L, 1L), null);
+
+        // Assert
+        assertTrue(results.get(0).error().contains("Not applied"));
+        assertEquals("Book is not borrowed", results.get(1).error());
+        assertEquals(borrower, borrowed.getBorrower());
+        verify(titleRepository, never()).adjustAvailableCopies(any(), anyInt());
+        verify(loanRepository, never()).closeLoans(any(), any());
+    }
+
+    private static CatalogRow row(Book book) {
+        Long borrowerId = book.getBorrower() != null ? book.getBorrower().getId() : null;
+        return new CatalogRow(book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor(), borrowerId);
+    }
+
+    private static Book copy(Long id, Borrower borrower) {
+        Book book = new Book();
+        book.setId(id);
+        book.setIsbn("1234567890");
+        book.setTitle("Spring Boot in Action");
+        book.setAuthor("Craig Walls");
+        book.setBorrower(borrower);
+        return book;
+    }
+
+    private static Book newBook(String isbn, String title, String author) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
     }
-}
\ No newline at end of file
+}
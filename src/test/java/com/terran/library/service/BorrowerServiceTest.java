@@ -1,20 +1,27 @@
 package com.terran.library.service;
 
+import com.terran.library.event.BorrowerRegisteredEvent;
 import com.terran.library.model.Borrower;
+import com.terran.library.repository.BorrowerDashboardRow;
 import com.terran.library.repository.BorrowerRepository;
+import com.terran.library.repository.LoansVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +30,9 @@ public class BorrowerServiceTest {
     @Mock
     private BorrowerRepository borrowerRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BorrowerServiceImpl borrowerService;
 
@@ -46,6 +56,7 @@ public class BorrowerServiceTest {
     void registerBorrower_Success() {
         // Arrange
         Borrower newBorrower = new Borrower();
+        newBorrower.setId(3L);
         newBorrower.setName("New User");
         newBorrower.setEmail("new.user@example.com");
 
@@ -61,6 +72,7 @@ public class BorrowerServiceTest {
         assertEquals(newBorrower.getEmail(), result.getEmail());
         verify(borrowerRepository, times(1)).existsByEmail(newBorrower.getEmail());
         verify(borrowerRepository, times(1)).save(newBorrower);
+        verify(eventPublisher, times(1)).publishEvent(new BorrowerRegisteredEvent(3L));
     }
 
     @Test
@@ -154,4 +166,93 @@ public class BorrowerServiceTest {
         assertTrue(result.contains(borrower2));
         verify(borrowerRepository, times(1)).findAll();
     }
+
+    @Test
+    void getDashboard_FirstPage() {
+        // Arrange: three borrowed copies, page size two
+        Instant lastChange = Instant.parse("2026-10-01T08:00:00.123456Z");
+        when(borrowerRepository.findDashboardRows(1L, 0L, Limit.of(3))).thenReturn(List.of(
+                dashboardRow(lastChange, 10L), dashboardRow(lastChange, 11L), dashboardRow(lastChange, 12L)));
+
+        // Act
+        Optional<BorrowerDashboard> result = borrowerService.getDashboard(1L, null, 2);
+
+        // Assert
+        assertTrue(result.isPresent());
+        BorrowerDashboard dashboard = result.get();
+        assertEquals("John Doe", dashboard.borrower().getName());
+        assertEquals(3, dashboard.borrowedBooks());
+        assertEquals(List.of(10L, 11L), dashboard.loans().stream().map(CatalogRow::id).toList());
+        assertTrue(dashboard.loans().get(0).borrowed());
+        assertEquals(11L, dashboard.nextAfter());
+        assertEquals(new LoansVersion(3, lastChange).tag(1L), dashboard.version());
+        verify(borrowerRepository, never()).findById(any());
+    }
+
+    @Test
+    void getDashboard_PastLastPage() {
+        // Arrange: the outer join returns the borrower without a copy
+        Instant lastChange = Instant.parse("2026-10-01T08:00:00Z");
+        when(borrowerRepository.findDashboardRows(1L, 12L, Limit.of(51))).thenReturn(List.of(
+                dashboardRow(lastChange, null)));
+
+        // Act
+        BorrowerDashboard dashboard = borrowerService.getDashboard(1L, 12L, null).orElseThrow();
+
+        // Assert
+        assertEquals(3, dashboard.borrowedBooks());
+        assertTrue(dashboard.loans().isEmpty());
+        assertNull(dashboard.nextAfter());
+        assertEquals(50, dashboard.size());
+    }
+
+    @Test
+    void getDashboard_BorrowerNotFound() {
+        // Arrange
+        when(borrowerRepository.findDashboardRows(eq(99L), eq(0L), any())).thenReturn(List.of());
+
+        // Act
+        Optional<BorrowerDashboard> result = borrowerService.getDashboard(99L, null, null);
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void getDashboard_InvalidSize() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> borrowerService.getDashboard(1L, null, 0));
+
+        assertTrue(exception.getMessage().contains("Page size"));
+        verify(borrowerRepository, never()).findDashboardRows(any(), any(), any());
+    }
+
+    @Test
+    void getLoansVersion_ChangesWithLoans() {
+        // Arrange
+        Instant borrowedAt = Instant.parse("2026-10-01T08:00:00Z");
+        when(borrowerRepository.findLoansVersion(1L))
+                .thenReturn(new LoansVersion(0, null))
+                .thenReturn(new LoansVersion(1, borrowedAt))
+                .thenReturn(new LoansVersion(0, null));
+        when(borrowerRepository.findLoansVersion(2L)).thenReturn(new LoansVersion(1, borrowedAt));
+
+        // Act
+        String none = borrowerService.getLoansVersion(1L);
+        String borrowed = borrowerService.getLoansVersion(1L);
+        String returned = borrowerService.getLoansVersion(1L);
+        String otherBorrower = borrowerService.getLoansVersion(2L);
+
+        // Assert
+        assertNotEquals(none, borrowed);
+        assertEquals(none, returned);
+        assertNotEquals(borrowed, otherBorrower);
+    }
+
+    private static BorrowerDashboardRow dashboardRow(Instant lastChange, Long bookId) {
+        return new BorrowerDashboardRow(1L, "John Doe", "john.doe@example.com", 0L, "main", 3, lastChange,
+                bookId, bookId != null ? "1234567890" : null, bookId != null ? "Test Book" : null,
+                bookId != null ? "Test Author" : null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.terran.library.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvBookReaderTest {
+
+    @Test
+    void next_QuotedFieldsAndColumnOrder() throws IOException {
+        // Arrange
+        String csv = "\uFEFFAuthor,ISBN,Pages,Title\r\n"
+                + "Craig Walls,1234567890,472,Spring Boot in Action\r\n"
+                + "\r\n"
+                + "\"Martin, Robert C.\",0987654321,464,\"Clean \"\"Code\"\"\"\n"
+                + "Gamma,5555555555,395,\"Design\nPatterns\"";
+
+        try (CsvBookReader reader = reader(csv)) {
+            // Act
+            CsvBookReader.Record first = reader.next();
+            CsvBookReader.Record second = reader.next();
+            CsvBookReader.Record third = reader.next();
+
+            // Assert
+            assertEquals(1, first.number());
+            assertEquals("1234567890", first.book().getIsbn());
+            assertEquals("Spring Boot in Action", first.book().getTitle());
+            assertEquals("Craig Walls", first.book().getAuthor());
+            assertEquals(2, second.number());
+            assertEquals("Martin, Robert C.", second.book().getAuthor());
+            assertEquals("Clean \"Code\"", second.book().getTitle());
+            assertEquals("Design\nPatterns", third.book().getTitle());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void next_MalformedRecords() throws IOException {
+        // Arrange
+        String csv = "isbn,title,author\n"
+                + "1234567890,Missing Author\n"
+                + "0987654321,\"" + "x".repeat(CsvBookReader.MAX_FIELD_LENGTH + 1) + "\",Someone\n"
+                + "5555555555,\"Unterminated,Author\n";
+
+        try (CsvBookReader reader = reader(csv)) {
+            // Act & Assert
+            assertEquals("Expected at least 3 fields but found 2", reader.next().error());
+            assertEquals("Field longer than " + CsvBookReader.MAX_FIELD_LENGTH + " characters", reader.next().error());
+            CsvBookReader.Record unterminated = reader.next();
+            assertEquals(3, unterminated.number());
+            assertEquals("Unterminated quoted field", unterminated.error());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void skip_ResumesAfterCommittedRecords() throws IOException {
+        // Arrange
+        String csv = "isbn,title,author\n1,A,X\n2,B,Y\n3,C,Z\n";
+
+        try (CsvBookReader reader = reader(csv)) {
+            // Act
+            long skipped = reader.skip(2);
+            CsvBookReader.Record next = reader.next();
+
+            // Assert
+            assertEquals(2, skipped);
+            assertEquals(3, next.number());
+            assertEquals("3", next.book().getIsbn());
+            assertEquals(0, reader.skip(5));
+        }
+    }
+
+    @Test
+    void open_MissingColumn() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> reader("isbn,title\n1,A\n"));
+        assertEquals("CSV header has no author column", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> reader(""));
+    }
+
+    private static CsvBookReader reader(String csv) throws IOException {
+        return new CsvBookReader(new BufferedReader(new StringReader(csv)));
+    }
+}
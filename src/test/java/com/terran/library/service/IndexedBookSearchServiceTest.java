@@ -0,0 +1,172 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.model.Title;
+import com.terran.library.repository.BookRepository;
+import com.terran.library.repository.TitleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the in-memory search engine: word prefix matching with every search word required,
+ * availability following committed borrows and returns, the startup build, and the footprint endpoint.
+ */
+@SpringBootTest(properties = "library.search.engine=index")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class IndexedBookSearchServiceTest {
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private IndexedBookSearchService indexedBookSearchService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TitleRepository titleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String word;
+
+    @BeforeEach
+    void setUp() {
+        // A word no other test uses, so results only hold the books of this test
+        word = "w" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Test
+    void search_UsesIndex() {
+        assertSame(indexedBookSearchService, bookSearchService);
+    }
+
+    @Test
+    void search_FollowsBorrowsAndReturns() {
+        // Arrange
+        String isbn = UUID.randomUUID().toString();
+        Book first = bookService.registerBook(newBook(isbn, "The " + word + " Chronicles", "Some Author"));
+        bookService.registerBook(newBook(isbn, "The " + word + " Chronicles", "Some Author"));
+        Borrower borrower = new Borrower();
+        borrower.setName("Indexed Patron");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        Long borrowerId = borrowerService.registerBorrower(borrower).getId();
+
+        // Act
+        bookService.borrowBook(first.getId(), borrowerId);
+        BookSearchResult borrowed = bookSearchService.search(word, null, null).results().get(0);
+        bookService.returnBook(first.getId());
+        BookSearchResult returned = bookSearchService.search(word, null, null).results().get(0);
+
+        // Assert
+        assertEquals(isbn, borrowed.isbn());
+        assertEquals(2, borrowed.totalCopies());
+        assertEquals(1, borrowed.availableCopies());
+        assertEquals(2, returned.availableCopies());
+    }
+
+    @Test
+    void search_MatchesEveryWordAsPrefixAndRanksTitleFirst() {
+        // Arrange
+        String byAuthor = bookService.registerBook(newBook(UUID.randomUUID().toString(), "Unrelated Saga", word + " Smith")).getIsbn();
+        String inTitle = bookService.registerBook(newBook(UUID.randomUUID().toString(), "About " + word + "ing Saga", "Jones")).getIsbn();
+        String wholeWord = bookService.registerBook(newBook(UUID.randomUUID().toString(), word + " Saga", "Brown")).getIsbn();
+        bookService.registerBook(newBook(UUID.randomUUID().toString(), word + " Rising", "Green"));
+
+        // Act
+        BookSearchPage page = bookSearchService.search("SAG " + word, null, null);
+
+        // Assert
+        assertEquals(List.of(wholeWord, inTitle, byAuthor), page.results().stream().map(BookSearchResult::isbn).toList());
+        assertTrue(page.results().get(0).score() > page.results().get(1).score());
+        assertTrue(page.results().get(1).score() > page.results().get(2).score());
+    }
+
+    @Test
+    void search_Paginates() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            bookService.registerBook(newBook(UUID.randomUUID().toString(), word + " Volume " + i, "Series Author"));
+        }
+
+        // Act
+        BookSearchPage first = bookSearchService.search(word, 0, 2);
+        BookSearchPage last = bookSearchService.search(word, 2, 2);
+
+        // Assert
+        assertEquals(2, first.results().size());
+        assertTrue(first.hasNext());
+        assertEquals(word + " Volume 0", first.results().get(0).title());
+        assertEquals(1, last.results().size());
+        assertFalse(last.hasNext());
+        assertEquals(word + " Volume 4", last.results().get(0).title());
+    }
+
+    @Test
+    void build_IndexesBooksSavedPastTheService() {
+        // Arrange: a book saved past the service, together with its title, publishes no event
+        String isbn = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            titleRepository.save(new Title(isbn, word + " Archive", "Old Author", 1, 1, true));
+            bookRepository.save(newBook(isbn, word + " Archive", "Old Author"));
+        });
+        assertTrue(bookSearchService.search(word, null, null).results().isEmpty());
+
+        // Act
+        indexedBookSearchService.run(null);
+
+        // Assert
+        List<BookSearchResult> results = bookSearchService.search(word, null, null).results();
+        assertEquals(1, results.size());
+        assertEquals(isbn, results.get(0).isbn());
+    }
+
+    @Test
+    void footprint_ReportedOnActuator() throws Exception {
+        // Arrange
+        bookService.registerBook(newBook(UUID.randomUUID().toString(), word + " Footprint", "Some Author"));
+        BookSearchIndex.Footprint footprint = indexedBookSearchService.footprint();
+
+        // Act & Assert
+        assertTrue(footprint.bytes() > 0);
+        mockMvc.perform(get("/actuator/searchindex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.copies").value(footprint.copies()))
+                .andExpect(jsonPath("$.titles").value(footprint.titles()))
+                .andExpect(jsonPath("$.bytes").isNumber());
+    }
+
+    private static Book newBook(String isbn, String title, String author) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+}
@@ -0,0 +1,158 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.repository.BorrowerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that the in-memory library counts follow committed registrations, borrows and returns,
+ * that reconciliation corrects drift, and that the health endpoint reads them without any statement.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class LibraryStatisticsTest {
+
+    @Autowired
+    private LibraryStatistics libraryStatistics;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        libraryStatistics.reconcile();
+    }
+
+    @Test
+    void counts_FollowCommittedChanges() {
+        // Arrange
+        var before = libraryStatistics.snapshot();
+        var isbn = UUID.randomUUID().toString();
+
+        // Act
+        var book = bookService.registerBook(newBook(isbn));
+        bookService.registerBook(newBook(isbn));
+        var borrower = borrowerService.registerBorrower(newBorrower());
+        bookService.borrowBook(book.getId(), borrower.getId());
+        var afterBorrow = libraryStatistics.snapshot();
+        bookService.returnBook(book.getId());
+        var afterReturn = libraryStatistics.snapshot();
+
+        // Assert
+        assertEquals(before.totalBooks() + 2, afterBorrow.totalBooks());
+        assertEquals(before.borrowedBooks() + 1, afterBorrow.borrowedBooks());
+        assertEquals(before.availableBooks() + 1, afterBorrow.availableBooks());
+        assertEquals(before.totalBorrowers() + 1, afterBorrow.totalBorrowers());
+        assertEquals(before.borrowedBooks(), afterReturn.borrowedBooks());
+        assertEquals(before.availableBooks() + 2, afterReturn.availableBooks());
+    }
+
+    @Test
+    void counts_IgnoreRolledBackChanges() {
+        // Arrange
+        var before = libraryStatistics.snapshot();
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            bookService.registerBook(newBook(UUID.randomUUID().toString()));
+            borrowerService.registerBorrower(newBorrower());
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        var after = libraryStatistics.snapshot();
+        assertEquals(before.totalBooks(), after.totalBooks());
+        assertEquals(before.totalBorrowers(), after.totalBorrowers());
+    }
+
+    @Test
+    void reconcile_CorrectsDrift() {
+        // Arrange: a borrower saved past the service publishes no event
+        var before = libraryStatistics.snapshot();
+        borrowerRepository.save(newBorrower());
+        assertEquals(before.totalBorrowers(), libraryStatistics.snapshot().totalBorrowers());
+
+        // Act
+        libraryStatistics.reconcile();
+
+        // Assert
+        var after = libraryStatistics.snapshot();
+        assertEquals(before.totalBorrowers() + 1, after.totalBorrowers());
+        assertNotNull(after.reconciledAt());
+    }
+
+    @Test
+    void health_NoStatements() throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        var expected = libraryStatistics.snapshot();
+        statistics.clear();
+
+        // Act & Assert
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.components.library.details.totalBooks").value(expected.totalBooks()))
+                .andExpect(jsonPath("$.components.library.details.borrowedBooks").value(expected.borrowedBooks()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void probes_SplitLivenessFromReadiness() throws Exception {
+        mockMvc.perform(get("/actuator/health/liveness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components.db").doesNotExist());
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.components.db.status").value("UP"))
+                .andExpect(jsonPath("$.components.library").doesNotExist());
+    }
+
+    private static Book newBook(String isbn) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle("Counted Book");
+        book.setAuthor("Test Author");
+        return book;
+    }
+
+    private static Borrower newBorrower() {
+        Borrower borrower = new Borrower();
+        borrower.setName("Counted Borrower");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        return borrower;
+    }
+}
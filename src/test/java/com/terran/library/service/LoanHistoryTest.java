@@ -0,0 +1,153 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.model.Loan;
+import com.terran.library.repository.LoanMonth;
+import com.terran.library.repository.LoanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that borrows and returns append to the loan history in the same transaction, and the
+ * loan history queries, on the plain loans table Hibernate creates on H2.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class LoanHistoryTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String isbn;
+    private List<Book> copies;
+    private Borrower borrower;
+
+    @BeforeEach
+    void setUp() {
+        isbn = UUID.randomUUID().toString();
+        copies = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book();
+            book.setIsbn(isbn);
+            book.setTitle("Loan History");
+            book.setAuthor("Test Author");
+            copies.add(bookService.registerBook(book));
+        }
+        Borrower newBorrower = new Borrower();
+        newBorrower.setName("Regular Reader");
+        newBorrower.setEmail(UUID.randomUUID() + "@example.com");
+        borrower = borrowerService.registerBorrower(newBorrower);
+    }
+
+    @Test
+    void borrowAndReturn_AppendsClosedLoan() {
+        // Arrange
+        Long bookId = copies.get(0).getId();
+
+        // Act
+        bookService.borrowBook(bookId, borrower.getId());
+        List<Loan> active = loanRepository.findByBorrowerIdAndReturnedAtIsNullOrderByBorrowedAtAsc(borrower.getId());
+        bookService.returnBook(bookId);
+        bookService.borrowBook(bookId, borrower.getId());
+
+        // Assert: the first loan is closed and a second one is open
+        assertEquals(1, active.size());
+        assertEquals(bookId, active.get(0).getBookId());
+        assertEquals(isbn, active.get(0).getIsbn());
+        List<Loan> loans = loanRepository.findAll().stream()
+                .filter(loan -> loan.getBookId().equals(bookId))
+                .sorted((a, b) -> a.getBorrowedAt().compareTo(b.getBorrowedAt()))
+                .toList();
+        assertEquals(2, loans.size());
+        assertNotNull(loans.get(0).getReturnedAt());
+        assertFalse(loans.get(0).isActive());
+        assertTrue(loans.get(1).isActive());
+    }
+
+    @Test
+    void failedBorrow_NoLoan() {
+        // Arrange
+        Long bookId = copies.get(0).getId();
+        bookService.borrowBook(bookId, borrower.getId());
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> bookService.borrowBook(bookId, borrower.getId()));
+
+        // Assert
+        assertEquals(1, loanRepository.findByBorrowerIdAndReturnedAtIsNullOrderByBorrowedAtAsc(borrower.getId()).size());
+    }
+
+    @Test
+    void batchBorrowAndReturn_RecordsEveryCopy() {
+        // Arrange
+        var bookIds = copies.stream().map(Book::getId).toList();
+
+        // Act
+        bookService.borrowBooks(bookIds, borrower.getId(), BatchMode.ALL_OR_NOTHING);
+        List<Loan> active = loanRepository.findByBorrowerIdAndReturnedAtIsNullOrderByBorrowedAtAsc(borrower.getId());
+        bookService.returnBooks(bookIds.subList(0, 2), BatchMode.ALL_OR_NOTHING);
+
+        // Assert
+        assertEquals(3, active.size());
+        List<Loan> stillActive = loanRepository.findByBorrowerIdAndReturnedAtIsNullOrderByBorrowedAtAsc(borrower.getId());
+        assertEquals(1, stillActive.size());
+        assertEquals(bookIds.get(2), stillActive.get(0).getBookId());
+    }
+
+    @Test
+    void countLoansPerMonth_GroupsByMonth() {
+        // Arrange: two loans this month and one two months ago
+        var now = Instant.now(Clock.systemUTC());
+        bookService.borrowBook(copies.get(0).getId(), borrower.getId());
+        bookService.borrowBook(copies.get(1).getId(), borrower.getId());
+        var earlier = now.atZone(ZoneOffset.UTC).minusMonths(2).toInstant();
+        loanRepository.save(Loan.open(copies.get(2), borrower.getId(), earlier));
+        var from = now.atZone(ZoneOffset.UTC).minusMonths(6).toInstant();
+        var to = now.plus(1, ChronoUnit.DAYS);
+
+        // Act
+        List<LoanMonth> months = loanRepository.countLoansPerMonth(isbn, from, to);
+
+        // Assert
+        assertEquals(2, months.size());
+        assertEquals(1, months.get(0).loans());
+        assertEquals(2, months.get(1).loans());
+        assertTrue(months.get(0).year() * 12 + months.get(0).month() < months.get(1).year() * 12 + months.get(1).month());
+        assertTrue(loanRepository.countLoansPerMonth(isbn, to, to.plus(1, ChronoUnit.DAYS)).isEmpty());
+    }
+
+    @Test
+    void loansTable_HasHistoryIndexes() {
+        // Act
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where lower(table_name) = 'loans'", String.class);
+
+        // Assert
+        assertTrue(indexes.stream().anyMatch("idx_loans_active_by_borrower"::equalsIgnoreCase));
+        assertTrue(indexes.stream().anyMatch("idx_loans_isbn_borrowed_at"::equalsIgnoreCase));
+    }
+}
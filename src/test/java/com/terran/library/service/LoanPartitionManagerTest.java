@@ -0,0 +1,89 @@
+package com.terran.library.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoanPartitionManagerTest {
+
+    private static final Clock NOVEMBER = Clock.fixed(Instant.parse("2026-11-20T10:15:30Z"), ZoneOffset.UTC);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void monthlyPartitionStatements_CurrentAndAheadAcrossYearEnd() {
+        // Arrange
+        var manager = new LoanPartitionManager(jdbcTemplate, true, NOVEMBER);
+        ReflectionTestUtils.setField(manager, "monthsAhead", 2);
+
+        // Act
+        List<String> statements = manager.monthlyPartitionStatements();
+
+        // Assert
+        assertEquals(List.of(
+                "CREATE TABLE IF NOT EXISTS loans_2026_11 PARTITION OF loans FOR VALUES FROM ('2026-11-01T00:00Z') TO ('2026-12-01T00:00Z')",
+                "CREATE TABLE IF NOT EXISTS loans_2026_12 PARTITION OF loans FOR VALUES FROM ('2026-12-01T00:00Z') TO ('2027-01-01T00:00Z')",
+                "CREATE TABLE IF NOT EXISTS loans_2027_01 PARTITION OF loans FOR VALUES FROM ('2027-01-01T00:00Z') TO ('2027-02-01T00:00Z')"),
+                statements);
+    }
+
+    @Test
+    void run_CreatesOnlyMonthlyPartitions() {
+        // Arrange
+        var manager = new LoanPartitionManager(jdbcTemplate, true, NOVEMBER);
+
+        // Act
+        manager.run(null);
+
+        // Assert: the table, its indexes and the default partition are left to the migrations
+        verify(jdbcTemplate, times(4)).execute(startsWith("CREATE TABLE IF NOT EXISTS loans_2"));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void createMonthlyPartitions_ContinuesAfterFailure() {
+        // Arrange
+        var manager = new LoanPartitionManager(jdbcTemplate, true, NOVEMBER);
+        doThrow(new BadSqlGrammarException("partition", "CREATE TABLE", new SQLException("overlapping rows")))
+                .doNothing()
+                .when(jdbcTemplate).execute(anyString());
+
+        // Act
+        manager.createMonthlyPartitions();
+
+        // Assert
+        verify(jdbcTemplate, times(4)).execute(anyString());
+    }
+
+    @Test
+    void run_NotPartitioned_NoStatement() {
+        // Arrange
+        var manager = new LoanPartitionManager(jdbcTemplate, false, NOVEMBER);
+
+        // Act
+        manager.run(null);
+        manager.createMonthlyPartitions();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+        assertTrue(LoanPartitionManager.isPartitioned("jdbc:postgresql://localhost:5432/library"));
+        assertFalse(LoanPartitionManager.isPartitioned("jdbc:h2:mem:testdb"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.terran.library.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PostgresBookSearchServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void toPrefixQuery_EveryWordAsPrefix() {
+        // Arrange
+        var query = BookSearchQuery.of("  Dune: Herb'ert & | !2 ", null, null, 20, 100);
+
+        // Act & Assert
+        assertEquals("dune:* & herb:* & ert:* & 2:*", PostgresBookSearchService.toPrefixQuery(query));
+    }
+
+    @Test
+    void run_CreatesIndexesAndUsesTrigrams() {
+        // Arrange
+        when(namedJdbcTemplate.getJdbcTemplate()).thenReturn(jdbcTemplate);
+        when(jdbcTemplate.queryForObject(PostgresBookSearchService.TRIGRAMS_INSTALLED, Integer.class)).thenReturn(1);
+        var service = new PostgresBookSearchService(namedJdbcTemplate, 20, 100);
+
+        // Act
+        service.run(null);
+        service.search("dune", null, null);
+
+        // Assert
+        verify(jdbcTemplate).execute(PostgresBookSearchService.CREATE_DOCUMENT_INDEX);
+        verify(jdbcTemplate).execute(PostgresBookSearchService.CREATE_EXTENSION);
+        PostgresBookSearchService.CREATE_TRIGRAM_INDEXES.forEach(statement -> verify(jdbcTemplate).execute(statement));
+        verify(namedJdbcTemplate).query(eq(PostgresBookSearchService.SEARCH_WITH_TRIGRAMS),
+                any(SqlParameterSource.class), ArgumentMatchers.<RowMapper<BookSearchResult>>any());
+    }
+
+    @Test
+    void run_WithoutTrigramExtension() {
+        // Arrange
+        when(namedJdbcTemplate.getJdbcTemplate()).thenReturn(jdbcTemplate);
+        lenient().doThrow(new DataAccessResourceFailureException("permission denied to create extension"))
+                .when(jdbcTemplate).execute(PostgresBookSearchService.CREATE_EXTENSION);
+        when(jdbcTemplate.queryForObject(PostgresBookSearchService.TRIGRAMS_INSTALLED, Integer.class)).thenReturn(0);
+        var service = new PostgresBookSearchService(namedJdbcTemplate, 20, 100);
+
+        // Act
+        service.run(null);
+        service.search("dune", null, null);
+
+        // Assert
+        verify(jdbcTemplate).execute(PostgresBookSearchService.CREATE_DOCUMENT_INDEX);
+        PostgresBookSearchService.CREATE_TRIGRAM_INDEXES.forEach(statement -> verify(jdbcTemplate, never()).execute(statement));
+        verify(namedJdbcTemplate).query(eq(PostgresBookSearchService.SEARCH),
+                any(SqlParameterSource.class), ArgumentMatchers.<RowMapper<BookSearchResult>>any());
+    }
+
+    @Test
+    void search_ReadsOneRowMoreThanThePage() {
+        // Arrange
+        var rows = List.of(result("1"), result("2"), result("3"));
+        when(namedJdbcTemplate.query(anyString(), any(SqlParameterSource.class),
+                ArgumentMatchers.<RowMapper<BookSearchResult>>any())).thenReturn(rows);
+        var service = new PostgresBookSearchService(namedJdbcTemplate, 20, 100);
+
+        // Act
+        BookSearchPage page = service.search("dune", 1, 2);
+
+        // Assert
+        assertEquals(rows.subList(0, 2), page.results());
+        assertTrue(page.hasNext());
+        verify(namedJdbcTemplate).query(anyString(), argThat((SqlParameterSource parameters) ->
+                        Integer.valueOf(3).equals(parameters.getValue("limit"))
+                                && Long.valueOf(2).equals(parameters.getValue("offset"))
+                                && "dune:*".equals(parameters.getValue("tsquery"))),
+                ArgumentMatchers.<RowMapper<BookSearchResult>>any());
+    }
+
+    private static BookSearchResult result(String isbn) {
+        return new BookSearchResult(isbn, "Dune", "Frank Herbert", 1, 1, 0.5);
+    }
+}
@@ -0,0 +1,92 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Borrower;
+import com.terran.library.repository.BorrowerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks against H2 that borrowers are resolved from the Hibernate second-level cache and
+ * that lookups by email are answered from the query cache until the borrowers table changes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findById_ServedFromSecondLevelCache() {
+        // Arrange
+        Borrower borrower = borrowerRepository.save(newBorrower());
+        statistics.clear();
+
+        // Act
+        Borrower found = borrowerRepository.findById(borrower.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(borrower.getEmail(), found.getEmail());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("borrowers").getHitCount());
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.hit.ratio").tag("region", "borrowers")
+                .gauge().value() > 0);
+    }
+
+    @Test
+    void existsByEmail_ServedFromQueryCacheUntilBorrowersChange() {
+        // Arrange
+        String email = UUID.randomUUID() + "@example.com";
+        assertFalse(borrowerRepository.existsByEmail(email));
+        statistics.clear();
+
+        // Act & Assert: a repeated signup check does not reach the database
+        assertFalse(borrowerRepository.existsByEmail(email));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // Act & Assert: registering a borrower invalidates the cached results
+        Borrower borrower = newBorrower();
+        borrower.setEmail(email);
+        borrowerService.registerBorrower(borrower);
+        assertTrue(borrowerRepository.existsByEmail(email));
+        assertEquals(email, borrowerRepository.findByEmail(email).orElseThrow().getEmail());
+        assertTrue(meterRegistry.get("hibernate.query.cache.hit.ratio").gauge().value() > 0);
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.hit.ratio").tag("region", BorrowerRepository.BY_EMAIL_REGION)
+                .gauge().value() > 0);
+    }
+
+    private Borrower newBorrower() {
+        Borrower borrower = new Borrower();
+        borrower.setName("Cached Borrower");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        return borrower;
+    }
+}
@@ -0,0 +1,154 @@
+package com.terran.library.service;
+
+import com.terran.library.model.Book;
+import com.terran.library.model.Borrower;
+import com.terran.library.model.Title;
+import com.terran.library.repository.BookRepository;
+import com.terran.library.repository.BorrowerRepository;
+import com.terran.library.repository.TitleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that title copy counters follow registration, borrowing and returning, also when the
+ * first copies of an ISBN are registered at the same time, and that the backfill builds titles for
+ * copies registered before titles existed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class TitleCountersTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private TitleRepository titleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void countersFollowRegisterBorrowAndReturn() {
+        // Arrange
+        String isbn = UUID.randomUUID().toString();
+        Book first = bookService.registerBook(newBook(isbn, "Counted Title"));
+        bookService.registerBook(newBook(isbn, "Counted Title"));
+        bookService.registerBook(newBook(isbn, "Counted Title"));
+        Borrower borrower = newBorrower();
+
+        // Act
+        bookService.borrowBook(first.getId(), borrower.getId());
+        bookService.borrowAnyCopy(isbn, borrower.getId());
+        bookService.returnBook(first.getId());
+
+        // Assert
+        Title title = bookService.getTitle(isbn).orElseThrow();
+        assertEquals(3, title.getTotalCopies());
+        assertEquals(2, title.getAvailableCopies());
+        assertNull(bookService.registerBook(newBook(isbn, "Different Title")));
+        assertEquals(3, bookService.getTitle(isbn).orElseThrow().getTotalCopies());
+    }
+
+    @Test
+    void firstCopiesRegisteredConcurrently_OneTitleCountingEveryCopy() throws Exception {
+        // Arrange: every registration sees no title for the ISBN yet
+        String isbn = UUID.randomUUID().toString();
+        int registrations = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(registrations);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Book>> registered = new ArrayList<>();
+        try {
+            // Act
+            for (int i = 0; i < registrations; i++) {
+                registered.add(executor.submit(() -> {
+                    start.await();
+                    return bookService.registerBook(newBook(isbn, "Racing Title"));
+                }));
+            }
+            start.countDown();
+
+            // Assert
+            for (Future<Book> book : registered) {
+                assertNotNull(book.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Title title = titleRepository.findById(isbn).orElseThrow();
+        assertEquals(registrations, title.getTotalCopies());
+        assertEquals(registrations, title.getAvailableCopies());
+        assertEquals(registrations, bookRepository.findByIsbn(isbn).size());
+    }
+
+    @Test
+    void backfillCreatesMissingTitles() {
+        // Arrange: copies written straight to the books table, as before titles existed
+        String isbn = UUID.randomUUID().toString();
+        Book borrowed = newBook(isbn, "Legacy Title");
+        borrowed.setBorrower(newBorrower());
+        setTitleConstraintEnforced(false);
+        try {
+            bookRepository.save(borrowed);
+            bookRepository.save(newBook(isbn, "Legacy Title"));
+
+            // Act
+            int created = transactionTemplate.execute(status -> titleRepository.backfillFromBooks());
+            int createdAgain = transactionTemplate.execute(status -> titleRepository.backfillFromBooks());
+
+            // Assert
+            assertTrue(created >= 1);
+            assertEquals(0, createdAgain);
+        } finally {
+            // re-enabling checks every existing row, so this also fails if the backfill missed one
+            setTitleConstraintEnforced(true);
+        }
+
+        Title title = titleRepository.findById(isbn).orElseThrow();
+        assertEquals("Legacy Title", title.getTitle());
+        assertEquals(2, title.getTotalCopies());
+        assertEquals(1, title.getAvailableCopies());
+    }
+
+    private void setTitleConstraintEnforced(boolean enforced) {
+        jdbcTemplate.execute("ALTER TABLE \"books\" SET REFERENTIAL_INTEGRITY " + enforced);
+    }
+
+    private Book newBook(String isbn, String title) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor("Test Author");
+        return book;
+    }
+
+    private Borrower newBorrower() {
+        Borrower borrower = new Borrower();
+        borrower.setName("Counter Tester");
+        borrower.setEmail(UUID.randomUUID() + "@example.com");
+        return borrowerRepository.save(borrower);
+    }
+}
@@ -0,0 +1,64 @@
+-- Schema of the H2 shards of ShardingConfigTest; the other tests let Hibernate create the schema.
+-- Each shard's sequences start in its own ID range, as V3 of the PostgreSQL migrations arranges.
+
+CREATE SEQUENCE books_seq START WITH ${shard_id_base} + 50 INCREMENT BY 50;
+CREATE SEQUENCE borrowers_seq START WITH ${shard_id_base} + 50 INCREMENT BY 50;
+CREATE SEQUENCE import_jobs_seq START WITH ${shard_id_base} + 1 INCREMENT BY 1;
+
+CREATE TABLE borrowers (
+    id bigint NOT NULL,
+    name varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    version bigint DEFAULT 0 NOT NULL,
+    branch varchar(64) DEFAULT 'main' NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_borrowers_email UNIQUE (email)
+);
+
+CREATE TABLE titles (
+    isbn varchar(255) NOT NULL,
+    title varchar(255) NOT NULL,
+    author varchar(255) NOT NULL,
+    total_copies integer NOT NULL,
+    available_copies integer NOT NULL,
+    PRIMARY KEY (isbn)
+);
+
+CREATE TABLE books (
+    id bigint NOT NULL,
+    isbn varchar(255) NOT NULL,
+    title varchar(255) NOT NULL,
+    author varchar(255) NOT NULL,
+    borrower_id bigint,
+    updated_at timestamp(6) with time zone,
+    version bigint DEFAULT 0 NOT NULL,
+    branch varchar(64) DEFAULT 'main' NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_books_title FOREIGN KEY (isbn) REFERENCES titles (isbn),
+    CONSTRAINT fk_books_borrower FOREIGN KEY (borrower_id) REFERENCES borrowers (id)
+);
+
+CREATE INDEX idx_books_isbn_borrower_id ON books (isbn, borrower_id);
+
+CREATE TABLE import_jobs (
+    id bigint NOT NULL,
+    source varchar(1024) NOT NULL,
+    status varchar(255) NOT NULL,
+    records_processed bigint NOT NULL,
+    books_imported bigint NOT NULL,
+    books_rejected bigint NOT NULL,
+    last_error varchar(1024),
+    created_at timestamp(6) with time zone NOT NULL,
+    updated_at timestamp(6) with time zone NOT NULL,
+    finished_at timestamp(6) with time zone,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE loans (
+    book_id bigint NOT NULL,
+    borrowed_at timestamp(6) with time zone NOT NULL,
+    borrower_id bigint NOT NULL,
+    isbn varchar(255) NOT NULL,
+    returned_at timestamp(6) with time zone,
+    PRIMARY KEY (book_id, borrowed_at)
+);